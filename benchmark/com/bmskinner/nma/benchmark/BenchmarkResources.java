@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.benchmark;
+
+import java.io.File;
+import java.util.Arrays;
+
+import com.bmskinner.nma.io.ImageImporter;
+
+/**
+ * Shared settings for benchmarks. Run the benchmarks with the Maven
+ * {@code benchmark} profile:
+ * 
+ * <pre>
+ * mvn -Pbenchmark -DskipTests test
+ * </pre>
+ * 
+ * Results are written as JSON to {@code target/jmh-result.json}. JMH options
+ * such as dataset sizes can be passed with {@code -Dbenchmark.args}, for
+ * example {@code -Dbenchmark.args="-p cellCount=1000 ProfilingBenchmark"}.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class BenchmarkResources {
+
+	/** Seed for synthetic datasets, so runs are comparable */
+	public static final long SEED = 1234;
+
+	private BenchmarkResources() {
+		// static access only
+	}
+
+	/**
+	 * Get the first importable image in a folder
+	 * 
+	 * @param folder the folder
+	 * @return the first image by name
+	 */
+	public static File firstImage(File folder) {
+		File[] files = folder.listFiles();
+		if (files == null)
+			throw new IllegalArgumentException("Not a folder: " + folder.getAbsolutePath());
+		return Arrays.stream(files)
+				.filter(ImageImporter::isFileImportable)
+				.sorted()
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException(
+						"No images in " + folder.getAbsolutePath()));
+	}
+}
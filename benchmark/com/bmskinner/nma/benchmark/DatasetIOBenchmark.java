@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.benchmark;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.analysis.IAnalysisResult;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.rules.RuleSetCollection;
+import com.bmskinner.nma.io.DatasetExportMethod;
+import com.bmskinner.nma.io.DatasetImportMethod;
+
+/**
+ * Benchmarks for saving and reading nmd files of synthetic datasets. The
+ * dataset size is set by the {@code cellCount} parameter.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DatasetIOBenchmark {
+
+	@Param({ "50", "200" })
+	public int cellCount;
+
+	private IAnalysisDataset dataset;
+	private File folder;
+	private File exportFile;
+	private File importFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		dataset = new TestDatasetBuilder(BenchmarkResources.SEED)
+				.ofType(RuleSetCollection.mouseSpermRuleSetCollection())
+				.cellCount(cellCount)
+				.withMaxSizeVariation(10)
+				.segmented()
+				.build();
+
+		folder = Files.createTempDirectory("nma-benchmark").toFile();
+		exportFile = new File(folder, "Export.nmd");
+		importFile = new File(folder, "Import.nmd");
+		new DatasetExportMethod(dataset, importFile).call();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		File[] files = folder.listFiles();
+		if (files != null)
+			for (File f : files)
+				f.delete();
+		folder.delete();
+	}
+
+	@Benchmark
+	public IAnalysisResult export() throws Exception {
+		return new DatasetExportMethod(dataset, exportFile).call();
+	}
+
+	@Benchmark
+	public IAnalysisResult roundTrip() throws Exception {
+		new DatasetExportMethod(dataset, exportFile).call();
+		return new DatasetImportMethod(exportFile).call();
+	}
+
+	@Benchmark
+	public IAnalysisResult read() throws Exception {
+		return new DatasetImportMethod(importFile).call();
+	}
+}
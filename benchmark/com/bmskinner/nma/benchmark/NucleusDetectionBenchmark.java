@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.benchmark;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bmskinner.nma.TestResources;
+import com.bmskinner.nma.analysis.detection.FinderDisplayType;
+import com.bmskinner.nma.analysis.detection.FluorescentNucleusFinder;
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.options.IAnalysisOptions;
+import com.bmskinner.nma.components.options.OptionsFactory;
+
+/**
+ * Benchmarks for nucleus detection in the sample images. The image set is
+ * chosen by the {@code images} parameter.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NucleusDetectionBenchmark {
+
+	@Param({ "Mouse", "Pig", "Round" })
+	public String images;
+
+	private File folder;
+	private FluorescentNucleusFinder pipeline;
+	private FluorescentNucleusFinder preview;
+	private File previewImage;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		folder = new File(TestResources.IMAGE_FOLDER_BASE, images);
+		IAnalysisOptions op = switch (images) {
+		case "Pig" -> OptionsFactory.makeDefaultPigAnalysisOptions(folder);
+		case "Round" -> OptionsFactory.makeDefaultRoundAnalysisOptions(folder);
+		default -> OptionsFactory.makeDefaultRodentAnalysisOptions(folder);
+		};
+		pipeline = new FluorescentNucleusFinder(op, FinderDisplayType.PIPELINE);
+		preview = new FluorescentNucleusFinder(op, FinderDisplayType.PREVIEW);
+		previewImage = BenchmarkResources.firstImage(folder);
+	}
+
+	@Benchmark
+	public Collection<ICell> findInFolder() throws Exception {
+		return pipeline.findInFolder(folder);
+	}
+
+	/**
+	 * Repeat a preview of one image. After the first call the filter stages are
+	 * cached, so this measures the detection and annotation that follow a change
+	 * to the size or shape filters.
+	 */
+	@Benchmark
+	public Collection<ICell> cachedPreview() throws Exception {
+		return preview.findInFile(previewImage);
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.profiles.IProfile;
+import com.bmskinner.nma.components.profiles.ProfileType;
+import com.bmskinner.nma.components.rules.RuleSetCollection;
+
+/**
+ * Benchmarks for finding the best fit offset between two nucleus angle
+ * profiles. The profiles are interpolated to the length set by the
+ * {@code profileLength} parameter.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProfileOffsetBenchmark {
+
+	@Param({ "100", "1000" })
+	public int profileLength;
+
+	private IProfile template;
+	private IProfile target;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		IAnalysisDataset d = new TestDatasetBuilder(BenchmarkResources.SEED)
+				.ofType(RuleSetCollection.mouseSpermRuleSetCollection())
+				.cellCount(2)
+				.withMaxSizeVariation(10)
+				.randomOffsetProfiles(true)
+				.profiled()
+				.build();
+		Nucleus[] nuclei = d.getCollection().getNuclei().toArray(new Nucleus[0]);
+		template = nuclei[0].getProfile(ProfileType.ANGLE).interpolate(profileLength);
+		target = nuclei[1].getProfile(ProfileType.ANGLE).interpolate(profileLength);
+	}
+
+	@Benchmark
+	public int findBestFitOffset() throws Exception {
+		return template.findBestFitOffset(target);
+	}
+}
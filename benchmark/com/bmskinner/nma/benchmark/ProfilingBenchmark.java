@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.analysis.IAnalysisResult;
+import com.bmskinner.nma.analysis.nucleus.ConsensusAveragingMethod;
+import com.bmskinner.nma.analysis.profiles.DatasetProfilingMethod;
+import com.bmskinner.nma.analysis.profiles.DatasetSegmentationMethod;
+import com.bmskinner.nma.analysis.profiles.DatasetSegmentationMethod.MorphologyAnalysisMode;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.rules.RuleSetCollection;
+
+/**
+ * Benchmarks for the profiling, segmentation and consensus methods on
+ * synthetic datasets. The dataset size is set by the {@code cellCount}
+ * parameter.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProfilingBenchmark {
+
+	@Param({ "50", "200" })
+	public int cellCount;
+
+	private IAnalysisDataset unprofiled;
+	private IAnalysisDataset profiled;
+	private IAnalysisDataset segmented;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		unprofiled = dataset().build();
+		profiled = dataset().profiled().build();
+		segmented = dataset().segmented().build();
+	}
+
+	private TestDatasetBuilder dataset() {
+		return new TestDatasetBuilder(BenchmarkResources.SEED)
+				.ofType(RuleSetCollection.mouseSpermRuleSetCollection())
+				.cellCount(cellCount)
+				.withMaxSizeVariation(10)
+				.randomOffsetProfiles(true);
+	}
+
+	@Benchmark
+	public IAnalysisResult profiling() throws Exception {
+		return new DatasetProfilingMethod(unprofiled).call();
+	}
+
+	@Benchmark
+	public IAnalysisResult segmentation() throws Exception {
+		return new DatasetSegmentationMethod(profiled, MorphologyAnalysisMode.SEGMENT_FROM_SCRATCH)
+				.call();
+	}
+
+	@Benchmark
+	public IAnalysisResult consensusAveraging() throws Exception {
+		return new ConsensusAveragingMethod(segmented).call();
+	}
+}
@@ -19,10 +19,14 @@ package com.bmskinner.nma.analysis;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.core.CancellationToken;
+import com.bmskinner.nma.logging.AnalysisMethodEvent;
 import com.bmskinner.nma.logging.Loggable;
 
 /**
@@ -50,6 +54,12 @@ public abstract class AbstractAnalysisMethod
 	private List<Object> listeners = new ArrayList<>();
 	protected IAnalysisResult result = null;
 
+	/** Cancelled when this method is cancelled, from whichever thread */
+	private final CancellationToken token = new CancellationToken();
+
+	/** The token of the task this method was called under */
+	private volatile CancellationToken taskToken = CancellationToken.NONE;
+
 	protected AbstractAnalysisMethod() {
 	}
 
@@ -65,18 +75,56 @@ public abstract class AbstractAnalysisMethod
 
 	@Override
 	public IAnalysisMethod then(@NonNull final IAnalysisMethod nextMethod) throws Exception {
-		call();
+		callRecorded(this);
 		return nextMethod;
 	}
 
 	@Override
 	public IAnalysisMethod thenIf(boolean b, @NonNull IAnalysisMethod nextMethod) throws Exception {
-		call();
+		callRecorded(this);
 		if (b)
 			return nextMethod;
 		return this;
 	}
 
+	/**
+	 * Call the given method, recording an {@link AnalysisMethodEvent} if a flight
+	 * recording is running. Workers and pipelines should run methods through this
+	 * so their timings appear in recordings, and so cancelling the method also
+	 * cancels the task it runs under.
+	 * 
+	 * @param method the method to call
+	 * @return the result of the method
+	 * @throws Exception if the method fails
+	 */
+	public static IAnalysisResult callRecorded(@NonNull final IAnalysisMethod method)
+			throws Exception {
+		AnalysisMethodEvent event = new AnalysisMethodEvent();
+		event.begin();
+		IAnalysisResult r = null;
+		if (method instanceof AbstractAnalysisMethod m)
+			m.taskToken = CancellationToken.current();
+		try {
+			r = method.call();
+			return r;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.method = method.getClass().getSimpleName();
+				event.succeeded = r != null;
+				if (r != null && r.getDatasets() != null) {
+					for (IAnalysisDataset d : r.getDatasets()) {
+						if (d == null)
+							continue;
+						event.datasets++;
+						event.cells += d.getCollection().size();
+					}
+				}
+				event.commit();
+			}
+		}
+	}
+
 	/**
 	 * Update the total number of steps in the task, and alert progress listeners.
 	 * For example, can set progress bar lengths
@@ -132,6 +180,42 @@ public abstract class AbstractAnalysisMethod
 		fireProgressEvent(event); // pass upwards
 	}
 
+	/**
+	 * Cancel this method and the task it was called under. This may be called from
+	 * any thread, including the event dispatch thread, so it does not use the
+	 * token of the calling thread.
+	 */
+	@Override
+	public void cancel() {
+		token.cancel();
+		taskToken.cancel();
+	}
+
+	/**
+	 * Test if this method or the task running it has been cancelled. Long running
+	 * loops should check this periodically and exit early if true.
+	 * 
+	 * @return true if the method or task has been cancelled or the thread
+	 *         interrupted
+	 */
+	protected boolean isCancelled() {
+		return token.isCancelled() || taskToken.isCancelled()
+				|| CancellationToken.current().isCancelled()
+				|| Thread.currentThread().isInterrupted();
+	}
+
+	/**
+	 * Stop the method if the task running it has been cancelled. Per-cell loops
+	 * should call this once per iteration.
+	 * 
+	 * @throws CancellationException if the task has been cancelled or the thread
+	 *                               interrupted
+	 */
+	protected void throwIfCancelled() {
+		if (isCancelled())
+			throw new CancellationException("Analysis was cancelled");
+	}
+
 	/**
 	 * Fire a progress event, then sleep for the given number of milliseconds.
 	 * Repeat for the given number of steps.
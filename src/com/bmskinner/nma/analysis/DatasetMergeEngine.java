@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.analysis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.bmskinner.nma.components.MissingDataException;
+import com.bmskinner.nma.components.cells.ComponentCreationException;
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.datasets.ICellCollection;
+import com.bmskinner.nma.components.profiles.DefaultProfileSegment;
+import com.bmskinner.nma.components.profiles.IProfileCollection;
+import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
+import com.bmskinner.nma.components.signals.INuclearSignal;
+import com.bmskinner.nma.components.signals.ISignalCollection;
+import com.bmskinner.nma.components.signals.ISignalGroup;
+
+/**
+ * Adds cells from source datasets to a merged collection. The IDs of cells
+ * already in the merged collection are indexed once, so each cell is checked
+ * and copied a single time however many sources are added. Signals are copied
+ * into merged signal groups through a lookup from source signal group to
+ * merged groups, so each nucleus is visited once rather than once per signal
+ * group.
+ * <p>
+ * The merged collection may be new, or the collection of an earlier merge.
+ * Adding a source to an earlier merge only copies the cells of that source.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class DatasetMergeEngine {
+
+	private final ICellCollection collection;
+
+	/** The IDs of cells in the merged collection */
+	private final Set<UUID> cellIds;
+
+	/** The merged signal groups that each source signal group is copied to */
+	private final Map<UUID, Set<UUID>> signalTargets = new HashMap<>();
+
+	/**
+	 * Create an engine adding cells to the given collection
+	 * 
+	 * @param collection the merged collection. This may already contain cells.
+	 */
+	public DatasetMergeEngine(@NonNull ICellCollection collection) {
+		this.collection = collection;
+		cellIds = new HashSet<>(collection.getCellIDs());
+	}
+
+	/**
+	 * @return the merged collection
+	 */
+	public ICellCollection getCollection() {
+		return collection;
+	}
+
+	/**
+	 * Copy signals in a source signal group into a merged signal group. The merged
+	 * group is added to the collection if not already present. Signals of cells
+	 * already in the collection are copied immediately; those of cells added
+	 * later are copied as the cells are added.
+	 * 
+	 * @param sourceGroup the id of the signal group in the source nuclei
+	 * @param mergedGroup the signal group to copy signals into
+	 */
+	public void mapSignalGroup(@NonNull UUID sourceGroup, @NonNull ISignalGroup mergedGroup) {
+		if (!collection.hasSignalGroup(mergedGroup.getId()))
+			collection.addSignalGroup(mergedGroup);
+
+		if (sourceGroup.equals(mergedGroup.getId()))
+			return;
+
+		if (!signalTargets.computeIfAbsent(sourceGroup, k -> new HashSet<>())
+				.add(mergedGroup.getId()))
+			return;
+
+		for (Nucleus n : collection.getNuclei())
+			copySignals(n.getSignalCollection(), sourceGroup, mergedGroup.getId());
+	}
+
+	/**
+	 * Add copies of the given cells that are not already in the merged
+	 * collection. The segments of the added nuclei are replaced with a single
+	 * segment starting at the reference point, since segmentation patterns may
+	 * differ between sources.
+	 * 
+	 * @param cells the cells to add
+	 * @return the number of cells added
+	 * @throws ComponentCreationException if a cell cannot be copied
+	 * @throws MissingDataException       if a nucleus has no reference point
+	 * @throws SegmentUpdateException     if the segments cannot be reset
+	 */
+	public int add(@NonNull Collection<ICell> cells)
+			throws ComponentCreationException, MissingDataException, SegmentUpdateException {
+		List<ICell> added = new ArrayList<>(cells.size());
+		for (ICell c : cells) {
+			if (!cellIds.add(c.getId()))
+				continue;
+
+			ICell copy = c.duplicate();
+			for (Nucleus n : copy.getNuclei()) {
+				n.setSegments(List.of(new DefaultProfileSegment(0, 0, n.getBorderLength(),
+						IProfileCollection.DEFAULT_SEGMENT_ID)));
+				copySignals(n.getSignalCollection());
+			}
+			added.add(copy);
+		}
+		collection.addAll(added);
+		return added.size();
+	}
+
+	/**
+	 * Add copies of the cells in a source collection that are not already in the
+	 * merged collection
+	 * 
+	 * @param source the collection to add
+	 * @return the number of cells added
+	 * @throws ComponentCreationException if a cell cannot be copied
+	 * @throws MissingDataException       if a nucleus has no reference point
+	 * @throws SegmentUpdateException     if the segments cannot be reset
+	 * @see #add(Collection)
+	 */
+	public int add(@NonNull ICellCollection source)
+			throws ComponentCreationException, MissingDataException, SegmentUpdateException {
+		return add(source.getCells());
+	}
+
+	/**
+	 * Copy signals in mapped source groups into their merged groups
+	 * 
+	 * @param signals the signals of a nucleus
+	 */
+	private void copySignals(ISignalCollection signals) {
+		if (signalTargets.isEmpty())
+			return;
+
+		for (UUID sourceGroup : List.copyOf(signals.getSignalGroupIds())) {
+			Set<UUID> targets = signalTargets.get(sourceGroup);
+			if (targets == null)
+				continue;
+			for (UUID target : targets)
+				copySignals(signals, sourceGroup, target);
+		}
+	}
+
+	private static void copySignals(ISignalCollection signals, UUID sourceGroup,
+			UUID mergedGroup) {
+		for (INuclearSignal s : List.copyOf(signals.getSignals(sourceGroup)))
+			signals.addSignal(s.duplicate(), mergedGroup);
+	}
+}
@@ -17,22 +17,26 @@
 package com.bmskinner.nma.analysis;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 
-import com.bmskinner.nma.analysis.nucleus.CellCollectionFilterer;
+import com.bmskinner.nma.analysis.nucleus.CellSetAlgebra;
 import com.bmskinner.nma.analysis.signals.PairedSignalGroups;
 import com.bmskinner.nma.analysis.signals.PairedSignalGroups.DatasetSignalId;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
-import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.datasets.DefaultAnalysisDataset;
+import com.bmskinner.nma.components.datasets.DefaultCellCollection;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
 import com.bmskinner.nma.components.datasets.ICellCollection;
 import com.bmskinner.nma.components.options.HashOptions;
@@ -40,19 +44,16 @@ import com.bmskinner.nma.components.options.IAnalysisOptions;
 import com.bmskinner.nma.components.options.MissingOptionException;
 import com.bmskinner.nma.components.options.OptionsBuilder;
 import com.bmskinner.nma.components.options.OptionsFactory;
-import com.bmskinner.nma.components.profiles.DefaultProfileSegment;
-import com.bmskinner.nma.components.profiles.IProfileCollection;
 import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
-import com.bmskinner.nma.components.profiles.MissingProfileException;
-import com.bmskinner.nma.components.profiles.ProfileException;
 import com.bmskinner.nma.components.rules.RuleSetCollection;
 import com.bmskinner.nma.components.signals.DefaultSignalGroup;
-import com.bmskinner.nma.components.signals.INuclearSignal;
+import com.bmskinner.nma.components.signals.ISignalGroup;
 import com.bmskinner.nma.gui.dialogs.DatasetArithmeticSetupDialog.BooleanOperation;
 import com.bmskinner.nma.io.Io;
 
 /**
- * Merge multiple datasets into a single dataset
+ * Merge multiple datasets into a single dataset, or add datasets to an
+ * existing merged dataset
  * 
  * @author bms41
  *
@@ -66,8 +67,14 @@ public class DatasetMergeMethod extends MultipleDatasetAnalysisMethod {
 	/** Describe which signal groups will be merged */
 	private PairedSignalGroups pairedSignalGroups = null;
 
+	/** The merged signal group ids for each set of paired signal groups */
+	private final Map<UUID, UUID> mergedSignalGroupIds = new HashMap<>();
+
 	private final BooleanOperation operation;
 
+	/** An existing merged dataset to add the datasets to */
+	private final IAnalysisDataset existingMerge;
+
 	private static final int MAX_PROGRESS = 50;
 	private static final int MILLISECONDS_TO_SLEEP = 10;
 
@@ -102,11 +109,34 @@ public class DatasetMergeMethod extends MultipleDatasetAnalysisMethod {
 		this.saveFile = saveFile;
 		this.pairedSignalGroups = pairedSignalGroups;
 		this.operation = operation;
+		this.existingMerge = null;
+	}
+
+	/**
+	 * Create a merger adding datasets to an existing merged dataset. The merged
+	 * dataset is updated in place; only the cells of the new datasets are copied.
+	 * As with a new merge, the merged dataset should be profiled and segmented
+	 * again afterwards.
+	 * 
+	 * @param merged             the merged dataset to add to
+	 * @param datasets           the datasets to add
+	 * @param pairedSignalGroups the signal groups which are to be merged. Signals
+	 *                           paired with a signal group of the merged dataset
+	 *                           are added to that group. Can be null.
+	 */
+	public DatasetMergeMethod(@NonNull IAnalysisDataset merged,
+			@NonNull List<IAnalysisDataset> datasets,
+			@Nullable PairedSignalGroups pairedSignalGroups) {
+		super(datasets);
+		this.saveFile = merged.getSavePath();
+		this.pairedSignalGroups = pairedSignalGroups;
+		this.operation = BooleanOperation.OR;
+		this.existingMerge = merged;
 	}
 
 	@Override
 	public IAnalysisResult call() throws Exception {
-		IAnalysisDataset merged = run();
+		IAnalysisDataset merged = existingMerge == null ? run() : append();
 		return new DefaultAnalysisResult(merged);
 	}
 
@@ -119,12 +149,15 @@ public class DatasetMergeMethod extends MultipleDatasetAnalysisMethod {
 		saveFile = checkName(saveFile).getAbsoluteFile();
 		String newDatasetName = saveFile.getName().replace(Io.NMD_FILE_EXTENSION, "");
 
-		IAnalysisDataset newDataset = switch (operation) {
-		case AND -> performAnd(newDatasetName);
-		case NOT -> performNot(newDatasetName);
+		List<ICellCollection> collections = datasets.stream().map(IAnalysisDataset::getCollection)
+				.toList();
+		CellSetAlgebra cells = new CellSetAlgebra(collections);
 
-		case XOR -> performXor(newDatasetName);
-		case OR -> performOr(newDatasetName);
+		IAnalysisDataset newDataset = switch (operation) {
+		case AND -> buildDataset(newDatasetName, cells.intersection());
+		case NOT -> buildDataset("NOT operation", cells.difference());
+		case XOR -> buildDataset("XOR operation", cells.exclusive());
+		case OR -> performOr(newDatasetName, cells.union());
 		};
 
 		spinWheels(MAX_PROGRESS, MILLISECONDS_TO_SLEEP);
@@ -133,27 +166,72 @@ public class DatasetMergeMethod extends MultipleDatasetAnalysisMethod {
 	}
 
 	/**
-	 * Given a new collection of merged cells, ensure signal groups and options have
-	 * been applied, and segments are reset.
+	 * Add the datasets to the existing merged dataset
 	 * 
-	 * @param newCollection
+	 * @return the updated merged dataset
+	 * @throws Exception
+	 */
+	private IAnalysisDataset append() throws Exception {
+		RuleSetCollection rsc = existingMerge.getCollection().getRuleSetCollection();
+		for (IAnalysisDataset d : datasets) {
+			if (!d.getCollection().getRuleSetCollection().equals(rsc)) {
+				LOGGER.warning("Cannot merge datasets with different rulesets");
+				return null;
+			}
+		}
+
+		DatasetMergeEngine engine = new DatasetMergeEngine(existingMerge.getCollection());
+		mergeSignalGroups(engine);
+
+		for (IAnalysisDataset d : datasets) {
+			if (existingMerge.hasMergeSource(d)) {
+				LOGGER.warning(() -> "%s is already merged".formatted(d.getName()));
+				continue;
+			}
+			int added = engine.add(d.getCollection());
+			existingMerge.addMergeSource(d);
+			LOGGER.fine(() -> "Added %d cells from %s".formatted(added, d.getName()));
+		}
+
+		// Keep the nucleus options shared by the earlier and new datasets
+		IAnalysisOptions options = existingMerge.getAnalysisOptions()
+				.orElseThrow(MissingOptionException::new);
+		HashOptions nOptions = new OptionsBuilder().build();
+		mergeOptions(nOptions, options.getNucleusDetectionOptions()
+				.orElseThrow(MissingOptionException::new));
+		options.setDetectionOptions(CellularComponent.NUCLEUS, nOptions);
+
+		mergeSignalOptions(existingMerge);
+
+		spinWheels(MAX_PROGRESS, MILLISECONDS_TO_SLEEP);
+
+		return existingMerge;
+	}
+
+	/**
+	 * Given the cells chosen for the new dataset, copy them into a new collection
+	 * with signal groups merged and segments reset, and apply merged options.
+	 * 
+	 * @param collectionName the name of the new collection
+	 * @param cells          the cells to copy
 	 * @return a new dataset containing the cell collection
-	 * @throws ProfileException
+	 * @throws ComponentCreationException
 	 * @throws SegmentUpdateException
 	 * @throws MissingDataException
 	 */
-	private IAnalysisDataset buildDataset(ICellCollection newCollection)
-			throws MissingDataException, SegmentUpdateException {
-
-		for (Nucleus n : newCollection.getNuclei()) {
-			// Ensure that all nuclei have any existing segments removed
-			// and replaced with the default segment starting at the RP
-			n.setSegments(List.of(new DefaultProfileSegment(0, 0, n.getBorderLength(),
-					IProfileCollection.DEFAULT_SEGMENT_ID)));
-		}
+	private IAnalysisDataset buildDataset(@NonNull String collectionName,
+			@NonNull List<ICell> cells)
+			throws ComponentCreationException, MissingDataException, SegmentUpdateException {
+
+		ICellCollection newCollection = new DefaultCellCollection(
+				datasets.get(0).getCollection().getRuleSetCollection(), collectionName,
+				UUID.randomUUID());
 
-		// Replace signal groups
-		mergeSignalGroups(newCollection);
+		// Signal groups are mapped before the cells are added, so signals are copied
+		// as each cell is copied
+		DatasetMergeEngine engine = new DatasetMergeEngine(newCollection);
+		mergeSignalGroups(engine);
+		engine.add(cells);
 
 		// create the dataset; has no analysis options at present
 		IAnalysisDataset newDataset = new DefaultAnalysisDataset(newCollection, saveFile);
@@ -198,65 +276,22 @@ public class DatasetMergeMethod extends MultipleDatasetAnalysisMethod {
 		return true;
 	}
 
-	private IAnalysisDataset performAnd(@NonNull String newDatasetName)
-			throws ProfileException, ComponentCreationException, MissingDataException,
-			SegmentUpdateException {
-
-		List<ICellCollection> collections = datasets.stream().map(IAnalysisDataset::getCollection)
-				.toList();
-
-		ICellCollection newCollection = CellCollectionFilterer.and(collections);
-		newCollection.setName(newDatasetName);
-
-		return buildDataset(newCollection);
-	}
-
-	private IAnalysisDataset performNot(@NonNull String newDatasetName)
-			throws ComponentCreationException, MissingDataException,
-			SegmentUpdateException {
-		List<ICellCollection> collections = datasets.stream().map(IAnalysisDataset::getCollection)
-				.toList();
-
-		ICellCollection newCollection = CellCollectionFilterer.not(collections);
-
-		return buildDataset(newCollection);
-	}
-
-	private IAnalysisDataset performXor(@NonNull String newDatasetName)
-			throws ComponentCreationException, MissingDataException,
-			SegmentUpdateException {
-		List<ICellCollection> collections = datasets.stream().map(IAnalysisDataset::getCollection)
-				.toList();
-
-		ICellCollection newCollection = CellCollectionFilterer.xor(collections);
-
-		return buildDataset(newCollection);
-	}
-
 	/**
-	 * Merge the given datasets, copying each cell into the new collection and
+	 * Merge the given datasets, copying each cell into the new collection once and
 	 * removing existing segmentation patterns. We can't keep segments because they
 	 * may differ between the input datasets.
 	 * 
-	 * @param newCollection the new collection to copy cells into
+	 * @param newDatasetName the name of the new dataset
+	 * @param cells          the cells in any of the datasets
 	 * @return the merged dataset
-	 * @throws MissingProfileException
-	 * @throws ProfileException
 	 * @throws ComponentCreationException
 	 * @throws SegmentUpdateException
 	 * @throws MissingDataException
 	 */
-	private IAnalysisDataset performOr(@NonNull String newDatasetName)
-			throws ComponentCreationException, MissingDataException,
-			SegmentUpdateException {
-
-		List<ICellCollection> collections = datasets.stream().map(IAnalysisDataset::getCollection)
-				.toList();
+	private IAnalysisDataset performOr(@NonNull String newDatasetName, @NonNull List<ICell> cells)
+			throws ComponentCreationException, MissingDataException, SegmentUpdateException {
 
-		ICellCollection newCollection = CellCollectionFilterer.or(collections);
-		newCollection.setName(newDatasetName);
-
-		IAnalysisDataset newDataset = buildDataset(newCollection);
+		IAnalysisDataset newDataset = buildDataset(newDatasetName, cells);
 
 		// Add the original datasets as merge sources
 		for (IAnalysisDataset d : datasets) {
@@ -303,21 +338,33 @@ public class DatasetMergeMethod extends MultipleDatasetAnalysisMethod {
 			return;
 
 		// For each set of mergeable signals, make a new signal group
-		for (UUID newSignalId : pairedSignalGroups.getMergedSignalGroups()) {
+		for (UUID pairId : pairedSignalGroups.getMergedSignalGroups()) {
 
+			UUID newSignalId = mergedSignalGroupIds.get(pairId);
 			HashOptions mergedOptions = new OptionsBuilder().build();
 
 			// Get the first signal options
-			List<DatasetSignalId> ids = pairedSignalGroups.get(newSignalId);
+			List<DatasetSignalId> ids = pairedSignalGroups.get(pairId);
 			HashOptions template = ids.get(0).datasetId().getAnalysisOptions()
 					.orElseThrow(MissingOptionException::new)
 					.getNuclearSignalOptions(ids.get(0).signalId().getId())
 					.orElseThrow(MissingOptionException::new);
 
-			// Add the original signal ids to the options so we can extradct later
-			for (DatasetSignalId d : pairedSignalGroups.get(newSignalId)) {
-				mergedOptions.setUUID(HashOptions.ORIGINAL_SIGNAL_PREFIX + d.datasetId().getId(),
-						d.signalId().getId());
+			// Add the original signal ids to the options so we can extradct later. A
+			// group already in the merged dataset has the ids of earlier sources.
+			for (DatasetSignalId d : ids) {
+				if (d.signalId().getId().equals(newSignalId)) {
+					HashOptions existing = d.datasetId().getAnalysisOptions()
+							.orElseThrow(MissingOptionException::new)
+							.getNuclearSignalOptions(newSignalId)
+							.orElseThrow(MissingOptionException::new);
+					for (String s : existing.getKeys())
+						if (s.startsWith(HashOptions.ORIGINAL_SIGNAL_PREFIX))
+							mergedOptions.set(s, existing.getValue(s));
+				} else
+					mergedOptions.setUUID(
+							HashOptions.ORIGINAL_SIGNAL_PREFIX + d.datasetId().getId(),
+							d.signalId().getId());
 			}
 
 			// Check every key in the options. If any are the same across all signaal
@@ -325,7 +372,7 @@ public class DatasetMergeMethod extends MultipleDatasetAnalysisMethod {
 			for (String s : template.getKeys()) {
 				Object result = template.getValue(s);
 				boolean canAdd = true;
-				for (DatasetSignalId d : pairedSignalGroups.get(newSignalId)) {
+				for (DatasetSignalId d : ids) {
 					IAnalysisOptions dOptions = d.datasetId().getAnalysisOptions()
 							.orElseThrow(MissingOptionException::new);
 					HashOptions nOptions = dOptions.getNuclearSignalOptions(d.signalId().getId())
@@ -368,42 +415,40 @@ public class DatasetMergeMethod extends MultipleDatasetAnalysisMethod {
 	}
 
 	/**
-	 * Merge any signal groups in the new collection, as described by the paired
-	 * signal groups map
+	 * Map the paired signal groups to merged signal groups in the engine. Pairs
+	 * including a signal group of an existing merged dataset are added to that
+	 * group; other pairs are given a new signal group.
 	 * 
-	 * @param newCollection
+	 * @param engine the engine building the merged collection
 	 */
-	private void mergeSignalGroups(ICellCollection newCollection) {
+	private void mergeSignalGroups(DatasetMergeEngine engine) {
 		if (pairedSignalGroups == null || pairedSignalGroups.isEmpty()) {
 			LOGGER.finer("No signal groups to merge");
 			return;
 		}
 
-		// For each set of mergeable signals, make a new signal group
-		for (UUID newSignalId : pairedSignalGroups.getMergedSignalGroups()) {
-
-			List<DatasetSignalId> ids = pairedSignalGroups.get(newSignalId);
+		for (UUID pairId : pairedSignalGroups.getMergedSignalGroups()) {
 
-			// Create merged group name
-			String newName = ids.stream().map(i -> i.signalId().getGroupName())
-					.collect(Collectors.joining("_")) + "_merged";
+			List<DatasetSignalId> ids = pairedSignalGroups.get(pairId);
 
-			DefaultSignalGroup newGroup = new DefaultSignalGroup(newName, newSignalId);
+			ISignalGroup mergedGroup = ids.stream()
+					.filter(i -> existingMerge != null
+							&& i.datasetId().getId().equals(existingMerge.getId()))
+					.map(DatasetSignalId::signalId)
+					.filter(s -> engine.getCollection().hasSignalGroup(s.getId()))
+					.findFirst().orElse(null);
 
-			// Duplicate the signals into the new signal group
-			newCollection.addSignalGroup(newGroup);
-			for (Nucleus n : newCollection.getNuclei()) {
-				for (DatasetSignalId id : ids) {
-					List<INuclearSignal> signals = n.getSignalCollection()
-							.getSignals(id.signalId().getId());
-					for (INuclearSignal s : signals) {
-						n.getSignalCollection().addSignal(s.duplicate(), newSignalId);
-					}
-				}
+			if (mergedGroup == null) {
+				// Create merged group name
+				String newName = ids.stream().map(i -> i.signalId().getGroupName())
+						.collect(Collectors.joining("_")) + "_merged";
+				mergedGroup = new DefaultSignalGroup(newName, pairId);
 			}
 
+			mergedSignalGroupIds.put(pairId, mergedGroup.getId());
+			for (DatasetSignalId id : ids)
+				engine.mapSignalGroup(id.signalId().getId(), mergedGroup);
 		}
-
 	}
 
 	/**
@@ -17,6 +17,7 @@
 package com.bmskinner.nma.analysis;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Logger;
 
@@ -73,7 +74,7 @@ public class DefaultAnalysisWorker extends SwingWorker<IAnalysisResult, Long>
 		fireIndeterminate();
 
 		// do the analysis and wait for the result
-		return method.call();
+		return AbstractAnalysisMethod.callRecorded(method);
 	}
 
 	@Override
@@ -135,7 +136,15 @@ public class DefaultAnalysisWorker extends SwingWorker<IAnalysisResult, Long>
 			LOGGER.log(Loggable.STACK, "Interruption to swing worker", e);
 			firePropertyChange(ERROR_PROPERTY, getProgress(), IAnalysisWorker.ERROR);
 			Thread.currentThread().interrupt();
+		} catch (CancellationException e) {
+			LOGGER.info("Task was cancelled");
+			firePropertyChange(ERROR_PROPERTY, getProgress(), IAnalysisWorker.ERROR);
 		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CancellationException) {
+				LOGGER.info("Task was cancelled");
+				firePropertyChange(ERROR_PROPERTY, getProgress(), IAnalysisWorker.ERROR);
+				return;
+			}
 			LOGGER.warning("Error completing task: " + e.getCause().getMessage());
 			LOGGER.log(Loggable.STACK, "Analysis worker failed", e.getCause());
 			firePropertyChange(ERROR_PROPERTY, getProgress(), IAnalysisWorker.ERROR);
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.analysis;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.bmskinner.nma.components.MissingDataException;
+import com.bmskinner.nma.components.cells.ComponentCreationException;
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.datasets.ICellCollection;
+import com.bmskinner.nma.components.measure.Measurement;
+import com.bmskinner.nma.components.measure.MeasurementScale;
+import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
+import com.bmskinner.nma.stats.QuickSelect;
+
+/**
+ * Repeatedly splits the cells of a collection into two random disjoint subsets
+ * and compares the median nuclear measurement of each subset. The measurement
+ * values are extracted into primitive arrays once, so each iteration only
+ * draws cell indexes and selects medians in place. Iterations are divided into
+ * fixed blocks, each with its own generator split from a seeded root, so the
+ * results for a given seed are the same however many threads are used.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class MedianResampler {
+
+	/** Iterations per block of work sharing a generator and scratch arrays */
+	private static final int BLOCK_SIZE = 64;
+
+	/** The measurement values for all nuclei, grouped by cell */
+	private final double[] values;
+
+	/** The index in {@link #values} of the first nucleus of each cell */
+	private final int[] cellStart;
+
+	/**
+	 * Create from measurement values grouped by cell
+	 * 
+	 * @param cellValues the nuclear measurement values for each cell
+	 */
+	public MedianResampler(double[][] cellValues) {
+		cellStart = new int[cellValues.length + 1];
+		for (int i = 0; i < cellValues.length; i++)
+			cellStart[i + 1] = cellStart[i] + cellValues[i].length;
+
+		values = new double[cellStart[cellValues.length]];
+		for (int i = 0; i < cellValues.length; i++)
+			System.arraycopy(cellValues[i], 0, values, cellStart[i], cellValues[i].length);
+	}
+
+	/**
+	 * Extract the given nuclear measurement from each cell in a collection
+	 * 
+	 * @param collection the collection
+	 * @param stat       the measurement
+	 * @param scale      the measurement scale
+	 * @return a resampler for the measurement values
+	 * @throws MissingDataException
+	 * @throws SegmentUpdateException
+	 * @throws ComponentCreationException
+	 */
+	public static MedianResampler of(@NonNull ICellCollection collection,
+			@NonNull Measurement stat, @NonNull MeasurementScale scale)
+			throws MissingDataException, SegmentUpdateException, ComponentCreationException {
+		List<ICell> cells = collection.getCells();
+		double[][] cellValues = new double[cells.size()][];
+		for (int i = 0; i < cellValues.length; i++) {
+			List<Nucleus> nuclei = cells.get(i).getNuclei();
+			cellValues[i] = new double[nuclei.size()];
+			for (int j = 0; j < nuclei.size(); j++)
+				cellValues[i][j] = nuclei.get(j).getMeasurement(stat, scale);
+		}
+		return new MedianResampler(cellValues);
+	}
+
+	/**
+	 * Get the number of cells available for sampling
+	 * 
+	 * @return
+	 */
+	public int cellCount() {
+		return cellStart.length - 1;
+	}
+
+	/**
+	 * Draw random disjoint subsets of cells and find the ratio of the median
+	 * measurement of the second subset to the first. If a subset is empty its
+	 * median is taken as zero, matching the median of an empty collection.
+	 * 
+	 * @param iterations the number of samples to draw
+	 * @param first      the number of cells in the first subset
+	 * @param second     the number of cells in the second subset
+	 * @param seed       the seed for the random number generator
+	 * @param onBlockEnd called with the number of iterations in each block as it
+	 *                   completes. May be called from multiple threads.
+	 * @return the ratio for each iteration
+	 */
+	public double[] sampleMedianRatios(int iterations, int first, int second, long seed,
+			@NonNull IntConsumer onBlockEnd) {
+		if (first < 0 || second < 0 || first + second > cellCount())
+			throw new IllegalArgumentException(
+					"Cannot sample %d and %d cells from %d".formatted(first, second,
+							cellCount()));
+
+		double[] result = new double[iterations];
+		int nBlocks = (iterations + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+		// Split generators in a fixed order so results do not depend on threading
+		SplittableRandom root = new SplittableRandom(seed);
+		SplittableRandom[] rngs = new SplittableRandom[nBlocks];
+		for (int b = 0; b < nBlocks; b++)
+			rngs[b] = root.split();
+
+		IntStream.range(0, nBlocks).parallel().forEach(b -> {
+			int start = b * BLOCK_SIZE;
+			int end = Math.min(iterations, start + BLOCK_SIZE);
+			sampleBlock(result, start, end, first, second, rngs[b]);
+			onBlockEnd.accept(end - start);
+		});
+		return result;
+	}
+
+	private void sampleBlock(double[] result, int start, int end, int first, int second,
+			SplittableRandom rng) {
+		int nCells = cellCount();
+		int[] order = IntStream.range(0, nCells).toArray();
+		double[] work = new double[values.length];
+
+		for (int i = start; i < end; i++) {
+			// Partial Fisher-Yates shuffle of just the cells we need. Any starting
+			// order gives a uniformly random prefix, so the array is not reset.
+			for (int j = 0; j < first + second; j++) {
+				int k = j + rng.nextInt(nCells - j);
+				int t = order[j];
+				order[j] = order[k];
+				order[k] = t;
+			}
+
+			double value1 = median(order, 0, first, work);
+			double value2 = median(order, first, first + second, work);
+			result[i] = value2 / value1;
+		}
+	}
+
+	/**
+	 * Find the median value of the nuclei in the given range of cells
+	 * 
+	 * @param order the cell indexes
+	 * @param from  the first index in the order, inclusive
+	 * @param to    the last index in the order, exclusive
+	 * @param work  a scratch array for the values
+	 * @return the median value
+	 */
+	private double median(int[] order, int from, int to, double[] work) {
+		int n = 0;
+		for (int i = from; i < to; i++) {
+			int cell = order[i];
+			int len = cellStart[cell + 1] - cellStart[cell];
+			System.arraycopy(values, cellStart[cell], work, n, len);
+			n += len;
+		}
+		return n == 0 ? 0 : QuickSelect.median(work, n);
+	}
+}
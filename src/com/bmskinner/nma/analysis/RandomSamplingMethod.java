@@ -19,6 +19,8 @@ package com.bmskinner.nma.analysis;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import com.bmskinner.nma.components.MissingDataException;
@@ -31,6 +33,14 @@ import com.bmskinner.nma.components.measure.Measurement;
 import com.bmskinner.nma.components.measure.MeasurementScale;
 import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
 
+/**
+ * Test how the median of a measurement varies between random subsets of a
+ * dataset. Each iteration splits the cells into two random subsets and records
+ * the ratio of their medians.
+ * 
+ * @author ben
+ *
+ */
 public class RandomSamplingMethod extends SingleDatasetAnalysisMethod {
 
 	private static final Logger LOGGER = Logger.getLogger(RandomSamplingMethod.class.getName());
@@ -45,6 +55,9 @@ public class RandomSamplingMethod extends SingleDatasetAnalysisMethod {
 	// the number of cells in the second subset
 	private int second;
 
+	// the seed for the random sampling
+	private long seed;
+
 	/**
 	 * Constructor
 	 * 
@@ -56,12 +69,27 @@ public class RandomSamplingMethod extends SingleDatasetAnalysisMethod {
 	 */
 	public RandomSamplingMethod(IAnalysisDataset dataset, Measurement stat, int iterations,
 			int first, int second) {
+		this(dataset, stat, iterations, first, second, new Random().nextLong());
+	}
+
+	/**
+	 * Constructor with a fixed random seed, so sampling is reproducible
+	 * 
+	 * @param dataset    the dataset to investigate
+	 * @param stat       the stat to measure
+	 * @param iterations the number of iterations to run
+	 * @param first      the size of the first subgroup
+	 * @param second     the size of the second subgroup
+	 * @param seed       the random seed
+	 */
+	public RandomSamplingMethod(IAnalysisDataset dataset, Measurement stat, int iterations,
+			int first, int second, long seed) {
 		super(dataset);
 		this.stat = stat;
 		this.iterations = iterations;
 		this.first = first;
 		this.second = second;
-
+		this.seed = seed;
 	}
 
 	@Override
@@ -73,12 +101,37 @@ public class RandomSamplingMethod extends SingleDatasetAnalysisMethod {
 
 	public void run() throws Exception {
 
-		// for each iteration
 		LOGGER.fine("Beginning sampling");
+
+		// Variability depends on the median profile of each subset, so cannot be
+		// extracted from the cells in advance
+		if (stat.equals(Measurement.VARIABILITY)) {
+			runWithCollections();
+			return;
+		}
+
+		MedianResampler sampler = MedianResampler.of(dataset.getCollection(), stat,
+				MeasurementScale.PIXELS);
+
+		AtomicInteger completed = new AtomicInteger();
+		double[] ratios = sampler.sampleMedianRatios(iterations, first, second, seed,
+				n -> fireProgressEvent(completed.addAndGet(n)));
+
+		for (double d : ratios)
+			magnitudes.add(d);
+	}
+
+	/**
+	 * Sample by creating virtual datasets for each subset
+	 * 
+	 * @throws Exception
+	 */
+	private void runWithCollections() throws Exception {
+		Random rng = new Random(seed);
 		for (int i = 0; i < iterations; i++) {
 			LOGGER.finest("Sample " + i);
 			// make a new collection randomly sampled to teh correct proportion
-			ICellCollection[] collections = makeRandomSampledCollection(first, second);
+			ICellCollection[] collections = makeRandomSampledCollection(first, second, rng);
 			LOGGER.finest("Made collection");
 
 			// get the stat magnitude
@@ -96,7 +149,8 @@ public class RandomSamplingMethod extends SingleDatasetAnalysisMethod {
 
 	}
 
-	private ICellCollection[] makeRandomSampledCollection(int firstSize, int secondSize)
+	private ICellCollection[] makeRandomSampledCollection(int firstSize, int secondSize,
+			Random rng)
 			throws MissingDataException, SegmentUpdateException {
 
 		ICellCollection c1 = new VirtualDataset(dataset, "first");
@@ -104,7 +158,7 @@ public class RandomSamplingMethod extends SingleDatasetAnalysisMethod {
 		LOGGER.finer("Created new collections");
 
 		List<ICell> cells = new ArrayList<>(dataset.getCollection().getCells());
-		Collections.shuffle(cells);
+		Collections.shuffle(cells, rng);
 		LOGGER.finer("Shuffled cells");
 
 		for (int i = 0; i < firstSize; i++) {
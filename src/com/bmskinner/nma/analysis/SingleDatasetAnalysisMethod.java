@@ -19,6 +19,7 @@ package com.bmskinner.nma.analysis;
 import org.eclipse.jdt.annotation.NonNull;
 
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.measure.Measurement;
 
 /**
  * An abstract class of analysis method designed for handling single analysis datasets
@@ -38,4 +39,18 @@ public abstract class SingleDatasetAnalysisMethod extends AbstractAnalysisMethod
         super();
         this.dataset = dataset;
     }
+
+    /**
+     * Clear the cached values of a measurement in the dataset and its children.
+     * Call this after setting the measurement in the components of the dataset,
+     * so charts and tables do not show the old values.
+     * 
+     * @param stat      the measurement that was set
+     * @param component the component type the measurement was set in
+     */
+    protected void clearCachedMeasurement(@NonNull Measurement stat, @NonNull String component) {
+        dataset.getCollection().clear(stat, component);
+        for (IAnalysisDataset child : dataset.getAllChildDatasets())
+            child.getCollection().clear(stat, component);
+    }
 }
@@ -19,8 +19,10 @@ package com.bmskinner.nma.analysis.classification;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -32,6 +34,7 @@ import com.bmskinner.nma.analysis.IAnalysisResult;
 import com.bmskinner.nma.analysis.SingleDatasetAnalysisMethod;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.Taggable;
+import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
@@ -86,6 +89,7 @@ public class PrincipalComponentAnalysis extends SingleDatasetAnalysisMethod {
 		LOGGER.fine(() -> "Variance covered: %s".formatted(variance));
 
 		int expectedPcs = 0;
+		Set<Measurement> written = new HashSet<>();
 
 		double[] eigenValues = pca.getEigenValues();
 
@@ -111,6 +115,7 @@ public class PrincipalComponentAnalysis extends SingleDatasetAnalysisMethod {
 
 				nucl.get().setMeasurement(pcn, values.length); // Store the number of
 																// expected PCs
+				written.add(pcn);
 
 				for (int pc = 0; pc < values.length; pc++) {
 					int readableIndex = pc + 1; // start from PC1, not PC0
@@ -118,6 +123,7 @@ public class PrincipalComponentAnalysis extends SingleDatasetAnalysisMethod {
 					Measurement stat = Measurement.makePrincipalComponent(readableIndex,
 							options.getUUID(HashOptions.CLUSTER_GROUP_ID_KEY));
 					nucl.get().setMeasurement(stat, values[pc]);
+					written.add(stat);
 				}
 				if (i == 0) {
 					expectedPcs = values.length;
@@ -132,6 +138,9 @@ public class PrincipalComponentAnalysis extends SingleDatasetAnalysisMethod {
 						nucleusId));
 		}
 
+		for (Measurement stat : written)
+			clearCachedMeasurement(stat, CellularComponent.NUCLEUS);
+
 		options.setInt(HashOptions.CLUSTER_NUM_PCS_KEY, expectedPcs);
 
 		return new DefaultAnalysisResult(dataset);
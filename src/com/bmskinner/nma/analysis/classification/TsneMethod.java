@@ -11,6 +11,7 @@ import com.bmskinner.nma.analysis.DefaultAnalysisResult;
 import com.bmskinner.nma.analysis.IAnalysisResult;
 import com.bmskinner.nma.analysis.SingleDatasetAnalysisMethod;
 import com.bmskinner.nma.components.MissingDataException;
+import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
@@ -93,18 +94,19 @@ public class TsneMethod extends SingleDatasetAnalysisMethod {
 		// store this in the cell collection, attached to each cell. This is a temporary
 		// store -
 		// if used for clustering, it should be attached to the cluster id
-		for (int i = 0; i < nuclei.size(); i++) {
-			Nucleus n = nuclei.get(i);
-
-			Measurement m1 = Measurement.makeTSNE(1,
-					options.getUUID(HashOptions.CLUSTER_GROUP_ID_KEY));
+		Measurement m1 = Measurement.makeTSNE(1,
+				options.getUUID(HashOptions.CLUSTER_GROUP_ID_KEY));
 
-			Measurement m2 = Measurement.makeTSNE(2,
-					options.getUUID(HashOptions.CLUSTER_GROUP_ID_KEY));
+		Measurement m2 = Measurement.makeTSNE(2,
+				options.getUUID(HashOptions.CLUSTER_GROUP_ID_KEY));
 
+		for (int i = 0; i < nuclei.size(); i++) {
+			Nucleus n = nuclei.get(i);
 			n.setMeasurement(m1, tSneResult[i][0]);
 			n.setMeasurement(m2, tSneResult[i][1]);
 		}
+		clearCachedMeasurement(m1, CellularComponent.NUCLEUS);
+		clearCachedMeasurement(m2, CellularComponent.NUCLEUS);
 
 		Optional<IAnalysisOptions> analysisOptions = dataset.getAnalysisOptions();
 		if (analysisOptions.isPresent()) {
@@ -11,6 +11,7 @@ import com.bmskinner.nma.analysis.DefaultAnalysisResult;
 import com.bmskinner.nma.analysis.IAnalysisResult;
 import com.bmskinner.nma.analysis.SingleDatasetAnalysisMethod;
 import com.bmskinner.nma.components.MissingDataException;
+import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
@@ -79,18 +80,19 @@ public class UMAPMethod extends SingleDatasetAnalysisMethod {
 
 		// store this in the cell collection, attached to each cell. It is attached to
 		// the cluster id
-		for (int i = 0; i < nuclei.size(); i++) {
-			Nucleus n = nuclei.get(i);
-
-			Measurement m1 = Measurement.makeUMAP(1,
-					options.getUUID(HashOptions.CLUSTER_GROUP_ID_KEY));
+		Measurement m1 = Measurement.makeUMAP(1,
+				options.getUUID(HashOptions.CLUSTER_GROUP_ID_KEY));
 
-			Measurement m2 = Measurement.makeUMAP(2,
-					options.getUUID(HashOptions.CLUSTER_GROUP_ID_KEY));
+		Measurement m2 = Measurement.makeUMAP(2,
+				options.getUUID(HashOptions.CLUSTER_GROUP_ID_KEY));
 
+		for (int i = 0; i < nuclei.size(); i++) {
+			Nucleus n = nuclei.get(i);
 			n.setMeasurement(m1, umapResult[i][0]);
 			n.setMeasurement(m2, umapResult[i][1]);
 		}
+		clearCachedMeasurement(m1, CellularComponent.NUCLEUS);
+		clearCachedMeasurement(m2, CellularComponent.NUCLEUS);
 
 		Optional<IAnalysisOptions> analysisOptions = dataset.getAnalysisOptions();
 		if (analysisOptions.isPresent()) {
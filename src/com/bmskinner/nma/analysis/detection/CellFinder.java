@@ -30,6 +30,7 @@ import org.eclipse.jdt.annotation.NonNull;
 
 import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.options.IAnalysisOptions;
+import com.bmskinner.nma.core.CancellationToken;
 import com.bmskinner.nma.core.GlobalOptions;
 import com.bmskinner.nma.io.ImageImporter;
 import com.bmskinner.nma.io.ImageImporter.ImageImportException;
@@ -80,8 +81,10 @@ public abstract class CellFinder extends AbstractFinder<ICell> {
 	 */
 	private Collection<ICell> singleThreaded(File[] arr) {
 		final List<ICell> list = new ArrayList<>();
+		final CancellationToken token = CancellationToken.current();
 
 		for (File f : arr) {
+			token.throwIfCancelled();
 
 			// Check we are good to use this file
 			if (Thread.interrupted() || f.isDirectory() || !ImageImporter.isFileImportable(f))
@@ -109,9 +112,12 @@ public abstract class CellFinder extends AbstractFinder<ICell> {
 
 		final Queue<ICell> list = new ConcurrentLinkedQueue<>();
 
+		// The token is thread local, so capture it before handing files to the pool
+		final CancellationToken token = CancellationToken.current();
+
 		Stream.of(arr).parallel().forEach(f -> {
 
-			if (Thread.interrupted())
+			if (Thread.interrupted() || token.isCancelled())
 				return;
 			if (f.isDirectory())
 				return;
@@ -127,6 +133,7 @@ public abstract class CellFinder extends AbstractFinder<ICell> {
 			}
 
 		});
+		token.throwIfCancelled();
 		return list;
 	}
 }
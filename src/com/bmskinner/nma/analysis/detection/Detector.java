@@ -34,6 +34,7 @@ import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.bmskinner.nma.analysis.detection.ParticleLabellingEngine.Particle;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.cells.Nucleus;
@@ -263,6 +264,39 @@ public class Detector {
 			searchProcessor = ImageFilterer.watershed(searchProcessor);
 		}
 
+		// Binary images are labelled without the particle analyser, so detection
+		// threads do not need to share a lock for measurement
+		if (canLabel(searchProcessor, image))
+			return labelParticles(searchProcessor, image);
+		return analyseParticles(searchProcessor, image);
+	}
+
+	/**
+	 * Detect and measure particles with the labelling engine
+	 * 
+	 * @param searchProcessor the binary image to search
+	 * @param image           the image to measure in
+	 * @return a map of ROIs and their CoMs
+	 */
+	Map<Roi, IPoint> labelParticles(@NonNull ImageProcessor searchProcessor,
+			@NonNull ImageProcessor image) {
+		Map<Roi, IPoint> result = new HashMap<>();
+		ParticleLabellingEngine engine = new ParticleLabellingEngine(minSize, maxSize, minCirc,
+				maxCirc, excludeEdges);
+		for (Particle p : engine.analyse((ByteProcessor) searchProcessor, (ByteProcessor) image))
+			result.put(p.roi(), p.centre());
+		return result;
+	}
+
+	/**
+	 * Detect and measure particles with the particle analyser
+	 * 
+	 * @param searchProcessor the image to search
+	 * @param image           the image to measure in
+	 * @return a map of ROIs and their CoMs
+	 */
+	Map<Roi, IPoint> analyseParticles(@NonNull ImageProcessor searchProcessor,
+			@NonNull ImageProcessor image) {
 		Map<Roi, IPoint> result = new HashMap<>();
 
 		// run the particle analyser
@@ -290,6 +324,27 @@ public class Detector {
 		return result;
 	}
 
+	/**
+	 * Test if the labelling engine gives the same result as the particle analyser
+	 * for the given images. The engine handles unthresholded 8-bit images
+	 * searched as a whole, with holes included.
+	 * 
+	 * @param searchProcessor the image to search
+	 * @param image           the image to measure in
+	 * @return true if the labelling engine can be used
+	 */
+	private boolean canLabel(ImageProcessor searchProcessor, ImageProcessor image) {
+		if (!includeHoles)
+			return false;
+		if (!(searchProcessor instanceof ByteProcessor) || !(image instanceof ByteProcessor))
+			return false;
+		if (searchProcessor.getMinThreshold() != ImageProcessor.NO_THRESHOLD)
+			return false;
+		Rectangle r = searchProcessor.getRoi();
+		return r.x == 0 && r.y == 0 && r.width == searchProcessor.getWidth()
+				&& r.height == searchProcessor.getHeight();
+	}
+
 	/**
 	 * Get the CoM for the region covered by the given roi. *
 	 * 
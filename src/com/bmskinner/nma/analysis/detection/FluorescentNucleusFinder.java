@@ -28,6 +28,8 @@ import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.bmskinner.nma.analysis.detection.StagedPreviewEngine.Stage;
+import com.bmskinner.nma.analysis.detection.StagedPreviewEngine.StageResult;
 import com.bmskinner.nma.analysis.nucleus.PoorEdgeDetectionProfilePredicate;
 import com.bmskinner.nma.components.ComponentBuilderFactory;
 import com.bmskinner.nma.components.ComponentBuilderFactory.NucleusBuilderFactory;
@@ -62,6 +64,22 @@ public class FluorescentNucleusFinder extends CellFinder {
 
 	private Predicate<ICell> validCellPredicate = null;
 
+	private static final String IMPORT_STAGE = "Import";
+	private static final String DISPLAY_STAGE = "Display";
+	private static final String GAP_CLOSING_STAGE = "Gap closing";
+
+	/** Filter stage outputs for previews */
+	private final StagedPreviewEngine previewEngine = new StagedPreviewEngine();
+
+	/** Objects found in the most recent preview */
+	private volatile PreviewObjects previewObjects = null;
+
+	/**
+	 * Objects found in a preview, and the stages they came from
+	 */
+	private record PreviewObjects(List<Object> key, List<Nucleus> nuclei) {
+	}
+
 	public FluorescentNucleusFinder(@NonNull final IAnalysisOptions op,
 			@NonNull FinderDisplayType t) {
 		super(op);
@@ -207,10 +225,10 @@ public class FluorescentNucleusFinder extends CellFinder {
 		// In pipeline mode, we don't need to worry about the edge detector options
 		// changing, they will be specified only in the constructor
 		List<ICell> result = new ArrayList<>();
+		DatasetValidator dv = new DatasetValidator();
 		for (Nucleus n : list) {
 			ICell c = new DefaultCell(n);
 			if (isValid(c)) {
-				DatasetValidator dv = new DatasetValidator();
 				if (!dv.validate(c))
 					LOGGER.fine("Error in cell " + n.getNameAndNumber() + ": " + dv.getSummary()
 							+ dv.getErrors());
@@ -223,100 +241,40 @@ public class FluorescentNucleusFinder extends CellFinder {
 	private List<ICell> detectNucleusPreview(@NonNull final File imageFile)
 			throws ImageImportException {
 
-		List<Nucleus> list = new ArrayList<>();
-
-		ImageProcessor ip = ImageImporter.importImage(imageFile,
-				nuclOptions.getInt(HashOptions.CHANNEL));
-
-		ImageFilterer filt = new ImageFilterer(ip.duplicate());
-		if (nuclOptions.getBoolean(HashOptions.IS_USE_KUWAHARA)) {
-			filt.kuwaharaFilter(nuclOptions.getInt(HashOptions.KUWAHARA_RADIUS_INT));
-			if (hasDetectionListeners()) {
-				ip = filt.toProcessor().duplicate();
-				ip.invert();
-				fireDetectionEvent(ip.duplicate(), "Kuwahara filter");
-			}
-		}
-
-		if (nuclOptions.getBoolean(HashOptions.IS_USE_FLATTENING)) {
-			filt.setMaximumPixelValue(nuclOptions.getInt(HashOptions.FLATTENING_THRESHOLD_INT));
-			if (hasDetectionListeners()) {
-				ip = filt.toProcessor().duplicate();
-				ip.invert();
-				fireDetectionEvent(ip.duplicate(), "Chromocentre flattening");
-			}
-		}
-
-		if (nuclOptions.getBoolean(HashOptions.IS_USE_CANNY)) {
-			filt.cannyEdgeDetection(nuclOptions);
-			if (hasDetectionListeners()) {
-				ip = filt.toProcessor().duplicate();
-				ip.invert();
-				fireDetectionEvent(ip.duplicate(), "Edge detection");
-			}
-
-			filt.close(nuclOptions.getInt(HashOptions.GAP_CLOSING_RADIUS_INT));
-			if (hasDetectionListeners()) {
-				ip = filt.toProcessor().duplicate();
-				ip.invert();
-				fireDetectionEvent(ip.duplicate(), "Gap closing");
-			}
-
-		} else {
-			filt.threshold(nuclOptions.getInt(HashOptions.THRESHOLD));
-
-			if (hasDetectionListeners()) {
-				ip = filt.toProcessor().duplicate();
-				ip.invert();
-				fireDetectionEvent(ip.duplicate(), "Thresholded");
-			}
+		long run = previewEngine.start();
+		int channel = nuclOptions.getInt(HashOptions.CHANNEL);
+		Stage importStage = Stage.of(IMPORT_STAGE,
+				ip -> ImageImporter.importImage(imageFile, channel), imageFile,
+				imageFile.lastModified(), channel);
 
-			if (nuclOptions.getBoolean(HashOptions.IS_USE_GAP_CLOSING)) {
+		List<StageResult> stages = previewEngine.run(run, createPreviewStages(importStage));
 
-				filt.close(nuclOptions.getInt(HashOptions.GAP_CLOSING_RADIUS_INT));
-				if (hasDetectionListeners()) {
-					ip = filt.toProcessor().duplicate();
+		// Display passing and failing size nuclei
+		List<StageResult> display = previewEngine.run(run,
+				List.of(importStage, Stage.of(DISPLAY_STAGE, ip -> {
 					ip.invert();
-					fireDetectionEvent(ip.duplicate(), "Gap closing");
-				}
-			}
-		}
+					return ip.convertToRGB();
+				})));
+		ImageProcessor original = display.get(display.size() - 1).image().duplicate();
 
-		if (nuclOptions.getBoolean(HashOptions.IS_USE_WATERSHED)) {
-			filt.watershed();
-			if (hasDetectionListeners()) {
-				ip = filt.toProcessor().duplicate();
+		if (hasDetectionListeners()) {
+			for (StageResult stage : stages.subList(1, stages.size())) {
+				ImageProcessor ip = stage.image().duplicate();
 				ip.invert();
-				fireDetectionEvent(ip.duplicate(), "Watershed");
+				fireDetectionEvent(ip, stage.name());
 			}
 		}
 
-		Detector gd = new Detector();
-
-		// Display passing and failing size nuclei
-		ImageProcessor original = ImageImporter
-				.importImageAndInvert(imageFile, nuclOptions.getInt(HashOptions.CHANNEL))
-				.convertToRGB();
-
-		ImageProcessor img = filt.toProcessor();
-
-		Map<Roi, IPoint> rois = gd.getAllRois(img.duplicate());
-		LOGGER.finer(() -> "Image: %s has %d rois ".formatted(imageFile.getName(), rois.size()));
-
-		for (Entry<Roi, IPoint> entry : rois.entrySet()) {
-			try {
-				list.add(factory.newBuilder()
-						.fromRoi(entry.getKey())
-						.withFile(imageFile)
-						.withChannel(nuclOptions.getInt(HashOptions.CHANNEL))
-						.withCoM(entry.getValue())
-						.build());
-			} catch (ComponentCreationException e) {
-				LOGGER.log(Level.FINE, "Unable to create nucleus from roi: %s; skipping"
-						.formatted(e.getMessage()), e);
-			}
+		// Objects depend only on the final image, so are reused while only the
+		// size and shape filters change
+		StageResult last = stages.get(stages.size() - 1);
+		PreviewObjects objects = previewObjects;
+		if (objects == null || !objects.key().equals(last.key())) {
+			objects = new PreviewObjects(last.key(), detectPreviewNuclei(imageFile, last.image()));
+			previewObjects = objects;
 		}
-		LOGGER.finer(() -> "Detected nuclei in " + imageFile.getName());
+		List<Nucleus> list = objects.nuclei();
+		previewEngine.checkCurrent(run);
 
 		List<ICell> result = new ArrayList<>();
 		List<ICell> invalid = new ArrayList<>();
@@ -362,6 +320,88 @@ public class FluorescentNucleusFinder extends CellFinder {
 		return result;
 	}
 
+	/**
+	 * Create the filter stages for a preview from the current options
+	 * 
+	 * @param importStage the stage importing the image
+	 * @return the stages in order
+	 */
+	private List<Stage> createPreviewStages(Stage importStage) {
+		List<Stage> stages = new ArrayList<>();
+		stages.add(importStage);
+
+		if (nuclOptions.getBoolean(HashOptions.IS_USE_KUWAHARA)) {
+			int radius = nuclOptions.getInt(HashOptions.KUWAHARA_RADIUS_INT);
+			stages.add(Stage.of("Kuwahara filter",
+					ip -> ImageFilterer.kuwaharaFilter(ip, radius), radius));
+		}
+
+		if (nuclOptions.getBoolean(HashOptions.IS_USE_FLATTENING)) {
+			int threshold = nuclOptions.getInt(HashOptions.FLATTENING_THRESHOLD_INT);
+			stages.add(Stage.of("Chromocentre flattening",
+					ip -> new ImageFilterer(ip).setMaximumPixelValue(threshold).toProcessor(),
+					threshold));
+		}
+
+		int closingRadius = nuclOptions.getInt(HashOptions.GAP_CLOSING_RADIUS_INT);
+		if (nuclOptions.getBoolean(HashOptions.IS_USE_CANNY)) {
+			// Automatic thresholds are chosen from the image, so are not part of the key
+			boolean isAuto = nuclOptions.getBoolean(HashOptions.CANNY_IS_AUTO_THRESHOLD);
+			stages.add(Stage.of("Edge detection",
+					ip -> new ImageFilterer(ip).cannyEdgeDetection(nuclOptions).toProcessor(),
+					isAuto,
+					isAuto ? 0f : nuclOptions.getFloat(HashOptions.CANNY_LOW_THRESHOLD_FLT),
+					isAuto ? 0f : nuclOptions.getFloat(HashOptions.CANNY_HIGH_THRESHOLD_FLT),
+					nuclOptions.getFloat(HashOptions.CANNY_KERNEL_RADIUS_FLT),
+					nuclOptions.getInt(HashOptions.CANNY_KERNEL_WIDTH_INT)));
+			stages.add(Stage.of(GAP_CLOSING_STAGE, ip -> ImageFilterer.close(ip, closingRadius),
+					closingRadius));
+		} else {
+			int threshold = nuclOptions.getInt(HashOptions.THRESHOLD);
+			stages.add(Stage.of("Thresholded",
+					ip -> new ImageFilterer(ip).threshold(threshold).toProcessor(), threshold));
+
+			if (nuclOptions.getBoolean(HashOptions.IS_USE_GAP_CLOSING))
+				stages.add(Stage.of(GAP_CLOSING_STAGE,
+						ip -> ImageFilterer.close(ip, closingRadius), closingRadius));
+		}
+
+		if (nuclOptions.getBoolean(HashOptions.IS_USE_WATERSHED))
+			stages.add(Stage.of("Watershed", ImageFilterer::watershed));
+
+		return stages;
+	}
+
+	/**
+	 * Find all objects in the filtered image, whether or not they pass the filters
+	 * 
+	 * @param imageFile the image file
+	 * @param img       the filtered image
+	 * @return the nuclei
+	 */
+	private List<Nucleus> detectPreviewNuclei(File imageFile, ImageProcessor img) {
+		List<Nucleus> list = new ArrayList<>();
+		Detector gd = new Detector();
+		Map<Roi, IPoint> rois = gd.getAllRois(img.duplicate());
+		LOGGER.finer(() -> "Image: %s has %d rois ".formatted(imageFile.getName(), rois.size()));
+
+		for (Entry<Roi, IPoint> entry : rois.entrySet()) {
+			try {
+				list.add(factory.newBuilder()
+						.fromRoi(entry.getKey())
+						.withFile(imageFile)
+						.withChannel(nuclOptions.getInt(HashOptions.CHANNEL))
+						.withCoM(entry.getValue())
+						.build());
+			} catch (ComponentCreationException e) {
+				LOGGER.log(Level.FINE, "Unable to create nucleus from roi: %s; skipping"
+						.formatted(e.getMessage()), e);
+			}
+		}
+		LOGGER.finer(() -> "Detected nuclei in " + imageFile.getName());
+		return list;
+	}
+
 	@Override
 	public boolean isValid(@NonNull ICell c) {
 		return validCellPredicate.test(c);
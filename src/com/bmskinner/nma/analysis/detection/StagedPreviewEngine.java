@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.analysis.detection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.bmskinner.nma.io.ImageImporter.ImageImportException;
+
+import ij.process.ImageProcessor;
+
+/**
+ * Runs a chain of image filters for detection previews, keeping the output of
+ * each stage. Each stage is identified by its name and the option values it
+ * uses. A stage's output is keyed by its own identity and those of all stages
+ * before it, so when an option changes only the stages from the one using
+ * that option onwards are recalculated.
+ * <p>
+ * Each run supersedes any earlier run still in progress. Superseded runs stop
+ * at the next stage boundary by throwing a {@link CancellationException}, so
+ * a stream of slider changes only completes the most recent preview.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class StagedPreviewEngine {
+
+	private static final Logger LOGGER = Logger.getLogger(StagedPreviewEngine.class.getName());
+
+	/** Stage outputs kept across runs, including those of other branches */
+	private static final int MAX_CACHED_STAGES = 16;
+
+	private final Map<List<Object>, ImageProcessor> cache = Collections
+			.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<List<Object>, ImageProcessor> eldest) {
+					return size() > MAX_CACHED_STAGES;
+				}
+			});
+
+	private final AtomicLong latestRun = new AtomicLong();
+
+	/**
+	 * A filter applied by a stage
+	 */
+	@FunctionalInterface
+	public interface StageFilter {
+
+		/**
+		 * Apply the filter. The input is a copy of the previous stage output, and may
+		 * be modified.
+		 *
+		 * @param ip the output of the previous stage, or null for the first stage
+		 * @return the filtered image
+		 * @throws ImageImportException if the stage imports an image that cannot be
+		 *                              read
+		 */
+		ImageProcessor apply(@Nullable ImageProcessor ip) throws ImageImportException;
+	}
+
+	/**
+	 * A step in the filter chain
+	 *
+	 * @param name       the stage name, displayed with the stage output
+	 * @param parameters the option values used by the filter
+	 * @param filter     the filter
+	 */
+	public record Stage(@NonNull String name, @NonNull List<Object> parameters,
+			@NonNull StageFilter filter) {
+
+		/**
+		 * Create a stage
+		 *
+		 * @param name       the stage name
+		 * @param filter     the filter
+		 * @param parameters the option values used by the filter
+		 * @return the stage
+		 */
+		public static Stage of(@NonNull String name, @NonNull StageFilter filter,
+				Object... parameters) {
+			return new Stage(name, Arrays.asList(parameters), filter);
+		}
+	}
+
+	/**
+	 * The output of a stage
+	 *
+	 * @param name  the stage name
+	 * @param key   the identity of this stage and all stages before it
+	 * @param image the stage output. This is shared with the cache, and must not
+	 *              be modified.
+	 */
+	public record StageResult(@NonNull String name, @NonNull List<Object> key,
+			@NonNull ImageProcessor image) {
+	}
+
+	/**
+	 * Start a new run, superseding any run in progress
+	 *
+	 * @return the identifier of the new run
+	 */
+	public long start() {
+		return latestRun.incrementAndGet();
+	}
+
+	/**
+	 * Run the given stages, reusing stored outputs where a stage and all stages
+	 * before it are unchanged
+	 *
+	 * @param run    the run identifier from {@link #start()}
+	 * @param stages the stages to run, in order
+	 * @return the output of each stage, in order
+	 * @throws ImageImportException  if a stage cannot import its image
+	 * @throws CancellationException if a later run was started before this run
+	 *                               finished
+	 */
+	public List<StageResult> run(long run, @NonNull List<Stage> stages)
+			throws ImageImportException {
+		List<StageResult> results = new ArrayList<>();
+		List<Object> key = new ArrayList<>();
+		ImageProcessor current = null;
+		for (Stage stage : stages) {
+			checkCurrent(run);
+
+			key.add(stage.name());
+			key.addAll(stage.parameters());
+			List<Object> stageKey = List.copyOf(key);
+
+			ImageProcessor output = cache.get(stageKey);
+			if (output == null) {
+				LOGGER.finer(() -> "Calculating stage " + stage.name());
+				output = stage.filter().apply(current == null ? null : current.duplicate());
+				cache.put(stageKey, output);
+			}
+			current = output;
+			results.add(new StageResult(stage.name(), stageKey, output));
+		}
+		checkCurrent(run);
+		return results;
+	}
+
+	/**
+	 * Test if a run has been superseded by a later run
+	 *
+	 * @param run the run identifier from {@link #start()}
+	 * @return true if a run was started after the given run
+	 */
+	public boolean isSuperseded(long run) {
+		return latestRun.get() != run;
+	}
+
+	/**
+	 * Stop a run if it has been superseded. Call between steps that follow the
+	 * stages.
+	 *
+	 * @param run the run identifier from {@link #start()}
+	 * @throws CancellationException if a later run has been started
+	 */
+	public void checkCurrent(long run) {
+		if (isSuperseded(run))
+			throw new CancellationException("Preview superseded by a later run");
+	}
+
+	/**
+	 * Remove all stored stage outputs
+	 */
+	public void clear() {
+		cache.clear();
+	}
+}
@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.analysis.image;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.bmskinner.nma.components.options.HashOptions;
+
+import ij.process.ByteProcessor;
+import ij.process.ColorProcessor;
+import ij.process.ImageProcessor;
+
+/**
+ * Canny edge detection working directly on ImageJ pixel arrays. This follows
+ * the algorithm in {@link CannyEdgeDetector}, and gives the same edges, but is
+ * organised for speed:
+ * <ul>
+ * <li>pixels are read from and written to image processors, with no
+ * conversion to and from buffered images;</li>
+ * <li>the separable Gaussian smoothing, gradient and non-maximal suppression
+ * passes process rows in parallel;</li>
+ * <li>gradient magnitudes are calculated once per pixel rather than once per
+ * neighbour;</li>
+ * <li>hysteresis traces edges in a loop rather than by recursion, so long edges
+ * cannot overflow the stack;</li>
+ * <li>working arrays are kept per thread and reused between images.</li>
+ * </ul>
+ * An engine holds only its parameters, and may be shared between threads.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class CannyEdgeEngine {
+
+	private static final float GAUSSIAN_CUT_OFF = 0.005f;
+	private static final float MAGNITUDE_SCALE = 100F;
+	private static final float MAGNITUDE_LIMIT = 1000F;
+	private static final int MAGNITUDE_MAX = (int) (MAGNITUDE_SCALE * MAGNITUDE_LIMIT);
+
+	private static final int EDGE = 255;
+
+	/** Working arrays for the calling thread, grown as needed */
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+	private final int low;
+	private final int high;
+
+	/** The number of kernel entries used after the cut off */
+	private final int kwidth;
+	private final float[] kernel;
+	private final float[] diffKernel;
+
+	/**
+	 * Create with the Canny parameters in the given options
+	 *
+	 * @param options the options
+	 */
+	public CannyEdgeEngine(@NonNull HashOptions options) {
+		this(options.getFloat(HashOptions.CANNY_LOW_THRESHOLD_FLT),
+				options.getFloat(HashOptions.CANNY_HIGH_THRESHOLD_FLT),
+				options.getFloat(HashOptions.CANNY_KERNEL_RADIUS_FLT),
+				options.getInt(HashOptions.CANNY_KERNEL_WIDTH_INT));
+	}
+
+	/**
+	 * Create with the given parameters
+	 *
+	 * @param lowThreshold  the low hysteresis threshold, at least 0
+	 * @param highThreshold the high hysteresis threshold, at least 0
+	 * @param kernelRadius  the Gaussian kernel radius, at least 0.1
+	 * @param kernelWidth   the maximum Gaussian kernel width, at least 2
+	 */
+	public CannyEdgeEngine(float lowThreshold, float highThreshold, float kernelRadius,
+			int kernelWidth) {
+		if (lowThreshold < 0 || highThreshold < 0)
+			throw new IllegalArgumentException("Thresholds must not be negative");
+		if (kernelRadius < 0.1f)
+			throw new IllegalArgumentException("Kernel radius must be at least 0.1");
+		if (kernelWidth < 2)
+			throw new IllegalArgumentException("Kernel width must be at least 2");
+
+		low = Math.round(lowThreshold * MAGNITUDE_SCALE);
+		high = Math.round(highThreshold * MAGNITUDE_SCALE);
+
+		kernel = new float[kernelWidth];
+		diffKernel = new float[kernelWidth];
+		int w;
+		for (w = 0; w < kernelWidth; w++) {
+			float g1 = gaussian(w, kernelRadius);
+			if (g1 <= GAUSSIAN_CUT_OFF && w >= 2)
+				break;
+			float g2 = gaussian(w - 0.5f, kernelRadius);
+			float g3 = gaussian(w + 0.5f, kernelRadius);
+			kernel[w] = (g1 + g2 + g3) / 3f
+					/ (2f * (float) Math.PI * kernelRadius * kernelRadius);
+			diffKernel[w] = g3 - g2;
+		}
+		kwidth = w;
+	}
+
+	/**
+	 * Detect edges in the given image. Colour images are converted to luminance,
+	 * and images other than 8-bit greyscale are converted to 8-bit first.
+	 *
+	 * @param ip the image to detect edges in
+	 * @return an image with edge pixels 255 and all other pixels 0
+	 */
+	public ByteProcessor process(@NonNull ImageProcessor ip) {
+		int width = ip.getWidth();
+		int height = ip.getHeight();
+
+		Scratch s = SCRATCH.get();
+		s.reset(width * height);
+
+		readLuminance(ip, s.data);
+		computeGradients(s, width, height);
+		suppressNonMaxima(s, width, height);
+
+		byte[] edges = new byte[width * height];
+		performHysteresis(s, edges, width, height);
+		return new ByteProcessor(width, height, edges);
+	}
+
+	private static float gaussian(float x, float sigma) {
+		return (float) Math.exp(-(x * x) / (2f * sigma * sigma));
+	}
+
+	private static int luminance(float r, float g, float b) {
+		return Math.round(0.299f * r + 0.587f * g + 0.114f * b);
+	}
+
+	private static void readLuminance(ImageProcessor ip, int[] data) {
+		if (ip instanceof ColorProcessor) {
+			int[] pixels = (int[]) ip.getPixels();
+			for (int i = 0; i < pixels.length; i++) {
+				int p = pixels[i];
+				data[i] = luminance((p & 0xff0000) >> 16, (p & 0xff00) >> 8, p & 0xff);
+			}
+			return;
+		}
+
+		ByteProcessor bp = ip instanceof ByteProcessor b ? b : ip.convertToByteProcessor();
+		byte[] pixels = (byte[]) bp.getPixels();
+		for (int i = 0; i < pixels.length; i++)
+			data[i] = pixels[i] & 0xff;
+	}
+
+	/**
+	 * Smooth the image and find the x and y gradients. Each pass is separable, and
+	 * rows are processed in parallel. The summation order of each pixel is the
+	 * same as in {@link CannyEdgeDetector}, so the gradients are identical.
+	 */
+	private void computeGradients(Scratch s, int width, int height) {
+		int[] data = s.data;
+		float[] xConv = s.xConv;
+		float[] yConv = s.yConv;
+		int initX = kwidth - 1;
+		int maxX = width - (kwidth - 1);
+		int initRow = kwidth - 1;
+		int maxRow = height - (kwidth - 1);
+
+		IntStream.range(initRow, Math.max(initRow, maxRow)).parallel().forEach(row -> {
+			int y = row * width;
+			for (int x = initX; x < maxX; x++) {
+				int index = x + y;
+				float sumX = data[index] * kernel[0];
+				float sumY = sumX;
+				int xOffset = 1;
+				int yOffset = width;
+				while (xOffset < kwidth) {
+					sumY += kernel[xOffset] * (data[index - yOffset] + data[index + yOffset]);
+					sumX += kernel[xOffset] * (data[index - xOffset] + data[index + xOffset]);
+					yOffset += width;
+					xOffset++;
+				}
+				yConv[index] = sumY;
+				xConv[index] = sumX;
+			}
+		});
+
+		float[] xGradient = s.xGradient;
+		float[] yGradient = s.yGradient;
+		IntStream.range(initRow, Math.max(initRow, maxRow)).parallel().forEach(row -> {
+			int y = row * width;
+			for (int x = initX; x < maxX; x++) {
+				float sum = 0f;
+				int index = x + y;
+				for (int i = 1; i < kwidth; i++)
+					sum += diffKernel[i] * (yConv[index - i] - yConv[index + i]);
+				xGradient[index] = sum;
+			}
+
+			for (int x = kwidth; x < width - kwidth; x++) {
+				float sum = 0.0f;
+				int index = x + y;
+				int yOffset = width;
+				for (int i = 1; i < kwidth; i++) {
+					sum += diffKernel[i] * (xConv[index - yOffset] - xConv[index + yOffset]);
+					yOffset += width;
+				}
+				yGradient[index] = sum;
+			}
+		});
+	}
+
+	/**
+	 * Keep the magnitude of gradients that are local maxima in the gradient
+	 * direction. See {@link CannyEdgeDetector} for an explanation of the
+	 * comparisons.
+	 */
+	private void suppressNonMaxima(Scratch s, int width, int height) {
+		float[] xGradient = s.xGradient;
+		float[] yGradient = s.yGradient;
+		int[] magnitude = s.magnitude;
+
+		// The smoothed images are no longer needed, so hold the gradient magnitudes
+		float[] gradMagnitude = s.xConv;
+		IntStream.range(0, height).parallel().forEach(row -> {
+			int y = row * width;
+			for (int index = y; index < y + width; index++)
+				gradMagnitude[index] = (float) Math.hypot(xGradient[index], yGradient[index]);
+		});
+
+		IntStream.range(kwidth, Math.max(kwidth, height - kwidth)).parallel().forEach(row -> {
+			int y = row * width;
+			for (int x = kwidth; x < width - kwidth; x++) {
+				int index = x + y;
+				int indexN = index - width;
+				int indexS = index + width;
+				int indexW = index - 1;
+				int indexE = index + 1;
+
+				float xGrad = xGradient[index];
+				float yGrad = yGradient[index];
+				float gradMag = gradMagnitude[index];
+
+				float nMag = gradMagnitude[indexN];
+				float sMag = gradMagnitude[indexS];
+				float wMag = gradMagnitude[indexW];
+				float eMag = gradMagnitude[indexE];
+				float neMag = gradMagnitude[indexN + 1];
+				float seMag = gradMagnitude[indexS + 1];
+				float swMag = gradMagnitude[indexS - 1];
+				float nwMag = gradMagnitude[indexN - 1];
+				float tmp;
+
+				if (xGrad * yGrad <= 0
+						? Math.abs(xGrad) >= Math.abs(yGrad)
+								? (tmp = Math.abs(xGrad * gradMag)) >= Math
+										.abs(yGrad * neMag - (xGrad + yGrad) * eMag)
+										&& tmp > Math.abs(yGrad * swMag - (xGrad + yGrad) * wMag)
+								: (tmp = Math.abs(yGrad * gradMag)) >= Math
+										.abs(xGrad * neMag - (yGrad + xGrad) * nMag)
+										&& tmp > Math.abs(xGrad * swMag - (yGrad + xGrad) * sMag)
+						: Math.abs(xGrad) >= Math.abs(yGrad)
+								? (tmp = Math.abs(xGrad * gradMag)) >= Math
+										.abs(yGrad * seMag + (xGrad - yGrad) * eMag)
+										&& tmp > Math.abs(yGrad * nwMag + (xGrad - yGrad) * wMag)
+								: (tmp = Math.abs(yGrad * gradMag)) >= Math
+										.abs(xGrad * seMag + (yGrad - xGrad) * sMag)
+										&& tmp > Math.abs(xGrad * nwMag + (yGrad - xGrad) * nMag)) {
+					magnitude[index] = gradMag >= MAGNITUDE_LIMIT ? MAGNITUDE_MAX
+							: (int) (MAGNITUDE_SCALE * gradMag);
+				} else {
+					magnitude[index] = 0;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Trace edges from each pixel above the high threshold through neighbours
+	 * above the low threshold. As in {@link CannyEdgeDetector}, each step moves to
+	 * the first unvisited neighbour found, so the trace follows a single path.
+	 * Visits are recorded separately from magnitudes, so with a low threshold of
+	 * zero a trace cannot cycle through pixels of zero magnitude, which the
+	 * recursive trace did until the stack overflowed.
+	 */
+	private void performHysteresis(Scratch s, byte[] edges, int width, int height) {
+		int[] magnitude = s.magnitude;
+		boolean[] visited = s.visited;
+
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (!visited[offset] && magnitude[offset] >= high)
+					trace(x, y, offset, magnitude, visited, edges, width, height);
+				offset++;
+			}
+		}
+	}
+
+	private void trace(int x1, int y1, int i1, int[] magnitude, boolean[] visited, byte[] edges,
+			int width, int height) {
+		boolean isMoved = true;
+		while (isMoved) {
+			visited[i1] = true;
+			if (magnitude[i1] > 0)
+				edges[i1] = (byte) EDGE;
+
+			int x0 = x1 == 0 ? x1 : x1 - 1;
+			int x2 = x1 == width - 1 ? x1 : x1 + 1;
+			int y0 = y1 == 0 ? y1 : y1 - 1;
+			int y2 = y1 == height - 1 ? y1 : y1 + 1;
+
+			isMoved = false;
+			for (int x = x0; x <= x2 && !isMoved; x++) {
+				for (int y = y0; y <= y2; y++) {
+					int i2 = x + y * width;
+					if ((y != y1 || x != x1) && !visited[i2] && magnitude[i2] >= low) {
+						x1 = x;
+						y1 = y;
+						i1 = i2;
+						isMoved = true;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Working arrays for one image. Arrays are only reallocated when a larger
+	 * image is processed.
+	 */
+	private static class Scratch {
+		private int[] data = new int[0];
+		private int[] magnitude = new int[0];
+		private float[] xConv = new float[0];
+		private float[] yConv = new float[0];
+		private float[] xGradient = new float[0];
+		private float[] yGradient = new float[0];
+		private boolean[] visited = new boolean[0];
+
+		/**
+		 * Make the arrays large enough for the given number of pixels, and clear
+		 * them. Border pixels are not written by every pass, and must read as zero.
+		 */
+		void reset(int size) {
+			if (data.length < size) {
+				data = new int[size];
+				magnitude = new int[size];
+				xConv = new float[size];
+				yConv = new float[size];
+				xGradient = new float[size];
+				yGradient = new float[size];
+				visited = new boolean[size];
+				return;
+			}
+			Arrays.fill(magnitude, 0, size, 0);
+			Arrays.fill(xConv, 0, size, 0);
+			Arrays.fill(yConv, 0, size, 0);
+			Arrays.fill(xGradient, 0, size, 0);
+			Arrays.fill(yGradient, 0, size, 0);
+			Arrays.fill(visited, 0, size, false);
+		}
+	}
+}
@@ -7,6 +7,7 @@ import org.eclipse.jdt.annotation.NonNull;
 import com.bmskinner.nma.analysis.DefaultAnalysisResult;
 import com.bmskinner.nma.analysis.IAnalysisResult;
 import com.bmskinner.nma.analysis.SingleDatasetAnalysisMethod;
+import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
@@ -82,5 +83,9 @@ public class CellHistogramCalculationMethod extends SingleDatasetAnalysisMethod
 				fireProgressEvent();
 			}
 		}
+
+		for (int i = 0; i < 256; i++)
+			clearCachedMeasurement(Measurement.makePixelHistogram(channel, i),
+					CellularComponent.NUCLEUS);
 	}
 }
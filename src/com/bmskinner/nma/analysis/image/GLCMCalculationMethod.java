@@ -52,11 +52,7 @@ public class GLCMCalculationMethod extends SingleDatasetAnalysisMethod {
 		}
 
 		// Clear stats caches
-		for (Measurement stat : GLCMParameter.toStats()) {
-			dataset.getCollection().clear(stat, CellularComponent.NUCLEUS);
-			for (IAnalysisDataset child : dataset.getAllChildDatasets()) {
-				child.getCollection().clear(stat, CellularComponent.NUCLEUS);
-			}
-		}
+		for (Measurement stat : GLCMParameter.toStats())
+			clearCachedMeasurement(stat, CellularComponent.NUCLEUS);
 	}
 }
@@ -17,6 +17,7 @@
 package com.bmskinner.nma.analysis.image;
 
 import java.awt.Rectangle;
+import java.util.stream.IntStream;
 
 import org.eclipse.jdt.annotation.NonNull;
 
@@ -40,6 +41,10 @@ import ij.process.ImageProcessor;
  
 	Description based on the one at:
 	http://www.incx.nec.co.jp/imap-vision/library/wouter/kuwahara.html
+
+	Window statistics are taken from summed-area tables of the pixel values and
+	their squares, so each window costs the same regardless of kernel size.
+	Pixels outside the image count as zero, as in the original direct method.
 */
 public class KuwaharaFilter {
 
@@ -53,6 +58,120 @@ public class KuwaharaFilter {
 			return filterIntensity(ip);
 		}
 
+		if (ip.getBitDepth() == 32)
+			return filterDirect(ip, size);
+
+		int imageWidth = ip.getWidth();
+		int imageHeight = ip.getHeight();
+		Rectangle roi = ip.getRoi();
+		int size2 = (size + 1) / 2;
+		int offset = (size - 1) / 2;
+		int n = size2 * size2;
+
+		SummedAreaTable table = new SummedAreaTable(ip);
+
+		ImageProcessor result = ip.duplicate();
+
+		// Each output row only reads the tables, so rows are independent
+		IntStream.range(roi.y, roi.y + roi.height).parallel().forEach(y1 -> {
+			for (int x1 = roi.x; x1 < roi.x + roi.width; x1++) {
+				float min = Float.MAX_VALUE;
+				float mean = 0;
+
+				// Quadrants in the order the direct method tests them: top left, top
+				// right, bottom right, bottom left
+				for (int q = 0; q < 4; q++) {
+					int x = q == 0 || q == 3 ? x1 - offset : x1;
+					int y = q < 2 ? y1 - offset : y1;
+
+					long sum = table.sum(x, y, size2, imageWidth, imageHeight);
+					long sum2 = table.sumOfSquares(x, y, size2, imageWidth, imageHeight);
+					double dSum = sum;
+					float var = (float) (sum2 - dSum * dSum / n);
+					if (var < min) {
+						min = var;
+						mean = (float) (dSum / n);
+					}
+				}
+				result.set(x1, y1, (int) (mean + 0.5));
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Summed-area tables of the pixel values and squared values of an image. Each
+	 * table has an extra leading row and column of zeros, so table entry
+	 * {@code (x, y)} holds the sum of pixels above and left of image pixel
+	 * {@code (x, y)}.
+	 */
+	private static class SummedAreaTable {
+		private final int stride;
+		private final long[] sums;
+		private final long[] squares;
+
+		SummedAreaTable(ImageProcessor ip) {
+			int width = ip.getWidth();
+			int height = ip.getHeight();
+			stride = width + 1;
+			sums = new long[stride * (height + 1)];
+			squares = new long[stride * (height + 1)];
+
+			// Prefix sums along each row are independent
+			IntStream.range(0, height).parallel().forEach(y -> {
+				int row = (y + 1) * stride;
+				long sum = 0;
+				long sum2 = 0;
+				for (int x = 0; x < width; x++) {
+					int v = ip.get(x, y);
+					sum += v;
+					sum2 += v * v; // int product, matching the direct method
+					sums[row + x + 1] = sum;
+					squares[row + x + 1] = sum2;
+				}
+			});
+
+			// Then accumulate down the columns
+			for (int y = 2; y <= height; y++) {
+				int row = y * stride;
+				int above = row - stride;
+				for (int x = 1; x <= width; x++) {
+					sums[row + x] += sums[above + x];
+					squares[row + x] += squares[above + x];
+				}
+			}
+		}
+
+		long sum(int x, int y, int size, int width, int height) {
+			return total(sums, x, y, size, width, height);
+		}
+
+		long sumOfSquares(int x, int y, int size, int width, int height) {
+			return total(squares, x, y, size, width, height);
+		}
+
+		/**
+		 * Total the square window starting at the given pixel, ignoring the parts
+		 * of the window outside the image
+		 */
+		private long total(long[] table, int x, int y, int size, int width, int height) {
+			int x0 = Math.max(0, x);
+			int y0 = Math.max(0, y);
+			int x1 = Math.min(width, x + size);
+			int y1 = Math.min(height, y + size);
+			if (x0 >= x1 || y0 >= y1)
+				return 0;
+			return table[y1 * stride + x1] - table[y0 * stride + x1] - table[y1 * stride + x0]
+					+ table[y0 * stride + x0];
+		}
+	}
+
+	/**
+	 * Filter by calculating the statistics of each window directly. Used for
+	 * float images, whose pixel values are not summed exactly.
+	 */
+	static ImageProcessor filterDirect(@NonNull ImageProcessor ip, int size) {
+
 		Rectangle roi = ip.getRoi();
 		int width = roi.width;
 		int height = roi.height;
@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.analysis.image;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.bmskinner.nma.analysis.image.MultiScaleStructuralSimilarityIndex.MSSIMScore;
+
+import ij.process.ColorProcessor;
+import ij.process.ImageProcessor;
+
+/**
+ * Calculates MS-SSIM* scores between many images of the same size. This
+ * follows the Rouse/Hemami algorithm in
+ * {@link MultiScaleStructuralSimilarityIndex}, but is organised for comparing
+ * every pair in a set of images:
+ * <ul>
+ * <li>the Gaussian window and low-pass filter are applied as separable 1D
+ * passes rather than full 2D kernels;</li>
+ * <li>the downsampled pyramid of each image, and its local means and variances
+ * at each level, are calculated once and cached;</li>
+ * <li>only the covariance term is calculated per pair, and unique unordered
+ * pairs are scored in parallel.</li>
+ * </ul>
+ * Edges are handled by extending the border pixels, as in ImageJ's convolver,
+ * so scores match the single-pair calculation closely. The separable passes
+ * sum in a different order, and variances in flat saturated regions are
+ * dominated by float rounding, so contrast and structure terms can differ in
+ * the third decimal place.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class MultiScaleStructuralSimilarityEngine {
+
+	private static final int MIN_IMAGE_DIMENSION_PIXELS = 32;
+	private static final int NUMBER_OF_LEVELS = 5;
+	private static final int FILTER_WIDTH = 11;
+	private static final double SIGMA_GAUSS = 1.5;
+
+	/** Low pass filter impulse response; see MultiScaleStructuralSimilarityIndex */
+	private static final double[] LOD = { 0.0378, -0.0238, -0.1106, 0.3774, 0.8527, 0.3774,
+			-0.1106, -0.0238, 0.0378 };
+
+	/** Exponents for each level. Index 0 is unused. */
+	private static final double[] LUMINANCE_EXPONENT = { 1, 1, 1, 1, 1, 0.1333 };
+	private static final double[] CONTRAST_EXPONENT = { 1, 0.0448, 0.2856, 0.3001, 0.2363,
+			0.1333 };
+	private static final double[] STRUCTURE_EXPONENT = CONTRAST_EXPONENT;
+
+	private static final float[] GAUSSIAN = createGaussianWindow();
+	private static final float[] LOW_PASS = createLowPassFilter();
+
+	/** The cached pyramid of each image */
+	private final Pyramid[] pyramids;
+
+	/**
+	 * Create an engine for the given images. Pyramids for all images are built
+	 * immediately, in parallel.
+	 *
+	 * @param images the images to compare. All images must have the same
+	 *               dimensions and bit depth.
+	 */
+	public MultiScaleStructuralSimilarityEngine(@NonNull List<ImageProcessor> images) {
+		for (ImageProcessor ip : images)
+			validate(ip, images.get(0));
+
+		pyramids = new Pyramid[images.size()];
+		IntStream.range(0, images.size()).parallel()
+				.forEach(i -> pyramids[i] = new Pyramid(images.get(i)));
+	}
+
+	/**
+	 * @return the number of images in the engine
+	 */
+	public int size() {
+		return pyramids.length;
+	}
+
+	/**
+	 * Calculate the MS-SSIM* score between two images
+	 *
+	 * @param i the index of the first image
+	 * @param j the index of the second image
+	 * @return the scores
+	 */
+	public MSSIMScore score(int i, int j) {
+		Pyramid a = pyramids[i];
+		Pyramid b = pyramids[j];
+
+		double luminanceComparison = 1;
+		double contrastComparison = 1;
+		double structureComparison = 1;
+
+		for (int level = 1; level <= NUMBER_OF_LEVELS; level++) {
+			double[] lcs = compareLevel(a.levels[level - 1], b.levels[level - 1]);
+
+			// Luminance is only used at the coarsest level
+			double luminance = level == NUMBER_OF_LEVELS ? lcs[0] : 1;
+			double contrast = lcs[1];
+			double structure = Math.abs(lcs[2]);
+
+			luminanceComparison *= Math.pow(luminance, LUMINANCE_EXPONENT[level]);
+			contrastComparison *= Math.pow(contrast, CONTRAST_EXPONENT[level]);
+			structureComparison *= Math.pow(structure, STRUCTURE_EXPONENT[level]);
+		}
+
+		double index = luminanceComparison * contrastComparison * structureComparison;
+		return new MSSIMScore(luminanceComparison, contrastComparison, structureComparison,
+				index);
+	}
+
+	/**
+	 * Calculate the scores for each unique unordered pair of images in
+	 * parallel. Scores are symmetric, so the result for {@code [i][j]} is also
+	 * stored at {@code [j][i]}. The diagonal is left null.
+	 *
+	 * @return the scores for each pair of images
+	 */
+	public MSSIMScore[][] scoreAllPairs() {
+		int n = pyramids.length;
+		MSSIMScore[][] result = new MSSIMScore[n][n];
+		IntStream.range(0, n * (n - 1) / 2).parallel().forEach(p -> {
+			// Recover the pair (i, j) with i < j from the linear pair index
+			int i = 0;
+			int remaining = p;
+			while (remaining >= n - 1 - i) {
+				remaining -= n - 1 - i;
+				i++;
+			}
+			int j = i + 1 + remaining;
+			MSSIMScore s = score(i, j);
+			result[i][j] = s;
+			result[j][i] = s;
+		});
+		return result;
+	}
+
+	/**
+	 * Calculate the mean luminance, contrast and structure terms between two
+	 * images at the same level
+	 *
+	 * @return the luminance, contrast and structure means
+	 */
+	private static double[] compareLevel(Level a, Level b) {
+		int n = a.pixels.length;
+
+		// The only per-pair filtering is the cross term
+		float[] xy = new float[n];
+		for (int k = 0; k < n; k++)
+			xy[k] = a.pixels[k] * b.pixels[k];
+		float[] meanXY = convolveSeparable(xy, a.width, a.height, GAUSSIAN);
+
+		double luminance = 0;
+		double contrast = 0;
+		double structure = 0;
+
+		for (int k = 0; k < n; k++) {
+			double mu1Sq = a.muSq[k];
+			double mu2Sq = b.muSq[k];
+			double mu1mu2 = a.mu[k] * b.mu[k];
+			double sigma12 = meanXY[k] - mu1mu2;
+			double sigma1Sq = a.sigmaSq[k];
+			double sigma2Sq = b.sigmaSq[k];
+			double sigma1 = a.sigma[k];
+			double sigma2 = b.sigma[k];
+
+			if ((mu1Sq + mu2Sq) == 0)
+				luminance += 1;
+			else
+				luminance += (2 * mu1mu2) / (mu1Sq + mu2Sq);
+
+			if ((sigma1Sq + sigma2Sq) == 0)
+				contrast += 1;
+			else
+				contrast += (2 * sigma1 * sigma2) / (sigma1Sq + sigma2Sq);
+
+			if (((sigma1 == 0) || (sigma2 == 0)) && (sigma1 != sigma2))
+				structure += 0;
+			else if ((sigma1 == 0) && (sigma2 == 0))
+				structure += 1;
+			else
+				structure += sigma12 / (sigma1 * sigma2);
+		}
+		return new double[] { luminance / n, contrast / n, structure / n };
+	}
+
+	/**
+	 * Check an image can be compared with the reference image
+	 */
+	private static void validate(ImageProcessor ip, ImageProcessor ref) {
+		if (ip.getWidth() != ref.getWidth())
+			throw new IllegalArgumentException(
+					"Widths unequal: %s and %s".formatted(ip.getWidth(), ref.getWidth()));
+		if (ip.getHeight() != ref.getHeight())
+			throw new IllegalArgumentException(
+					"Heights unequal: %s and %s".formatted(ip.getHeight(), ref.getHeight()));
+		if (ip.getHeight() < MIN_IMAGE_DIMENSION_PIXELS
+				|| ip.getWidth() < MIN_IMAGE_DIMENSION_PIXELS)
+			throw new IllegalArgumentException(
+					"Image is too small: %sx%s".formatted(ip.getWidth(), ip.getHeight()));
+		if (ip.getBitDepth() != ref.getBitDepth())
+			throw new IllegalArgumentException("Bit depths do not match: %s and %s"
+					.formatted(ip.getBitDepth(), ref.getBitDepth()));
+		if (ip instanceof ColorProcessor)
+			throw new IllegalArgumentException("Cannot handle colour images");
+	}
+
+	/**
+	 * The downsampled levels of a single image
+	 */
+	private static class Pyramid {
+
+		private final Level[] levels = new Level[NUMBER_OF_LEVELS];
+
+		Pyramid(ImageProcessor ip) {
+			int width = ip.getWidth();
+			int height = ip.getHeight();
+			int bitDepth = ip.getBitDepth();
+
+			float[] pixels = new float[width * height];
+			for (int k = 0; k < pixels.length; k++)
+				pixels[k] = ip.getf(k);
+
+			levels[0] = new Level(pixels, width, height);
+
+			for (int level = 1; level < NUMBER_OF_LEVELS; level++) {
+				float[] filtered = convolveSeparable(pixels, width, height, LOW_PASS);
+				if (bitDepth != 32)
+					roundToPixelType(filtered, bitDepth == 8 ? 255 : 65535);
+
+				// Nearest neighbour downsampling as ImageProcessor#resize(int)
+				int newWidth = width / 2;
+				int newHeight = (int) (newWidth * ((double) height / width));
+				pixels = downsample(filtered, width, height, newWidth, newHeight);
+				width = newWidth;
+				height = newHeight;
+				levels[level] = new Level(pixels, width, height);
+			}
+		}
+
+		/**
+		 * Round filtered values back to the integer pixel type, as when a
+		 * convolved integer image is converted back from float
+		 */
+		private static void roundToPixelType(float[] values, float max) {
+			for (int k = 0; k < values.length; k++) {
+				float v = values[k] + 0.5f;
+				if (v < 0f)
+					v = 0f;
+				if (v > max)
+					v = max;
+				values[k] = (int) v;
+			}
+		}
+
+		private static float[] downsample(float[] src, int width, int height, int newWidth,
+				int newHeight) {
+			double srcCentreX = width / 2.0;
+			double srcCentreY = height / 2.0;
+			double dstCentreX = newWidth / 2.0;
+			double dstCentreY = newHeight / 2.0;
+			double xScale = (double) newWidth / width;
+			double yScale = (double) newHeight / height;
+
+			float[] result = new float[newWidth * newHeight];
+			int index = 0;
+			for (int y = 0; y < newHeight; y++) {
+				int row = width * (int) ((y - dstCentreY) / yScale + srcCentreY);
+				for (int x = 0; x < newWidth; x++)
+					result[index++] = src[row + (int) ((x - dstCentreX) / xScale + srcCentreX)];
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * The pixels of one pyramid level with their local statistics
+	 */
+	private static class Level {
+		private final int width;
+		private final int height;
+		private final float[] pixels;
+		private final float[] mu;
+		private final double[] muSq;
+		private final double[] sigmaSq;
+		private final double[] sigma;
+
+		Level(float[] pixels, int width, int height) {
+			this.pixels = pixels;
+			this.width = width;
+			this.height = height;
+
+			int n = pixels.length;
+			float[] sq = new float[n];
+			for (int k = 0; k < n; k++)
+				sq[k] = pixels[k] * pixels[k];
+
+			mu = convolveSeparable(pixels, width, height, GAUSSIAN);
+			float[] meanSq = convolveSeparable(sq, width, height, GAUSSIAN);
+
+			muSq = new double[n];
+			sigmaSq = new double[n];
+			sigma = new double[n];
+			for (int k = 0; k < n; k++) {
+				muSq[k] = mu[k] * mu[k];
+				// Rounding near edges can make the variance slightly negative
+				sigmaSq[k] = Math.max(0, meanSq[k] - muSq[k]);
+				sigma[k] = Math.sqrt(sigmaSq[k]);
+			}
+		}
+	}
+
+	/**
+	 * Convolve an image with a symmetric kernel along both axes. Pixels beyond
+	 * the image edge take the value of the nearest edge pixel.
+	 *
+	 * @param src    the image pixels
+	 * @param width  the image width
+	 * @param height the image height
+	 * @param kernel the 1D kernel, of odd length
+	 * @return the filtered pixels
+	 */
+	static float[] convolveSeparable(float[] src, int width, int height, float[] kernel) {
+		int r = kernel.length / 2;
+
+		// Rescale by the sum of the float kernel so flat regions are reproduced
+		// exactly and local variances there are zero, as with ImageJ's convolver
+		double kernelSum = 0;
+		for (float k : kernel)
+			kernelSum += k;
+		double scale = kernelSum == 0 ? 1 : 1 / kernelSum;
+
+		// The intermediate pass is kept in double so the result is rounded to
+		// float only once, as for a single 2D pass
+		double[] tmp = new double[src.length];
+		float[] dst = new float[src.length];
+
+		for (int y = 0; y < height; y++) {
+			int row = y * width;
+			for (int x = 0; x < width; x++) {
+				double sum = 0;
+				for (int k = -r; k <= r; k++) {
+					int xx = Math.min(width - 1, Math.max(0, x + k));
+					sum += src[row + xx] * kernel[k + r];
+				}
+				tmp[row + x] = sum * scale;
+			}
+		}
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				double sum = 0;
+				for (int k = -r; k <= r; k++) {
+					int yy = Math.min(height - 1, Math.max(0, y + k));
+					sum += tmp[yy * width + x] * kernel[k + r];
+				}
+				dst[y * width + x] = (float) (sum * scale);
+			}
+		}
+		return dst;
+	}
+
+	private static float[] createGaussianWindow() {
+		int centre = FILTER_WIDTH / 2;
+		double[] weights = new double[FILTER_WIDTH];
+		double total = 0;
+		for (int i = 0; i < FILTER_WIDTH; i++) {
+			weights[i] = Math.exp(-0.5 * (i - centre) * (i - centre) / (SIGMA_GAUSS * SIGMA_GAUSS));
+			total += weights[i];
+		}
+		float[] result = new float[FILTER_WIDTH];
+		for (int i = 0; i < FILTER_WIDTH; i++)
+			result[i] = (float) (weights[i] / total);
+		return result;
+	}
+
+	private static float[] createLowPassFilter() {
+		double total = 0;
+		for (double d : LOD)
+			total += d;
+		float[] result = new float[LOD.length];
+		for (int i = 0; i < LOD.length; i++)
+			result[i] = (float) (LOD[i] / total);
+		return result;
+	}
+}
@@ -57,10 +57,8 @@ public class CellCollectionFilterer {
 
 		ICellCollection result = new DefaultCellCollection(c0.getRuleSetCollection(),
 				"AND operation", UUID.randomUUID());
-		for (ICell c : c0) {
-			if (collections.stream().allMatch(col -> col.contains(c)))
-				result.add(c.duplicate());
-		}
+		for (ICell c : new CellSetAlgebra(collections).intersection())
+			result.add(c.duplicate());
 		return result;
 	}
 
@@ -80,12 +78,8 @@ public class CellCollectionFilterer {
 				"OR operation", UUID.randomUUID());
 
 		// Add cells from each source dataset
-		for (ICellCollection d : collections) {
-			for (ICell c : d) {
-				if (!result.contains(c))
-					result.add(c.duplicate());
-			}
-		}
+		for (ICell c : new CellSetAlgebra(collections).union())
+			result.add(c.duplicate());
 		return result;
 	}
 
@@ -104,13 +98,9 @@ public class CellCollectionFilterer {
 		ICellCollection result = new DefaultCellCollection(c0.getRuleSetCollection(),
 				"NOT operation", UUID.randomUUID());
 
-		List<ICellCollection> otherCollections = collections.subList(1, collections.size());
-
 		// Add cells only if not in any of the other datasets
-		for (ICell c : c0) {
-			if (otherCollections.stream().noneMatch(col -> col.contains(c)))
-				result.add(c.duplicate());
-		}
+		for (ICell c : new CellSetAlgebra(collections).difference())
+			result.add(c.duplicate());
 
 		return result;
 	}
@@ -130,18 +120,9 @@ public class CellCollectionFilterer {
 		ICellCollection result = new DefaultCellCollection(c0.getRuleSetCollection(),
 				"XOR operation", UUID.randomUUID());
 
-		for (ICellCollection d : collections) {
-
-			// Get the collections other than the current collection
-			List<ICellCollection> otherCollections = collections.stream().filter(c -> !c.equals(d))
-					.toList();
-
-			// Add cells that are not in any of the other datasets
-			for (ICell c : d) {
-				if (otherCollections.stream().noneMatch(col -> col.contains(c)))
-					result.add(c.duplicate());
-			}
-		}
+		// Add cells that are not in any of the other datasets
+		for (ICell c : new CellSetAlgebra(collections).exclusive())
+			result.add(c.duplicate());
 		return result;
 	}
 
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.analysis.nucleus;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.datasets.ICellCollection;
+
+/**
+ * Set operations on the cells in a group of collections. Each distinct cell
+ * ID is given an ordinal when the collections are first read, and each
+ * collection is held as a bitset of the ordinals of its cells. Intersections,
+ * unions, differences and overlap counts are then computed a word at a time
+ * over the bitsets rather than by searching collections for each cell.
+ * <p>
+ * Cells are matched on their IDs, as in
+ * {@link ICellCollection#countShared(ICellCollection)}. Where a cell is in
+ * several collections, the cell from the first collection containing it is
+ * used. Cells are returned in the order they are first found when reading
+ * the collections in turn.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class CellSetAlgebra {
+
+	/** Cells by ordinal */
+	private final List<ICell> cells = new ArrayList<>();
+
+	/** The ordinals of the cells in each collection */
+	private final List<BitSet> members;
+
+	/**
+	 * Index the cells in the given collections
+	 * 
+	 * @param collections the collections to compare
+	 */
+	public CellSetAlgebra(@NonNull List<? extends ICellCollection> collections) {
+		if (collections.isEmpty())
+			throw new IllegalArgumentException("No collections to compare");
+
+		members = new ArrayList<>(collections.size());
+		Map<UUID, Integer> ordinals = new HashMap<>();
+		for (ICellCollection collection : collections) {
+			BitSet b = new BitSet(cells.size() + collection.size());
+			for (ICell c : collection) {
+				Integer ordinal = ordinals.get(c.getId());
+				if (ordinal == null) {
+					ordinal = cells.size();
+					ordinals.put(c.getId(), ordinal);
+					cells.add(c);
+				}
+				b.set(ordinal);
+			}
+			members.add(b);
+		}
+	}
+
+	/**
+	 * @return the number of collections compared
+	 */
+	public int collectionCount() {
+		return members.size();
+	}
+
+	/**
+	 * Get the number of distinct cells in a collection
+	 * 
+	 * @param i the index of the collection
+	 * @return the number of distinct cell IDs in the collection
+	 */
+	public int count(int i) {
+		return members.get(i).cardinality();
+	}
+
+	/**
+	 * Count the cells shared between two collections
+	 * 
+	 * @param i the index of the first collection
+	 * @param j the index of the second collection
+	 * @return the number of cell IDs in both collections
+	 */
+	public int countShared(int i, int j) {
+		BitSet b = (BitSet) members.get(i).clone();
+		b.and(members.get(j));
+		return b.cardinality();
+	}
+
+	/**
+	 * Count the cells shared between every pair of collections
+	 * 
+	 * @return a symmetric matrix of shared counts, with the size of each
+	 *         collection on the diagonal
+	 */
+	public int[][] countShared() {
+		int n = members.size();
+		int[][] result = new int[n][n];
+		for (int i = 0; i < n; i++) {
+			result[i][i] = count(i);
+			for (int j = i + 1; j < n; j++) {
+				result[i][j] = countShared(i, j);
+				result[j][i] = result[i][j];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the cells present in every collection
+	 */
+	public List<ICell> intersection() {
+		BitSet b = (BitSet) members.get(0).clone();
+		for (int i = 1; i < members.size(); i++)
+			b.and(members.get(i));
+		return toCells(b);
+	}
+
+	/**
+	 * @return the cells present in any collection
+	 */
+	public List<ICell> union() {
+		return new ArrayList<>(cells);
+	}
+
+	/**
+	 * @return the cells in the first collection that are not in any other
+	 *         collection
+	 */
+	public List<ICell> difference() {
+		BitSet b = (BitSet) members.get(0).clone();
+		for (int i = 1; i < members.size(); i++)
+			b.andNot(members.get(i));
+		return toCells(b);
+	}
+
+	/**
+	 * @return the cells present in exactly one collection
+	 */
+	public List<ICell> exclusive() {
+		BitSet once = new BitSet(cells.size());
+		BitSet more = new BitSet(cells.size());
+		for (BitSet b : members) {
+			BitSet repeated = (BitSet) once.clone();
+			repeated.and(b);
+			more.or(repeated);
+			once.or(b);
+		}
+		once.andNot(more);
+		return toCells(once);
+	}
+
+	private List<ICell> toCells(BitSet b) {
+		List<ICell> result = new ArrayList<>(b.cardinality());
+		for (int i = b.nextSetBit(0); i >= 0; i = b.nextSetBit(i + 1))
+			result.add(cells.get(i));
+		return result;
+	}
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.analysis.nucleus;
+
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.bmskinner.nma.components.ComponentOrienter;
+import com.bmskinner.nma.components.ComponentOrienter.Orientation;
+import com.bmskinner.nma.components.MissingDataException;
+import com.bmskinner.nma.components.cells.CellularComponent;
+import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.generic.BorderArray;
+import com.bmskinner.nma.components.generic.FloatPoint;
+import com.bmskinner.nma.components.generic.IPoint;
+import com.bmskinner.nma.components.profiles.MissingLandmarkException;
+import com.bmskinner.nma.components.rules.OrientationMark;
+import com.bmskinner.nma.logging.Loggable;
+import com.bmskinner.nma.stats.QuickSelect;
+import com.bmskinner.nma.stats.Stats;
+
+/**
+ * Calculates the median outline of a group of nuclei from points equally
+ * spaced around each oriented nucleus border.
+ * <p>
+ * The nuclei are not duplicated to orient them. Instead the rotation and flip
+ * each nucleus would be given is calculated from its landmarks, and applied
+ * directly to the sampled border points as they are written into a single
+ * preallocated block of coordinates. The median of each point is then selected
+ * in place from primitive arrays, with blocks of points handled in parallel.
+ * The result is the same as sampling the border of each oriented nucleus from
+ * {@link Nucleus#getOrientedNucleus()}.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class ConsensusAveragingEngine {
+
+	private static final Logger LOGGER = Logger
+			.getLogger(ConsensusAveragingEngine.class.getName());
+
+	/** Points per block of work sharing scratch arrays */
+	private static final int BLOCK_SIZE = 64;
+
+	private final int nPoints;
+
+	/**
+	 * The sampled points of each nucleus in microns, with the nucleus centre of
+	 * mass at the origin. Coordinates are interleaved as x0, y0, x1, y1...
+	 */
+	private final float[][] points;
+
+	/** The number of nuclei with points in the block */
+	private final int nNuclei;
+
+	/**
+	 * Sample the oriented borders of the given nuclei. Nuclei that cannot be
+	 * oriented are logged and left out of the average.
+	 *
+	 * @param nuclei  the nuclei to average
+	 * @param nPoints the number of points to sample around each border
+	 */
+	public ConsensusAveragingEngine(@NonNull List<Nucleus> nuclei, int nPoints) {
+		this.nPoints = nPoints;
+		float[][] block = new float[nuclei.size()][2 * nPoints];
+
+		boolean[] sampled = new boolean[nuclei.size()];
+		IntStream.range(0, nuclei.size()).parallel()
+				.forEach(i -> sampled[i] = sample(nuclei.get(i), block[i]));
+
+		int count = 0;
+		for (int i = 0; i < block.length; i++)
+			if (sampled[i])
+				block[count++] = block[i];
+		nNuclei = count;
+		points = block;
+	}
+
+	/**
+	 * Get the number of nuclei contributing to the average
+	 *
+	 * @return the number of nuclei
+	 */
+	public int size() {
+		return nNuclei;
+	}
+
+	/**
+	 * Calculate the median position of each sampled point, in microns with the
+	 * centre of mass at the origin
+	 *
+	 * @return the median points
+	 * @throws MissingDataException if no nuclei could be sampled
+	 */
+	public List<IPoint> calculateMedianPoints() throws MissingDataException {
+		if (nNuclei == 0)
+			throw new MissingDataException("No nuclei could be oriented for averaging");
+
+		float[] xMed = new float[nPoints];
+		float[] yMed = new float[nPoints];
+
+		int nBlocks = (nPoints + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		IntStream.range(0, nBlocks).parallel().forEach(b -> {
+			float[] xs = new float[nNuclei];
+			float[] ys = new float[nNuclei];
+			int end = Math.min(nPoints, (b + 1) * BLOCK_SIZE);
+			for (int i = b * BLOCK_SIZE; i < end; i++) {
+				for (int k = 0; k < nNuclei; k++) {
+					xs[k] = points[k][2 * i];
+					ys[k] = points[k][2 * i + 1];
+				}
+				xMed[i] = QuickSelect.quartile(xs, nNuclei, Stats.MEDIAN);
+				yMed[i] = QuickSelect.quartile(ys, nNuclei, Stats.MEDIAN);
+			}
+		});
+
+		List<IPoint> result = new ArrayList<>(nPoints);
+		for (int i = 0; i < nPoints; i++)
+			result.add(new FloatPoint(xMed[i], yMed[i]));
+		return result;
+	}
+
+	/**
+	 * Write the oriented points of a nucleus into its row of the block. The steps
+	 * and rounding are those applied to the border of an oriented nucleus: rotate
+	 * about the centre of mass, flip, move the centre of mass to the origin, and
+	 * scale to microns.
+	 *
+	 * @param n   the nucleus
+	 * @param row the row to fill
+	 * @return true if the nucleus was sampled, false otherwise
+	 */
+	private boolean sample(@NonNull Nucleus n, float[] row) {
+		try {
+			Orientation orientation = ComponentOrienter.calcOrientation(n);
+			BorderArray border = BorderArray.of(n.getBorderList());
+			int length = border.size();
+			int rpIndex = n.getBorderIndex(OrientationMark.REFERENCE);
+
+			double m00 = 1;
+			double m01 = 0;
+			double m02 = 0;
+			double m10 = 0;
+			double m11 = 1;
+			double m12 = 0;
+			if (orientation.angle() != 0) {
+				AffineTransform tf = ComponentOrienter.createRotation(n, orientation.angle());
+				m00 = tf.getScaleX();
+				m01 = tf.getShearX();
+				m02 = tf.getTranslateX();
+				m10 = tf.getShearY();
+				m11 = tf.getScaleY();
+				m12 = tf.getTranslateY();
+			}
+
+			// The centre of mass after rotation. Flipping about it leaves it in place.
+			double comX = n.getCentreOfMass().getX();
+			double comY = n.getCentreOfMass().getY();
+			double cx = (float) (comX * m00 + comY * m01 + m02);
+			double cy = (float) (comX * m10 + comY * m11 + m12);
+
+			boolean flipH = orientation.flip().h();
+			boolean flipV = orientation.flip().v();
+			double scale = n.getScale();
+
+			for (int i = 0; i < nPoints; i++) {
+				double fractionOfPerimeter = i / (double) nPoints;
+				int index = CellularComponent.wrapIndex((int) (length * fractionOfPerimeter)
+						+ rpIndex, length);
+
+				double x = border.getX(index);
+				double y = border.getY(index);
+				float rx = (float) (x * m00 + y * m01 + m02);
+				float ry = (float) (x * m10 + y * m11 + m12);
+
+				if (flipH)
+					rx = (float) (cx + (cx - rx));
+				if (flipV)
+					ry = (float) (cy + (cy - ry));
+
+				rx = (float) (rx + (0 - cx));
+				ry = (float) (ry + (0 - cy));
+
+				row[2 * i] = (float) (rx / scale);
+				row[2 * i + 1] = (float) (ry / scale);
+			}
+			return true;
+		} catch (MissingLandmarkException e) {
+			LOGGER.log(Loggable.STACK,
+					"Unable to orient nucleus %s for averaging".formatted(n.getNameAndNumber()),
+					e);
+			return false;
+		}
+	}
+}
@@ -18,9 +18,7 @@ package com.bmskinner.nma.analysis.nucleus;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
 
@@ -53,7 +51,6 @@ import com.bmskinner.nma.components.profiles.ProfileType;
 import com.bmskinner.nma.components.profiles.UnprofilableObjectException;
 import com.bmskinner.nma.components.rules.OrientationMark;
 import com.bmskinner.nma.gui.events.UIController;
-import com.bmskinner.nma.logging.Loggable;
 import com.bmskinner.nma.stats.Stats;
 
 /**
@@ -244,59 +241,18 @@ public class ConsensusAveragingMethod extends SingleDatasetAnalysisMethod {
 	 * the dataset have cells at different scales.
 	 * 
 	 * @return
+	 * @throws MissingDataException
 	 */
-	private List<IPoint> calculatePointAverage() {
-
-		final Map<Double, List<IPoint>> perimeterPoints = new HashMap<>();
-
-//		final List<IPoint>[] arr = new ArrayList[1000];
-//		Arrays.setAll(arr, e -> new ArrayList<IPoint>());
-
-		IPoint zeroCoM = IPoint.atOrigin();
-
-		try {
-			// Make a list of points at equivalent positions in each nucleus
-			for (Nucleus n : dataset.getCollection().getNuclei()) {
-
-				Nucleus v = n.getOrientedNucleus();
-				IPoint oldCoM = v.getCentreOfMass().duplicate();
-				v.moveCentreOfMass(zeroCoM);
-				IProfile p = v.getProfile(ProfileType.ANGLE, OrientationMark.REFERENCE);
-
-				for (int i = 0; i < PROFILE_LENGTH; i++) {
+	private List<IPoint> calculatePointAverage() throws MissingDataException {
 
-					double fractionOfPerimeter = i / PROFILE_LENGTH;
-
-					List<IPoint> list = perimeterPoints.computeIfAbsent(fractionOfPerimeter,
-							k -> new ArrayList<>());
-
-					int indexInProfile = p.getIndexOfFraction(fractionOfPerimeter);
-					int borderIndex = v.getIndexRelativeTo(OrientationMark.REFERENCE,
-							indexInProfile);
-					IPoint point = v.getBorderPoint(borderIndex);
-
-					// Scale the point to microns
-					IPoint micronPoint = point.divide(n.getScale());
-					list.add(micronPoint);
-
-//					arr[i].add(micronPoint);
-				}
-				// Put the oriented nucleus back where it belongs
-				v.moveCentreOfMass(oldCoM);
-			}
-		} catch (Exception e1) {
-			LOGGER.log(Loggable.STACK, "Error calculating perimeter points in nuclei", e1);
-		}
+		List<IPoint> medianPoints = new ConsensusAveragingEngine(
+				dataset.getCollection().getNuclei(), (int) PROFILE_LENGTH).calculateMedianPoints();
 
 		// Avoid errors in border calculation due to identical points by
 		// checking each average point in the list is different to the
 		// previous. Needed since we have a large profile length.
 		List<IPoint> averagedPoints = new ArrayList<>();
-		for (int i = 0; i < PROFILE_LENGTH; i++) {
-			double d = i / PROFILE_LENGTH;
-			List<IPoint> list = perimeterPoints.get(d);
-			IPoint avg = calculateMedianPoint(list);
-
+		for (IPoint avg : medianPoints) {
 			if (averagedPoints.isEmpty()
 					|| !averagedPoints.get(averagedPoints.size() - 1).equals(avg)) {
 				averagedPoints.add(avg);
@@ -305,27 +261,4 @@ public class ConsensusAveragingMethod extends SingleDatasetAnalysisMethod {
 		}
 		return averagedPoints;
 	}
-
-	/**
-	 * Find the point with the median x and y coordinate of the given points
-	 * 
-	 * @param list
-	 * @return
-	 */
-	private IPoint calculateMedianPoint(List<IPoint> list) {
-		double[] xpoints = new double[list.size()];
-		double[] ypoints = new double[list.size()];
-
-		for (int i = 0; i < list.size(); i++) {
-			IPoint p = list.get(i);
-
-			xpoints[i] = p.getX();
-			ypoints[i] = p.getY();
-		}
-
-		double xMed = Stats.quartile(xpoints, Stats.MEDIAN);
-		double yMed = Stats.quartile(ypoints, Stats.MEDIAN);
-
-		return new FloatPoint(xMed, yMed);
-	}
 }
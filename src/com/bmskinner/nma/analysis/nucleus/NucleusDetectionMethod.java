@@ -206,8 +206,7 @@ public class NucleusDetectionMethod extends AbstractAnalysisMethod {
 		File[] arr = folder.listFiles();
 		if (arr == null)
 			return;
-		if (Thread.interrupted())
-			return;
+		throwIfCancelled();
 
 		// Recurse over all folders in the supplied folder
 		for (File f : arr) {
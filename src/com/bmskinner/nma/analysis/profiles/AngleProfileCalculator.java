@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.analysis.profiles;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.bmskinner.nma.components.cells.CellularComponent;
+import com.bmskinner.nma.components.generic.BorderArray;
+import com.bmskinner.nma.components.generic.IPoint;
+import com.bmskinner.nma.components.generic.PolygonEdgeTable;
+
+/**
+ * Calculates angle profiles for a border at one or more window sizes in a
+ * single pass. The border coordinates and the point-in-polygon edge table are
+ * created once per border and shared between all windows, and the vector from
+ * each point to the point a window ahead is reused as the (negated) vector
+ * from that point back to the first. Results are identical to calculating each
+ * window separately via {@link IPoint#findSmallestAngle(IPoint, IPoint)} and
+ * {@link java.awt.Shape#contains(double, double)}.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class AngleProfileCalculator {
+
+	private AngleProfileCalculator() {
+	} // no constructor, static access only
+
+	/**
+	 * Calculate the angle profile of a border at a single window size
+	 * 
+	 * @param border     the border points
+	 * @param windowSize the window size in border points
+	 * @return the angle at each border point
+	 */
+	public static float[] calculate(@NonNull List<IPoint> border, int windowSize) {
+		return calculate(border, new int[] { windowSize })[0];
+	}
+
+	/**
+	 * Calculate angle profiles of a border at multiple window sizes
+	 * 
+	 * @param border      the border points
+	 * @param windowSizes the window sizes in border points
+	 * @return the angle at each border point, indexed by window then point
+	 */
+	public static float[][] calculate(@NonNull List<IPoint> border, int[] windowSizes) {
+		BorderArray packed = BorderArray.of(border);
+		return calculate(packed.toXArray(), packed.toYArray(), windowSizes);
+	}
+
+	/**
+	 * Calculate angle profiles of a border at multiple window sizes
+	 * 
+	 * @param xs          the x coordinates of the border
+	 * @param ys          the y coordinates of the border
+	 * @param windowSizes the window sizes in border points
+	 * @return the angle at each border point, indexed by window then point
+	 */
+	public static float[][] calculate(float[] xs, float[] ys, int[] windowSizes) {
+		int n = xs.length;
+		float[][] result = new float[windowSizes.length][n];
+		if (n == 0)
+			return result;
+
+		PolygonEdgeTable edges = new PolygonEdgeTable(xs, ys);
+
+		// Vector from each point to the point one window ahead
+		float[] dx = new float[n];
+		float[] dy = new float[n];
+
+		for (int w = 0; w < windowSizes.length; w++) {
+			int windowSize = windowSizes[w];
+
+			for (int i = 0; i < n; i++) {
+				int ahead = CellularComponent.wrapIndex(i + windowSize, n);
+				dx[i] = xs[i] - xs[ahead];
+				dy[i] = ys[i] - ys[ahead];
+			}
+
+			float[] angles = result[w];
+			for (int i = 0; i < n; i++) {
+				int before = CellularComponent.wrapIndex(i + windowSize, n);
+				int after = CellularComponent.wrapIndex(i - windowSize, n);
+
+				// Vector from the point behind is the negated forward vector of that point
+				float abx = dx[i];
+				float aby = dy[i];
+				float cbx = -dx[after];
+				float cby = -dy[after];
+
+				double dot = (abx * cbx + aby * cby);
+				double cross = (abx * cby - aby * cbx);
+				float angle = (float) Math.abs(Math.atan2(cross, dot) * 180 / Math.PI);
+
+				// Is the measured angle inside or outside the object?
+				// If the midpoint of the before and after points is within the
+				// border, the angle is the interior angle; if not, 360-angle is.
+				float midX = (float) (((double) xs[before] + (double) xs[after]) / 2);
+				float midY = (float) (((double) ys[before] + (double) ys[after]) / 2);
+				angles[i] = edges.contains(midX, midY) ? angle : 360 - angle;
+			}
+		}
+		return result;
+	}
+}
@@ -30,6 +30,7 @@ import com.bmskinner.nma.components.ComponentMeasurer;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
+import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.DatasetValidator;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
@@ -159,6 +160,7 @@ public class DatasetProfilingMethod extends SingleDatasetAnalysisMethod {
 				continue;
 			List<RuleSet> ruleSets = collection.getRuleSetCollection().getRuleSets(lm);
 			for (Nucleus n : collection.getNuclei()) {
+				throwIfCancelled();
 				int index = 0;
 				try {
 					index = ProfileIndexFinder.identifyIndex(n, ruleSets);
@@ -219,6 +221,7 @@ public class DatasetProfilingMethod extends SingleDatasetAnalysisMethod {
 		// in each nucleus since some measurements use the landmarks
 		// for orientation
 		for (Nucleus n : dataset.getCollection().getNuclei()) {
+			throwIfCancelled();
 			for (Measurement m : dataset.getAnalysisOptions()
 					.orElseThrow(MissingOptionException::new)
 					.getRuleSetCollection()
@@ -423,20 +426,23 @@ public class DatasetProfilingMethod extends SingleDatasetAnalysisMethod {
 			throws ProfileException, IndexOutOfBoundsException, SegmentUpdateException,
 			MissingDataException {
 
-		for (Nucleus n : collection.getNuclei()) {
-			if (n.isLocked())
-				continue;
+		for (ICell c : collection) {
+			throwIfCancelled();
+			for (Nucleus n : c.getNuclei()) {
+				if (n.isLocked())
+					continue;
 
-			// Get the nucleus profile starting at the landmark
-			// Find the best offset needed to make it match the median profile
-			int offset = n.getProfile(type, lm).findBestFitOffset(median);
+				// Get the nucleus profile starting at the landmark
+				// Find the best offset needed to make it match the median profile
+				int offset = n.getProfile(type, lm).findBestFitOffset(median);
 
-			// Update the landmark position to the original index plus the offset
-			n.setLandmark(lm, n.wrapIndex(n.getBorderIndex(lm) + offset));
+				// Update the landmark position to the original index plus the offset
+				n.setLandmark(lm, n.wrapIndex(n.getBorderIndex(lm) + offset));
+				fireProgressEvent();
+			}
 
 			// Update measurements - many are based on orientation
-			n.clearMeasurements();
-			fireProgressEvent();
+			collection.clearMeasurements(c);
 		}
 
 		// Update the consensus nucleus
@@ -140,6 +140,7 @@ public class DatasetSegmentationMethod extends SingleDatasetAnalysisMethod {
 		// Ensure segments are copied appropriately to verticals
 		// Ensure hook statistics are generated appropriately
 		for (Nucleus n : dataset.getCollection().getNuclei()) {
+			throwIfCancelled();
 			// Initialise all measurements that do not already exist
 			for (Measurement m : dataset.getAnalysisOptions()
 					.orElseThrow(MissingOptionException::new)
@@ -308,6 +309,7 @@ public class DatasetSegmentationMethod extends SingleDatasetAnalysisMethod {
 			throws ProfileException, MissingDataException, SegmentUpdateException {
 		IterativeSegmentFitter fitter = new IterativeSegmentFitter(template);
 		for (Nucleus n : collection.getNuclei()) {
+			throwIfCancelled();
 
 			// Ensure new segments can be assigned
 			boolean wasLocked = n.isLocked();
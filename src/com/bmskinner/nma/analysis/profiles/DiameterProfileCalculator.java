@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.analysis.profiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.bmskinner.nma.components.generic.BorderArray;
+import com.bmskinner.nma.components.generic.IPoint;
+
+/**
+ * Calculates diameter profiles for a border. The opposite border point for
+ * each point is the point for which the direct distance between the two is
+ * closest to the sum of their distances to the centre, as in
+ * {@link com.bmskinner.nma.components.cells.CellularComponent#findOppositeBorder(IPoint)}.
+ * <p>
+ * Rather than scanning the whole border for every point, the border is sorted
+ * once by angle about the centre. The points are then swept in angular order
+ * while a second pointer rotates to the angle directly opposite, and candidate
+ * opposite points are examined outwards from there. A point at angular
+ * deviation &phi; from the opposite direction cannot score better than
+ * {@code a*r/(a+r)*(1-cos(phi))}, where {@code a} is the distance of the query
+ * point to the centre and {@code r} the smallest radius of the border, so the
+ * search stops as soon as this bound exceeds the best score found. Results are
+ * identical to the point-by-point search.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class DiameterProfileCalculator {
+
+	/** Relative allowance for float rounding when pruning candidates */
+	private static final double PRUNE_TOLERANCE = 1e-6;
+
+	private DiameterProfileCalculator() {
+	} // no constructor, static access only
+
+	/**
+	 * Calculate the diameter profile of a border
+	 *
+	 * @param border the border points
+	 * @param centre the centre of the object
+	 * @return the distance from each border point to its opposite point
+	 */
+	public static float[] calculate(@NonNull List<IPoint> border, @NonNull IPoint centre) {
+		BorderArray packed = BorderArray.of(border);
+		return calculate(packed.toXArray(), packed.toYArray(), (float) centre.getX(),
+				(float) centre.getY());
+	}
+
+	/**
+	 * Calculate the diameter profile of a border
+	 *
+	 * @param xs the border x coordinates
+	 * @param ys the border y coordinates
+	 * @param cx the x coordinate of the centre
+	 * @param cy the y coordinate of the centre
+	 * @return the distance from each border point to its opposite point
+	 */
+	public static float[] calculate(float[] xs, float[] ys, float cx, float cy) {
+		int[] opposite = findOppositeIndices(xs, ys, cx, cy);
+		float[] result = new float[xs.length];
+		for (int i = 0; i < xs.length; i++)
+			result[i] = (float) length(xs[i] - xs[opposite[i]], ys[i] - ys[opposite[i]]);
+		return result;
+	}
+
+	/**
+	 * Find the opposite border point for every point in a border
+	 *
+	 * @param xs the border x coordinates
+	 * @param ys the border y coordinates
+	 * @param cx the x coordinate of the centre
+	 * @param cy the y coordinate of the centre
+	 * @return the index of the opposite point for each border point
+	 */
+	public static int[] findOppositeIndices(float[] xs, float[] ys, float cx, float cy) {
+		int n = xs.length;
+		int[] result = new int[n];
+		if (n == 0)
+			return result;
+
+		double[] angle = new double[n];
+		double[] radius = new double[n];
+		double minRadius = Double.MAX_VALUE;
+		double maxRadius = 0;
+		for (int i = 0; i < n; i++) {
+			float dx = xs[i] - cx;
+			float dy = ys[i] - cy;
+			angle[i] = Math.atan2(dy, dx);
+			radius[i] = length(dx, dy);
+			minRadius = Math.min(minRadius, radius[i]);
+			maxRadius = Math.max(maxRadius, radius[i]);
+		}
+
+		// Border indexes in order of angle about the centre
+		int[] order = sortByAngle(angle);
+		double[] sorted = new double[n];
+		for (int k = 0; k < n; k++)
+			sorted[k] = angle[order[k]];
+
+		// The rotating pointer into the sorted angles. Positions beyond n wrap
+		// around with the angle unwrapped by a full turn.
+		int j = 0;
+		for (int k = 0; k < n; k++) {
+			int p = order[k];
+			double target = sorted[k] + Math.PI;
+			while (unwrappedAngle(sorted, j) < target)
+				j++;
+			result[p] = findOpposite(xs, ys, cx, cy, p, radius[p], minRadius, maxRadius, order,
+					sorted, j, target);
+		}
+		return result;
+	}
+
+	/**
+	 * Search outwards from the angle opposite a point for the best opposite
+	 * point
+	 *
+	 * @param p      the index of the query point
+	 * @param a      the distance from the query point to the centre
+	 * @param start  the first position in the sorted angles at or beyond the
+	 *               target
+	 * @param target the angle directly opposite the query point
+	 * @return the index of the opposite point
+	 */
+	private static int findOpposite(float[] xs, float[] ys, float cx, float cy, int p, double a,
+			double minRadius, double maxRadius, int[] order, double[] sorted, int start,
+			double target) {
+		int n = xs.length;
+		double boundScale = a + minRadius > 0 ? a * minRadius / (a + minRadius) : 0;
+		double tolerance = PRUNE_TOLERANCE * (a + maxRadius);
+
+		int best = -1;
+		double bestScore = Double.MAX_VALUE;
+
+		int up = start;
+		int down = start - 1;
+		boolean upOpen = true;
+		boolean downOpen = true;
+
+		for (int visited = 0; visited < n && (upOpen || downOpen); visited++) {
+			double upDev = upOpen ? unwrappedAngle(sorted, up) - target : Double.MAX_VALUE;
+			double downDev = downOpen ? target - unwrappedAngle(sorted, down) : Double.MAX_VALUE;
+
+			boolean takeUp = upDev <= downDev;
+			double dev = takeUp ? upDev : downDev;
+
+			if (best >= 0 && boundScale * (1 - Math.cos(dev)) > bestScore + tolerance) {
+				// No closer candidate can exist on this side
+				if (takeUp)
+					upOpen = false;
+				else
+					downOpen = false;
+				visited--;
+				continue;
+			}
+
+			int q = order[Math.floorMod(takeUp ? up++ : down--, n)];
+
+			double p2p = length(xs[q] - xs[p], ys[q] - ys[p]);
+			if (p2p <= a)
+				continue;
+
+			double score = Math.abs(length(xs[q] - cx, ys[q] - cy) + a - p2p);
+			if (score < bestScore || (score == bestScore && q < best)) {
+				bestScore = score;
+				best = q;
+			}
+		}
+		return best < 0 ? 0 : best;
+	}
+
+	/**
+	 * Get the angle at a position in the sorted angles, continuing around the
+	 * circle for positions outside the array
+	 */
+	private static double unwrappedAngle(double[] sorted, int position) {
+		int n = sorted.length;
+		return sorted[Math.floorMod(position, n)] + 2 * Math.PI * Math.floorDiv(position, n);
+	}
+
+	private static int[] sortByAngle(double[] angle) {
+		Integer[] boxed = new Integer[angle.length];
+		for (int i = 0; i < angle.length; i++)
+			boxed[i] = i;
+		Arrays.sort(boxed, (i, j) -> Double.compare(angle[i], angle[j]));
+		int[] order = new int[angle.length];
+		for (int i = 0; i < angle.length; i++)
+			order[i] = boxed[i];
+		return order;
+	}
+
+	/**
+	 * Calculate the length of a vector in the same way as
+	 * {@link IPoint#getLengthTo(IPoint)} for float points
+	 */
+	private static double length(float dx, float dy) {
+		double dx2 = (double) dx * dx;
+		double dy2 = (double) dy * dy;
+		return Math.sqrt(dx2 + dy2);
+	}
+}
@@ -16,7 +16,7 @@
  ******************************************************************************/
 package com.bmskinner.nma.analysis.profiles;
 
-import java.awt.Shape;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Logger;
@@ -39,7 +39,9 @@ import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateExcept
 import com.bmskinner.nma.components.profiles.MissingLandmarkException;
 import com.bmskinner.nma.components.profiles.ProfileException;
 import com.bmskinner.nma.components.profiles.ProfileType;
+import com.bmskinner.nma.components.rules.OrientationMark;
 import com.bmskinner.nma.utility.AngleTools;
+import com.bmskinner.nma.utility.StreamUtils;
 
 /**
  * Performs angle and distance profiling on Taggable objects
@@ -80,6 +82,26 @@ public class ProfileCreator {
 		}
 	}
 
+	/**
+	 * Ensure the given profile types are ready for use in every target. Objects
+	 * create their profiles on first use; call this before working through the
+	 * profiles of many objects so they are created in parallel.
+	 * 
+	 * @param targets the objects to profile
+	 * @param types   the profile types to create
+	 * @throws MissingDataException   if a profile cannot be created
+	 * @throws SegmentUpdateException if a profile cannot be created
+	 */
+	public static void createProfiles(@NonNull Collection<? extends Taggable> targets,
+			@NonNull ProfileType... types)
+			throws MissingDataException, SegmentUpdateException {
+		targets.parallelStream().forEach(t -> {
+			for (ProfileType type : types)
+				StreamUtils.uncheckCall(
+						() -> t.getUnsegmentedProfile(type, OrientationMark.REFERENCE));
+		});
+	}
+
 	/**
 	 * Calculate an angle profile for the given object. The profile starts at the
 	 * first border index in the object
@@ -93,41 +115,70 @@ public class ProfileCreator {
 	private static IProfile calculateAngleProfile(@NonNull Taggable target)
 			throws MissingDataException, ComponentCreationException, SegmentUpdateException {
 
-		float[] angles = new float[target.getBorderLength()];
+		List<IPoint> borderList = target.getBorderList();
 
-		Shape s = target.toShape();
+		if (borderList == null)
+			throw new UnavailableBorderPointException("Null border list in target");
+
+		ensurePerimeter(target);
+
+		return new DefaultProfile(
+				AngleProfileCalculator.calculate(borderList, target.getWindowSize()));
+	}
+
+	/**
+	 * Calculate angle profiles for the given object at several window
+	 * proportions in a single pass over the border. The profiles start at the
+	 * first border index in the object. The object's own window proportion is not
+	 * changed.
+	 * 
+	 * @param target            the object to profile
+	 * @param windowProportions the window proportions to calculate
+	 * @return an angle profile for each window proportion
+	 * @throws MissingDataException
+	 * @throws ComponentCreationException
+	 * @throws SegmentUpdateException
+	 */
+	public static IProfile[] createAngleProfiles(@NonNull Taggable target,
+			double[] windowProportions)
+			throws MissingDataException, ComponentCreationException, SegmentUpdateException {
 
 		List<IPoint> borderList = target.getBorderList();
 
 		if (borderList == null)
 			throw new UnavailableBorderPointException("Null border list in target");
 
-		if (!target.hasMeasurement(Measurement.PERIMETER)) {
-			double perimeter = ComponentMeasurer.calculate(Measurement.PERIMETER, target);
-			target.setMeasurement(Measurement.PERIMETER, perimeter);
-		}
-
-		int windowSize = target.getWindowSize();
+		double perimeter = ensurePerimeter(target);
 
-		for (int index = 0; index < borderList.size(); index++) {
+		int[] windowSizes = new int[windowProportions.length];
+		for (int i = 0; i < windowProportions.length; i++)
+			windowSizes[i] = Math.max(1, (int) Math.ceil(perimeter * windowProportions[i]));
 
-			IPoint point = borderList.get(index);
-			IPoint pointBefore = borderList.get(target.wrapIndex(index + windowSize));
-			IPoint pointAfter = borderList.get(target.wrapIndex(index - windowSize));
+		float[][] angles = AngleProfileCalculator.calculate(borderList, windowSizes);
 
-			// Find the smallest angle between the points
-			float angle = (float) point.findSmallestAngle(pointBefore, pointAfter);
+		IProfile[] result = new IProfile[angles.length];
+		for (int i = 0; i < angles.length; i++)
+			result[i] = new DefaultProfile(angles[i]);
+		return result;
+	}
 
-			// Is the measured angle is inside or outside the object?
-			// Take the midpoint between the before and after points.
-			// If it is within the ROI, the angle is the interior angle
-			// if no, 360-min is the interior angle
-			float midX = (float) ((pointBefore.getX() + pointAfter.getX()) / 2);
-			float midY = (float) ((pointBefore.getY() + pointAfter.getY()) / 2);
-			angles[index] = s.contains(midX, midY) ? angle : 360 - angle;
+	/**
+	 * Ensure the perimeter of the object is measured, since window sizes depend
+	 * on it
+	 * 
+	 * @param target the object
+	 * @return the perimeter
+	 * @throws MissingDataException
+	 * @throws ComponentCreationException
+	 * @throws SegmentUpdateException
+	 */
+	private static double ensurePerimeter(@NonNull Taggable target)
+			throws MissingDataException, ComponentCreationException, SegmentUpdateException {
+		if (!target.hasMeasurement(Measurement.PERIMETER)) {
+			double perimeter = ComponentMeasurer.calculate(Measurement.PERIMETER, target);
+			target.setMeasurement(Measurement.PERIMETER, perimeter);
 		}
-
-		return new DefaultProfile(angles);
+		return target.getMeasurement(Measurement.PERIMETER);
 	}
 
 	/**
@@ -198,16 +249,8 @@ public class ProfileCreator {
 	private static IProfile calculateDiameterProfile(@NonNull Taggable target)
 			throws UnavailableBorderPointException {
 
-		float[] profile = new float[target.getBorderLength()];
-
-		List<IPoint> points = target.getBorderList();
-		for (int index = 0; index < points.size(); index++) {
-			IPoint point = points.get(index);
-			IPoint opp = target.findOppositeBorder(point);
-			profile[index] = (float) point.getLengthTo(opp);
-		}
-
-		return new DefaultProfile(profile);
+		return new DefaultProfile(DiameterProfileCalculator.calculate(target.getBorderList(),
+				target.getCentreOfMass()));
 	}
 
 	private static IProfile calculateRadiusProfile(@NonNull Taggable target) {
@@ -12,6 +12,7 @@ import com.bmskinner.nma.analysis.SingleDatasetAnalysisMethod;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
+import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.DatasetValidator;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
@@ -178,11 +179,12 @@ public class UpdateLandmarkMethod extends SingleDatasetAnalysisMethod {
 				collection.getProfileCollection().setLandmark(lm, newIndexOffset);
 
 				// update nuclei - allow possible parallel processing
-				for (Nucleus n : collection.getNuclei()) {
-					int existingIndex = n.getBorderIndex(existingTag);
-					n.setLandmark(lm, existingIndex);
-					n.clearMeasurements();
-
+				for (ICell c : collection) {
+					for (Nucleus n : c.getNuclei()) {
+						int existingIndex = n.getBorderIndex(existingTag);
+						n.setLandmark(lm, existingIndex);
+					}
+					collection.clearMeasurements(c);
 				}
 
 				// Update consensus
@@ -348,20 +350,22 @@ public class UpdateLandmarkMethod extends SingleDatasetAnalysisMethod {
 			throws ProfileException, IndexOutOfBoundsException, SegmentUpdateException,
 			MissingDataException {
 
-		for (Nucleus n : collection.getNuclei()) {
-			if (n.isLocked())
-				continue;
+		for (ICell c : collection) {
+			for (Nucleus n : c.getNuclei()) {
+				if (n.isLocked())
+					continue;
 
-			// Get the nucleus profile starting at the landmark
-			// Find the best offset needed to make it match the median profile
-			int offset = n.getProfile(type, lm).findBestFitOffset(template);
+				// Get the nucleus profile starting at the landmark
+				// Find the best offset needed to make it match the median profile
+				int offset = n.getProfile(type, lm).findBestFitOffset(template);
 
-			// Update the landmark position to the original index plus the offset
-			n.setLandmark(lm, n.wrapIndex(n.getBorderIndex(lm) + offset));
+				// Update the landmark position to the original index plus the offset
+				n.setLandmark(lm, n.wrapIndex(n.getBorderIndex(lm) + offset));
+				fireProgressEvent();
+			}
 
 			// Update measurements - many are based on orientation
-			n.clearMeasurements();
-			fireProgressEvent();
+			collection.clearMeasurements(c);
 		}
 
 		// Update the consensus nucleus
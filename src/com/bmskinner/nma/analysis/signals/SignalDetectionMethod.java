@@ -31,12 +31,14 @@ import com.bmskinner.nma.analysis.IAnalysisResult;
 import com.bmskinner.nma.analysis.SingleDatasetAnalysisMethod;
 import com.bmskinner.nma.analysis.detection.FinderDisplayType;
 import com.bmskinner.nma.components.MissingDataException;
+import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.cells.UnavailableBorderPointException;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
 import com.bmskinner.nma.components.datasets.VirtualDataset;
+import com.bmskinner.nma.components.measure.Measurement;
 import com.bmskinner.nma.components.options.HashOptions;
 import com.bmskinner.nma.components.options.MissingOptionException;
 import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
@@ -129,6 +131,11 @@ public class SignalDetectionMethod extends SingleDatasetAnalysisMethod {
 
 		dataset.getCollection().getCells()
 				.forEach(c -> detectInCell(c, finder, originalMinThreshold));
+
+		UUID signalGroup = options.getUUID(HashOptions.SIGNAL_GROUP_ID);
+		for (Measurement stat : List.of(Measurement.ANGLE, Measurement.DISTANCE_FROM_COM,
+				Measurement.FRACT_DISTANCE_FROM_COM))
+			dataset.getCollection().clear(stat, CellularComponent.NUCLEAR_SIGNAL, signalGroup);
 	}
 
 	private void detectInCell(ICell c, SignalFinder finder, int originalMinThreshold) {
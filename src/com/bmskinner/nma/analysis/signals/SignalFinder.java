@@ -31,6 +31,8 @@ import org.eclipse.jdt.annotation.NonNull;
 import com.bmskinner.nma.analysis.detection.AbstractFinder;
 import com.bmskinner.nma.analysis.detection.Detector;
 import com.bmskinner.nma.analysis.detection.FinderDisplayType;
+import com.bmskinner.nma.analysis.detection.StagedPreviewEngine;
+import com.bmskinner.nma.analysis.detection.StagedPreviewEngine.Stage;
 import com.bmskinner.nma.components.ComponentBuilderFactory;
 import com.bmskinner.nma.components.ComponentBuilderFactory.SignalBuilderFactory;
 import com.bmskinner.nma.components.MissingDataException;
@@ -75,6 +77,9 @@ public class SignalFinder extends AbstractFinder<INuclearSignal> {
 	private final FinderDisplayType displayType;
 	private final SignalThresholdChooser thresholdChooser;
 
+	/** Imported channels for previews */
+	private final StagedPreviewEngine previewEngine = new StagedPreviewEngine();
+
 	/**
 	 * Create a signal detector for a dataset using the given options
 	 * 
@@ -137,17 +142,22 @@ public class SignalFinder extends AbstractFinder<INuclearSignal> {
 
 		List<INuclearSignal> list = new ArrayList<>();
 
-		// Import the image processor
+		// Import the image processor. The import is kept between previews, so
+		// changing the threshold options does not reread the image.
 		// Note we are checking stack size to avoid exceptions in the preview windows
-		// when the image does n
-		ImageStack stack = ImageImporter.importToStack(imageFile);
-		int stackNumber = ImageImporter.rgbToStack(signalOptions.getInt(HashOptions.CHANNEL));
-		// Ignore incorrect channel selections
-		if (stack.getSize() < stackNumber) {
+		// when the image does not have the selected channel
+		long run = previewEngine.start();
+		int channel = signalOptions.getInt(HashOptions.CHANNEL);
+		ImageProcessor greyProcessor;
+		try {
+			greyProcessor = previewEngine.run(run, List.of(Stage.of("Import",
+					ip -> importChannel(imageFile, channel), imageFile, imageFile.lastModified(),
+					channel))).get(0).image().duplicate();
+		} catch (MissingChannelException e) {
+			// Ignore incorrect channel selections
 			LOGGER.finer("Channel not present in image");
 			return list;
 		}
-		ImageProcessor greyProcessor = stack.getProcessor(stackNumber);
 
 		// Convert to an RGB processor for annotation
 		ImageProcessor ip = new ImageConverter(greyProcessor).convertToRGBGreyscale().invert()
@@ -173,6 +183,7 @@ public class SignalFinder extends AbstractFinder<INuclearSignal> {
 
 		int i = 0;
 		for (Nucleus n : nuclei) {
+			previewEngine.checkCurrent(run);
 			try {
 
 				List<INuclearSignal> temp = new ArrayList<>();
@@ -243,6 +254,7 @@ public class SignalFinder extends AbstractFinder<INuclearSignal> {
 			}
 		}
 
+		previewEngine.checkCurrent(run);
 		if (hasDetectionListeners()) {
 			// annotate detected signals onto the imagefile
 			fireDetectionEvent(ip.duplicate(), "Detected objects");
@@ -253,6 +265,31 @@ public class SignalFinder extends AbstractFinder<INuclearSignal> {
 		return list;
 	}
 
+	/**
+	 * Import a single channel from an image
+	 * 
+	 * @param imageFile the image file
+	 * @param channel   the RGB channel to import
+	 * @return the channel
+	 * @throws ImageImportException if the image cannot be read or does not contain
+	 *                              the channel
+	 */
+	private static ImageProcessor importChannel(@NonNull File imageFile, int channel)
+			throws ImageImportException {
+		ImageStack stack = ImageImporter.importToStack(imageFile);
+		int stackNumber = ImageImporter.rgbToStack(channel);
+		if (stack.getSize() < stackNumber)
+			throw new MissingChannelException();
+		return stack.getProcessor(stackNumber);
+	}
+
+	/**
+	 * Thrown when a preview image does not have the selected channel
+	 */
+	private static class MissingChannelException extends ImageImportException {
+		private static final long serialVersionUID = 1L;
+	}
+
 	private List<INuclearSignal> detectPipeline(@NonNull File imageFile)
 			throws ImageImportException {
 
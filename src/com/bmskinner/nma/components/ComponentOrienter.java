@@ -1,10 +1,15 @@
 package com.bmskinner.nma.components;
 
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.util.function.UnaryOperator;
+
 import org.eclipse.jdt.annotation.NonNull;
 
 import com.bmskinner.nma.components.Orientable.FlipState;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.generic.FloatPoint;
 import com.bmskinner.nma.components.generic.IPoint;
 import com.bmskinner.nma.components.profiles.MissingLandmarkException;
 import com.bmskinner.nma.components.rules.OrientationMark;
@@ -22,6 +27,15 @@ public class ComponentOrienter {
 	private ComponentOrienter() { // not to be used
 	}
 
+	/**
+	 * The rotation and flip applied to a nucleus when it is oriented
+	 * 
+	 * @param angle the rotation in degrees about the centre of mass
+	 * @param flip  the flips about the centre of mass applied after rotation
+	 */
+	public record Orientation(double angle, FlipState flip) {
+	}
+
 	/**
 	 * Orient the given nucleus using its orientation landmarks
 	 * 
@@ -39,6 +53,51 @@ public class ComponentOrienter {
 		return alignVerticallyPriorityX(t);
 	}
 
+	/**
+	 * Calculate the rotation and flip that {@link #orient(Nucleus)} would apply to
+	 * the given nucleus, without changing the nucleus
+	 * 
+	 * @param n the nucleus to test
+	 * @return the orientation of the nucleus
+	 * @throws MissingLandmarkException
+	 */
+	public static Orientation calcOrientation(@NonNull Nucleus n)
+			throws MissingLandmarkException {
+		if (PriorityAxis.Y.equals(n.getPriorityAxis())) {
+			double angle = calcAngleToAlignVerticalPriorityY(n);
+			boolean flip = isHorizontalFlipNeeded(n, rotation(n, angle));
+			return new Orientation(angle, new FlipState(flip, false));
+		}
+
+		double angle = calcAngleToAlignVerticalPriorityX(n);
+		boolean flip = isVerticalFlipNeeded(n, rotation(n, angle));
+		return new Orientation(angle, new FlipState(false, flip));
+	}
+
+	/**
+	 * Create the transform used to rotate a component by the given angle about
+	 * its centre of mass
+	 * 
+	 * @param n     the component
+	 * @param angle the rotation in degrees
+	 * @return the rotation transform
+	 */
+	public static AffineTransform createRotation(@NonNull Nucleus n, double angle) {
+		IPoint com = n.getCentreOfMass();
+		return AffineTransform.getRotateInstance(Math.toRadians(-angle), com.getX(), com.getY());
+	}
+
+	/**
+	 * Get the positions points of a nucleus would have after rotation by the given
+	 * angle, stored at the same precision as the nucleus border
+	 */
+	private static UnaryOperator<IPoint> rotation(@NonNull Nucleus n, double angle) {
+		if (angle == 0)
+			return UnaryOperator.identity();
+		AffineTransform tf = createRotation(n, angle);
+		return p -> new FloatPoint(tf.transform(p.toPoint2D(), (Point2D) null));
+	}
+
 	/**
 	 * Calculate the angle required to orient the nucleus vertically according to
 	 * the inbuilt rules
@@ -78,6 +137,22 @@ public class ComponentOrienter {
 		return isVerticalFlipNeeded(test);
 	}
 
+	/**
+	 * Test if two landmarks are at different positions on the border. Border
+	 * points are views over the packed border, so a new object is returned for
+	 * each call and the comparison must use border indexes.
+	 * 
+	 * @param n the nucleus
+	 * @param a the first landmark
+	 * @param b the second landmark
+	 * @return true if the landmarks are at different border indexes
+	 * @throws MissingLandmarkException
+	 */
+	private static boolean isDistinct(@NonNull Nucleus n, @NonNull OrientationMark a,
+			@NonNull OrientationMark b) throws MissingLandmarkException {
+		return n.getBorderIndex(a) != n.getBorderIndex(b);
+	}
+
 	/**
 	 * Calculate the angle required to orient the nucleus vertically according to
 	 * the inbuilt rules with OrientationMark.X axis priority.
@@ -94,7 +169,7 @@ public class ComponentOrienter {
 			IPoint leftPoint = n.getBorderPoint(OrientationMark.LEFT);
 			IPoint rightPoint = n.getBorderPoint(OrientationMark.RIGHT);
 
-			if (leftPoint != rightPoint) {
+			if (isDistinct(n, OrientationMark.LEFT, OrientationMark.RIGHT)) {
 				angle = Rotatable.getAngleToRotateHorizontal(leftPoint, rightPoint);
 			} else if (n.hasLandmark(OrientationMark.X)) { // if no OrientationMark.LEFT and
 															// OrientationMark.RIGHT, fall back to
@@ -124,7 +199,7 @@ public class ComponentOrienter {
 		if (n.hasLandmark(OrientationMark.TOP) && n.hasLandmark(OrientationMark.BOTTOM)) {
 			IPoint topPoint = n.getBorderPoint(OrientationMark.TOP);
 			IPoint bottomPoint = n.getBorderPoint(OrientationMark.BOTTOM);
-			if (topPoint != bottomPoint) {
+			if (isDistinct(n, OrientationMark.TOP, OrientationMark.BOTTOM)) {
 				angle = Rotatable.getAngleToRotateVertical(topPoint, bottomPoint);
 			} else if (n.hasLandmark(OrientationMark.Y)) {
 				angle = Rotatable.getAngleToRotateVertical(n.getCentreOfMass(), n.getBorderPoint(OrientationMark.Y));
@@ -144,24 +219,37 @@ public class ComponentOrienter {
 	 * @throws MissingLandmarkException
 	 */
 	public static boolean isHorizontalFlipNeeded(@NonNull Nucleus n) throws MissingLandmarkException {
+		return isHorizontalFlipNeeded(n, UnaryOperator.identity());
+	}
+
+	/**
+	 * Test if a nucleus needs to be flipped to match the orientation rules
+	 * 
+	 * @param n         the nucleus
+	 * @param placement the positions of the nucleus points after rotation
+	 * @return
+	 * @throws MissingLandmarkException
+	 */
+	private static boolean isHorizontalFlipNeeded(@NonNull Nucleus n,
+			UnaryOperator<IPoint> placement) throws MissingLandmarkException {
 		boolean shouldFlip = false;
 		if (n.hasLandmark(OrientationMark.LEFT) && n.hasLandmark(OrientationMark.RIGHT)) {
-			IPoint leftPoint = n.getBorderPoint(OrientationMark.LEFT);
-			IPoint rightPoint = n.getBorderPoint(OrientationMark.RIGHT);
+			IPoint leftPoint = placement.apply(n.getBorderPoint(OrientationMark.LEFT));
+			IPoint rightPoint = placement.apply(n.getBorderPoint(OrientationMark.RIGHT));
 			if (leftPoint.isRightOf(rightPoint)) {
 				shouldFlip = true;
 			}
 		} else if (n.hasLandmark(OrientationMark.LEFT)) {
-			IPoint leftPoint = n.getBorderPoint(OrientationMark.LEFT);
-			if (leftPoint.isRightOf(n.getCentreOfMass()))
+			IPoint leftPoint = placement.apply(n.getBorderPoint(OrientationMark.LEFT));
+			if (leftPoint.isRightOf(placement.apply(n.getCentreOfMass())))
 				shouldFlip = true;
 		} else if (n.hasLandmark(OrientationMark.RIGHT)) {
-			IPoint rightPoint = n.getBorderPoint(OrientationMark.RIGHT);
-			if (rightPoint.isLeftOf(n.getCentreOfMass()))
+			IPoint rightPoint = placement.apply(n.getBorderPoint(OrientationMark.RIGHT));
+			if (rightPoint.isLeftOf(placement.apply(n.getCentreOfMass())))
 				shouldFlip = true;
 		} else if (n.hasLandmark(OrientationMark.X)) {
-			IPoint leftPoint = n.getBorderPoint(OrientationMark.X);
-			if (leftPoint.isRightOf(n.getCentreOfMass()))
+			IPoint leftPoint = placement.apply(n.getBorderPoint(OrientationMark.X));
+			if (leftPoint.isRightOf(placement.apply(n.getCentreOfMass())))
 				shouldFlip = true;
 		}
 		return shouldFlip;
@@ -175,25 +263,38 @@ public class ComponentOrienter {
 	 * @throws MissingLandmarkException
 	 */
 	public static boolean isVerticalFlipNeeded(@NonNull Nucleus n) throws MissingLandmarkException {
+		return isVerticalFlipNeeded(n, UnaryOperator.identity());
+	}
+
+	/**
+	 * Test if a nucleus needs to be flipped to match the orientation rules
+	 * 
+	 * @param n         the nucleus
+	 * @param placement the positions of the nucleus points after rotation
+	 * @return
+	 * @throws MissingLandmarkException
+	 */
+	private static boolean isVerticalFlipNeeded(@NonNull Nucleus n,
+			UnaryOperator<IPoint> placement) throws MissingLandmarkException {
 		boolean shouldFlip = false;
 
 		if (n.hasLandmark(OrientationMark.TOP) && n.hasLandmark(OrientationMark.BOTTOM)) {
-			IPoint topPoint = n.getBorderPoint(OrientationMark.TOP);
-			IPoint bottomPoint = n.getBorderPoint(OrientationMark.BOTTOM);
+			IPoint topPoint = placement.apply(n.getBorderPoint(OrientationMark.TOP));
+			IPoint bottomPoint = placement.apply(n.getBorderPoint(OrientationMark.BOTTOM));
 			if (topPoint.isBelow(bottomPoint)) {
 				shouldFlip = true;
 			}
 		} else if (n.hasLandmark(OrientationMark.TOP)) {
-			IPoint topPoint = n.getBorderPoint(OrientationMark.TOP);
-			if (topPoint.isBelow(n.getCentreOfMass()))
+			IPoint topPoint = placement.apply(n.getBorderPoint(OrientationMark.TOP));
+			if (topPoint.isBelow(placement.apply(n.getCentreOfMass())))
 				shouldFlip = true;
 		} else if (n.hasLandmark(OrientationMark.BOTTOM)) {
-			IPoint bottomPoint = n.getBorderPoint(OrientationMark.BOTTOM);
-			if (bottomPoint.isAbove(n.getCentreOfMass()))
+			IPoint bottomPoint = placement.apply(n.getBorderPoint(OrientationMark.BOTTOM));
+			if (bottomPoint.isAbove(placement.apply(n.getCentreOfMass())))
 				shouldFlip = true;
 		} else if (n.hasLandmark(OrientationMark.Y)) {
-			IPoint bottomPoint = n.getBorderPoint(OrientationMark.Y);
-			if (bottomPoint.isAbove(n.getCentreOfMass()))
+			IPoint bottomPoint = placement.apply(n.getBorderPoint(OrientationMark.Y));
+			if (bottomPoint.isAbove(placement.apply(n.getCentreOfMass())))
 				shouldFlip = true;
 		}
 		return shouldFlip;
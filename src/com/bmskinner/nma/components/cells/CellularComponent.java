@@ -111,7 +111,8 @@ public interface CellularComponent extends Imageable, XmlSerializable,
 	 */
 
 	/**
-	 * Get the border point at the given index (not a copy)
+	 * Get a read-only view of the border point at the given index. Use
+	 * {@link IPoint#duplicate()} for a point that can be moved
 	 * 
 	 * @param i
 	 * @return
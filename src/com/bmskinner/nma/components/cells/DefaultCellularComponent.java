@@ -19,14 +19,12 @@ package com.bmskinner.nma.components.cells;
 import java.awt.Polygon;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,8 +42,11 @@ import com.bmskinner.nma.components.ComponentMeasurer;
 import com.bmskinner.nma.components.Imageable;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.XMLNames;
+import com.bmskinner.nma.components.generic.BorderArray;
 import com.bmskinner.nma.components.generic.FloatPoint;
 import com.bmskinner.nma.components.generic.IPoint;
+import com.bmskinner.nma.components.generic.PolygonEdgeTable;
+import com.bmskinner.nma.components.generic.PolygonMask;
 import com.bmskinner.nma.components.measure.DefaultMeasurement;
 import com.bmskinner.nma.components.measure.Measurement;
 import com.bmskinner.nma.components.measure.MeasurementScale;
@@ -109,12 +110,24 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 	/** Whether the x and y points should be reversed when making the border */
 	private boolean isReversed = false;
 
-	/** The complete border list interpolated from the roi */
-	private IPoint[] borderList = new IPoint[0];
+	/** The complete border interpolated from the roi */
+	private BorderArray border = new BorderArray(new float[0], new float[0], 0);
+
+	/** Incremented whenever the border points change */
+	private transient volatile int borderVersion = 0;
 
 	/** The object bounding box */
 	private Rectangle2D bounds;
 
+	/**
+	 * Point-in-polygon lookups for the border at its current and original
+	 * positions. These are built on demand and cleared when the border changes.
+	 */
+	private PolygonEdgeTable edgeTable;
+	private PolygonEdgeTable originalEdgeTable;
+	private PolygonMask mask;
+	private PolygonMask originalMask;
+
 	/**
 	 * Create a UUID from an ROI and centre of mass. This hashes shapes to
 	 * repoducible UUIDs, allowing the same cells to be identified across different
@@ -222,14 +235,12 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 			}
 		}
 
-		this.xpoints = Arrays.copyOf(other.xpoints, other.xpoints.length);
-		this.ypoints = Arrays.copyOf(other.ypoints, other.ypoints.length);
+		// The roi points are never modified, so copies can share them
+		this.xpoints = other.xpoints;
+		this.ypoints = other.ypoints;
 		this.isReversed = a.isReversed();
 
-		borderList = new IPoint[other.borderList.length];
-
-		for (int i = 0; i < borderList.length; i++)
-			borderList[i] = other.borderList[i].duplicate();
+		border = new BorderArray(other.border);
 
 		updateBounds();
 	}
@@ -296,9 +307,7 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 
 		FloatPolygon smoothed = roi.getInterpolatedPolygon(INTERPOLATION_INTERVAL_PIXELS, true);
 
-		borderList = new IPoint[smoothed.npoints];
-		for (int i = 0; i < smoothed.npoints; i++)
-			borderList[i] = new FloatPoint(smoothed.xpoints[i], smoothed.ypoints[i]);
+		border = new BorderArray(smoothed.xpoints, smoothed.ypoints, smoothed.npoints);
 
 		updateBounds();
 	}
@@ -317,22 +326,71 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 	}
 
 	private void updateBounds() {
-		double xMax = -Double.MAX_VALUE;
-		double xMin = Double.MAX_VALUE;
-		double yMax = -Double.MAX_VALUE;
-		double yMin = Double.MAX_VALUE;
-
-		for (IPoint p : borderList) {
-			xMax = p.getX() > xMax ? p.getX() : xMax;
-			xMin = p.getX() < xMin ? p.getX() : xMin;
-			yMax = p.getY() > yMax ? p.getY() : yMax;
-			yMin = p.getY() < yMin ? p.getY() : yMin;
+		bounds = border.getBounds();
+		borderVersion++;
+
+		// Every change to the border passes through here
+		edgeTable = null;
+		originalEdgeTable = null;
+		mask = null;
+		originalMask = null;
+	}
+
+	/**
+	 * Get the version of the border. This changes whenever the border points are
+	 * moved or replaced.
+	 * 
+	 * @return the border version
+	 */
+	protected int getBorderVersion() {
+		return borderVersion;
+	}
+
+	private PolygonEdgeTable getEdgeTable() {
+		PolygonEdgeTable table = edgeTable;
+		if (table == null) {
+			table = border.toEdgeTable();
+			edgeTable = table;
+		}
+		return table;
+	}
+
+	private PolygonEdgeTable getOriginalEdgeTable() {
+		PolygonEdgeTable table = originalEdgeTable;
+		if (table == null) {
+			double diffX = originalCentreOfMass.getX() - centreOfMass.getX();
+			double diffY = originalCentreOfMass.getY() - centreOfMass.getY();
+			table = border.toEdgeTable((float) diffX, (float) diffY);
+			originalEdgeTable = table;
+		}
+		return table;
+	}
+
+	private PolygonMask getMask() {
+		PolygonMask m = mask;
+		if (m == null) {
+			m = new PolygonMask(getEdgeTable(), false);
+			mask = m;
 		}
+		return m;
+	}
 
-		double w = xMax - xMin;
-		double h = yMax - yMin;
+	private PolygonMask getOriginalMask() {
+		PolygonMask m = originalMask;
+		if (m == null) {
+			m = new PolygonMask(getOriginalEdgeTable(), true);
+			originalMask = m;
+		}
+		return m;
+	}
 
-		bounds = new Rectangle2D.Double(xMin, yMin, w, h);
+	/**
+	 * Test if a point lies on integer pixel coordinates
+	 */
+	private static boolean isPixel(IPoint p) {
+		double x = p.getX();
+		double y = p.getY();
+		return x == (int) x && y == (int) y;
 	}
 
 	@Override
@@ -493,20 +551,18 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 
 	@Override
 	public int getBorderLength() {
-		return borderList.length;
+		return border.size();
 	}
 
 	@Override
 	public IPoint getBorderPoint(int i) {
-		return borderList[i];
+		return border.get(i);
 	}
 
 	@Override
 	public IPoint getOriginalBorderPoint(int i) {
-		IPoint p = getBorderPoint(i);
-
-		double diffX = p.getX() - centreOfMass.getX();
-		double diffY = p.getY() - centreOfMass.getY();
+		double diffX = border.getX(i) - centreOfMass.getX();
+		double diffY = border.getY(i) - centreOfMass.getY();
 
 		// Offset to the original position
 		return new FloatPoint(originalCentreOfMass.getX() + diffX,
@@ -520,29 +576,24 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 
 	@Override
 	public int getBorderIndex(@NonNull IPoint p) {
-		for (int i = 0; i < borderList.length; i++) {
-			IPoint n = borderList[i];
-			if (n.overlapsPerfectly(p))
-				return i;
-		}
-		return -1; // default if no match found
+		return border.indexOf(p.getX(), p.getY()); // -1 if no match found
 	}
 
 	@Override
 	public List<IPoint> getBorderList() {
-		return List.of(borderList);
+		return border.asList();
 	}
 
 	@Override
 	public List<IPoint> getOriginalBorderList() {
-		List<IPoint> result = new ArrayList<>(borderList.length);
+		List<IPoint> result = new ArrayList<>(border.size());
 
 		double diffX = originalCentreOfMass.getX() - centreOfMass.getX();
 		double diffY = originalCentreOfMass.getY() - centreOfMass.getY();
 
 		// Offset to the original position
-		for (IPoint p : borderList) {
-			result.add(new FloatPoint(p.getX() + diffX, p.getY() + diffY));
+		for (int i = 0; i < border.size(); i++) {
+			result.add(new FloatPoint(border.getX(i) + diffX, border.getY(i) + diffY));
 		}
 		return result;
 	}
@@ -558,8 +609,8 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 		// Fast check - is the point within the bounding rectangle?
 		if (!bounds.contains(p.toPoint2D()))
 			return false;
-		// Check detailed position
-		return (this.toPolygon().contains((float) p.getX(), (float) p.getY()));
+		// Check detailed position, with the same rule as the polygon
+		return getEdgeTable().containsEvenOdd((float) p.getX(), (float) p.getY());
 	}
 
 	/**
@@ -570,7 +621,8 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 	 */
 	@Override
 	public boolean containsPoint(int x, int y) {
-		return this.toShape().contains(x, y);
+		// Same rule as the shape
+		return getMask().contains(x, y);
 	}
 
 	/**
@@ -581,7 +633,9 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 	 */
 	@Override
 	public boolean containsOriginalPoint(IPoint p) {
-		return this.toOriginalPolygon().contains((float) p.getX(), (float) p.getY());
+		if (isPixel(p))
+			return getOriginalMask().contains((int) p.getX(), (int) p.getY());
+		return getOriginalEdgeTable().containsEvenOdd((float) p.getX(), (float) p.getY());
 	}
 
 	/**
@@ -591,7 +645,7 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 	 * @return
 	 */
 	public boolean containsOriginalPoint(int x, int y) {
-		return this.toOriginalPolygon().contains(x, y);
+		return getOriginalMask().contains(x, y);
 	}
 
 	@Override
@@ -624,11 +678,7 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 
 		double xCentre = p.getX();
 
-		for (IPoint n : borderList) {
-			double dx = xCentre - n.getX();
-			double xNew = xCentre + dx;
-			n.setX(xNew);
-		}
+		border.flipHorizontal(xCentre);
 
 		// Also update the CoM
 		double dx = xCentre - centreOfMass.getX();
@@ -647,11 +697,7 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 
 		double yCentre = p.getY();
 
-		for (IPoint n : borderList) {
-			double dy = yCentre - n.getY();
-			double yNew = yCentre + dy;
-			n.setY(yNew);
-		}
+		border.flipVertical(yCentre);
 
 		// Also update the CoM
 		double dy = yCentre - centreOfMass.getY();
@@ -687,10 +733,7 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 	public void offset(double xOffset, double yOffset) {
 
 		/// update each border point
-		for (int i = 0; i < borderList.length; i++) {
-			IPoint p = borderList[i];
-			p.offset(xOffset, yOffset);
-		}
+		border.offset(xOffset, yOffset);
 
 		centreOfMass.offset(xOffset, yOffset);
 		updateBounds();
@@ -736,20 +779,7 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 	 * @return
 	 */
 	private FloatPolygon toOffsetPolygon(float xOffset, float yOffset) {
-		float[] xp = new float[borderList.length + 1];
-		float[] yp = new float[borderList.length + 1];
-
-		for (int i = 0; i < borderList.length; i++) {
-			IPoint p = borderList[i];
-			xp[i] = (float) p.getX() + xOffset;
-			yp[i] = (float) p.getY() + yOffset;
-		}
-
-		// Ensure the polygon is closed
-		xp[borderList.length] = (float) borderList[0].getX() + xOffset;
-		yp[borderList.length] = (float) borderList[0].getY() + yOffset;
-
-		return new FloatPolygon(xp, yp);
+		return border.toPolygon(xOffset, yOffset);
 	}
 
 	@Override
@@ -803,23 +833,12 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 	 */
 	private Shape toOffsetShape(double xOffset, double yOffset, MeasurementScale ms) {
 
-		if (borderList.length == 0)
+		if (border.size() == 0)
 			throw new IllegalArgumentException("Border list is empty");
 
 		double sc = MeasurementScale.MICRONS.equals(ms) ? this.scale : 1;
 
-		Path2D.Double path = new Path2D.Double();
-
-		IPoint first = borderList[0];
-		path.moveTo((first.getX() + xOffset) / sc, (first.getY() + yOffset) / sc);
-
-		for (int i = 1; i < borderList.length; i++)
-			path.lineTo((borderList[i].getX() + xOffset) / sc,
-					(borderList[i].getY() + yOffset) / sc);
-
-		path.closePath();
-		return path;
-
+		return border.toPath(xOffset, yOffset, sc);
 	}
 
 	@Override
@@ -872,46 +891,21 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 
 	@Override
 	public IPoint findOppositeBorder(@NonNull IPoint p) {
-
-		double distToCom = p.getLengthTo(centreOfMass);
-
-		int mini = 0;
-		double l = Double.MAX_VALUE;
-
-		for (int i = 0; i < borderList.length; i++) {
-			// Look for the points at which the direct distance between the two points is
-			// closest to the sum of their respective distances to the centre of mass
-			IPoint point = borderList[i];
-
-			double p2p = point.getLengthTo(p);
-
-			if (p2p <= distToCom)
-				continue;
-
-			double d = Math.abs(point.getLengthTo(centreOfMass)
-					+ distToCom
-					- p2p);
-
-			if (d < l) {
-				l = d;
-				mini = i;
-			}
-		}
-		return borderList[mini];
+		// Look for the points at which the direct distance between the two points is
+		// closest to the sum of their respective distances to the centre of mass
+		return border.get(border.findOppositeIndex((float) p.getX(), (float) p.getY(),
+				(float) centreOfMass.getX(), (float) centreOfMass.getY()));
 	}
 
 	@Override
 	public IPoint findOrthogonalBorderPoint(@NonNull IPoint a) {
-		return Arrays.stream(borderList)
-				.min(Comparator.comparing(
-						point -> Math.abs(90 - centreOfMass.findSmallestAngle(a, point))))
-				.get();
+		return border.get(border.findOrthogonalIndex((float) a.getX(), (float) a.getY(),
+				(float) centreOfMass.getX(), (float) centreOfMass.getY()));
 	}
 
 	@Override
 	public IPoint findClosestBorderPoint(@NonNull IPoint p) {
-		return Arrays.stream(borderList).min(Comparator.comparing(point -> point.getLengthTo(p)))
-				.get();
+		return border.get(border.findClosestIndex((float) p.getX(), (float) p.getY()));
 	}
 
 	@Override
@@ -927,8 +921,8 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 						this.getBase().getY() + this.getHeight()));
 		builder.append(newLine);
 
-		builder.append("Border " + borderList.length + ": ");
-		builder.append(Arrays.deepToString(borderList));
+		builder.append("Border " + border.size() + ": ");
+		builder.append(border);
 
 		builder.append(newLine);
 
@@ -1067,10 +1061,7 @@ public abstract class DefaultCellularComponent implements CellularComponent {
 			double rad = Math.toRadians(-angle);
 			AffineTransform tf = AffineTransform.getRotateInstance(rad, anchor.getX(),
 					anchor.getY());
-			for (IPoint p : borderList) {
-				Point2D result = tf.transform(p.toPoint2D(), null);
-				p.set(result);
-			}
+			border.transform(tf);
 			Point2D newCoM = tf.transform(centreOfMass.toPoint2D(), null);
 			centreOfMass.set(newCoM);
 		}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.components.cells;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.bmskinner.nma.analysis.profiles.ProfileCreator;
+import com.bmskinner.nma.components.MissingDataException;
+import com.bmskinner.nma.components.profiles.IProfile;
+import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
+import com.bmskinner.nma.components.profiles.MissingProfileException;
+import com.bmskinner.nma.components.profiles.ProfileType;
+
+/**
+ * Calculates the profiles of a component on first use, so only the profile
+ * types actually requested are created.
+ * <p>
+ * Each profile is stamped with the version of the border it was calculated
+ * from. Moving, rotating or flipping the border changes the version, and a
+ * profile with an old stamp is recalculated from the current border the next
+ * time it is requested. Transforms therefore cost nothing until a profile is
+ * actually needed.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+class ProfileProvider {
+
+	/**
+	 * A profile and the border version it describes
+	 */
+	private record StampedProfile(@NonNull IProfile profile, int borderVersion) {
+	}
+
+	private final ProfileableCellularComponent target;
+
+	private final Map<ProfileType, StampedProfile> profiles = new ConcurrentHashMap<>();
+
+	/** Whether profiles have been requested for the target */
+	private volatile boolean isAvailable = false;
+
+	/**
+	 * Create with no profiles available. Profiles become available when the
+	 * provider is first reset.
+	 * 
+	 * @param target the component to profile
+	 */
+	ProfileProvider(@NonNull ProfileableCellularComponent target) {
+		this.target = target;
+	}
+
+	/**
+	 * Get the profile of the given type, calculating it if it has not been
+	 * calculated from the current border
+	 * 
+	 * @param type the profile type
+	 * @return the profile
+	 * @throws MissingProfileException if profiles are not available or the profile
+	 *                                 cannot be calculated
+	 * @throws SegmentUpdateException
+	 */
+	IProfile get(@NonNull ProfileType type)
+			throws MissingProfileException, SegmentUpdateException {
+		if (!isAvailable)
+			throw new MissingProfileException("Profiles have not been created");
+
+		int version = target.getBorderVersion();
+		StampedProfile s = profiles.get(type);
+		if (s != null && s.borderVersion() == version)
+			return s.profile();
+
+		try {
+			IProfile p = ProfileCreator.createProfile(target, type);
+			profiles.put(type, new StampedProfile(p, version));
+			return p;
+		} catch (MissingDataException | ComponentCreationException e) {
+			throw new MissingProfileException("Cannot calculate profile type " + type, e);
+		}
+	}
+
+	/**
+	 * Get the profile of the given type only if it has already been calculated
+	 * from the current border. Nothing is calculated.
+	 * 
+	 * @param type the profile type
+	 * @return the profile, or null if there is no current profile
+	 */
+	@Nullable
+	IProfile getIfCurrent(@NonNull ProfileType type) {
+		StampedProfile s = profiles.get(type);
+		if (s == null || s.borderVersion() != target.getBorderVersion())
+			return null;
+		return s.profile();
+	}
+
+	/**
+	 * Test if profiles can be provided
+	 * 
+	 * @return true if profiles have been created
+	 */
+	boolean isAvailable() {
+		return isAvailable;
+	}
+
+	/**
+	 * Test if a profile of the given type can be provided, without calculating
+	 * it. Any profile type can be calculated from a component with a border.
+	 * 
+	 * @param type the profile type
+	 * @return true if profiles are available and the profile is current or can be
+	 *         calculated
+	 */
+	boolean canProvide(@NonNull ProfileType type) {
+		return isAvailable && (isCurrent(type) || target.getBorderLength() > 0);
+	}
+
+	/**
+	 * Test if the profile of the given type has been calculated from the current
+	 * border
+	 * 
+	 * @param type the profile type
+	 * @return true if a current profile is present
+	 */
+	boolean isCurrent(@NonNull ProfileType type) {
+		return getIfCurrent(type) != null;
+	}
+
+	/**
+	 * Store a profile calculated elsewhere from the current border, such as when
+	 * duplicating a component
+	 * 
+	 * @param type    the profile type
+	 * @param profile the profile
+	 */
+	void set(@NonNull ProfileType type, @NonNull IProfile profile) {
+		profiles.put(type, new StampedProfile(profile, target.getBorderVersion()));
+	}
+
+	/**
+	 * Discard all profiles. They will be calculated from the current border when
+	 * next requested.
+	 */
+	void reset() {
+		profiles.clear();
+		isAvailable = true;
+	}
+
+	/**
+	 * Get the profiles calculated from the current border
+	 * 
+	 * @return the current profiles
+	 */
+	Map<ProfileType, IProfile> getCurrent() {
+		Map<ProfileType, IProfile> result = new EnumMap<>(ProfileType.class);
+		for (ProfileType type : ProfileType.values()) {
+			IProfile p = getIfCurrent(type);
+			if (p != null)
+				result.put(type, p);
+		}
+		return result;
+	}
+}
@@ -25,7 +25,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -33,7 +32,6 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jdom2.Element;
 
-import com.bmskinner.nma.analysis.profiles.ProfileCreator;
 import com.bmskinner.nma.analysis.profiles.SegmentFitter;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.Taggable;
@@ -57,7 +55,6 @@ import com.bmskinner.nma.components.profiles.UnprofilableObjectException;
 import com.bmskinner.nma.components.rules.OrientationMark;
 import com.bmskinner.nma.components.rules.PriorityAxis;
 import com.bmskinner.nma.components.rules.RuleSetCollection;
-import com.bmskinner.nma.logging.Loggable;
 
 import ij.gui.Roi;
 
@@ -94,8 +91,8 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 	/** allow locking of segments and landmarks */
 	private boolean isLocked = false;
 
-	/** The profiles for this object */
-	private Map<ProfileType, IProfile> profileMap = new ConcurrentHashMap<>();
+	/** The profiles for this object, calculated on demand */
+	private final ProfileProvider profiles = new ProfileProvider(this);
 
 	/**
 	 * Construct with an ROI, a source image and channel, and the original position
@@ -173,9 +170,14 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 
 		try {
 
-			// When duplicating components we can copy the existing profiles
+			// When duplicating components we can copy the existing profiles. Profiles
+			// the template has not yet calculated can be calculated from our copy of
+			// its border when needed.
+			profiles.reset();
 			for (ProfileType type : ProfileType.values()) {
-				profileMap.put(type, c.getUnsegmentedProfile(type, OrientationMark.REFERENCE)
+				if (c instanceof ProfileableCellularComponent p && !p.profiles.isCurrent(type))
+					continue;
+				profiles.set(type, c.getUnsegmentedProfile(type, OrientationMark.REFERENCE)
 						.startFrom(-c.getBorderIndex(OrientationMark.REFERENCE)));
 			}
 
@@ -217,17 +219,15 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 				segments.add(new DefaultProfileSegment(el));
 			}
 			IProfileSegment.linkSegments(segments);
-
-			for (ProfileType type : ProfileType.values()) {
-				profileMap.put(type, ProfileCreator.createProfile(this, type));
-			}
-
-		} catch (SegmentUpdateException | MissingDataException e1) {
+		} catch (SegmentUpdateException e1) {
 			throw new ComponentCreationException(
-					"Unable to create profiles or segments in cellular component constructor",
+					"Unable to create segments in cellular component constructor",
 					e1);
 		}
 
+		// Profiles are calculated from the border when first requested
+		profiles.reset();
+
 		// Note - do not call initialise here since subclasses
 		// will not have set all fields yet
 	}
@@ -240,8 +240,10 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 		windowProportion = proportion;
 
 		try {
-			for (ProfileType type : ProfileType.values())
-				profileMap.put(type, ProfileCreator.createProfile(this, type));
+			// The angle profile is always needed, so create it now to check the
+			// border can be profiled. Other types are created on first use.
+			profiles.reset();
+			profiles.get(ProfileType.ANGLE);
 
 			// Any existing segments should be completely cleared on new initialisation
 			segments.clear();
@@ -299,7 +301,7 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 		int oldRP = profileLandmarks.get(land);
 
 		// This profile has segments starting from the old RP
-		ISegmentedProfile p = new DefaultSegmentedProfile(profileMap.get(ProfileType.ANGLE),
+		ISegmentedProfile p = new DefaultSegmentedProfile(profiles.get(ProfileType.ANGLE),
 				segments);
 
 		/*
@@ -450,7 +452,7 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 		int lmIndex = profileLandmarks.get(lm);
 
 		// Get the raw profile
-		ISegmentedProfile profile = new DefaultSegmentedProfile(profileMap.get(type), segments);
+		ISegmentedProfile profile = new DefaultSegmentedProfile(profiles.get(type), segments);
 
 		// offset the profile to start at the desired landmark
 		return profile.startFrom(lmIndex);
@@ -463,7 +465,7 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 		if (lm == null)
 			throw new MissingLandmarkException("Cannot find landmark for " + om);
 		int lmIndex = profileLandmarks.get(lm);
-		return profileMap.get(type).startFrom(lmIndex);
+		return profiles.get(type).startFrom(lmIndex);
 	}
 
 	@Override
@@ -501,20 +503,15 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 
 		windowProportion = d;
 
-		try {
-			for (ProfileType type : ProfileType.values())
-				profileMap.put(type, ProfileCreator.createProfile(this, type));
-		} catch (MissingDataException
-				| ComponentCreationException
-				| SegmentUpdateException e) {
-			LOGGER.log(Loggable.STACK, "Unable to set window proportion: " + e.getMessage(), e);
-		}
-
+		// Profiles will be recalculated with the new window when next requested
+		profiles.reset();
 	}
 
 	@Override
 	public boolean hasProfile(@NonNull ProfileType type) {
-		return this.profileMap.containsKey(type);
+		// Profiles are calculated on demand, so only test this type could be
+		// provided
+		return profiles.canProvide(type);
 	}
 
 	@Override
@@ -571,18 +568,16 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 		if (isLocked)
 			return;
 
+		// Keep the profile of the old outline to fit segments against
+		ISegmentedProfile oldAngleProfile = this.getProfile(ProfileType.ANGLE,
+				OrientationMark.REFERENCE);
+
 		// Note that this action can alter the interpolated
 		// perimeter length, invalidating any existing segments
 		super.reverse();
 
-		// Recreate profiles for new outline
-		ISegmentedProfile oldAngleProfile = this.getProfile(ProfileType.ANGLE,
-				OrientationMark.REFERENCE);
-
-		for (ProfileType t : ProfileType.values()) {
-			IProfile p = ProfileCreator.createProfile(this, t);
-			profileMap.put(t, p);
-		}
+		// Profiles for the new outline are created on demand
+		profiles.reset();
 
 		// Reapply and rescale segments
 
@@ -590,7 +585,7 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 		// Reverse the copied angle profile, and fit it to the new angle profile
 		oldAngleProfile.reverse();
 		ISegmentedProfile newAngleProfile = SegmentFitter.fit(oldAngleProfile,
-				new DefaultSegmentedProfile(profileMap.get(ProfileType.ANGLE)));
+				new DefaultSegmentedProfile(profiles.get(ProfileType.ANGLE)));
 
 		segments.clear();
 		for (IProfileSegment s : newAngleProfile.getSegments()) {
@@ -665,7 +660,7 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 		final int prime = 31;
 		int result = super.hashCode();
 		result = prime * result
-				+ Objects.hash(isLocked, profileLandmarks, profileMap, segments,
+				+ Objects.hash(isLocked, profileLandmarks, segments,
 						priorityAxis, windowProportion);
 
 		// Orientation mark enum hashcodes depend on memory location, so are not
@@ -689,10 +684,15 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 			return false;
 		ProfileableCellularComponent other = (ProfileableCellularComponent) obj;
 
-		for (Entry<ProfileType, IProfile> e : profileMap.entrySet()) {
-			if (!other.profileMap.containsKey(e.getKey()))
-				return false;
-			if (!e.getValue().equals(other.profileMap.get(e.getKey())))
+		if (profiles.isAvailable() != other.profiles.isAvailable())
+			return false;
+
+		// Profiles are derived from the border, which is already compared. Only
+		// compare profiles both objects have calculated, so nothing is calculated here
+		for (ProfileType type : ProfileType.values()) {
+			IProfile p = profiles.getIfCurrent(type);
+			IProfile o = other.profiles.getIfCurrent(type);
+			if (p != null && o != null && !p.equals(o))
 				return false;
 		}
 
@@ -719,7 +719,7 @@ public abstract class ProfileableCellularComponent extends DefaultCellularCompon
 		builder.append(newLine);
 		builder.append("Lockstate: " + this.isLocked);
 		builder.append(newLine);
-		builder.append("Profile map: " + this.profileMap);
+		builder.append("Profile map: " + this.profiles.getCurrent());
 		return builder.toString();
 	}
 
@@ -1,5 +1,6 @@
 package com.bmskinner.nma.components.datasets;
 
+import java.util.List;
 import java.util.logging.Logger;
 
 import org.jdom2.Element;
@@ -9,6 +10,7 @@ import com.bmskinner.nma.analysis.ProgressListener;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.Version.UnsupportedVersionException;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
+import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
 import com.bmskinner.nma.components.profiles.ProfileException;
 
@@ -51,6 +53,42 @@ public class DatasetCreator {
 		if (l != null)
 			l.progressEventReceived(new ProgressEvent(e, ProgressEvent.SET_INDETERMINATE, 0));
 
+		calculateProfiles(d);
+		return d;
+	}
+
+	/**
+	 * Create from a root XML element from which the cells have been removed, and
+	 * the cells already built from their own elements. Use when the cells have
+	 * been read separately from the rest of the document.
+	 * 
+	 * @param e     the dataset element, with no cell elements in its collection
+	 * @param cells the cells of the dataset, in the order they were saved
+	 * @param l     an optional listener for progress updates
+	 * @return the dataset
+	 * @throws ComponentCreationException
+	 * @throws UnsupportedVersionException
+	 */
+	public static IAnalysisDataset createRoot(Element e, List<ICell> cells, ProgressListener l)
+			throws ComponentCreationException, UnsupportedVersionException {
+
+		IAnalysisDataset d = new DefaultAnalysisDataset(e, null);
+		d.getCollection().addAll(cells);
+
+		if (l != null)
+			l.progressEventReceived(new ProgressEvent(e, ProgressEvent.SET_INDETERMINATE, 0));
+
+		calculateProfiles(d);
+		return d;
+	}
+
+	/**
+	 * Calculate the median profiles of the dataset and its children
+	 * 
+	 * @param d the dataset
+	 * @throws ComponentCreationException if the profiles could not be calculated
+	 */
+	private static void calculateProfiles(IAnalysisDataset d) throws ComponentCreationException {
 		try {
 			d.getCollection().getProfileCollection().calculateProfiles();
 
@@ -61,8 +99,6 @@ public class DatasetCreator {
 				| SegmentUpdateException e1) {
 			throw new ComponentCreationException(e1);
 		}
-
-		return d;
 	}
 
 }
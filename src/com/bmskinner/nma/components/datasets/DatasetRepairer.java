@@ -1,5 +1,6 @@
 package com.bmskinner.nma.components.datasets;
 
+import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 import java.util.logging.Logger;
@@ -39,15 +40,16 @@ public class DatasetRepairer {
 	 * issues are found.
 	 * 
 	 * @param d the dataset to repair.
+	 * @return true if the dataset is valid after any repairs
 	 */
-	public void repair(IAnalysisDataset d) {
+	public boolean repair(IAnalysisDataset d) {
 		DatasetValidator dv = new DatasetValidator();
 
 		// No action if the dataset is ok
 		if (dv.validate(d))
-			return;
+			return true;
 
-		Set<ICell> brokenCells = dv.getErrorCells();
+		Set<ICell> brokenCells = new HashSet<>(dv.getErrorCells());
 
 		try {
 
@@ -65,12 +67,49 @@ public class DatasetRepairer {
 			LOGGER.fine("No border tag present");
 		}
 
-		if (dv.validate(d)) {
+		// Only the broken cells can have been changed
+		if (dv.validate(d, brokenCells)) {
 			LOGGER.info("Dataset repaired: " + d.getName());
-		} else {
-			LOGGER.info("Could not repair " + d.getName());
+			return true;
 		}
+		LOGGER.info("Could not repair " + d.getName());
+		return false;
+	}
 
+	/**
+	 * Repair the nuclei of a single cell without reference to the rest of the
+	 * dataset. Used when cells are repaired as they are read, before the dataset
+	 * they belong to has been built. Only nuclei without a segment boundary at the
+	 * RP are changed, matching the nuclei the validator would report.
+	 *
+	 * @param c           the cell to repair
+	 * @param rpSegmentId the id of the segment starting at the RP in the median
+	 *                    profile
+	 */
+	public void repair(ICell c, UUID rpSegmentId) {
+		for (Nucleus n : c.getNuclei()) {
+			if (!hasSegmentBoundaryAtRP(n))
+				repairNucleusRPNotAtSegmentBoundary(n, rpSegmentId);
+		}
+	}
+
+	/**
+	 * Test if a segment of the angle profile of a nucleus starts at the RP
+	 * 
+	 * @param n the nucleus
+	 * @return false if no segment starts at the RP or the profile is not
+	 *         available, true otherwise
+	 */
+	private boolean hasSegmentBoundaryAtRP(Nucleus n) {
+		try {
+			for (IProfileSegment s : n.getProfile(ProfileType.ANGLE).getSegments()) {
+				if (s.getStartIndex() == 0)
+					return true;
+			}
+		} catch (MissingDataException | SegmentUpdateException e) {
+			LOGGER.fine("Unable to get segments for " + n.getNameAndNumber());
+		}
+		return false;
 	}
 
 	/**
@@ -17,19 +17,25 @@
 package com.bmskinner.nma.components.datasets;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.Taggable;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.profiles.IProfile;
 import com.bmskinner.nma.components.profiles.IProfileCollection;
 import com.bmskinner.nma.components.profiles.IProfileSegment;
 import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
@@ -42,7 +48,12 @@ import com.bmskinner.nma.stats.Stats;
 
 /**
  * Checks the state of a dataset to report on abnormalities in, for example,
- * segmentation patterns in parent versus child datasets
+ * segmentation patterns in parent versus child datasets.
+ * <p>
+ * All the checks on a cell are made in a single visit to the cell, and cells
+ * are visited in parallel. The results for each cell are kept, so a dataset
+ * can be revalidated by checking only the cells that have changed since it was
+ * last validated.
  * 
  * @author bms41
  * @since 1.13.6
@@ -54,12 +65,60 @@ public class DatasetValidator {
 
 	private static final Logger LOGGER = Logger.getLogger(DatasetValidator.class.getName());
 
-	public static final List<String> errorList = new ArrayList<>();
-	public static final List<String> summaryList = new ArrayList<>();
-	public static final Set<ICell> errorCells = new HashSet<>();
+	/** The checks made by the validator */
+	public enum Check {
+		/** Nuclei have a reference point */
+		RP,
+		/** Nuclei have profiles */
+		PROFILE,
+		/** Datasets and their children have median profiles */
+		CHILD_PROFILE,
+		/** Child datasets have the same segments as the root dataset */
+		CHILD_SEGMENTS,
+		/** Nuclei and child datasets have the landmarks of the root dataset */
+		ROOT_LANDMARK,
+		/** Nuclei have the same segments as the collection */
+		SEGMENTATION,
+		/** The reference point of each nucleus is at a segment boundary */
+		RP_BOUNDARY
+	}
 
-	public DatasetValidator() {
+	/**
+	 * An error found during validation
+	 * 
+	 * @param check   the check that failed
+	 * @param cell    the cell with the error, or null if the error is not in a
+	 *                cell
+	 * @param message a description of the error
+	 */
+	public record ValidationError(@NonNull Check check, @Nullable ICell cell,
+			@NonNull String message) {
+	}
+
+	/** The collection-wide values each cell is checked against */
+	private record Context(@Nullable List<UUID> segmentIds,
+			@Nullable ISegmentedProfile medianProfile,
+			@Nullable List<OrientationMark> rootTags, boolean checkProfiles) {
+	}
+
+	/** The results of checking one cell */
+	private record CellResult(int[] counts, List<ValidationError> errors) {
 
+		int count(Check check) {
+			return counts[check.ordinal()];
+		}
+	}
+
+	private final List<ValidationError> errorList = new ArrayList<>();
+	private final List<String> summaryList = new ArrayList<>();
+	private final Set<ICell> errorCells = new LinkedHashSet<>();
+
+	/** The results of the last validation, for revalidating changed cells */
+	private Context lastContext = null;
+	private Map<UUID, CellResult> lastResults = new HashMap<>();
+
+	public DatasetValidator() {
+		// No state to set
 	}
 
 	/**
@@ -77,7 +136,16 @@ public class DatasetValidator {
 	 * @return
 	 */
 	public List<String> getErrors() {
-		return errorList;
+		return errorList.stream().map(ValidationError::message).toList();
+	}
+
+	/**
+	 * Get every error in the dataset with the check and cell it applies to
+	 * 
+	 * @return the errors
+	 */
+	public List<ValidationError> getErrorRecords() {
+		return List.copyOf(errorList);
 	}
 
 	/**
@@ -97,39 +165,27 @@ public class DatasetValidator {
 	 * @return
 	 */
 	public boolean validate(final @NonNull ICellCollection collection) {
+		clearResults();
 
-		errorList.clear();
-		errorCells.clear();
-		summaryList.clear();
-
-		int errors = 0;
-
-		int rpErrors = checkAllNucleiHaveRP(collection);
-		if (rpErrors != 0) {
-			summaryList.add(String.format("Error in RP assignment for %s nuclei", rpErrors));
-			errors++;
-		}
-
-		int profileErrors = checkAllNucleiHaveProfiles(collection);
-		if (profileErrors != 0) {
-			summaryList
-					.add(String.format("Error in nucleus profiling for %s nuclei", profileErrors));
-			errors++;
-		}
+		Context ctx = createContext(collection, null);
+		Map<UUID, CellResult> results = checkCells(collection.getCells(), ctx);
+		int[] counts = addCellResults(collection.getCells(), results);
 
-		int segErrors = checkSegmentsAreConsistentInAllCells(collection);
-		if (segErrors != 0) {
-			summaryList.add(
-					String.format("Error in segmentation between cells: %s errors", segErrors));
-			errors++;
-		}
+		int segErrors = counts[Check.SEGMENTATION.ordinal()]
+				+ checkConsensusSegmentation(collection, ctx);
+		if (ctx.medianProfile() == null)
+			segErrors = 1;
+		else if (segErrors > 0)
+			errorList.add(new ValidationError(Check.SEGMENTATION, null,
+					"Segments are not consistent in all cells"));
 
-		int rpBoundaryErrors = checkNucleiHaveRPOnASegmentBoundary(collection);
-		if (rpBoundaryErrors != 0) {
-			summaryList.add(
-					String.format("Error in RP/segment placement in %s cells", rpBoundaryErrors));
-			errors++;
-		}
+		int errors = 0;
+		errors += summarise(counts[Check.RP.ordinal()], "Error in RP assignment for %s nuclei");
+		errors += summarise(counts[Check.PROFILE.ordinal()],
+				"Error in nucleus profiling for %s nuclei");
+		errors += summarise(segErrors, "Error in segmentation between cells: %s errors");
+		errors += summarise(counts[Check.RP_BOUNDARY.ordinal()],
+				"Error in RP/segment placement in %s cells");
 
 		if (errors == 0) {
 			summaryList.add("Collection OK");
@@ -148,59 +204,75 @@ public class DatasetValidator {
 	 * @param d
 	 */
 	public boolean validate(final @NonNull IAnalysisDataset d) {
+		lastResults.clear();
+		return validate(d, d.getCollection().getCells());
+	}
 
-		errorList.clear();
-		errorCells.clear();
-		summaryList.clear();
-
-		int errors = 0;
-
-		int rpErrors = checkAllNucleiHaveRP(d.getCollection());
-		if (rpErrors != 0) {
-			summaryList.add(String.format("Error in RP assignment for %s nuclei", rpErrors));
-			errors++;
-		}
-
-		int profileErrors = checkAllNucleiHaveProfiles(d);
-		if (profileErrors != 0) {
-			summaryList
-					.add(String.format("Error in nucleus profiling for %s nuclei", profileErrors));
-			errors++;
+	/**
+	 * Run validation on the given dataset, checking again only the given cells.
+	 * Other cells are assumed unchanged since the dataset was last validated by
+	 * this validator, and their earlier results are reused. If the dataset
+	 * segmentation or landmarks have changed, all cells are checked.
+	 * 
+	 * @param d       the dataset to validate
+	 * @param changed the cells changed since the last validation
+	 * @return true if the dataset is valid
+	 */
+	public boolean validate(final @NonNull IAnalysisDataset d,
+			final @NonNull Collection<ICell> changed) {
+		clearResults();
+
+		ICellCollection collection = d.getCollection();
+		List<OrientationMark> rootTags = collection.getProfileCollection().getOrientationMarks();
+		Context ctx = createContext(collection, rootTags);
+
+		List<ICell> cells = collection.getCells();
+		List<ICell> toCheck = cells;
+		if (ctx.equals(lastContext)) {
+			Set<UUID> changedIds = new HashSet<>();
+			for (ICell c : changed)
+				changedIds.add(c.getId());
+			toCheck = cells.stream()
+					.filter(c -> changedIds.contains(c.getId())
+							|| !lastResults.containsKey(c.getId()))
+					.toList();
 		}
 
-		int pcErrors = checkChildDatasetsHaveProfileCollections(d);
-		if (pcErrors != 0) {
-			summaryList.add(
-					String.format("Error in child dataset profiling for %s profiles", pcErrors));
-			errors++;
+		Map<UUID, CellResult> results = new HashMap<>();
+		for (ICell c : cells) {
+			CellResult r = lastResults.get(c.getId());
+			if (r != null)
+				results.put(c.getId(), r);
 		}
+		results.putAll(checkCells(toCheck, ctx));
 
-		int segMatch = checkSegmentsAreConsistentInProfileCollections(d);
-		if (segMatch != 0) {
-			summaryList.add("There are " + segMatch + " errors in segmentation between datasets");
-			errors++;
-		}
+		lastContext = ctx;
+		lastResults = results;
 
-		int childErrors = checkChildDatasetsHaveBorderTagsPresentInRoot(d);
-		if (childErrors != 0) {
-			summaryList.add(
-					"There are " + childErrors + " errors in segmentation between child datasets");
-			errors++;
-		}
+		int[] counts = addCellResults(cells, results);
 
-		int segErrors = checkSegmentsAreConsistentInAllCells(d);
-		if (segErrors != 0) {
-			summaryList.add(
-					String.format("Error in segmentation between cells: %s errors", segErrors));
-			errors++;
-		}
+		int segErrors = counts[Check.SEGMENTATION.ordinal()]
+				+ checkConsensusSegmentation(collection, ctx);
+		if (ctx.medianProfile() == null)
+			segErrors = 1;
+		else if (segErrors > 0)
+			errorList.add(new ValidationError(Check.SEGMENTATION, null,
+					"Segments are not consistent in all cells"));
 
-		int rpBoundaryErrors = checkNucleiHaveRPOnASegmentBoundary(d);
-		if (rpBoundaryErrors != 0) {
-			summaryList.add(
-					String.format("Error in RP/segment placement in %s cells", rpBoundaryErrors));
-			errors++;
-		}
+		int errors = 0;
+		errors += summarise(counts[Check.RP.ordinal()], "Error in RP assignment for %s nuclei");
+		errors += summarise(counts[Check.PROFILE.ordinal()],
+				"Error in nucleus profiling for %s nuclei");
+		errors += summarise(checkChildDatasetsHaveProfileCollections(d),
+				"Error in child dataset profiling for %s profiles");
+		errors += summarise(checkSegmentsAreConsistentInProfileCollections(d),
+				"There are %s errors in segmentation between datasets");
+		errors += summarise(counts[Check.ROOT_LANDMARK.ordinal()]
+				+ checkChildDatasetsHaveBorderTagsPresentInRoot(d, rootTags),
+				"There are %s errors in segmentation between child datasets");
+		errors += summarise(segErrors, "Error in segmentation between cells: %s errors");
+		errors += summarise(counts[Check.RP_BOUNDARY.ordinal()],
+				"Error in RP/segment placement in %s cells");
 
 		if (errors == 0) {
 			summaryList.add("Dataset OK");
@@ -212,99 +284,267 @@ public class DatasetValidator {
 		return false;
 	}
 
+	/**
+	 * Check a single cell has a reference point on a segment boundary
+	 * 
+	 * @param c the cell to check
+	 * @return true if the cell is valid
+	 */
 	public boolean validate(@NonNull ICell c) {
+		clearResults();
+		Context ctx = new Context(null, null, null, false);
+		CellResult r = checkCell(c, ctx);
+		errorList.addAll(r.errors());
+		if (!r.errors().isEmpty())
+			errorCells.add(c);
+		return errorCells.isEmpty();
+	}
+
+	private void clearResults() {
 		errorList.clear();
 		errorCells.clear();
 		summaryList.clear();
-		Nucleus n = c.getPrimaryNucleus();
+	}
 
-		if (!c.getPrimaryNucleus().hasLandmark(OrientationMark.REFERENCE)) {
-			errorList.add(String.format("Nucleus %s does not have RP",
-					c.getPrimaryNucleus().getNameAndNumber()));
-			errorCells.add(c);
+	/**
+	 * Add a summary line if there are errors
+	 * 
+	 * @return 1 if there were errors, 0 otherwise
+	 */
+	private int summarise(int count, String format) {
+		if (count == 0)
+			return 0;
+		summaryList.add(String.format(format, count));
+		return 1;
+	}
+
+	private Context createContext(@NonNull ICellCollection collection,
+			@Nullable List<OrientationMark> rootTags) {
+		ISegmentedProfile medianProfile = null;
+		try {
+			medianProfile = collection.getProfileCollection().getSegmentedProfile(
+					ProfileType.ANGLE,
+					OrientationMark.REFERENCE, Stats.MEDIAN);
+		} catch (MissingDataException | SegmentUpdateException e) {
+			errorList.add(new ValidationError(Check.SEGMENTATION, null,
+					"Unable to fetch median profile for collection"));
 		}
+		return new Context(collection.getProfileCollection().getSegmentIDs(), medianProfile,
+				rootTags, true);
+	}
 
-		int rpIsOk = 0;
+	/**
+	 * Check the given cells in parallel
+	 * 
+	 * @return the results for each cell by cell id
+	 */
+	private Map<UUID, CellResult> checkCells(@NonNull List<ICell> cells, @NonNull Context ctx) {
+		List<CellResult> results = cells.parallelStream().map(c -> checkCell(c, ctx)).toList();
+		Map<UUID, CellResult> map = new HashMap<>();
+		for (int i = 0; i < cells.size(); i++)
+			map.put(cells.get(i).getId(), results.get(i));
+		return map;
+	}
 
-		try {
-			int rpIndex = n.getBorderIndex(OrientationMark.REFERENCE);
+	/**
+	 * Add the results for each cell to the error lists in cell order
+	 * 
+	 * @return the total error count for each check
+	 */
+	private int[] addCellResults(@NonNull List<ICell> cells,
+			@NonNull Map<UUID, CellResult> results) {
+		int[] counts = new int[Check.values().length];
+		for (ICell c : cells) {
+			CellResult r = results.get(c.getId());
+			for (int i = 0; i < counts.length; i++)
+				counts[i] += r.counts()[i];
+			errorList.addAll(r.errors());
+			if (!r.errors().isEmpty())
+				errorCells.add(c);
+		}
+		return counts;
+	}
+
+	/**
+	 * Check the angle profile of a nucleus could be created, has one value per
+	 * border point, and contains only finite values. Other profile types are
+	 * created on demand from the same border, so are not created just to be
+	 * checked.
+	 * 
+	 * @param n       the nucleus
+	 * @param p       the angle profile, or null if it could not be created
+	 * @param failure the error creating the profile, if any
+	 * @return a description of the problem, or null if the profile is valid
+	 */
+	private static @Nullable String checkProfile(@NonNull Nucleus n, @Nullable IProfile p,
+			@Nullable Exception failure) {
+		if (p == null) {
+			// Thrown when the stored segments do not fit the profile
+			if (failure instanceof IllegalArgumentException)
+				return failure.getMessage();
+			return "cannot be created";
+		}
+		if (p.size() != n.getBorderLength())
+			return String.format("length %d does not match border length %d", p.size(),
+					n.getBorderLength());
+		for (int i = 0; i < p.size(); i++) {
+			if (!Double.isFinite(p.get(i)))
+				return String.format("non-finite value at index %d", i);
+		}
+		return null;
+	}
+
+	/**
+	 * Make every check on the nuclei of a cell
+	 * 
+	 * @param c   the cell
+	 * @param ctx the values to check against
+	 * @return the errors found
+	 */
+	private CellResult checkCell(@NonNull ICell c, @NonNull Context ctx) {
+		int[] counts = new int[Check.values().length];
+		List<ValidationError> errors = new ArrayList<>();
+
+		for (Nucleus n : c.getNuclei()) {
+			if (!n.hasLandmark(OrientationMark.REFERENCE)) {
+				errors.add(new ValidationError(Check.RP, c,
+						String.format("Nucleus %s does not have RP", n.getNameAndNumber())));
+				counts[Check.RP.ordinal()]++;
+			}
+
+			if (ctx.rootTags() != null) {
+				for (OrientationMark t : ctx.rootTags()) {
+					if (!n.hasLandmark(t)) {
+						errors.add(new ValidationError(Check.ROOT_LANDMARK, c,
+								String.format("Nucleus %s does not have root collection tag %s",
+										n.getNameAndNumber(), t)));
+						counts[Check.ROOT_LANDMARK.ordinal()]++;
+					}
+				}
+			}
 
 			// A profile starting from RP will have RP at index zero.
 			// One segment should start at index 0
-			ISegmentedProfile profile = n.getProfile(ProfileType.ANGLE, OrientationMark.REFERENCE);
-			LOGGER.finer("Testing RP " + rpIndex + " on profile " + profile.toString());
-			for (IProfileSegment s : profile.getSegments()) {
-				if (s.getStartIndex() == 0)
-					rpIsOk++;
+			ISegmentedProfile profile = null;
+			Exception failure = null;
+			try {
+				profile = n.getProfile(ProfileType.ANGLE, OrientationMark.REFERENCE);
+			} catch (MissingDataException | SegmentUpdateException
+					| IllegalArgumentException e) {
+				failure = e;
 			}
 
-			if (rpIsOk == 0) {
-				errorList.add(String.format(
-						"Nucleus %s does not have RP at a segment boundary: RP at %s, profile %s",
-						n.getNameAndNumber(), rpIndex, profile.toString()));
-				errorCells.add(c);
+			// Check the angle profile matches the border it was made from
+			if (ctx.checkProfiles()) {
+				String problem = checkProfile(n, profile, failure);
+				if (problem != null) {
+					errors.add(new ValidationError(Check.PROFILE, c,
+							String.format("Nucleus %s %s profile: %s",
+									n.getNameAndNumber(), ProfileType.ANGLE, problem)));
+					counts[Check.PROFILE.ordinal()]++;
+				}
 			}
 
-		} catch (MissingLandmarkException e) {
-			errorList
-					.add(String.format("Nucleus %s does not have an RP set", n.getNameAndNumber()));
-			errorCells.add(c);
-		} catch (MissingProfileException e) {
-			errorList.add(String.format("Nucleus %s does not have an angle profile",
-					n.getNameAndNumber()));
-			errorCells.add(c);
-		} catch (MissingDataException e) {
-			errorList.add(String.format("Nucleus %s is missing data",
-					n.getNameAndNumber()));
-			errorCells.add(c);
-		} catch (SegmentUpdateException e) {
-			errorList.add(String.format("Nucleus %s had an error finding segments: %s",
-					n.getNameAndNumber(),
-					e.getMessage()));
-			errorCells.add(c);
-		}
-
-		return errorCells.isEmpty();
-	}
+			if (ctx.medianProfile() != null) {
+				if (profile != null) {
+					counts[Check.SEGMENTATION.ordinal()] += checkSegmentation(n, profile,
+							ctx.segmentIds(), ctx.medianProfile(), c, errors);
+				} else {
+					errors.add(new ValidationError(Check.SEGMENTATION, c,
+							String.format("Error getting segments for object %s: %s", n.getId(),
+									failure.getMessage())));
+					counts[Check.SEGMENTATION.ordinal()]++;
+				}
+			}
 
-	private int checkAllNucleiHaveProfiles(@NonNull IAnalysisDataset d) {
-		return checkAllNucleiHaveProfiles(d.getCollection());
+			String rpError = profile == null ? describeProfileFailure(n, failure)
+					: checkRPOnSegmentBoundary(n, profile);
+			if (rpError != null) {
+				errors.add(new ValidationError(Check.RP_BOUNDARY, c, rpError));
+				counts[Check.RP_BOUNDARY.ordinal()]++;
+			}
+		}
+		return new CellResult(counts, errors);
 	}
 
-	private int checkAllNucleiHaveRP(@NonNull ICellCollection collection) {
-		int withErrors = 0;
-
-		for (ICell c : collection) {
-			for (Nucleus n : c.getNuclei()) {
-				if (!n.hasLandmark(OrientationMark.REFERENCE)) {
-					errorList.add(
-							String.format("Nucleus %s does not have RP", n.getNameAndNumber()));
-					errorCells.add(c);
-					withErrors++;
-				}
+	/**
+	 * Check if the RP is at a segment boundary. Does not check which segment
+	 * boundary the RP is at
+	 * 
+	 * @param n       the nucleus
+	 * @param profile the angle profile of the nucleus from the RP
+	 * @return a description of the error, or null if the RP is on a boundary
+	 */
+	private @Nullable String checkRPOnSegmentBoundary(@NonNull Nucleus n,
+			@NonNull ISegmentedProfile profile) {
+		try {
+			for (IProfileSegment s : profile.getSegments()) {
+				if (s.getStartIndex() == 0)
+					return null;
 			}
+
+			int rpIndex = n.getBorderIndex(OrientationMark.REFERENCE);
+			return String.format(
+					"Nucleus %s does not have RP at a segment boundary: RP at %s, profile %s",
+					n.getNameAndNumber(), rpIndex, profile.toString());
+		} catch (MissingLandmarkException | SegmentUpdateException e) {
+			return describeProfileFailure(n, e);
 		}
-		return withErrors;
 	}
 
-	private int checkAllNucleiHaveProfiles(@NonNull ICellCollection collection) {
-		int withErrors = 0;
+	/**
+	 * Describe why the angle profile of a nucleus could not be fetched
+	 * 
+	 * @param n the nucleus
+	 * @param e the error fetching the profile
+	 * @return a description of the error
+	 */
+	private String describeProfileFailure(@NonNull Nucleus n, @NonNull Exception e) {
+		if (e instanceof MissingLandmarkException)
+			return String.format("Nucleus %s does not have an RP set", n.getNameAndNumber());
+		if (e instanceof MissingProfileException)
+			return String.format("Nucleus %s does not have an angle profile",
+					n.getNameAndNumber());
+		if (e instanceof MissingDataException)
+			return String.format("Nucleus %s is missing data", n.getNameAndNumber());
+		return String.format("Nucleus %s had an error finding segments: %s",
+				n.getNameAndNumber(), e.getMessage());
+	}
 
-		for (ProfileType type : ProfileType.values()) {
-			for (ICell c : collection) {
-				for (Nucleus n : c.getNuclei()) {
-					try {
-						n.getProfile(type);
-					} catch (MissingDataException | SegmentUpdateException e) {
-						errorList.add(String.format("Nucleus %s does not have %s profile",
-								n.getNameAndNumber(), type));
-						errorCells.add(c);
-						withErrors++;
-					}
-				}
+	/**
+	 * Check the segmentation of the consensus nucleus, if present
+	 * 
+	 * @return the number of errors found
+	 */
+	private int checkConsensusSegmentation(@NonNull ICellCollection collection,
+			@NonNull Context ctx) {
+		if (ctx.medianProfile() == null || !collection.hasConsensus())
+			return 0;
+
+		List<ValidationError> errors = new ArrayList<>();
+		int consensusErrors = 0;
+		try {
+			Taggable consensus = collection.getConsensus();
+			try {
+				ISegmentedProfile p = consensus.getProfile(ProfileType.ANGLE,
+						OrientationMark.REFERENCE);
+				consensusErrors = checkSegmentation(consensus, p, ctx.segmentIds(),
+						ctx.medianProfile(), null, errors);
+			} catch (MissingDataException | SegmentUpdateException e) {
+				errors.add(new ValidationError(Check.SEGMENTATION, null,
+						String.format("Error getting segments for object %s: %s",
+								consensus.getId(), e.getMessage())));
+				consensusErrors = 1;
 			}
+			errorList.addAll(errors);
+			if (consensusErrors > 0)
+				errorList.add(new ValidationError(Check.SEGMENTATION, null,
+						"Segmentation error in consensus"));
+		} catch (MissingLandmarkException | ComponentCreationException e) {
+			errorList.add(new ValidationError(Check.SEGMENTATION, null,
+					CONSENSUS_NUCLEUS_LACKS_LANDMARK));
 		}
-		return withErrors;
+		return consensusErrors;
 	}
 
 	private int checkChildDatasetsHaveProfileCollections(@NonNull IAnalysisDataset d) {
@@ -355,43 +595,33 @@ public class DatasetValidator {
 
 	/**
 	 * Check that all the tags assigned in the root profile collection are present
-	 * in all nuclei, and in all child collections
+	 * in the consensus nucleus, and in all child collections. Nuclei are checked
+	 * with the other cell checks.
 	 * 
-	 * @param d
-	 * @return
+	 * @param d        the root dataset
+	 * @param rootTags the tags in the root profile collection
+	 * @return the number of errors found
 	 */
-	private int checkChildDatasetsHaveBorderTagsPresentInRoot(@NonNull IAnalysisDataset d) {
+	private int checkChildDatasetsHaveBorderTagsPresentInRoot(@NonNull IAnalysisDataset d,
+			@NonNull List<OrientationMark> rootTags) {
 		List<IAnalysisDataset> children = d.getAllChildDatasets();
 		int withErrors = 0;
 
-		List<OrientationMark> rootTags = d.getCollection().getProfileCollection()
-				.getOrientationMarks();
-		for (ICell c : d.getCollection()) {
-			for (Nucleus n : c.getNuclei()) {
-				for (OrientationMark t : rootTags) {
-					if (!n.hasLandmark(t)) {
-						withErrors++;
-						errorList.add(
-								String.format("Nucleus %s does not have root collection tag %s",
-										n.getNameAndNumber(), t));
-						errorCells.add(c);
-					}
-				}
-			}
-		}
-
 		if (d.getCollection().hasConsensus()) {
 
 			try {
 				for (OrientationMark t : rootTags) {
 					if (!d.getCollection().getConsensus().hasLandmark(t)) {
 						withErrors++;
-						errorList.add(String.format(
-								"Consensus nucleus does not have root collection tag %s", t));
+						errorList.add(new ValidationError(Check.ROOT_LANDMARK, null,
+								String.format(
+										"Consensus nucleus does not have root collection tag %s",
+										t)));
 					}
 				}
 			} catch (MissingLandmarkException | ComponentCreationException e) {
-				errorList.add(CONSENSUS_NUCLEUS_LACKS_LANDMARK);
+				errorList.add(new ValidationError(Check.ROOT_LANDMARK, null,
+						CONSENSUS_NUCLEUS_LACKS_LANDMARK));
 			}
 		}
 
@@ -400,9 +630,9 @@ public class DatasetValidator {
 				if (!child.getCollection().getProfileCollection().getOrientationMarks()
 						.contains(t)) {
 					withErrors++;
-					errorList.add(
+					errorList.add(new ValidationError(Check.ROOT_LANDMARK, null,
 							String.format("Child dataset %s does not have root collection tag %s",
-									child.getName(), t));
+									child.getName(), t)));
 				}
 			}
 
@@ -411,13 +641,15 @@ public class DatasetValidator {
 					for (OrientationMark t : rootTags) {
 						if (!child.getCollection().getConsensus().hasLandmark(t)) {
 							withErrors++;
-							errorList.add(String.format(
-									"Child dataset %s consensus nucleus does not have root collection tag %s",
-									child.getName(), t));
+							errorList.add(new ValidationError(Check.ROOT_LANDMARK, null,
+									String.format(
+											"Child dataset %s consensus nucleus does not have root collection tag %s",
+											child.getName(), t)));
 						}
 					}
 				} catch (MissingLandmarkException | ComponentCreationException e) {
-					errorList.add(CONSENSUS_NUCLEUS_LACKS_LANDMARK);
+					errorList.add(new ValidationError(Check.ROOT_LANDMARK, null,
+							CONSENSUS_NUCLEUS_LACKS_LANDMARK));
 				}
 			}
 		}
@@ -425,73 +657,6 @@ public class DatasetValidator {
 		return withErrors;
 	}
 
-	private int checkNucleiHaveRPOnASegmentBoundary(@NonNull IAnalysisDataset d) {
-		return checkNucleiHaveRPOnASegmentBoundary(d.getCollection());
-	}
-
-	/**
-	 * Check if the RP is at a segment boundary in all cells. Does not check which
-	 * segment boundary the RP is at
-	 * 
-	 * @param d
-	 * @return
-	 */
-	private int checkNucleiHaveRPOnASegmentBoundary(@NonNull ICellCollection collection) {
-		int allErrors = 0;
-		for (ICell c : collection) {
-			for (Nucleus n : c.getNuclei()) {
-				int rpIsOk = 0;
-
-				try {
-					int rpIndex = n.getBorderIndex(OrientationMark.REFERENCE);
-
-					// A profile starting from RP will have RP at index zero.
-					// One segment should start at index 0
-					ISegmentedProfile profile = n.getProfile(ProfileType.ANGLE,
-							OrientationMark.REFERENCE);
-					LOGGER.finer("Testing RP " + rpIndex + " on profile " + profile.toString());
-					for (IProfileSegment s : profile.getSegments()) {
-						if (s.getStartIndex() == 0)
-							rpIsOk++;
-					}
-
-					if (rpIsOk == 0) {
-						errorList.add(
-								String.format(
-										"Nucleus %s does not have RP at a segment boundary: RP at %s, profile %s",
-										n.getNameAndNumber(), rpIndex, profile.toString()));
-						errorCells.add(c);
-						allErrors++;
-					}
-
-				} catch (MissingLandmarkException e) {
-					errorList.add(String.format("Nucleus %s does not have an RP set",
-							n.getNameAndNumber()));
-					errorCells.add(c);
-					allErrors++;
-				} catch (MissingProfileException e) {
-					errorList.add(String.format("Nucleus %s does not have an angle profile",
-							n.getNameAndNumber()));
-					errorCells.add(c);
-					allErrors++;
-				} catch (MissingDataException e) {
-					errorList.add(String.format("Nucleus %s is missing data",
-							n.getNameAndNumber()));
-					errorCells.add(c);
-					allErrors++;
-
-				} catch (SegmentUpdateException e) {
-					errorList.add(String.format("Nucleus %s had an error finding segments: %s",
-							n.getNameAndNumber(),
-							e.getMessage()));
-					errorCells.add(c);
-					allErrors++;
-				}
-			}
-		}
-		return allErrors;
-	}
-
 	/**
 	 * Test if all child collections have the same segmentation pattern applied as
 	 * the parent collection
@@ -520,7 +685,8 @@ public class DatasetValidator {
 			// check all parent segments are in child
 			for (UUID id : idList) {
 				if (!childList.contains(id)) {
-					errorList.add("Segment " + id + " not found in child " + child.getName());
+					errorList.add(new ValidationError(Check.CHILD_SEGMENTS, null,
+							"Segment " + id + " not found in child " + child.getName()));
 					numErrors++;
 				}
 			}
@@ -528,7 +694,8 @@ public class DatasetValidator {
 			// Check all child segments are in parent
 			for (UUID id : childList) {
 				if (!idList.contains(id)) {
-					errorList.add(child.getName() + " segment " + id + " not found in parent");
+					errorList.add(new ValidationError(Check.CHILD_SEGMENTS, null,
+							child.getName() + " segment " + id + " not found in parent"));
 					numErrors++;
 				}
 			}
@@ -537,115 +704,58 @@ public class DatasetValidator {
 		return numErrors;
 	}
 
-	/**
-	 * Check if all cells in the dataset have the same segmentation pattern,
-	 * including the consensus nucleus.
-	 * 
-	 * @param d the dataset collection to test
-	 * @return
-	 */
-	private int checkSegmentsAreConsistentInAllCells(@NonNull IAnalysisDataset d) {
-		return checkSegmentsAreConsistentInAllCells(d.getCollection());
-	}
-
-	/**
-	 * Check if all cells in the collection have the same segmentation pattern,
-	 * including the consensus nucleus
-	 * 
-	 * @param collection the cell collection to test
-	 * @return
-	 */
-	private int checkSegmentsAreConsistentInAllCells(@NonNull ICellCollection collection) {
-
-		ISegmentedProfile medianProfile;
-		try {
-			medianProfile = collection.getProfileCollection().getSegmentedProfile(ProfileType.ANGLE,
-					OrientationMark.REFERENCE, Stats.MEDIAN);
-		} catch (MissingDataException | SegmentUpdateException e) {
-			errorList.add("Unable to fetch median profile for collection");
-			return 1;
-		}
-
-		List<UUID> idList = collection.getProfileCollection().getSegmentIDs();
-
-		int errorCount = 0;
-
-		for (ICell c : collection.getCells()) {
-			int cellErrors = 0;
-			for (Nucleus n : c.getNuclei()) {
-				cellErrors += checkSegmentation(n, idList, medianProfile);
-			}
-
-			if (cellErrors > 0)
-				errorCells.add(c);
-			errorCount += cellErrors;
-		}
-
-		if (collection.hasConsensus()) {
-			try {
-				int consensusErrors = checkSegmentation(collection.getConsensus(), idList,
-						medianProfile);
-				if (consensusErrors > 0)
-					errorList.add("Segmentation error in consensus");
-				errorCount += consensusErrors;
-			} catch (MissingLandmarkException | ComponentCreationException e) {
-				errorList.add(CONSENSUS_NUCLEUS_LACKS_LANDMARK);
-			}
-		}
-
-		if (errorCount > 0) {
-			errorList.add(String.format("Segments are not consistent in all cells"));
-		}
-
-		return errorCount;
-	}
-
 	/**
 	 * Check a nucleus segmentation matches the expected list of segments, and that
 	 * segmentation patterns are internally consistent
 	 * 
 	 * @param n                the object to check
+	 * @param p                the angle profile of the object from the RP
 	 * @param expectedSegments the expected segment ids
+	 * @param medianProfile    the median profile of the collection
+	 * @param c                the cell containing the object, if any
+	 * @param errors           the list to add errors to
 	 * @return the number of errors found
 	 */
-	private int checkSegmentation(Taggable n, List<UUID> expectedSegments,
-			ISegmentedProfile medianProfile) {
+	private int checkSegmentation(@NonNull Taggable n, @NonNull ISegmentedProfile p,
+			@NonNull List<UUID> expectedSegments, @NonNull ISegmentedProfile medianProfile,
+			@Nullable ICell c, @NonNull List<ValidationError> errors) {
 
 		int errorCount = 0;
-		boolean hasSegments = expectedSegments.size() > 0;
-		ISegmentedProfile p;
+		boolean hasSegments = !expectedSegments.isEmpty();
 		try {
-			p = n.getProfile(ProfileType.ANGLE, OrientationMark.REFERENCE);
 			if (p.hasSegments() != hasSegments) {
-				errorList.add(String.format("Profile collection segments is %s; nucleus is %s",
-						hasSegments,
-						p.hasSegments()));
+				errors.add(new ValidationError(Check.SEGMENTATION, c,
+						String.format("Profile collection segments is %s; nucleus is %s",
+								hasSegments,
+								p.hasSegments())));
 				errorCount++;
 			}
 
 			List<UUID> childList = p.getSegmentIDs();
 
 			if (expectedSegments.size() != childList.size()) {
-				errorList.add(String.format("Profile collection has %s segments; nucleus has %s",
-						expectedSegments.size(), childList.size()));
+				errors.add(new ValidationError(Check.SEGMENTATION, c,
+						String.format("Profile collection has %s segments; nucleus has %s",
+								expectedSegments.size(), childList.size())));
 				errorCount++;
 			}
 
 			// Check all nucleus segments are in root dataset
 			for (UUID id : childList) {
 				if (!expectedSegments.contains(id) && !id.equals(n.getId())) {
-					errorList.add(String.format("Nucleus %s has segment %s not found in parent",
-							n.getId(), id));
+					errors.add(new ValidationError(Check.SEGMENTATION, c,
+							String.format("Nucleus %s has segment %s not found in parent",
+									n.getId(), id)));
 					errorCount++;
 				}
 			}
 
 			// Check all root dataset segments are in nucleus
-
 			for (UUID id : expectedSegments) {
 				if (!childList.contains(id)) {
-					errorList.add(String.format(
-							"Profile collection segment %s not found in object %s", id, n.getId()));
+					errors.add(new ValidationError(Check.SEGMENTATION, c, String.format(
+							"Profile collection segment %s not found in object %s", id,
+							n.getId())));
 					errorCount++;
 				}
 			}
@@ -658,9 +768,10 @@ public class DatasetValidator {
 						continue;
 					IProfileSegment s2 = p.getSegment(id2);
 					if (s1.overlapsBeyondEndpoints(s2)) {
-						errorList.add(String.format("%s overlaps %s in object %s", s1.getDetail(),
-								s2.getDetail(),
-								n.getId()));
+						errors.add(new ValidationError(Check.SEGMENTATION, c,
+								String.format("%s overlaps %s in object %s", s1.getDetail(),
+										s2.getDetail(),
+										n.getId())));
 						errorCount++;
 					}
 
@@ -674,25 +785,26 @@ public class DatasetValidator {
 					errorCount++;
 				for (IProfileSegment mge : medianSeg.getMergeSources()) {
 					if (!objectSeg.hasMergeSource(mge.getID())) {
-						errorList.add(String.format(
+						errors.add(new ValidationError(Check.SEGMENTATION, c, String.format(
 								"Object segment %s does not have expected median merge source in object %s",
-								mge.getName(), n.getId()));
+								mge.getName(), n.getId())));
 						errorCount++;
 					}
 				}
 				for (IProfileSegment obj : objectSeg.getMergeSources()) {
 					if (!medianSeg.hasMergeSource(obj.getID())) {
-						errorList.add(String.format(
+						errors.add(new ValidationError(Check.SEGMENTATION, c, String.format(
 								"Median segment %s does not have merge source %s from nucleus %s",
-								medianSeg.getName(), obj.getID(), n.getId()));
+								medianSeg.getName(), obj.getID(), n.getId())));
 						errorCount++;
 					}
 				}
 			}
 
-		} catch (MissingDataException | SegmentUpdateException e) {
-			errorList.add(String.format("Error getting segments for object %s: %s", n.getId(),
-					e.getMessage()));
+		} catch (MissingDataException e) {
+			errors.add(new ValidationError(Check.SEGMENTATION, c,
+					String.format("Error getting segments for object %s: %s", n.getId(),
+							e.getMessage())));
 			errorCount++;
 		}
 		return errorCount;
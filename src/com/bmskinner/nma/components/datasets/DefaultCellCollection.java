@@ -42,6 +42,7 @@ import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -50,6 +51,7 @@ import org.jdom2.Element;
 
 import com.bmskinner.nma.analysis.ProgressEvent;
 import com.bmskinner.nma.analysis.ProgressListener;
+import com.bmskinner.nma.analysis.profiles.ProfileCreator;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.Taggable;
 import com.bmskinner.nma.components.XMLNames;
@@ -675,6 +677,14 @@ public class DefaultCellCollection implements ICellCollection {
 		statsCache.clear(scale);
 	}
 
+	@Override
+	public synchronized void clearMeasurements(@NonNull ICell cell) {
+		for (Nucleus n : cell.getNuclei())
+			n.clearMeasurements();
+		statsCache.clear(CellularComponent.NUCLEUS);
+		statsCache.clear(CellularComponent.NUCLEAR_BORDER_SEGMENT);
+	}
+
 	@Override
 	public synchronized double getMedian(@NonNull Measurement stat, String component,
 			MeasurementScale scale)
@@ -702,33 +712,56 @@ public class DefaultCellCollection implements ICellCollection {
 			UUID id)
 			throws MissingDataException, SegmentUpdateException {
 
-		switch (component) {
-		case CellularComponent.WHOLE_CELL:
-			return getCellStatistics(stat, scale);
-		case CellularComponent.NUCLEUS:
-			return getNuclearStatistics(stat, scale);
-		case CellularComponent.NUCLEAR_BORDER_SEGMENT:
-			return getSegmentStatistics(stat, scale, id);
-		default: {
+		if (!isColumnComponent(component)) {
 			LOGGER.warning(() -> "No component of type " + component + " can be handled");
 			return new double[0];
 		}
-		}
+
+		fillColumn(stat, component, scale, id);
+
+		// Variability values are given in nucleus order, all others are sorted
+		if (CellularComponent.NUCLEUS.equals(component) && Measurement.VARIABILITY.equals(stat))
+			return statsCache.getValues(stat, component, scale, id);
+		return statsCache.getSortedValues(stat, component, scale, id);
+	}
+
+	private static boolean isColumnComponent(String component) {
+		return CellularComponent.WHOLE_CELL.equals(component)
+				|| CellularComponent.NUCLEUS.equals(component)
+				|| CellularComponent.NUCLEAR_BORDER_SEGMENT.equals(component);
+	}
+
+	/**
+	 * Ensure the column of values for the given measurement is in the cache
+	 * 
+	 * @param stat      the measurement
+	 * @param component the component type
+	 * @param scale     the measurement scale
+	 * @param id        the segment id, if the component is a segment
+	 * @throws MissingDataException
+	 * @throws SegmentUpdateException
+	 */
+	private synchronized void fillColumn(@NonNull Measurement stat, String component,
+			MeasurementScale scale, UUID id)
+			throws MissingDataException, SegmentUpdateException {
+		if (statsCache.has(stat, component, scale, id))
+			return;
+
+		double[] values = switch (component) {
+		case CellularComponent.WHOLE_CELL -> getCellStatistics(stat, scale);
+		case CellularComponent.NUCLEUS -> getNuclearStatistics(stat, scale);
+		case CellularComponent.NUCLEAR_BORDER_SEGMENT -> getSegmentStatistics(stat, scale, id);
+		default -> new double[0];
+		};
+		statsCache.set(stat, component, scale, id, values);
 	}
 
 	private synchronized double getMedianStatistic(@NonNull Measurement stat, String component,
 			MeasurementScale scale,
 			UUID id)
 			throws MissingDataException, SegmentUpdateException {
-
-		if (!statsCache.has(stat, component, scale, id)) {
-			double[] values = getRawValues(stat, component, scale, id);
-			statsCache.set(stat, component, scale, id, values);
-
-		}
-
+		fillColumn(stat, component, scale, id);
 		return statsCache.getMedian(stat, component, scale, id);
-
 	}
 
 	@Override
@@ -749,13 +782,7 @@ public class DefaultCellCollection implements ICellCollection {
 			MeasurementScale scale,
 			UUID id)
 			throws MissingDataException, SegmentUpdateException {
-
-		if (!statsCache.has(stat, component, scale, id)) {
-			double[] values = getRawValues(stat, component, scale, id);
-			statsCache.set(stat, component, scale, id, values);
-
-		}
-
+		fillColumn(stat, component, scale, id);
 		return statsCache.getMin(stat, component, scale, id);
 	}
 
@@ -778,74 +805,60 @@ public class DefaultCellCollection implements ICellCollection {
 			UUID id)
 			throws MissingDataException,
 			SegmentUpdateException {
-
-		if (!statsCache.has(stat, component, scale, id)) {
-			double[] values = getRawValues(stat, component, scale, id);
-			statsCache.set(stat, component, scale, id, values);
-		}
-
+		fillColumn(stat, component, scale, id);
 		return statsCache.getMax(stat, component, scale, id);
 	}
 
 	/**
-	 * Get a sorted list of the given statistic values for each nucleus in the
-	 * collection, and add summary to the cache
+	 * Get the given statistic value for each cell in the collection, in cell order
 	 * 
 	 * @param stat  the measurement to use
 	 * @param scale the measurement scale
-	 * @return a list of values
-	 * @throws MissingMeasurementException
-	 * @throws Exception
+	 * @return a column of values
+	 * @throws MissingMeasurementException if a cell does not have the measurement
 	 */
 	private synchronized double[] getCellStatistics(@NonNull Measurement stat,
 			@NonNull MeasurementScale scale) throws MissingMeasurementException {
 
-		if (!cells.parallelStream().allMatch(c -> c.hasMeasurement(stat))) {
-			throw new MissingMeasurementException("Missing '%s' in at least one cell");
+		double[] result = new double[cells.size()];
+		for (int i = 0; i < result.length; i++) {
+			ICell c = cells.get(i);
+			if (!c.hasMeasurement(stat))
+				throw new MissingMeasurementException(
+						"Missing '%s' in at least one cell".formatted(stat));
+			try {
+				result[i] = c.getMeasurement(stat, scale);
+			} catch (MissingDataException | ComponentCreationException
+					| SegmentUpdateException e) {
+				// should never be reached, we checked earlier
+				result[i] = Double.NaN;
+			}
 		}
-
-		return cells.parallelStream()
-				.mapToDouble(c -> {
-					try {
-						return c.getMeasurement(stat, scale);
-					} catch (MissingDataException | ComponentCreationException
-							| SegmentUpdateException e) {
-						// should never be reached, we checked earlier
-						return Double.NaN;
-					}
-
-				})
-				.sorted()
-				.toArray();
+		return result;
 	}
 
 	/**
-	 * Get a list of the given statistic values for each nucleus in the collection
+	 * Get the given statistic value for each nucleus in the collection, in nucleus
+	 * order
 	 * 
 	 * @param stat  the measurement to use
 	 * @param scale the measurement scale
-	 * @return a list of values
+	 * @return a column of values
 	 * @throws MissingDataException
 	 * @throws SegmentUpdateException
-	 * @throws Exception
 	 */
 	private synchronized double[] getNuclearStatistics(@NonNull Measurement stat,
 			@NonNull MeasurementScale scale) throws SegmentUpdateException, MissingDataException {
 
-		double[] result = null;
-
-		if (Measurement.VARIABILITY.equals(stat)) {
-			result = this.getNormalisedDifferencesToMedianFromPoint(OrientationMark.REFERENCE);
-		} else {
-			result = this.getNuclei().parallelStream()
-					.mapToDouble(n -> {
-						return StreamUtils.uncheckCall(() -> {
-							return n.getMeasurement(stat, scale);
-						});
-					})
-					.sorted()
-					.toArray();
-		}
+		if (Measurement.VARIABILITY.equals(stat))
+			return this.getNormalisedDifferencesToMedianFromPoint(OrientationMark.REFERENCE);
+
+		// Measurements not yet calculated are made on demand, so fill in parallel
+		List<Nucleus> nuclei = getNuclei();
+		double[] result = new double[nuclei.size()];
+		IntStream.range(0, result.length).parallel()
+				.forEach(i -> result[i] = StreamUtils
+						.uncheckCall(() -> nuclei.get(i).getMeasurement(stat, scale)));
 		return result;
 	}
 
@@ -856,7 +869,8 @@ public class DefaultCellCollection implements ICellCollection {
 	 * @param stat  the measurement to fetch
 	 * @param scale the scale to use
 	 * @param id    the segment id to fetch
-	 * @return the segment measurements for each nucleus in the collection
+	 * @return the segment measurements for each nucleus in the collection, in
+	 *         nucleus order
 	 * @throws MissingMeasurementException via the unchecked stream
 	 * @throws ProfileException            via the unchecked stream
 	 * @throws MissingDataException        via the unchecked stream
@@ -866,12 +880,11 @@ public class DefaultCellCollection implements ICellCollection {
 			@NonNull UUID id)
 			throws MissingDataException, SegmentUpdateException {
 
-		double[] result = null;
-
-		result = getNuclei().parallelStream().mapToDouble(n -> {
-			return StreamUtils.uncheckCall(callSegMeasurement(stat, scale, id, n));
-		}).sorted().toArray();
-
+		List<Nucleus> nuclei = getNuclei();
+		double[] result = new double[nuclei.size()];
+		IntStream.range(0, result.length).parallel()
+				.forEach(i -> result[i] = StreamUtils
+						.uncheckCall(callSegMeasurement(stat, scale, id, nuclei.get(i))));
 		return result;
 	}
 
@@ -1328,6 +1341,7 @@ public class DefaultCellCollection implements ICellCollection {
 		public void calculateProfiles()
 				throws MissingDataException, SegmentUpdateException {
 			cache.clear();
+			statsCache.clear(CellularComponent.NUCLEAR_BORDER_SEGMENT);
 			for (ProfileType t : ProfileType.values()) {
 				for (Landmark lm : landmarks.keySet()) {
 					getProfile(t, lm, Stats.MEDIAN);
@@ -1428,6 +1442,7 @@ public class DefaultCellCollection implements ICellCollection {
 			for (IProfileSegment s : n) {
 				segments.add(s.duplicate());
 			}
+			statsCache.clear(CellularComponent.NUCLEAR_BORDER_SEGMENT);
 		}
 
 		private IProfileAggregate createProfileAggregate(@NonNull ProfileType type, int length)
@@ -1456,7 +1471,9 @@ public class DefaultCellCollection implements ICellCollection {
 			IProfileAggregate agg = new DefaultProfileAggregate(length,
 					DefaultCellCollection.this.size());
 
-			for (Nucleus n : DefaultCellCollection.this.getNuclei())
+			List<Nucleus> nuclei = DefaultCellCollection.this.getNuclei();
+			ProfileCreator.createProfiles(nuclei, type);
+			for (Nucleus n : nuclei)
 				agg.addValues(n.getProfile(type, OrientationMark.REFERENCE));
 			return agg;
 
@@ -1494,7 +1511,9 @@ public class DefaultCellCollection implements ICellCollection {
 			IProfileAggregate agg = new DefaultProfileAggregate(length,
 					DefaultCellCollection.this.size());
 
-			for (Nucleus n : DefaultCellCollection.this.getNuclei())
+			List<Nucleus> nuclei = DefaultCellCollection.this.getNuclei();
+			ProfileCreator.createProfiles(nuclei, type);
+			for (Nucleus n : nuclei)
 				agg.addValues(n.getProfile(type, OrientationMark.REFERENCE));
 
 			setSegments(interpolatedSegments);
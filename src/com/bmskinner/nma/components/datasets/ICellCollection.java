@@ -238,6 +238,17 @@ public interface ICellCollection
 	 */
 	void setCellsLocked(boolean b);
 
+	/**
+	 * Clear the stored measurements of the nuclei in the given cell, together with
+	 * any collection values derived from them, so that all are recalculated on
+	 * next request. Use this rather than clearing a nucleus directly when a
+	 * nucleus in the collection is changed, otherwise the collection will continue
+	 * to report the old values.
+	 * 
+	 * @param cell the cell whose nuclei have changed
+	 */
+	void clearMeasurements(@NonNull ICell cell);
+
 	/**
 	 * Get the profile collection of the given type
 	 * 
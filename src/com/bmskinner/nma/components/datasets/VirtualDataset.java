@@ -24,6 +24,7 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jdom2.Element;
 
+import com.bmskinner.nma.analysis.profiles.ProfileCreator;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.Taggable;
 import com.bmskinner.nma.components.Version.UnsupportedVersionException;
@@ -806,6 +807,14 @@ public class VirtualDataset extends AbstractAnalysisDataset
 		statsCache.clear(scale);
 	}
 
+	@Override
+	public void clearMeasurements(@NonNull ICell cell) {
+		// The nuclei are shared with the parent, whose values must also be cleared
+		parentDataset.getCollection().clearMeasurements(cell);
+		statsCache.clear(CellularComponent.NUCLEUS);
+		statsCache.clear(CellularComponent.NUCLEAR_BORDER_SEGMENT);
+	}
+
 	@Override
 	public double getMedian(@NonNull Measurement stat, String component, MeasurementScale scale)
 			throws MissingDataException, SegmentUpdateException {
@@ -1684,7 +1693,9 @@ public class VirtualDataset extends AbstractAnalysisDataset
 			IProfileAggregate agg = new DefaultProfileAggregate(length,
 					VirtualDataset.this.size());
 
-			for (Nucleus n : VirtualDataset.this.getNuclei())
+			List<Nucleus> nuclei = VirtualDataset.this.getNuclei();
+			ProfileCreator.createProfiles(nuclei, type);
+			for (Nucleus n : nuclei)
 				agg.addValues(n.getProfile(type, OrientationMark.REFERENCE));
 			return agg;
 
@@ -1721,7 +1732,9 @@ public class VirtualDataset extends AbstractAnalysisDataset
 			IProfileAggregate agg = new DefaultProfileAggregate(length,
 					VirtualDataset.this.size());
 
-			for (Nucleus n : VirtualDataset.this.getNuclei())
+			List<Nucleus> nuclei = VirtualDataset.this.getNuclei();
+			ProfileCreator.createProfiles(nuclei, type);
+			for (Nucleus n : nuclei)
 				agg.addValues(n.getProfile(type, OrientationMark.REFERENCE));
 
 			setSegments(interpolatedSegments);
@@ -0,0 +1,640 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.components.generic;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import ij.process.FloatPolygon;
+
+/**
+ * Packed storage for the border of a component. Coordinates are held in two
+ * float arrays rather than as one point object per border position. Border
+ * points are exposed through lightweight read-only {@link IPoint} views over
+ * the arrays, and geometric searches over the border are provided as kernels
+ * that run on the arrays without creating points.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public final class BorderArray {
+
+	private final float[] xs;
+	private final float[] ys;
+
+	/**
+	 * Create from coordinate arrays. The arrays are copied.
+	 *
+	 * @param xs the x coordinates
+	 * @param ys the y coordinates
+	 * @param n  the number of points to take from the arrays
+	 */
+	public BorderArray(float[] xs, float[] ys, int n) {
+		if (xs.length < n || ys.length < n)
+			throw new IllegalArgumentException(
+					"Coordinate arrays are shorter than %d points".formatted(n));
+		this.xs = Arrays.copyOf(xs, n);
+		this.ys = Arrays.copyOf(ys, n);
+	}
+
+	/**
+	 * Create from a list of points. The coordinates are copied.
+	 *
+	 * @param points the border points
+	 */
+	public BorderArray(@NonNull List<IPoint> points) {
+		int n = points.size();
+		xs = new float[n];
+		ys = new float[n];
+		for (int i = 0; i < n; i++) {
+			IPoint p = points.get(i);
+			xs[i] = (float) p.getX();
+			ys[i] = (float) p.getY();
+		}
+	}
+
+	/**
+	 * Create a copy of an existing border
+	 *
+	 * @param other the border to copy
+	 */
+	public BorderArray(@NonNull BorderArray other) {
+		this(other.xs, other.ys, other.xs.length);
+	}
+
+	/**
+	 * Get the packed border behind a list of points. If the list is a view
+	 * created by {@link #asList()}, the backing border is returned without
+	 * copying. Otherwise a new border is created from the points.
+	 *
+	 * @param points the border points
+	 * @return a border containing the points
+	 */
+	public static BorderArray of(@NonNull List<IPoint> points) {
+		if (points instanceof PointList l)
+			return l.border();
+		return new BorderArray(points);
+	}
+
+	/**
+	 * @return the number of points in the border
+	 */
+	public int size() {
+		return xs.length;
+	}
+
+	public float getX(int i) {
+		return xs[i];
+	}
+
+	public float getY(int i) {
+		return ys[i];
+	}
+
+	/**
+	 * Set the position of a border point
+	 *
+	 * @param i the border index
+	 * @param x the new x coordinate
+	 * @param y the new y coordinate
+	 */
+	public void set(int i, double x, double y) {
+		xs[i] = (float) x;
+		ys[i] = (float) y;
+	}
+
+	/**
+	 * @return a copy of the x coordinates
+	 */
+	public float[] toXArray() {
+		return Arrays.copyOf(xs, xs.length);
+	}
+
+	/**
+	 * @return a copy of the y coordinates
+	 */
+	public float[] toYArray() {
+		return Arrays.copyOf(ys, ys.length);
+	}
+
+	/**
+	 * Get a read-only live view of a border point. Changes to the border are
+	 * visible in the view.
+	 *
+	 * @param i the border index
+	 * @return a view of the point
+	 */
+	public IPoint get(int i) {
+		if (i < 0 || i >= xs.length)
+			throw new IndexOutOfBoundsException(
+					"Index %d out of bounds for border length %d".formatted(i, xs.length));
+		return new BorderPoint(this, i);
+	}
+
+	/**
+	 * Get an unmodifiable list of read-only live views of the border points.
+	 *
+	 * @return the border points
+	 */
+	public List<IPoint> asList() {
+		return new PointList(this);
+	}
+
+	/**
+	 * Translate every point in the border
+	 *
+	 * @param xOffset the amount to move in the x-axis
+	 * @param yOffset the amount to move in the y-axis
+	 */
+	public void offset(double xOffset, double yOffset) {
+		for (int i = 0; i < xs.length; i++) {
+			xs[i] = (float) (xs[i] + xOffset);
+			ys[i] = (float) (ys[i] + yOffset);
+		}
+	}
+
+	/**
+	 * Reflect every point in the border about a vertical line
+	 *
+	 * @param xCentre the x position of the line
+	 */
+	public void flipHorizontal(double xCentre) {
+		for (int i = 0; i < xs.length; i++)
+			xs[i] = (float) (xCentre + (xCentre - xs[i]));
+	}
+
+	/**
+	 * Reflect every point in the border about a horizontal line
+	 *
+	 * @param yCentre the y position of the line
+	 */
+	public void flipVertical(double yCentre) {
+		for (int i = 0; i < ys.length; i++)
+			ys[i] = (float) (yCentre + (yCentre - ys[i]));
+	}
+
+	/**
+	 * Apply an affine transform to every point in the border
+	 *
+	 * @param tf the transform
+	 */
+	public void transform(@NonNull AffineTransform tf) {
+		double m00 = tf.getScaleX();
+		double m01 = tf.getShearX();
+		double m02 = tf.getTranslateX();
+		double m10 = tf.getShearY();
+		double m11 = tf.getScaleY();
+		double m12 = tf.getTranslateY();
+		for (int i = 0; i < xs.length; i++) {
+			double x = xs[i];
+			double y = ys[i];
+			xs[i] = (float) (x * m00 + y * m01 + m02);
+			ys[i] = (float) (x * m10 + y * m11 + m12);
+		}
+	}
+
+	/**
+	 * Calculate the bounding rectangle of the border
+	 *
+	 * @return the bounds
+	 */
+	public Rectangle2D getBounds() {
+		double xMax = -Double.MAX_VALUE;
+		double xMin = Double.MAX_VALUE;
+		double yMax = -Double.MAX_VALUE;
+		double yMin = Double.MAX_VALUE;
+
+		for (int i = 0; i < xs.length; i++) {
+			xMax = xs[i] > xMax ? xs[i] : xMax;
+			xMin = xs[i] < xMin ? xs[i] : xMin;
+			yMax = ys[i] > yMax ? ys[i] : yMax;
+			yMin = ys[i] < yMin ? ys[i] : yMin;
+		}
+		return new Rectangle2D.Double(xMin, yMin, xMax - xMin, yMax - yMin);
+	}
+
+	/**
+	 * Find the index of the first point exactly matching the given coordinates
+	 *
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the index of the point, or -1 if no point matches
+	 */
+	public int indexOf(double x, double y) {
+		for (int i = 0; i < xs.length; i++) {
+			if (xs[i] == x && ys[i] == y)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Find the index of the border point closest to the given position. Ties
+	 * are resolved to the lowest index.
+	 *
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the index of the closest point, or -1 if the border is empty
+	 */
+	public int findClosestIndex(float x, float y) {
+		int best = -1;
+		double bestDist = Double.MAX_VALUE;
+		for (int i = 0; i < xs.length; i++) {
+			double dx = xs[i] - x;
+			double dy = ys[i] - y;
+			double d = dx * dx + dy * dy;
+			if (d < bestDist) {
+				bestDist = d;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Find the index of the border point opposite the given point through a
+	 * centre. This is the point for which the direct distance from the given
+	 * point is closest to the sum of the two points' distances to the centre.
+	 * Points closer to the given point than the given point is to the centre are
+	 * ignored.
+	 *
+	 * @param px the x coordinate of the point
+	 * @param py the y coordinate of the point
+	 * @param cx the x coordinate of the centre
+	 * @param cy the y coordinate of the centre
+	 * @return the index of the opposite point, or 0 if no point qualifies
+	 */
+	public int findOppositeIndex(float px, float py, float cx, float cy) {
+		double distToCom = FloatPoint.length(px - cx, py - cy);
+
+		int mini = 0;
+		double l = Double.MAX_VALUE;
+
+		for (int i = 0; i < xs.length; i++) {
+			double p2p = FloatPoint.length(xs[i] - px, ys[i] - py);
+			if (p2p <= distToCom)
+				continue;
+
+			double d = Math.abs(FloatPoint.length(xs[i] - cx, ys[i] - cy) + distToCom - p2p);
+
+			if (d < l) {
+				l = d;
+				mini = i;
+			}
+		}
+		return mini;
+	}
+
+	/**
+	 * Find the index of the border point making the angle closest to 90 degrees
+	 * with the given point, with the vertex at a centre. Ties are resolved to the
+	 * lowest index.
+	 *
+	 * @param ax the x coordinate of the point
+	 * @param ay the y coordinate of the point
+	 * @param cx the x coordinate of the centre
+	 * @param cy the y coordinate of the centre
+	 * @return the index of the orthogonal point, or -1 if the border is empty
+	 */
+	public int findOrthogonalIndex(float ax, float ay, float cx, float cy) {
+		float abx = cx - ax;
+		float aby = cy - ay;
+
+		int best = -1;
+		double bestDiff = Double.MAX_VALUE;
+		for (int i = 0; i < xs.length; i++) {
+			float cbx = cx - xs[i];
+			float cby = cy - ys[i];
+			double angle = FloatPoint.smallestAngle(abx, aby, cbx, cby);
+			double diff = Math.abs(90 - angle);
+			if (diff < bestDiff) {
+				bestDiff = diff;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Create a closed polygon from the border with the given translation. The
+	 * first point is repeated at the end of the polygon.
+	 *
+	 * @param xOffset the amount to move in the x-axis
+	 * @param yOffset the amount to move in the y-axis
+	 * @return the polygon
+	 */
+	public FloatPolygon toPolygon(float xOffset, float yOffset) {
+		int n = xs.length;
+		float[] xp = new float[n + 1];
+		float[] yp = new float[n + 1];
+
+		for (int i = 0; i < n; i++) {
+			xp[i] = xs[i] + xOffset;
+			yp[i] = ys[i] + yOffset;
+		}
+
+		// Ensure the polygon is closed
+		xp[n] = xs[0] + xOffset;
+		yp[n] = ys[0] + yOffset;
+
+		return new FloatPolygon(xp, yp);
+	}
+
+	/**
+	 * Create a closed path from the border with the given translation and scale.
+	 * Each coordinate is translated then divided by the scale.
+	 *
+	 * @param xOffset the amount to move in the x-axis
+	 * @param yOffset the amount to move in the y-axis
+	 * @param scale   the divisor for each coordinate
+	 * @return the path
+	 */
+	public Path2D.Double toPath(double xOffset, double yOffset, double scale) {
+		Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, xs.length + 1);
+		path.moveTo((xs[0] + xOffset) / scale, (ys[0] + yOffset) / scale);
+
+		for (int i = 1; i < xs.length; i++)
+			path.lineTo((xs[i] + xOffset) / scale, (ys[i] + yOffset) / scale);
+
+		path.closePath();
+		return path;
+	}
+
+	/**
+	 * Create an edge table for point-in-polygon tests on the border
+	 *
+	 * @return the edge table
+	 */
+	public PolygonEdgeTable toEdgeTable() {
+		return new PolygonEdgeTable(xs, ys);
+	}
+
+	/**
+	 * Create an edge table for point-in-polygon tests on the border with the
+	 * given translation. Coordinates are translated in float precision, as in
+	 * {@link #toPolygon(float, float)}.
+	 *
+	 * @param xOffset the amount to move in the x-axis
+	 * @param yOffset the amount to move in the y-axis
+	 * @return the edge table
+	 */
+	public PolygonEdgeTable toEdgeTable(float xOffset, float yOffset) {
+		float[] xp = new float[xs.length];
+		float[] yp = new float[ys.length];
+		for (int i = 0; i < xs.length; i++) {
+			xp[i] = xs[i] + xOffset;
+			yp[i] = ys[i] + yOffset;
+		}
+		return new PolygonEdgeTable(xp, yp);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(xs) + Arrays.hashCode(ys);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		BorderArray other = (BorderArray) obj;
+		return Arrays.equals(xs, other.xs) && Arrays.equals(ys, other.ys);
+	}
+
+	@Override
+	public String toString() {
+		return asList().toString();
+	}
+
+	/**
+	 * An unmodifiable list of views over a border
+	 */
+	private static final class PointList extends AbstractList<IPoint> implements RandomAccess {
+
+		private final BorderArray border;
+
+		PointList(BorderArray border) {
+			this.border = border;
+		}
+
+		BorderArray border() {
+			return border;
+		}
+
+		@Override
+		public IPoint get(int index) {
+			return border.get(index);
+		}
+
+		@Override
+		public int size() {
+			return border.size();
+		}
+	}
+
+	/**
+	 * A read-only view of a single point in a border. Reads go straight to the
+	 * border arrays. Views cannot be moved, since the component owning the border
+	 * would not know to invalidate anything derived from it; use
+	 * {@link #duplicate()} for a movable copy. Views are equal to any other point
+	 * with the same coordinates.
+	 */
+	static final class BorderPoint extends Point2D implements IPoint {
+
+		private static final String READ_ONLY_ERROR = "Border points are read-only; "
+				+ "transform the component or use a duplicate";
+
+		private final BorderArray border;
+		private final int index;
+
+		BorderPoint(BorderArray border, int index) {
+			this.border = border;
+			this.index = index;
+		}
+
+		/**
+		 * @return a detached copy of the current position
+		 */
+		private FloatPoint snapshot() {
+			return new FloatPoint(border.xs[index], border.ys[index]);
+		}
+
+		@Override
+		public IPoint duplicate() {
+			return snapshot();
+		}
+
+		@Override
+		public double getX() {
+			return border.xs[index];
+		}
+
+		@Override
+		public double getY() {
+			return border.ys[index];
+		}
+
+		@Override
+		public void setLocation(double x, double y) {
+			throw new UnsupportedOperationException(READ_ONLY_ERROR);
+		}
+
+		@Override
+		public int getXAsInt() {
+			return Math.round(border.xs[index]);
+		}
+
+		@Override
+		public int getYAsInt() {
+			return Math.round(border.ys[index]);
+		}
+
+		@Override
+		public double getLengthTo(@NonNull IPoint a) {
+			return FloatPoint.lengthTo(border.xs[index], border.ys[index], a);
+		}
+
+		@Override
+		public boolean overlaps(@NonNull IPoint a) {
+			return getXAsInt() == a.getXAsInt() && getYAsInt() == a.getYAsInt();
+		}
+
+		@Override
+		public boolean isAbove(@NonNull IPoint p) {
+			return getY() > p.getY();
+		}
+
+		@Override
+		public boolean isBelow(@NonNull IPoint p) {
+			return getY() < p.getY();
+		}
+
+		@Override
+		public boolean isLeftOf(@NonNull IPoint p) {
+			return getX() < p.getX();
+		}
+
+		@Override
+		public boolean isRightOf(@NonNull IPoint p) {
+			return getX() > p.getX();
+		}
+
+		@Override
+		public boolean overlapsPerfectly(@NonNull IPoint a) {
+			return getX() == a.getX() && getY() == a.getY();
+		}
+
+		@Override
+		public Point2D toPoint2D() {
+			return this;
+		}
+
+		@Override
+		public double findSmallestAngle(@NonNull IPoint a, @NonNull IPoint b) {
+			return FloatPoint.smallestAngle(border.xs[index], border.ys[index], a, b);
+		}
+
+		@Override
+		public double findAbsoluteAngle(@NonNull IPoint start, @NonNull IPoint end) {
+			return FloatPoint.absoluteAngle(border.xs[index], border.ys[index], start, end);
+		}
+
+		@Override
+		public IPoint minus(@NonNull IPoint p) {
+			return new FloatPoint(getX() - p.getX(), getY() - p.getY());
+		}
+
+		@Override
+		public IPoint plus(@NonNull IPoint p) {
+			return new FloatPoint(getX() + p.getX(), getY() + p.getY());
+		}
+
+		@Override
+		public IPoint plus(double value) {
+			return new FloatPoint(getX() + value, getY() + value);
+		}
+
+		@Override
+		public IPoint minus(double value) {
+			return new FloatPoint(getX() - value, getY() - value);
+		}
+
+		@Override
+		public IPoint multiply(double value) {
+			return new FloatPoint(getX() * value, getY() * value);
+		}
+
+		@Override
+		public IPoint divide(double value) {
+			return new FloatPoint(getX() / value, getY() / value);
+		}
+
+		@Override
+		public void setX(double x) {
+			throw new UnsupportedOperationException(READ_ONLY_ERROR);
+		}
+
+		@Override
+		public void setY(double y) {
+			throw new UnsupportedOperationException(READ_ONLY_ERROR);
+		}
+
+		@Override
+		public void set(@NonNull IPoint p) {
+			throw new UnsupportedOperationException(READ_ONLY_ERROR);
+		}
+
+		@Override
+		public void set(@NonNull Point2D p) {
+			throw new UnsupportedOperationException(READ_ONLY_ERROR);
+		}
+
+		@Override
+		public void offset(double x, double y) {
+			throw new UnsupportedOperationException(READ_ONLY_ERROR);
+		}
+
+		@Override
+		public int hashCode() {
+			return super.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			// Point2D compares coordinates
+			return obj instanceof IPoint && super.equals(obj);
+		}
+
+		@Override
+		public String toString() {
+			return snapshot().toString();
+		}
+	}
+}
@@ -117,20 +117,48 @@ public class FloatPoint extends Point2D.Float implements IPoint {
 		this.y = (float) p.getY();
 	}
 
-	private double getLengthTo(final FloatPoint a) {
+	/**
+	 * Test if a point is stored at float precision, so that arithmetic on its
+	 * coordinates can be done in float as for this class
+	 * 
+	 * @param p the point to test
+	 * @return true if the point holds float coordinates
+	 */
+	private static boolean isFloatBacked(@NonNull IPoint p) {
+		return p instanceof FloatPoint || p instanceof BorderArray.BorderPoint;
+	}
+
+	/**
+	 * Calculate the length of a vector whose components were computed in float
+	 * 
+	 * @param dx the x component
+	 * @param dy the y component
+	 * @return the length
+	 */
+	static double length(float dx, float dy) {
 		// a2 = b2 + c2
-		double dx = x - a.x;
-		double dy = y - a.y;
-		double dx2 = dx * dx;
-		double dy2 = dy * dy;
+		double dx2 = (double) dx * dx;
+		double dy2 = (double) dy * dy;
 		return Math.sqrt(dx2 + dy2);
 	}
 
 	@Override
 	public double getLengthTo(@NonNull final IPoint a) {
+		return lengthTo(x, y, a);
+	}
 
-		if (a instanceof FloatPoint p)
-			return getLengthTo(p);
+	/**
+	 * Calculate the distance from a float position to a point
+	 * 
+	 * @param x the x coordinate of the position
+	 * @param y the y coordinate of the position
+	 * @param a the point to measure to
+	 * @return the distance
+	 */
+	static double lengthTo(float x, float y, @NonNull final IPoint a) {
+
+		if (isFloatBacked(a))
+			return length(x - (float) a.getX(), y - (float) a.getY());
 
 		// a2 = b2 + c2
 		double dx = x - a.getX();
@@ -195,9 +223,23 @@ public class FloatPoint extends Point2D.Float implements IPoint {
 
 	@Override
 	public double findSmallestAngle(@NonNull IPoint a, @NonNull IPoint c) {
+		return smallestAngle(x, y, a, c);
+	}
 
-		if (a instanceof FloatPoint && c instanceof FloatPoint)
-			return findSmallestAngle((FloatPoint) a, (FloatPoint) c);
+	/**
+	 * Find the smallest angle at a float position between two points
+	 * 
+	 * @param x the x coordinate of the vertex
+	 * @param y the y coordinate of the vertex
+	 * @param a the first point
+	 * @param c the second point
+	 * @return the angle in degrees
+	 */
+	static double smallestAngle(float x, float y, @NonNull IPoint a, @NonNull IPoint c) {
+
+		if (isFloatBacked(a) && isFloatBacked(c))
+			return smallestAngle(x - (float) a.getX(), y - (float) a.getY(),
+					x - (float) c.getX(), y - (float) c.getY());
 
 		/*
 		 * Test of rotation and comparison to a horizontal axis From
@@ -207,24 +249,30 @@ public class FloatPoint extends Point2D.Float implements IPoint {
 		 * rest
 		 */
 
-		IPoint ab = new FloatPoint(x - a.getX(), y - a.getY());
-		IPoint cb = new FloatPoint(x - c.getX(), y - c.getY());
+		// Vector components are rounded to float precision, as for a point
+		double abx = (float) (x - a.getX());
+		double aby = (float) (y - a.getY());
+		double cbx = (float) (x - c.getX());
+		double cby = (float) (y - c.getY());
 
-		double dot = (ab.getX() * cb.getX() + ab.getY() * cb.getY()); // dot product
-		double cross = (ab.getX() * cb.getY() - ab.getY() * cb.getX()); // cross product
+		double dot = (abx * cbx + aby * cby); // dot product
+		double cross = (abx * cby - aby * cbx); // cross product
 
 		double alpha = Math.atan2(cross, dot);
 
 		return Math.abs(alpha * 180 / Math.PI);
 	}
 
-	private double findSmallestAngle(@NonNull FloatPoint a, @NonNull FloatPoint c) {
-
-		float abx = x - a.x;
-		float aby = y - a.y;
-		float cbx = x - c.x;
-		float cby = y - c.y;
-
+	/**
+	 * Find the smallest angle between two vectors computed in float
+	 * 
+	 * @param abx the x component of the first vector
+	 * @param aby the y component of the first vector
+	 * @param cbx the x component of the second vector
+	 * @param cby the y component of the second vector
+	 * @return the angle in degrees
+	 */
+	static double smallestAngle(float abx, float aby, float cbx, float cby) {
 		double dot = (abx * cbx + aby * cby); // dot product
 		double cross = (abx * cby - aby * cbx); // cross product
 		double alpha = Math.atan2(cross, dot);
@@ -233,12 +281,28 @@ public class FloatPoint extends Point2D.Float implements IPoint {
 
 	@Override
 	public double findAbsoluteAngle(@NonNull IPoint start, @NonNull IPoint end) {
+		return absoluteAngle(x, y, start, end);
+	}
+
+	/**
+	 * Find the clockwise angle at a float position from one point to another
+	 * 
+	 * @param x     the x coordinate of the vertex
+	 * @param y     the y coordinate of the vertex
+	 * @param start the first point
+	 * @param end   the second point
+	 * @return the angle in degrees, from 0-360
+	 */
+	static double absoluteAngle(float x, float y, @NonNull IPoint start, @NonNull IPoint end) {
 
-		IPoint ab = new FloatPoint(x - start.getX(), y - start.getY());
-		IPoint cb = new FloatPoint(x - end.getX(), y - end.getY());
+		// Vector components are rounded to float precision, as for a point
+		double abx = (float) (x - start.getX());
+		double aby = (float) (y - start.getY());
+		double cbx = (float) (x - end.getX());
+		double cby = (float) (y - end.getY());
 
-		double dot = (ab.getX() * cb.getX() + ab.getY() * cb.getY()); // dot product
-		double cross = (ab.getX() * cb.getY() - ab.getY() * cb.getX()); // cross product
+		double dot = (abx * cbx + aby * cby); // dot product
+		double cross = (abx * cby - aby * cbx); // cross product
 
 		double alpha = Math.atan2(cross, dot);
 
@@ -263,9 +327,8 @@ public class FloatPoint extends Point2D.Float implements IPoint {
 		// value testing is handled here
 		if (!super.equals(obj))
 			return false;
-		if (getClass() != obj.getClass())
-			return false;
-		return true;
+		// Border views hold the same float coordinates
+		return getClass() == obj.getClass() || obj instanceof BorderArray.BorderPoint;
 	}
 
 	@Override
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.components.generic;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A static KD-tree over a set of points, answering nearest-neighbour and
+ * radius queries without comparing against every point. The tree is stored
+ * implicitly: the points are reordered once so that each node is the median
+ * of its range, split alternately on x and y.
+ * <p>
+ * Distances are calculated in the same way as
+ * {@link IPoint#getLengthTo(IPoint)} for float points, so results match an
+ * exhaustive search. Where several points are equally near, the one with the
+ * lowest index is chosen.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class PointIndex {
+
+	/** The point coordinates, in the order given */
+	private final float[] xs;
+	private final float[] ys;
+
+	/** Point indexes in tree order */
+	private final int[] tree;
+
+	/**
+	 * Create an index over the given points
+	 *
+	 * @param points the points to index
+	 */
+	public PointIndex(@NonNull List<IPoint> points) {
+		int n = points.size();
+		xs = new float[n];
+		ys = new float[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = (float) points.get(i).getX();
+			ys[i] = (float) points.get(i).getY();
+		}
+
+		tree = new int[n];
+		for (int i = 0; i < n; i++)
+			tree[i] = i;
+		build(0, n, true);
+	}
+
+	/**
+	 * Get the number of points in the index
+	 *
+	 * @return the number of points
+	 */
+	public int size() {
+		return tree.length;
+	}
+
+	/**
+	 * Get the point at the given index
+	 *
+	 * @param i the index of the point in the original list
+	 * @return the point
+	 */
+	public IPoint get(int i) {
+		return new FloatPoint(xs[i], ys[i]);
+	}
+
+	/**
+	 * Find the point nearest to the given point
+	 *
+	 * @param p the point to search from
+	 * @return the index of the nearest point, or -1 if the index is empty
+	 */
+	public int nearest(@NonNull IPoint p) {
+		return nearest(p, null);
+	}
+
+	/**
+	 * Find the point nearest to the given point, ignoring excluded points
+	 *
+	 * @param p        the point to search from
+	 * @param excluded flags for points to ignore, by original index. May be null.
+	 * @return the index of the nearest point, or -1 if no point is available
+	 */
+	public int nearest(@NonNull IPoint p, boolean @Nullable [] excluded) {
+		Nearest best = new Nearest();
+		if (tree.length > 0)
+			nearest((float) p.getX(), (float) p.getY(), 0, tree.length, true, excluded, best);
+		return best.index;
+	}
+
+	/**
+	 * Find the points within the given distance of a point
+	 *
+	 * @param p      the point to search from
+	 * @param radius the maximum distance, inclusive
+	 * @return the indexes of the points within the radius, in ascending order
+	 */
+	public int[] withinRadius(@NonNull IPoint p, double radius) {
+		int[] found = new int[tree.length];
+		int count = withinRadius((float) p.getX(), (float) p.getY(), radius, 0, tree.length,
+				true, found, 0);
+		int[] result = Arrays.copyOf(found, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Calculate the distance from a point in the index to another point
+	 *
+	 * @param i the index of the point
+	 * @param p the other point
+	 * @return the distance between the points
+	 */
+	public double distance(int i, @NonNull IPoint p) {
+		return FloatPoint.length(xs[i] - (float) p.getX(), ys[i] - (float) p.getY());
+	}
+
+	/** The best candidate found during a nearest-neighbour search */
+	private static class Nearest {
+		int index = -1;
+		double distance = Double.MAX_VALUE;
+	}
+
+	/**
+	 * Arrange the range so the median on the given axis is at its midpoint, then
+	 * recurse on each half with the other axis
+	 */
+	private void build(int from, int to, boolean splitX) {
+		if (to - from <= 1)
+			return;
+		int mid = (from + to) >>> 1;
+		select(from, to, mid, splitX ? xs : ys);
+		build(from, mid, !splitX);
+		build(mid + 1, to, !splitX);
+	}
+
+	/**
+	 * Partially order the tree range so the k-th smallest coordinate is at k
+	 */
+	private void select(int from, int to, int k, float[] coords) {
+		int lo = from;
+		int hi = to - 1;
+		while (lo < hi) {
+			float pivot = coords[tree[(lo + hi) >>> 1]];
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (coords[tree[i]] < pivot)
+					i++;
+				while (coords[tree[j]] > pivot)
+					j--;
+				if (i <= j) {
+					int t = tree[i];
+					tree[i++] = tree[j];
+					tree[j--] = t;
+				}
+			}
+			if (k <= j)
+				hi = j;
+			else if (k >= i)
+				lo = i;
+			else
+				return;
+		}
+	}
+
+	private void nearest(float qx, float qy, int from, int to, boolean splitX,
+			boolean[] excluded, Nearest best) {
+		if (from >= to)
+			return;
+		int mid = (from + to) >>> 1;
+		int node = tree[mid];
+
+		if (excluded == null || !excluded[node]) {
+			double d = FloatPoint.length(xs[node] - qx, ys[node] - qy);
+			if (d < best.distance || (d == best.distance && node < best.index)) {
+				best.distance = d;
+				best.index = node;
+			}
+		}
+
+		// The float difference on the split axis never exceeds the distance to
+		// any point on the far side, so the far side can be skipped once it is
+		// further than the best point found.
+		float delta = splitX ? qx - xs[node] : qy - ys[node];
+		boolean nearLow = delta < 0;
+		if (nearLow)
+			nearest(qx, qy, from, mid, !splitX, excluded, best);
+		else
+			nearest(qx, qy, mid + 1, to, !splitX, excluded, best);
+
+		if (Math.abs(delta) <= best.distance) {
+			if (nearLow)
+				nearest(qx, qy, mid + 1, to, !splitX, excluded, best);
+			else
+				nearest(qx, qy, from, mid, !splitX, excluded, best);
+		}
+	}
+
+	private int withinRadius(float qx, float qy, double radius, int from, int to,
+			boolean splitX, int[] found, int count) {
+		if (from >= to)
+			return count;
+		int mid = (from + to) >>> 1;
+		int node = tree[mid];
+
+		if (FloatPoint.length(xs[node] - qx, ys[node] - qy) <= radius)
+			found[count++] = node;
+
+		// Points below the split are at least delta away, points above at least
+		// -delta away
+		float delta = splitX ? qx - xs[node] : qy - ys[node];
+		if (delta <= radius)
+			count = withinRadius(qx, qy, radius, from, mid, !splitX, found, count);
+		if (-delta <= radius)
+			count = withinRadius(qx, qy, radius, mid + 1, to, !splitX, found, count);
+		return count;
+	}
+}
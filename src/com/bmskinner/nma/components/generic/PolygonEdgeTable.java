@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.components.generic;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * A point-in-polygon test for a closed border. The non-horizontal edges of the
+ * polygon are bucketed by y-coordinate once, so each query only tests the
+ * edges spanning the query row rather than the whole border. Two crossing
+ * rules are available: {@link #contains(double, double)} matches
+ * {@link java.awt.geom.Path2D#contains(double, double)}, and
+ * {@link #containsEvenOdd(float, float)} matches
+ * {@link ij.process.FloatPolygon#contains(float, float)}, for a shape built
+ * from the same points, including for points lying on the border.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class PolygonEdgeTable {
+
+	/** Edge start and end coordinates */
+	private final double[] x0;
+	private final double[] y0;
+	private final double[] x1;
+	private final double[] y1;
+
+	private final double minX;
+	private final double maxX;
+	private final double minY;
+	private final double maxY;
+	private final double bucketHeight;
+	private final int nBuckets;
+
+	/** Index into edgeIndex of the first edge in each bucket */
+	private final int[] bucketStart;
+
+	/** Edges in each bucket, stored consecutively */
+	private final int[] edgeIndex;
+
+	/**
+	 * Create from a border list. The polygon is closed from the last point back
+	 * to the first.
+	 * 
+	 * @param border the border points
+	 */
+	public PolygonEdgeTable(@NonNull List<IPoint> border) {
+		this(toXArray(border), toYArray(border));
+	}
+
+	/**
+	 * Create from border coordinates. The polygon is closed from the last point
+	 * back to the first.
+	 * 
+	 * @param xs the x coordinates of the border
+	 * @param ys the y coordinates of the border
+	 */
+	public PolygonEdgeTable(float[] xs, float[] ys) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("Coordinate arrays must be the same length");
+
+		int n = xs.length;
+
+		// Horizontal edges never contribute crossings, so only store the others
+		int nEdges = 0;
+		double xMin = Double.MAX_VALUE;
+		double xMax = -Double.MAX_VALUE;
+		double yMin = Double.MAX_VALUE;
+		double yMax = -Double.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			int j = i == n - 1 ? 0 : i + 1;
+			if (ys[i] != ys[j])
+				nEdges++;
+			xMin = Math.min(xMin, xs[i]);
+			xMax = Math.max(xMax, xs[i]);
+			yMin = Math.min(yMin, ys[i]);
+			yMax = Math.max(yMax, ys[i]);
+		}
+
+		x0 = new double[nEdges];
+		y0 = new double[nEdges];
+		x1 = new double[nEdges];
+		y1 = new double[nEdges];
+
+		int e = 0;
+		for (int i = 0; i < n; i++) {
+			int j = i == n - 1 ? 0 : i + 1;
+			if (ys[i] == ys[j])
+				continue;
+			x0[e] = xs[i];
+			y0[e] = ys[i];
+			x1[e] = xs[j];
+			y1[e] = ys[j];
+			e++;
+		}
+
+		minX = n == 0 ? 0 : xMin;
+		maxX = n == 0 ? 0 : xMax;
+		minY = n == 0 ? 0 : yMin;
+		maxY = n == 0 ? 0 : yMax;
+		nBuckets = Math.max(1, Math.min(nEdges, (int) Math.ceil(maxY - minY)));
+		bucketHeight = Math.max(Double.MIN_NORMAL, (maxY - minY) / nBuckets);
+
+		// Count the edges in each bucket, then fill
+		bucketStart = new int[nBuckets + 1];
+		for (int i = 0; i < nEdges; i++) {
+			int first = bucketOf(Math.min(y0[i], y1[i]));
+			int last = bucketOf(Math.max(y0[i], y1[i]));
+			for (int b = first; b <= last; b++)
+				bucketStart[b + 1]++;
+		}
+		for (int b = 0; b < nBuckets; b++)
+			bucketStart[b + 1] += bucketStart[b];
+
+		edgeIndex = new int[bucketStart[nBuckets]];
+		int[] fill = new int[nBuckets];
+		for (int i = 0; i < nEdges; i++) {
+			int first = bucketOf(Math.min(y0[i], y1[i]));
+			int last = bucketOf(Math.max(y0[i], y1[i]));
+			for (int b = first; b <= last; b++)
+				edgeIndex[bucketStart[b] + fill[b]++] = i;
+		}
+	}
+
+	private int bucketOf(double y) {
+		int b = (int) ((y - minY) / bucketHeight);
+		return Math.max(0, Math.min(nBuckets - 1, b));
+	}
+
+	/**
+	 * Test if the given point is inside the polygon, using the non-zero winding
+	 * rule.
+	 * 
+	 * @param px the x coordinate
+	 * @param py the y coordinate
+	 * @return true if the point is inside the polygon
+	 */
+	public boolean contains(double px, double py) {
+		if (Double.isNaN(px) || Double.isNaN(py) || Double.isInfinite(px)
+				|| Double.isInfinite(py))
+			return false;
+
+		// No edge can span a point outside the vertical range
+		if (py < minY || py >= maxY)
+			return false;
+
+		int b = bucketOf(py);
+		int crossings = 0;
+		for (int k = bucketStart[b]; k < bucketStart[b + 1]; k++)
+			crossings += pointCrossingsForLine(px, py, edgeIndex[k]);
+		return crossings != 0;
+	}
+
+	/**
+	 * Test if the given point is inside the polygon, using the even-odd rule and
+	 * float arithmetic of {@link ij.process.FloatPolygon#contains(float, float)}.
+	 * 
+	 * @param px the x coordinate
+	 * @param py the y coordinate
+	 * @return true if the point is inside the polygon
+	 */
+	public boolean containsEvenOdd(float px, float py) {
+		// Edges only cross rows in the range [min, max)
+		if (!(py >= minY && py < maxY))
+			return false;
+
+		int b = bucketOf(py);
+		boolean inside = false;
+		for (int k = bucketStart[b]; k < bucketStart[b + 1]; k++) {
+			int i = edgeIndex[k];
+			// FloatPolygon walks each edge from its end point back to its start
+			float xa = (float) x1[i];
+			float ya = (float) y1[i];
+			float xb = (float) x0[i];
+			float yb = (float) y0[i];
+			if ((ya > py) != (yb > py) && px < (xb - xa) * (py - ya) / (yb - ya) + xa)
+				inside = !inside;
+		}
+		return inside;
+	}
+
+	/**
+	 * Get the smallest x coordinate of the polygon
+	 * 
+	 * @return the minimum x
+	 */
+	public double getMinX() {
+		return minX;
+	}
+
+	/**
+	 * Get the largest x coordinate of the polygon
+	 * 
+	 * @return the maximum x
+	 */
+	public double getMaxX() {
+		return maxX;
+	}
+
+	/**
+	 * Get the smallest y coordinate of the polygon
+	 * 
+	 * @return the minimum y
+	 */
+	public double getMinY() {
+		return minY;
+	}
+
+	/**
+	 * Get the largest y coordinate of the polygon
+	 * 
+	 * @return the maximum y
+	 */
+	public double getMaxY() {
+		return maxY;
+	}
+
+	/**
+	 * Count the crossings of a ray extending left from the point with an edge.
+	 * This follows the rule in {@code sun.awt.geom.Curve.pointCrossingsForLine}.
+	 * 
+	 * @param px the x coordinate
+	 * @param py the y coordinate
+	 * @param i  the edge index
+	 * @return the signed crossing count
+	 */
+	private int pointCrossingsForLine(double px, double py, int i) {
+		double ya = y0[i];
+		double yb = y1[i];
+		if (py < ya && py < yb)
+			return 0;
+		if (py >= ya && py >= yb)
+			return 0;
+		double xa = x0[i];
+		double xb = x1[i];
+		if (px >= xa && px >= xb)
+			return 0;
+		if (px < xa && px < xb)
+			return (ya < yb) ? 1 : -1;
+		double xintercept = xa + (py - ya) * (xb - xa) / (yb - ya);
+		if (px >= xintercept)
+			return 0;
+		return (ya < yb) ? 1 : -1;
+	}
+
+	private static float[] toXArray(List<IPoint> border) {
+		float[] result = new float[border.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = (float) border.get(i).getX();
+		return result;
+	}
+
+	private static float[] toYArray(List<IPoint> border) {
+		float[] result = new float[border.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = (float) border.get(i).getY();
+		return result;
+	}
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.components.generic;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * A rasterised point-in-polygon test for integer pixel coordinates. Every
+ * pixel in the bounding box of a polygon is tested once against an edge table
+ * when the mask is created, so later queries are a single bit lookup. Use when
+ * many pixels of the same polygon will be tested, such as when iterating over
+ * the pixels of a component.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class PolygonMask {
+
+	/** The coordinates of the first pixel in the mask */
+	private final int xMin;
+	private final int yMin;
+
+	private final int width;
+	private final int height;
+
+	/** Pixel values, packed row by row */
+	private final long[] bits;
+
+	/**
+	 * Rasterise an edge table
+	 *
+	 * @param table   the polygon to rasterise
+	 * @param evenOdd true to use {@link PolygonEdgeTable#containsEvenOdd(float, float)}
+	 *                for each pixel, false to use
+	 *                {@link PolygonEdgeTable#contains(double, double)}
+	 */
+	public PolygonMask(@NonNull PolygonEdgeTable table, boolean evenOdd) {
+		xMin = (int) Math.floor(table.getMinX());
+		yMin = (int) Math.floor(table.getMinY());
+		width = (int) Math.ceil(table.getMaxX()) - xMin + 1;
+		height = (int) Math.ceil(table.getMaxY()) - yMin + 1;
+
+		bits = new long[(int) (((long) width * height + 63) >>> 6)];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				boolean inside = evenOdd ? table.containsEvenOdd(x + xMin, y + yMin)
+						: table.contains(x + xMin, y + yMin);
+				if (inside) {
+					int i = y * width + x;
+					bits[i >>> 6] |= 1L << i;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test if the given pixel is inside the polygon
+	 *
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return true if the pixel is inside the polygon
+	 */
+	public boolean contains(int x, int y) {
+		int dx = x - xMin;
+		int dy = y - yMin;
+		if (dx < 0 || dy < 0 || dx >= width || dy >= height)
+			return false;
+		int i = dy * width + dx;
+		return (bits[i >>> 6] & (1L << i)) != 0;
+	}
+}
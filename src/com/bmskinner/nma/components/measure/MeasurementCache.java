@@ -17,18 +17,20 @@
 package com.bmskinner.nma.components.measure;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNull;
 
-import com.bmskinner.nma.stats.Stats;
+import com.bmskinner.nma.logging.CacheAccessEvent;
+import com.bmskinner.nma.stats.QuickSelect;
 
 /**
- * Store summary measurements for the cell collection. Saves calculating median,
- * min and max each time.
+ * Store measurements for the cell collection. Each measurement of a component
+ * type at a scale is held as a primitive column with one value per component,
+ * in collection order. Sorted values, median, min and max are calculated from
+ * the column once and reused until it is cleared.
  * 
  * @author bms41
  * @since 1.13.4
@@ -36,6 +38,8 @@ import com.bmskinner.nma.stats.Stats;
  */
 public class MeasurementCache {
 
+	private static final String CACHE_NAME = "Measurements";
+
 	// Need to be able to store the same measurement for different components of the
 	// cell. This requires keys on component and measurement.
 	private record Key(@NonNull Measurement stat,
@@ -89,9 +93,50 @@ public class MeasurementCache {
 
 	}
 
-	private Map<Key, Double> median = new HashMap<>(); // median values
-	private Map<Key, Double> min = new HashMap<>(); // median values
-	private Map<Key, Double> max = new HashMap<>(); // median values
+	/**
+	 * The values of a measurement for every component in a collection, in
+	 * collection order, with summary values calculated on first use.
+	 */
+	private static class Column {
+
+		private final double[] values;
+		private double[] sorted;
+		private Double median;
+		private Double min;
+		private Double max;
+
+		Column(double[] values) {
+			this.values = values;
+		}
+
+		synchronized double[] sorted() {
+			if (sorted == null) {
+				sorted = values.clone();
+				Arrays.sort(sorted);
+			}
+			return sorted;
+		}
+
+		synchronized double median() {
+			if (median == null)
+				median = QuickSelect.median(values.clone(), values.length);
+			return median;
+		}
+
+		synchronized double min() {
+			if (min == null)
+				min = Arrays.stream(values).min().getAsDouble();
+			return min;
+		}
+
+		synchronized double max() {
+			if (max == null)
+				max = Arrays.stream(values).max().getAsDouble();
+			return max;
+		}
+	}
+
+	private final Map<Key, Column> columns = new ConcurrentHashMap<>();
 
 	public MeasurementCache() {
 		// no constructor
@@ -99,58 +144,80 @@ public class MeasurementCache {
 
 	/**
 	 * Add values to the cache. Min, max and median will be automatically calculated
+	 * when first requested. The array is stored without copying, and must not be
+	 * modified afterwards.
 	 * 
 	 * @param measurement the measurement being stored
 	 * @param component   the cellular component the measurement applies to
 	 * @param scale       the measurement scale
 	 * @param id          the component id (e.g. a signal group)
-	 * @param values      the values to be stored
+	 * @param values      the values to be stored, one per component
 	 */
 	public void set(Measurement measurement, String component, MeasurementScale scale, UUID id,
 			double[] values) {
-		Key key = new Key(measurement, component, scale, id);
-		min.put(key, Arrays.stream(values).min().getAsDouble());
-		max.put(key, Arrays.stream(values).max().getAsDouble());
-		median.put(key, Stats.quartile(values, Stats.MEDIAN));
+		columns.put(new Key(measurement, component, scale, id), new Column(values));
 	}
 
-	public double getMedian(Measurement stat, String component, MeasurementScale scale, UUID id)
+	/**
+	 * Get a copy of the stored values, in the order they were added
+	 * 
+	 * @param stat      the measurement
+	 * @param component the cellular component the measurement applies to
+	 * @param scale     the measurement scale
+	 * @param id        the component id (e.g. a signal group)
+	 * @return the values
+	 * @throws MissingMeasurementException if the values are not present
+	 */
+	public double[] getValues(Measurement stat, String component, MeasurementScale scale, UUID id)
 			throws MissingMeasurementException {
+		return getColumn(stat, component, scale, id).values.clone();
+	}
 
-		if (this.has(stat, component, scale, id)) {
-			Key key = new Key(stat, component, scale, id);
-			return median.get(key);
-		}
-		throw new MissingMeasurementException("Measurement '%s' is not present".formatted(stat));
+	/**
+	 * Get a copy of the stored values, sorted in ascending order
+	 * 
+	 * @param stat      the measurement
+	 * @param component the cellular component the measurement applies to
+	 * @param scale     the measurement scale
+	 * @param id        the component id (e.g. a signal group)
+	 * @return the sorted values
+	 * @throws MissingMeasurementException if the values are not present
+	 */
+	public double[] getSortedValues(Measurement stat, String component, MeasurementScale scale,
+			UUID id) throws MissingMeasurementException {
+		return getColumn(stat, component, scale, id).sorted().clone();
 	}
 
-	public double getMin(Measurement stat, String component, MeasurementScale scale, UUID id)
+	public double getMedian(Measurement stat, String component, MeasurementScale scale, UUID id)
 			throws MissingMeasurementException {
+		return getColumn(stat, component, scale, id).median();
+	}
 
-		if (this.has(stat, component, scale, id)) {
-			Key key = new Key(stat, component, scale, id);
-			return min.get(key);
-		}
-		throw new MissingMeasurementException("Measurement '%s' is not present".formatted(stat));
+	public double getMin(Measurement stat, String component, MeasurementScale scale, UUID id)
+			throws MissingMeasurementException {
+		return getColumn(stat, component, scale, id).min();
 	}
 
 	public double getMax(Measurement stat, String component, MeasurementScale scale, UUID id)
 			throws MissingMeasurementException {
+		return getColumn(stat, component, scale, id).max();
+	}
 
-		if (this.has(stat, component, scale, id)) {
-			Key key = new Key(stat, component, scale, id);
-			return max.get(key);
-		}
-		throw new MissingMeasurementException("Measurement '%s' is not present".formatted(stat));
+	private Column getColumn(Measurement stat, String component, MeasurementScale scale, UUID id)
+			throws MissingMeasurementException {
+		Column column = columns.get(new Key(stat, component, scale, id));
+		CacheAccessEvent.record(CACHE_NAME, column != null);
+		if (column == null)
+			throw new MissingMeasurementException(
+					"Measurement '%s' is not present".formatted(stat));
+		return column;
 	}
 
 	/**
 	 * Clear all stored measurements
 	 */
 	public void clear() {
-		min.clear();
-		max.clear();
-		median.clear();
+		columns.clear();
 	}
 
 	/**
@@ -162,10 +229,7 @@ public class MeasurementCache {
 	 * @param id          the component id (e.g. a signal group)
 	 */
 	public void clear(Measurement stat, String component, MeasurementScale scale, UUID id) {
-		Key key = new Key(stat, component, scale, id);
-		min.remove(key);
-		max.remove(key);
-		median.remove(key);
+		columns.remove(new Key(stat, component, scale, id));
 	}
 
 	/**
@@ -176,13 +240,17 @@ public class MeasurementCache {
 	 * @param scale
 	 */
 	public void clear(Measurement stat, String component, UUID id) {
+		for (MeasurementScale s : MeasurementScale.values())
+			columns.remove(new Key(stat, component, s, id));
+	}
 
-		for (MeasurementScale s : MeasurementScale.values()) {
-			Key key = new Key(stat, component, s, id);
-			min.remove(key);
-			max.remove(key);
-			median.remove(key);
-		}
+	/**
+	 * Clear all values for the given component type
+	 * 
+	 * @param component the cellular component
+	 */
+	public void clear(String component) {
+		columns.keySet().removeIf(key -> key.component.equals(component));
 	}
 
 	/**
@@ -192,17 +260,7 @@ public class MeasurementCache {
 	 * @param scale
 	 */
 	public void clear(MeasurementScale scale) {
-
-		Iterator<Key> it = median.keySet().iterator();
-		while (it.hasNext()) {
-			Key key = it.next();
-
-			if (key.scale.equals(scale)) {
-				it.remove();
-				min.remove(key);
-				max.remove(key);
-			}
-		}
+		columns.keySet().removeIf(key -> key.scale.equals(scale));
 	}
 
 	/**
@@ -215,9 +273,6 @@ public class MeasurementCache {
 	 * @return
 	 */
 	public boolean has(Measurement stat, String component, MeasurementScale scale, UUID id) {
-
-		Key key = new Key(stat, component, scale, id);
-		return median.containsKey(key);
-
+		return columns.containsKey(new Key(stat, component, scale, id));
 	}
 }
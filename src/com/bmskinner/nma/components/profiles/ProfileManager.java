@@ -186,7 +186,7 @@ public class ProfileManager {
 					if (entry.getValue().intValue() == rawOldIndex)
 						n.setOrientationMark(entry.getKey(), rawIndex);
 				}
-				n.clearMeasurements();
+				collection.clearMeasurements(cell);
 
 			} else {
 				LOGGER.warning(
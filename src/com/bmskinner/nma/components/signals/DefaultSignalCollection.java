@@ -18,13 +18,14 @@ package com.bmskinner.nma.components.signals;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.logging.Level;
@@ -37,6 +38,7 @@ import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.XMLNames;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.generic.IPoint;
+import com.bmskinner.nma.components.generic.PointIndex;
 import com.bmskinner.nma.components.measure.Measurement;
 import com.bmskinner.nma.components.measure.MeasurementScale;
 import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
@@ -356,7 +358,9 @@ public class DefaultSignalCollection implements ISignalCollection {
 
 	/**
 	 * For each signal group pair, find the smallest pairwise distance between
-	 * signals in the collection.
+	 * signals in the collection. Each group is indexed once, so each signal is
+	 * matched to the nearest signal in the other group without comparing every
+	 * pair.
 	 * 
 	 * @return a list of shortest distances for each pairwise group
 	 */
@@ -365,7 +369,7 @@ public class DefaultSignalCollection implements ISignalCollection {
 
 		List<PairwiseSignalDistanceValue> result = new ArrayList<>();
 
-		Set<UUID> completeIDs = new HashSet<>();
+		Map<UUID, PointIndex> indexes = new HashMap<>();
 
 		for (UUID id1 : this.getSignalGroupIds()) {
 
@@ -385,20 +389,17 @@ public class DefaultSignalCollection implements ISignalCollection {
 					continue;
 				}
 
-				List<INuclearSignal> signalList2 = this.getSignals(id2);
+				PointIndex index2 = indexes.computeIfAbsent(id2,
+						id -> createIndex(this.getSignals(id)));
 
-				// Compare all signal pairwise distances between groups 1 and 2
+				// Find the nearest signal in group 2 to each signal in group 1
 				double smallest = Double.MAX_VALUE;
 				double scaleFactor = 1;
 				for (INuclearSignal s1 : signalList1) {
 					scaleFactor = s1.getScale();
-					for (INuclearSignal s2 : signalList2) {
-
-						double distance = s1.getCentreOfMass().getLengthTo(s2.getCentreOfMass());
-						smallest = distance < smallest ? distance : smallest;
-
-					}
-
+					IPoint com = s1.getCentreOfMass();
+					double distance = index2.distance(index2.nearest(com), com);
+					smallest = distance < smallest ? distance : smallest;
 				}
 
 				// Use arbitrary distance measure to convert scale
@@ -409,7 +410,6 @@ public class DefaultSignalCollection implements ISignalCollection {
 				result.add(p);
 
 			}
-			completeIDs.add(id1);
 		}
 		return result;
 	}
@@ -431,26 +431,30 @@ public class DefaultSignalCollection implements ISignalCollection {
 			throw new IllegalArgumentException("Signal IDs are the same");
 		}
 
-		Set<INuclearSignal> d1 = new HashSet<>(this.getSignals(id1));
-		Set<INuclearSignal> d2 = new HashSet<>(this.getSignals(id2));
-
-		List<Colocalisation<INuclearSignal>> result = findColocalisingSignals(d1, d2);
-
-		return result;
+		return findColocalisingSignals(this.getSignals(id1), this.getSignals(id2));
+	}
 
+	/**
+	 * A signal in group 1 and the nearest available signal in group 2
+	 */
+	private record Candidate(int i, int j, double distance) {
 	}
 
 	/**
-	 * Recursively find signal pairs with the shortest distance between them.
+	 * Find signal pairs with the shortest distance between them. The closest
+	 * pair of all remaining signals is taken, then the closest pair of the
+	 * signals left, until one group is used up. Group 2 is indexed, and each
+	 * signal in group 1 is held in a queue by the distance to its nearest
+	 * signal. When that signal is taken by another pair, the next nearest is
+	 * found and the signal requeued.
 	 * 
-	 * @param d1    the nuclear signals in group 1
-	 * @param d2    the nuclear signals in group 2
-	 * @param scale the measurement scale
-	 * @return a list of best colocalising signals
+	 * @param d1 the nuclear signals in group 1
+	 * @param d2 the nuclear signals in group 2
+	 * @return a list of best colocalising signals, closest first
 	 */
 	private List<Colocalisation<INuclearSignal>> findColocalisingSignals(
-			@NonNull Set<INuclearSignal> d1,
-			@NonNull Set<INuclearSignal> d2) {
+			@NonNull List<INuclearSignal> d1,
+			@NonNull List<INuclearSignal> d2) {
 
 		List<Colocalisation<INuclearSignal>> result = new ArrayList<>();
 
@@ -458,49 +462,48 @@ public class DefaultSignalCollection implements ISignalCollection {
 			return result;
 		}
 
-		double smallest = Double.MAX_VALUE;
-
-		INuclearSignal chosen1 = null, chosen2 = null;
-
-		// Check all pairwise comparisons before returning a Colocalisation
-		// in case the set lengths are unequal
-		Iterator<INuclearSignal> it1 = d1.iterator();
-		while (it1.hasNext()) {
+		PointIndex index2 = createIndex(d2);
+		boolean[] used = new boolean[d2.size()];
 
-			INuclearSignal s1 = it1.next();
+		PriorityQueue<Candidate> queue = new PriorityQueue<>(
+				Comparator.comparingDouble(Candidate::distance)
+						.thenComparingInt(Candidate::i));
 
-			Iterator<INuclearSignal> it2 = d2.iterator();
-			while (it2.hasNext()) {
-				INuclearSignal s2 = it2.next();
-				double distance = s1.getCentreOfMass().getLengthTo(s2.getCentreOfMass());
-
-				boolean smaller = distance < smallest;
-
-				// Replace selected signals if closer
-				smallest = smaller ? distance : smallest;
-				chosen2 = smaller ? s2 : chosen2;
-				chosen1 = smaller ? s1 : chosen1;
-			}
+		for (int i = 0; i < d1.size(); i++) {
+			IPoint com = d1.get(i).getCentreOfMass();
+			int j = index2.nearest(com);
+			queue.add(new Candidate(i, j, index2.distance(j, com)));
 		}
 
-		// Make a cColocalisation from the best pair
+		int pairs = Math.min(d1.size(), d2.size());
+		while (result.size() < pairs) {
+			Candidate c = queue.poll();
 
-		if (chosen1 != null && chosen2 != null) {
-
-			Colocalisation<INuclearSignal> col = new Colocalisation<INuclearSignal>(chosen1,
-					chosen2);
-			d1.remove(chosen1);
-			d2.remove(chosen2);
-			result.add(col);
-
-			if (!d1.isEmpty() && !d2.isEmpty()) {
-				result.addAll(findColocalisingSignals(d1, d2));
+			if (used[c.j()]) {
+				// The nearest signal was taken by a closer pair
+				IPoint com = d1.get(c.i()).getCentreOfMass();
+				int j = index2.nearest(com, used);
+				queue.add(new Candidate(c.i(), j, index2.distance(j, com)));
+				continue;
 			}
+
+			used[c.j()] = true;
+			result.add(new Colocalisation<>(d1.get(c.i()), d2.get(c.j())));
 		}
 
 		return result;
 	}
 
+	/**
+	 * Create a spatial index over the centres of mass of the given signals
+	 * 
+	 * @param signals the signals
+	 * @return an index with points in the same order as the signals
+	 */
+	private static PointIndex createIndex(@NonNull List<INuclearSignal> signals) {
+		return new PointIndex(signals.stream().map(INuclearSignal::getCentreOfMass).toList());
+	}
+
 	@Override
 	public String toString() {
 
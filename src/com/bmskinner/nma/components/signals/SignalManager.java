@@ -31,6 +31,7 @@ import java.util.stream.Collectors;
 import org.eclipse.jdt.annotation.NonNull;
 
 import com.bmskinner.nma.analysis.signals.SignalMeasurer;
+import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
@@ -540,6 +541,8 @@ public class SignalManager {
 				LOGGER.finer("Cannot calculate signal angles");
 			}
 		}
+		for (UUID id : getSignalGroupIDs())
+			collection.clear(Measurement.ANGLE, CellularComponent.NUCLEAR_SIGNAL, id);
 	}
 
 	/**
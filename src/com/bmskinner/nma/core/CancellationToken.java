@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.core;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * A cooperative cancellation flag for tasks run by the {@link ThreadManager}.
+ * Cancelling a token does not stop a running task; long-running loops should
+ * check {@link #isCancelled()} or call {@link #throwIfCancelled()} at
+ * convenient points. The token for the task running on the current thread is
+ * available from {@link #current()}.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class CancellationToken {
+
+	/** A token that can never be cancelled */
+	public static final CancellationToken NONE = new CancellationToken() {
+		@Override
+		public void cancel() {
+			// never cancellable
+		}
+	};
+
+	private static final ThreadLocal<CancellationToken> CURRENT = ThreadLocal
+			.withInitial(() -> NONE);
+
+	private volatile boolean isCancelled = false;
+
+	/**
+	 * Request cancellation of any tasks holding this token
+	 */
+	public void cancel() {
+		isCancelled = true;
+	}
+
+	/**
+	 * Test if cancellation has been requested
+	 * 
+	 * @return true if the token has been cancelled
+	 */
+	public boolean isCancelled() {
+		return isCancelled;
+	}
+
+	/**
+	 * Throw an exception if cancellation has been requested
+	 * 
+	 * @throws CancellationException if the token has been cancelled
+	 */
+	public void throwIfCancelled() {
+		if (isCancelled)
+			throw new CancellationException("Task was cancelled");
+	}
+
+	/**
+	 * Get the token for the task running on the current thread. If the thread is
+	 * not running a task submitted to the {@link ThreadManager}, a token that is
+	 * never cancelled is returned.
+	 * 
+	 * @return the current token
+	 */
+	public static CancellationToken current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Set the token for the current thread. Returns the previous token so that it
+	 * can be restored when a task completes.
+	 * 
+	 * @param token the token to set
+	 * @return the previous token
+	 */
+	static CancellationToken setCurrent(CancellationToken token) {
+		CancellationToken previous = CURRENT.get();
+		CURRENT.set(token);
+		return previous;
+	}
+}
@@ -81,6 +81,11 @@ public class CommandOptions {
 	@Arg(dest = "output")
 	public File output;
 
+	// Diagnostic arguments
+
+	@Arg(dest = "recording")
+	public File recording;
+
 	public CommandOptions() {
 		// no data needed
 	}
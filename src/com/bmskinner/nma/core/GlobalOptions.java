@@ -73,6 +73,12 @@ public class GlobalOptions extends DefaultOptions {
 
 	public static final String IS_SINGLE_THREADED_DETECTION = "USE_SINGLE_THREAD_DETECTION";
 
+	/**
+	 * Should saved datasets be gzip compressed. Off by default, since earlier
+	 * versions cannot open compressed files
+	 */
+	public static final String IS_COMPRESS_DATASETS_KEY = "COMPRESS_DATASETS";
+
 	private File defaultDir; // where to fall back to for finding images or
 								// saving files
 
@@ -120,6 +126,7 @@ public class GlobalOptions extends DefaultOptions {
 		setString(DEFAULT_RULESET_KEY, DEFAULT_RULESET);
 		setBoolean(ALLOW_UPDATE_CHECK_KEY, true);
 		setBoolean(IS_SINGLE_THREADED_DETECTION, false);
+		setBoolean(IS_COMPRESS_DATASETS_KEY, false);
 	}
 
 	public synchronized MeasurementScale getScale() {
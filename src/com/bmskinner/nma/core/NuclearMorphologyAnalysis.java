@@ -21,9 +21,11 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.text.ParseException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -41,6 +43,7 @@ import com.bmskinner.nma.io.Io;
 import com.bmskinner.nma.io.XMLReader;
 import com.bmskinner.nma.io.XMLReader.XMLReadingException;
 import com.bmskinner.nma.io.XMLWriter;
+import com.bmskinner.nma.logging.FlightRecording;
 import com.bmskinner.nma.logging.Loggable;
 import com.bmskinner.nma.pipelines.BasicAnalysisPipeline;
 import com.bmskinner.nma.pipelines.ExportDataPipeline;
@@ -205,6 +208,7 @@ public class NuclearMorphologyAnalysis {
 				.type(Arguments.fileType().verifyIsFile().verifyCanRead())
 				.dest("options")
 				.help("File of analysis options to use (.xml)");
+		addRecordingArgument(analyseParser);
 	}
 
 	private static void createExportParser(Subparsers subparsers) {
@@ -272,7 +276,7 @@ public class NuclearMorphologyAnalysis {
 				.action(Arguments.storeTrue())
 				.dest("all")
 				.help("Export all the above from the dataset except for single cell images");
-
+		addRecordingArgument(exportParser);
 	}
 
 	private static void createModifyParser(Subparsers subparsers) {
@@ -309,7 +313,14 @@ public class NuclearMorphologyAnalysis {
 				.nargs("*")
 				.dest("merge-sources")
 				.help("Files to be merged into one nmd");
+		addRecordingArgument(parser);
+	}
 
+	private static void addRecordingArgument(Subparser parser) {
+		parser.addArgument("--record")
+				.type(Arguments.fileType().verifyCanCreate())
+				.dest("recording")
+				.help("Save a Java Flight Recorder recording of the run to this file (.jfr)");
 	}
 
 	/**
@@ -329,12 +340,12 @@ public class NuclearMorphologyAnalysis {
 
 		if ("detect".equals(opt.runMode)) {
 			// Arguments given, run headless
-			instance.runHeadlessDetect(opt);
+			runRecorded(opt, instance::runHeadlessDetect);
 			return;
 		}
 
 		if ("export".equals(opt.runMode)) {
-			instance.runHeadlessExport(opt);
+			runRecorded(opt, instance::runHeadlessExport);
 			return;
 		}
 
@@ -344,7 +355,7 @@ public class NuclearMorphologyAnalysis {
 		}
 
 		if ("merge".equals(opt.runMode)) {
-			instance.runHeadlessMerge(opt);
+			runRecorded(opt, instance::runHeadlessMerge);
 			return;
 		}
 
@@ -352,6 +363,38 @@ public class NuclearMorphologyAnalysis {
 		instance.runWithGUI();
 	}
 
+	/**
+	 * Run a headless mode, saving a flight recording of the run if one was
+	 * requested. The run goes ahead without a recording if recording cannot start.
+	 * 
+	 * @param opt  the options
+	 * @param mode the headless mode to run
+	 */
+	private static void runRecorded(CommandOptions opt, Consumer<CommandOptions> mode) {
+		FlightRecording recording = null;
+		if (opt.recording != null) {
+			try {
+				recording = FlightRecording.start(opt.recording);
+			} catch (IOException | ParseException e) {
+				LOGGER.log(Level.WARNING,
+						"Unable to start flight recording: %s".formatted(e.getMessage()), e);
+			}
+		}
+
+		try {
+			mode.accept(opt);
+		} finally {
+			if (recording != null) {
+				try {
+					recording.stop();
+				} catch (IOException e) {
+					LOGGER.log(Level.WARNING,
+							"Unable to save flight recording: %s".formatted(e.getMessage()), e);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Log the program status handlers and files and configure the logging options
 	 * 
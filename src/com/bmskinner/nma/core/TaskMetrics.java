@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime counters for tasks of a single priority class. All updates are
+ * lock-free so recording does not contend with task submission.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class TaskMetrics {
+
+	private final TaskPriority priority;
+
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder started = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder cancelledQueued = new LongAdder();
+	private final LongAdder cancelledRunning = new LongAdder();
+
+	private final LongAdder totalWaitNanos = new LongAdder();
+	private final LongAdder totalRunNanos = new LongAdder();
+	private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+	private final LongAccumulator maxRunNanos = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * A point in time copy of the metrics for a priority class
+	 * 
+	 * @param priority         the priority class
+	 * @param submitted        the number of tasks submitted
+	 * @param started          the number of tasks that have begun running
+	 * @param completed        the number of tasks that finished normally
+	 * @param failed           the number of tasks that threw an exception
+	 * @param cancelledQueued  the number of tasks cancelled before they started
+	 * @param cancelledRunning the number of tasks that stopped early after
+	 *                         cancellation
+	 * @param meanWaitMillis   the mean time tasks spent in the queue
+	 * @param maxWaitMillis    the longest time a task spent in the queue
+	 * @param meanRunMillis    the mean time tasks spent running
+	 * @param maxRunMillis     the longest time a task spent running
+	 */
+	public record Snapshot(TaskPriority priority, long submitted, long started,
+			long completed, long failed, long cancelledQueued, long cancelledRunning,
+			double meanWaitMillis, double maxWaitMillis, double meanRunMillis,
+			double maxRunMillis) {
+
+		/**
+		 * Get the number of tasks waiting in the queue
+		 * 
+		 * @return
+		 */
+		public long queued() {
+			return Math.max(0, submitted - started - cancelledQueued);
+		}
+
+		/**
+		 * Get the number of tasks currently running
+		 * 
+		 * @return
+		 */
+		public long running() {
+			return Math.max(0, started - completed - failed - cancelledRunning);
+		}
+
+		/**
+		 * Get the total number of cancelled tasks
+		 * 
+		 * @return
+		 */
+		public long cancelled() {
+			return cancelledQueued + cancelledRunning;
+		}
+
+		@Override
+		public String toString() {
+			return "%s: %d submitted, %d queued, %d running, %d done, %d failed, %d cancelled; wait %.1f ms (max %.1f), run %.1f ms (max %.1f)"
+					.formatted(priority, submitted, queued(), running(), completed, failed,
+							cancelled(), meanWaitMillis, maxWaitMillis, meanRunMillis,
+							maxRunMillis);
+		}
+	}
+
+	TaskMetrics(TaskPriority priority) {
+		this.priority = priority;
+	}
+
+	void recordSubmitted() {
+		submitted.increment();
+	}
+
+	void recordStarted(long waitNanos) {
+		started.increment();
+		totalWaitNanos.add(waitNanos);
+		maxWaitNanos.accumulate(waitNanos);
+	}
+
+	void recordCompleted(long runNanos) {
+		completed.increment();
+		recordRunTime(runNanos);
+	}
+
+	void recordFailed(long runNanos) {
+		failed.increment();
+		recordRunTime(runNanos);
+	}
+
+	void recordCancelledInQueue() {
+		cancelledQueued.increment();
+	}
+
+	void recordCancelledWhileRunning(long runNanos) {
+		cancelledRunning.increment();
+		recordRunTime(runNanos);
+	}
+
+	private void recordRunTime(long runNanos) {
+		totalRunNanos.add(runNanos);
+		maxRunNanos.accumulate(runNanos);
+	}
+
+	/**
+	 * Clear all counters
+	 */
+	void reset() {
+		submitted.reset();
+		started.reset();
+		completed.reset();
+		failed.reset();
+		cancelledQueued.reset();
+		cancelledRunning.reset();
+		totalWaitNanos.reset();
+		totalRunNanos.reset();
+		maxWaitNanos.reset();
+		maxRunNanos.reset();
+	}
+
+	/**
+	 * Get the number of tasks submitted that have not yet finished
+	 * 
+	 * @return
+	 */
+	public int outstanding() {
+		long n = submitted.sum() - completed.sum() - failed.sum() - cancelledQueued.sum()
+				- cancelledRunning.sum();
+		return (int) Math.max(0, n);
+	}
+
+	/**
+	 * Take a copy of the current values
+	 * 
+	 * @return
+	 */
+	public Snapshot snapshot() {
+		long nStarted = started.sum();
+		long nFinished = completed.sum() + failed.sum() + cancelledRunning.sum();
+		return new Snapshot(priority, submitted.sum(), nStarted, completed.sum(), failed.sum(),
+				cancelledQueued.sum(), cancelledRunning.sum(),
+				nStarted == 0 ? 0 : toMillis(totalWaitNanos.sum()) / nStarted,
+				toMillis(maxWaitNanos.get()),
+				nFinished == 0 ? 0 : toMillis(totalRunNanos.sum()) / nFinished,
+				toMillis(maxRunNanos.get()));
+	}
+
+	private static double toMillis(long nanos) {
+		return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.core;
+
+/**
+ * Priority classes for tasks submitted to the {@link ThreadManager}. Each class
+ * is run by its own thread pool, so a long analysis cannot hold up chart
+ * redraws, and background file operations cannot hold up either.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public enum TaskPriority {
+
+	/** Tasks the user is waiting to see, such as chart and table updates */
+	INTERACTIVE("Interactive", Thread.NORM_PRIORITY + 1),
+
+	/** Analysis methods on datasets */
+	ANALYSIS("Analysis", Thread.NORM_PRIORITY),
+
+	/** Background I/O such as saving, exporting and update checks */
+	BACKGROUND("Background", Thread.MIN_PRIORITY + 1);
+
+	private final String name;
+	private final int threadPriority;
+
+	TaskPriority(String name, int threadPriority) {
+		this.name = name;
+		this.threadPriority = threadPriority;
+	}
+
+	/**
+	 * Get the Java thread priority used for threads running tasks of this class
+	 * 
+	 * @return
+	 */
+	public int getThreadPriority() {
+		return threadPriority;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
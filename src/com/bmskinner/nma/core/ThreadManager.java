@@ -16,20 +16,32 @@
  ******************************************************************************/
 package com.bmskinner.nma.core;
 
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.bmskinner.nma.logging.Loggable;
+
 /**
- * Manages the threading and task queue. Analysis methods and UI updates are
- * treated separately for smoother UI refreshes.
+ * Manages the threading and task queue. Tasks are divided into priority
+ * classes (see {@link TaskPriority}), each with a separate thread pool, so that
+ * UI updates stay smooth while analyses and background I/O are running.
+ * Submission is lock-free, and each submitted task can be cancelled
+ * cooperatively via a {@link CancellationToken}. Time spent queued and running
+ * is recorded per priority class in {@link TaskMetrics}.
  * 
  * @author bms41
  * @since 1.13.0
@@ -45,20 +57,12 @@ public class ThreadManager {
 
 	public static final int keepAliveTime = 10000;
 
-	/** A queue for UI update tasks */
-	private final BlockingQueue<Runnable> methodQueue = new LinkedBlockingQueue<>(1024);
-
-	/** A queue for analysis method update tasks */
-	private final BlockingQueue<Runnable> uiQueue = new LinkedBlockingQueue<>(1024);
-
-	/** Thread pool for method update tasks */
-	private final ExecutorService methodExecutorService;
+	/** Thread pools for each priority class */
+	private final Map<TaskPriority, ExecutorService> executors = new EnumMap<>(
+			TaskPriority.class);
 
-	/** Thread pool for UI update tasks */
-	private final ExecutorService uiExecutorService;
-
-	private AtomicInteger uiQueueLength = new AtomicInteger();
-	private AtomicInteger methodQueueLength = new AtomicInteger();
+	/** Task timing for each priority class */
+	private final Map<TaskPriority, TaskMetrics> metrics = new EnumMap<>(TaskPriority.class);
 
 	/**
 	 * Private constructor since this should be accessed as a singleton
@@ -75,20 +79,28 @@ public class ThreadManager {
 		// The bulk of threads should still be devoted to redrawing charts
 		int maxUiThreads = Math.max(1, maxThreads - maxMethodThreads);
 
+		// Background I/O is disk bound, so does not need many threads
+		int maxBackgroundThreads = maxThreads > 4 ? 2 : 1;
+
 		int maxForkJoinThreads = Math.max(1, maxUiThreads - 1); // ensure FJPs don't block the ui
 		System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism",
 				String.valueOf(maxForkJoinThreads));
 
 		// Create the thread pools
-		methodExecutorService = new ThreadPoolExecutor(maxMethodThreads, maxMethodThreads,
-				keepAliveTime,
-				TimeUnit.MILLISECONDS, methodQueue);
-		uiExecutorService = new ThreadPoolExecutor(maxUiThreads, maxUiThreads, keepAliveTime,
-				TimeUnit.MILLISECONDS,
-				uiQueue);
+		executors.put(TaskPriority.INTERACTIVE,
+				createExecutor(TaskPriority.INTERACTIVE, maxUiThreads));
+		executors.put(TaskPriority.ANALYSIS,
+				createExecutor(TaskPriority.ANALYSIS, maxMethodThreads));
+		executors.put(TaskPriority.BACKGROUND,
+				createExecutor(TaskPriority.BACKGROUND, maxBackgroundThreads));
+
+		for (TaskPriority p : TaskPriority.values())
+			metrics.put(p, new TaskMetrics(p));
 
-		LOGGER.config("Allowed processors: %d, split %d for UI, %d for methods".formatted(
-				maxThreads, maxUiThreads, maxMethodThreads));
+		LOGGER.config(
+				"Allowed processors: %d, split %d for UI, %d for methods, %d for background"
+						.formatted(maxThreads, maxUiThreads, maxMethodThreads,
+								maxBackgroundThreads));
 
 		long maxMemory = Runtime.getRuntime().maxMemory();
 		long maxMemoryHuman = maxMemory / (1024 * 1024);
@@ -104,6 +116,20 @@ public class ThreadManager {
 				units, maxMemory));
 	}
 
+	/**
+	 * Create a fixed size pool for the given priority. The pool uses an unbounded
+	 * lock-free queue, so submitting threads never block on each other.
+	 * 
+	 * @param priority the priority class
+	 * @param nThreads the number of threads in the pool
+	 * @return
+	 */
+	private static ExecutorService createExecutor(TaskPriority priority, int nThreads) {
+		return new ThreadPoolExecutor(nThreads, nThreads, keepAliveTime,
+				TimeUnit.MILLISECONDS, new LinkedTransferQueue<>(),
+				new PriorityThreadFactory(priority));
+	}
+
 	/**
 	 * Fetch an instance
 	 * 
@@ -122,16 +148,61 @@ public class ThreadManager {
 	}
 
 	public int uiQueueLength() {
-		return uiQueueLength.get();
+		return metrics.get(TaskPriority.INTERACTIVE).outstanding();
 	}
 
 	public int methodQueueLength() {
-		return methodQueueLength.get();
+		return metrics.get(TaskPriority.ANALYSIS).outstanding()
+				+ metrics.get(TaskPriority.BACKGROUND).outstanding();
+	}
+
+	/**
+	 * Get the current task metrics for the given priority class
+	 * 
+	 * @param priority the priority class
+	 * @return a snapshot of the metrics
+	 */
+	public TaskMetrics.Snapshot getMetrics(TaskPriority priority) {
+		return metrics.get(priority).snapshot();
+	}
+
+	/**
+	 * Get the current task metrics for all priority classes
+	 * 
+	 * @return snapshots of the metrics in priority order
+	 */
+	public List<TaskMetrics.Snapshot> getMetrics() {
+		List<TaskMetrics.Snapshot> result = new ArrayList<>();
+		for (TaskPriority p : TaskPriority.values())
+			result.add(metrics.get(p).snapshot());
+		return result;
+	}
+
+	/**
+	 * Clear the task metrics for all priority classes
+	 */
+	public void resetMetrics() {
+		metrics.values().forEach(TaskMetrics::reset);
+	}
+
+	/**
+	 * Write the current task metrics to the log at the given level
+	 * 
+	 * @param level the log level
+	 */
+	public void logMetrics(Level level) {
+		if (!LOGGER.isLoggable(level))
+			return;
+		for (TaskMetrics.Snapshot s : getMetrics())
+			LOGGER.log(level, s.toString());
 	}
 
 	@Override
 	public String toString() {
-		return uiQueue.toString();
+		StringBuilder sb = new StringBuilder();
+		for (TaskMetrics.Snapshot s : getMetrics())
+			sb.append(s.toString()).append(System.lineSeparator());
+		return sb.toString();
 	}
 
 	/**
@@ -140,85 +211,210 @@ public class ThreadManager {
 	 * @param r
 	 * @return
 	 */
-	public synchronized Future<?> submitUIUpdate(Runnable r) {
-		TrackedRunnable t = new TrackedRunnable(r);
-		return uiExecutorService.submit(t);
+	public Future<?> submitUIUpdate(Runnable r) {
+		return submit(r, TaskPriority.INTERACTIVE);
 	}
 
-	public synchronized Future<?> submit(Runnable r) {
-		TrackedRunnable t = new TrackedRunnable(r);
-		if (r instanceof InterfaceUpdater)
-			return uiExecutorService.submit(t);
-		return methodExecutorService.submit(t);
+	public Future<?> submit(Runnable r) {
+		return submit(r, priorityOf(r));
 	}
 
-	public synchronized Future<?> submit(Callable<?> r) {
-		methodQueueLength.incrementAndGet();
-		return methodExecutorService.submit(makeSubmitableCallable(r));
+	public Future<?> submit(Callable<?> r) {
+		return submit(r, TaskPriority.ANALYSIS, new CancellationToken());
 	}
 
 	/**
-	 * Add the given task to the executor service queue. If the job is a panel
-	 * update, any existing queued panel updates will be cancelled.
+	 * Submit the given runnable to the pool for the given priority
+	 * 
+	 * @param r        the task to run
+	 * @param priority the priority class
+	 * @return a future for the task. Cancelling the future also cancels the
+	 *         task's {@link CancellationToken}
+	 */
+	public Future<?> submit(Runnable r, TaskPriority priority) {
+		return submit(r, priority, new CancellationToken());
+	}
+
+	/**
+	 * Submit the given runnable to the pool for the given priority, with a token
+	 * that can be used to cancel it. If the token is cancelled before the task
+	 * starts, the task will not run. Running tasks can check the token via
+	 * {@link CancellationToken#current()}.
+	 * 
+	 * @param r        the task to run
+	 * @param priority the priority class
+	 * @param token    the cancellation token for the task
+	 * @return a future for the task
+	 */
+	public Future<?> submit(Runnable r, TaskPriority priority, CancellationToken token) {
+		TrackedTask<Object> t = new TrackedTask<>(r, null, priority, token);
+		executors.get(priority).execute(t);
+		return t;
+	}
+
+	/**
+	 * Submit the given callable to the pool for the given priority, with a token
+	 * that can be used to cancel it. Exceptions thrown by the callable are logged
+	 * and the future returns null.
+	 * 
+	 * @param <T>      the result type
+	 * @param c        the task to run
+	 * @param priority the priority class
+	 * @param token    the cancellation token for the task
+	 * @return a future for the task
+	 */
+	public <T> Future<T> submit(Callable<T> c, TaskPriority priority,
+			CancellationToken token) {
+		TrackedTask<T> t = new TrackedTask<>(makeSubmitableCallable(c), priority, token);
+		executors.get(priority).execute(t);
+		return t;
+	}
+
+	/**
+	 * Add the given task to the executor service queue. Interface updates are run
+	 * with interactive priority, and other tasks with analysis priority.
 	 * 
 	 * @param r
 	 */
-	public synchronized void execute(Runnable r) {
-		// if a new update is requested, clear older queued updates
-		if (r instanceof InterfaceUpdater) {
-			uiExecutorService.execute(new TrackedRunnable(r));
-		} else {
-			methodExecutorService.execute(new TrackedRunnable(r));
-		}
+	public void execute(Runnable r) {
+		execute(r, priorityOf(r));
 	}
 
-	private synchronized Callable<?> makeSubmitableCallable(Callable<?> r) {
-		return () -> {
+	/**
+	 * Add the given task to the queue for the given priority
+	 * 
+	 * @param r        the task to run
+	 * @param priority the priority class
+	 */
+	public void execute(Runnable r, TaskPriority priority) {
+		TrackedTask<Object> t = new TrackedTask<>(r, null, priority, new CancellationToken());
+		t.failureLevel = Level.SEVERE;
+		executors.get(priority).execute(t);
+	}
+
+	private static TaskPriority priorityOf(Runnable r) {
+		return r instanceof InterfaceUpdater ? TaskPriority.INTERACTIVE : TaskPriority.ANALYSIS;
+	}
 
-			Object o = null;
+	private static <T> Callable<T> makeSubmitableCallable(Callable<T> r) {
+		return () -> {
 			try {
-				o = r.call();
+				return r.call();
+			} catch (CancellationException e) {
+				throw e;
 			} catch (Exception e) {
 				LOGGER.log(Level.SEVERE, "Error calling submittable callable", e);
 				return null;
-			} finally {
-				methodQueueLength.decrementAndGet();
 			}
-			return o;
-
 		};
 	}
 
 	/**
-	 * Wrap a Runnable in another Runnable that updates the job queue when done, and
-	 * allows access to the original Runnable for checking the class.
+	 * Wrap a task so that its queue and run times are recorded, and so that its
+	 * cancellation token is available to the running code. Cancelling the future
+	 * also cancels the token.
 	 * 
 	 * @author ben
 	 * @since 1.14.0
 	 *
 	 */
-	private class TrackedRunnable implements Runnable {
-		private Runnable r;
-
-		public TrackedRunnable(Runnable r) {
-			if (r instanceof InterfaceUpdater) // Increment queue when submitting task.
-				uiQueueLength.incrementAndGet();
-			else
-				methodQueueLength.incrementAndGet();
-			this.r = r;
+	private class TrackedTask<T> extends FutureTask<T> {
+		private final TaskMetrics taskMetrics;
+		private final CancellationToken token;
+		private final long submitTime = System.nanoTime();
+
+		/*
+		 * Level at which exceptions from the task are logged. Tasks given to execute()
+		 * have no future for the caller to inspect, so their failures must be visible
+		 */
+		private Level failureLevel = Loggable.STACK;
+
+		public TrackedTask(Callable<T> c, TaskPriority priority, CancellationToken token) {
+			super(c);
+			this.taskMetrics = metrics.get(priority);
+			this.token = token;
+			taskMetrics.recordSubmitted();
+		}
+
+		public TrackedTask(Runnable r, T result, TaskPriority priority,
+				CancellationToken token) {
+			super(r, result);
+			this.taskMetrics = metrics.get(priority);
+			this.token = token;
+			taskMetrics.recordSubmitted();
 		}
 
 		@Override
 		public void run() {
-			r.run();
-			if (r instanceof InterfaceUpdater)
-				uiQueueLength.decrementAndGet();
-			else
-				methodQueueLength.decrementAndGet();
+			if (isCancelled() || token.isCancelled()) {
+				super.cancel(false);
+				taskMetrics.recordCancelledInQueue();
+				return;
+			}
+
+			long start = System.nanoTime();
+			taskMetrics.recordStarted(start - submitTime);
+			CancellationToken previous = CancellationToken.setCurrent(token);
+			try {
+				super.run();
+			} finally {
+				CancellationToken.setCurrent(previous);
+				long runTime = System.nanoTime() - start;
+				if (token.isCancelled())
+					taskMetrics.recordCancelledWhileRunning(runTime);
+				else if (isFailed())
+					taskMetrics.recordFailed(runTime);
+				else
+					taskMetrics.recordCompleted(runTime);
+			}
 		}
 
-		public Runnable getSubmittedRunnable() {
-			return r;
+		@Override
+		protected void setException(Throwable t) {
+			if (!(t instanceof CancellationException))
+				LOGGER.log(failureLevel, "Error running task", t);
+			super.setException(t);
+		}
+
+		private boolean isFailed() {
+			if (!isDone() || isCancelled())
+				return false;
+			try {
+				get();
+				return false;
+			} catch (Exception e) {
+				return true;
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			token.cancel();
+			return super.cancel(mayInterruptIfRunning);
+		}
+	}
+
+	/**
+	 * Create named threads for a priority class
+	 * 
+	 * @author ben
+	 * @since 2.2.0
+	 *
+	 */
+	private static class PriorityThreadFactory implements ThreadFactory {
+		private final TaskPriority priority;
+		private final AtomicInteger count = new AtomicInteger();
+
+		public PriorityThreadFactory(TaskPriority priority) {
+			this.priority = priority;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r,
+					priority.toString() + " task thread " + count.incrementAndGet());
+			t.setPriority(priority.getThreadPriority());
+			return t;
 		}
 	}
 }
@@ -24,7 +24,6 @@ import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
-import org.jdom2.Document;
 
 import com.bmskinner.nma.analysis.DefaultAnalysisWorker;
 import com.bmskinner.nma.analysis.IAnalysisMethod;
@@ -45,7 +44,6 @@ public class ImportDatasetAction extends VoidResultAction {
 
 	private static final Logger LOGGER = Logger.getLogger(ImportDatasetAction.class.getName());
 
-	private final Document doc;
 	private final File file;
 	private static final @NonNull String PROGRESS_BAR_LABEL = "Building dataset...";
 
@@ -54,28 +52,25 @@ public class ImportDatasetAction extends VoidResultAction {
 	 * opened.
 	 * 
 	 * @param acceptor the progress bar acceptor
-	 * @param doc      the XML document to unmarshall
-	 * @param file     the dataset file that was opened
+	 * @param file     the dataset file to read
 	 * @param latch    a countdown if needed
 	 */
-	public ImportDatasetAction(@NonNull final ProgressBarAcceptor acceptor, @NonNull Document doc,
-			@NonNull File origin,
+	public ImportDatasetAction(@NonNull final ProgressBarAcceptor acceptor, @NonNull File file,
 			@Nullable CountDownLatch latch) {
 		super(PROGRESS_BAR_LABEL, acceptor);
 		if (latch != null)
 			setLatch(latch);
-		this.doc = doc;
-		this.file = origin;
+		this.file = file;
 	}
 
 	@Override
 	public void run() {
 		setProgressBarIndeterminate();
 
-		if (doc != null) {
+		if (file != null) {
 
 			try {
-				IAnalysisMethod m = new DatasetImportMethod(doc);
+				IAnalysisMethod m = new DatasetImportMethod(file);
 				worker = new DefaultAnalysisWorker(m);
 				worker.addPropertyChangeListener(this);
 
@@ -120,11 +115,10 @@ public class ImportDatasetAction extends VoidResultAction {
 
 		} catch (InterruptedException e) {
 			LOGGER.warning(
-					"Unable to unmarshall dataset '" + doc.getRootElement().getName() + "': "
-							+ e.getMessage());
+					"Unable to unmarshall dataset '" + file.getName() + "': " + e.getMessage());
 			Thread.currentThread().interrupt();
 		} catch (ExecutionException e) {
-			LOGGER.warning("Unable to unmarshall dataset '" + doc.getRootElement().getName() + "': "
+			LOGGER.warning("Unable to unmarshall dataset '" + file.getName() + "': "
 					+ e.getMessage());
 			Thread.currentThread().interrupt();
 		} finally {
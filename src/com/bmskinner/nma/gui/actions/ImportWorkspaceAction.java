@@ -34,7 +34,6 @@ import com.bmskinner.nma.core.ThreadManager;
 import com.bmskinner.nma.gui.ProgressBarAcceptor;
 import com.bmskinner.nma.gui.events.UIController;
 import com.bmskinner.nma.io.DatasetImportMethod;
-import com.bmskinner.nma.io.XMLImportMethod;
 
 public class ImportWorkspaceAction extends VoidResultAction {
 
@@ -74,17 +73,8 @@ public class ImportWorkspaceAction extends VoidResultAction {
 						continue;
 
 					// Try to load the dataset and wait for success
-					// First read the XML file
-					XMLImportMethod method = new XMLImportMethod(dataFile);
-					worker = new DefaultAnalysisWorker(method);
-					ThreadManager.getInstance().execute(worker);
-
 					try {
-						worker.get();
-
-						// Now unmarshall the XML file into a dataset
-						Document datasetDoc = method.getXMLDocument();
-						IAnalysisMethod importMethod = new DatasetImportMethod(datasetDoc);
+						IAnalysisMethod importMethod = new DatasetImportMethod(dataFile);
 						worker = new DefaultAnalysisWorker(importMethod);
 						ThreadManager.getInstance().execute(worker);
 
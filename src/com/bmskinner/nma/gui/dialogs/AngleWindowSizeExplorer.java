@@ -24,9 +24,13 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.text.DecimalFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 import javax.swing.JButton;
 import javax.swing.JLabel;
@@ -41,27 +45,25 @@ import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.data.xy.DefaultXYDataset;
 
+import com.bmskinner.nma.analysis.profiles.ProfileCreator;
 import com.bmskinner.nma.components.MissingDataException;
 import com.bmskinner.nma.components.cells.ComponentCreationException;
-import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
-import com.bmskinner.nma.components.datasets.DefaultCellCollection;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
 import com.bmskinner.nma.components.datasets.ICellCollection;
 import com.bmskinner.nma.components.options.HashOptions;
 import com.bmskinner.nma.components.options.IAnalysisOptions;
 import com.bmskinner.nma.components.profiles.DefaultProfile;
+import com.bmskinner.nma.components.profiles.DefaultProfileAggregate;
 import com.bmskinner.nma.components.profiles.IProfile;
-import com.bmskinner.nma.components.profiles.IProfileCollection;
+import com.bmskinner.nma.components.profiles.IProfileAggregate;
 import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
-import com.bmskinner.nma.components.profiles.Landmark;
 import com.bmskinner.nma.components.profiles.ProfileType;
 import com.bmskinner.nma.components.rules.OrientationMark;
 import com.bmskinner.nma.core.ThreadManager;
 import com.bmskinner.nma.gui.components.ColourSelecter;
 import com.bmskinner.nma.gui.components.panels.ExportableChartPanel;
 import com.bmskinner.nma.logging.Loggable;
-import com.bmskinner.nma.stats.Stats;
 import com.bmskinner.nma.visualisation.ChartComponents;
 import com.bmskinner.nma.visualisation.charts.ProfileChartFactory;
 
@@ -210,41 +212,38 @@ public class AngleWindowSizeExplorer extends MessagingDialog implements ChangeLi
 
 		LOGGER.log(Level.FINE, "Testing {0} - {1}", new Object[] { windowSizeMin, windowSizeMax });
 
-		try {
-			for (double i = windowSizeMin; i <= windowSizeMax; i += stepSize) {
-				LOGGER.log(Level.FINEST, "Calculating {0}...", i);
-				final double j = i;
-				// make a duplicate collection
-				final ICellCollection duplicateCollection = new DefaultCellCollection(
-						dataset.getCollection(), "test");
-
-				// put each cell into the new collection
-				for (ICell c : dataset.getCollection()) {
-					ICell newCell = c.duplicate();
-					for (Nucleus n : newCell.getNuclei()) {
-						n.setWindowProportion(j);
-					}
-					duplicateCollection.add(newCell);
-				}
-
-				// recalc the aggregate
-				IProfileCollection pc = duplicateCollection.getProfileCollection();
-				pc.calculateProfiles();
+		List<Double> proportionList = new ArrayList<>();
+		for (double i = windowSizeMin; i <= windowSizeMax; i += stepSize)
+			proportionList.add(i);
+		double[] proportions = proportionList.stream().mapToDouble(Double::doubleValue).toArray();
 
-				for (Landmark tag : dataset.getCollection().getProfileCollection().getLandmarks()) {
-					pc.setLandmark(tag,
-							dataset.getCollection().getProfileCollection().getLandmarkIndex(tag));
+		try {
+			ICellCollection collection = dataset.getCollection();
+			List<Nucleus> nuclei = collection.getNuclei();
+
+			// Calculate profiles for all windows in a single pass over each nucleus
+			// border, offset to start from the reference point
+			IProfile[][] profiles = new IProfile[nuclei.size()][];
+			IntStream.range(0, nuclei.size()).parallel().forEach(i -> {
+				try {
+					profiles[i] = createProfiles(nuclei.get(i), proportions);
+				} catch (MissingDataException | ComponentCreationException
+						| SegmentUpdateException e) {
+					throw new IllegalStateException(e);
 				}
+			});
 
-				// get the profile median
-				IProfile median = pc.getProfile(ProfileType.ANGLE, OrientationMark.REFERENCE,
-						Stats.MEDIAN);
+			int length = collection.getMedianArrayLength();
+			for (int w = 0; w < proportions.length; w++) {
+				LOGGER.log(Level.FINEST, "Calculating {0}...", proportions[w]);
+				IProfileAggregate agg = new DefaultProfileAggregate(length, nuclei.size());
+				for (IProfile[] p : profiles)
+					agg.addValues(p[w]);
 
-				// add to the chart
-				updateChart(median, i);
+				// add the median to the chart
+				updateChart(agg.getMedian(), proportions[w]);
 			}
-		} catch (MissingDataException
-				| ComponentCreationException | SegmentUpdateException e) {
+		} catch (SegmentUpdateException | IllegalStateException e) {
 			LOGGER.warning("Error making profile collections");
 			LOGGER.log(Loggable.STACK, e.getMessage(), e);
 		}
@@ -252,6 +251,34 @@ public class AngleWindowSizeExplorer extends MessagingDialog implements ChangeLi
 		LOGGER.fine("Profiling complete");
 	}
 
+	/**
+	 * Create angle profiles for a nucleus at each window proportion, starting
+	 * from the reference point. Locked nuclei cannot change their window size, so
+	 * their existing profile is used for every proportion.
+	 * 
+	 * @param n           the nucleus
+	 * @param proportions the window proportions
+	 * @return the profiles for each window proportion
+	 * @throws MissingDataException
+	 * @throws ComponentCreationException
+	 * @throws SegmentUpdateException
+	 */
+	private static IProfile[] createProfiles(@NonNull Nucleus n, double[] proportions)
+			throws MissingDataException, ComponentCreationException, SegmentUpdateException {
+		if (n.isLocked()) {
+			IProfile[] result = new IProfile[proportions.length];
+			Arrays.fill(result,
+					n.getUnsegmentedProfile(ProfileType.ANGLE, OrientationMark.REFERENCE));
+			return result;
+		}
+
+		int rpIndex = n.getBorderIndex(OrientationMark.REFERENCE);
+		IProfile[] result = ProfileCreator.createAngleProfiles(n, proportions);
+		for (int i = 0; i < result.length; i++)
+			result[i] = result[i].startFrom(rpIndex);
+		return result;
+	}
+
 	private void updateChart(@NonNull IProfile profile, double windowSize) {
 
 		XYPlot plot = chartPanel.getChart().getXYPlot();
@@ -30,6 +30,8 @@ import java.util.ArrayList;
 import java.util.EventObject;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
@@ -106,6 +108,8 @@ public class GenericImageProberPanel extends JPanel implements ProberReloadEvent
 	private JButton nextButton;
 	private JButton prevButton;
 
+	private transient Future<?> pendingPreview; // the most recently submitted preview
+
 	/**
 	 * Constructor
 	 * 
@@ -133,6 +137,7 @@ public class GenericImageProberPanel extends JPanel implements ProberReloadEvent
 		if (imageFile == null)
 			throw new IllegalArgumentException(NULL_FILE_ERROR);
 
+		boolean isSuperseded = false;
 		try {
 			LOGGER.finer("Firing panel updating event");
 			int imageNumber = fileIndex + 1;
@@ -152,12 +157,17 @@ public class GenericImageProberPanel extends JPanel implements ProberReloadEvent
 					"Unable to open " + imageFile.getName() + ": " + e.getMessage(),
 					"Cannot open image");
 
+		} catch (CancellationException e) {
+			// A later preview has started and will update the panel
+			LOGGER.finer("Preview of " + imageFile.getName() + " superseded");
+			isSuperseded = true;
 		} finally {
-
-			progressBar.setVisible(false);
-			nextButton.setEnabled(true);
-			prevButton.setEnabled(true);
-			firePanelUpdatingEvent(PanelUpdatingEvent.COMPLETE);
+			if (!isSuperseded) {
+				progressBar.setVisible(false);
+				nextButton.setEnabled(true);
+				prevButton.setEnabled(true);
+				firePanelUpdatingEvent(PanelUpdatingEvent.COMPLETE);
+			}
 		}
 	}
 
@@ -200,9 +210,14 @@ public class GenericImageProberPanel extends JPanel implements ProberReloadEvent
 
 			}
 		};
+		// Previews still waiting to start are replaced by this one. Previews already
+		// running stop at their next stage when the finder starts this one
+		if (pendingPreview != null)
+			pendingPreview.cancel(false);
+
 		// Note that if only one method thread is available, this will hang when
 		// dispatched via the thread manager. Use a separate UI thread
-		ThreadManager.getInstance().submitUIUpdate(r);
+		pendingPreview = ThreadManager.getInstance().submitUIUpdate(r);
 	}
 
 	protected Window getWindow() {
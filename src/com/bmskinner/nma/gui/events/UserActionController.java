@@ -713,7 +713,7 @@ public class UserActionController implements UserActionEventListener, ConsensusU
 
 		if (XMLNames.XML_ANALYSIS_DATASET.equals(f.type())) {
 			ThreadManager.getInstance()
-					.execute(new ImportDatasetAction(acceptor, f.document(), f.file(), null));
+					.execute(new ImportDatasetAction(acceptor, f.file(), null));
 		}
 
 		if (XMLNames.XML_WORKSPACE.equals(f.type())) {
@@ -49,6 +49,7 @@ import com.bmskinner.nma.gui.tabs.profiles.NucleusProfilesPanel;
 import com.bmskinner.nma.gui.tabs.segments.SegmentsDetailPanel;
 import com.bmskinner.nma.gui.tabs.signals.SignalsDetailPanel;
 import com.bmskinner.nma.io.UpdateChecker;
+import com.bmskinner.nma.logging.AsyncLogHandler;
 import com.bmskinner.nma.logging.LogPanelFormatter;
 import com.bmskinner.nma.logging.LogPanelHandler;
 import com.bmskinner.nma.logging.Loggable;
@@ -181,7 +182,9 @@ public class DockableMainWindow extends AbstractMainWindow {
 		LogPanelHandler textHandler = new LogPanelHandler(logPanel);
 		textHandler.setLevel(Level.INFO);
 		textHandler.setFormatter(new LogPanelFormatter());
-		Logger.getLogger(Loggable.PROJECT_LOGGER).addHandler(textHandler);
+
+		// Append to the panel in batches away from the analysis threads
+		Logger.getLogger(Loggable.PROJECT_LOGGER).addHandler(new AsyncLogHandler(textHandler));
 		return logPanel;
 	}
 
@@ -21,11 +21,13 @@ import java.awt.Dimension;
 import javax.swing.JLabel;
 import javax.swing.SwingConstants;
 
+import com.bmskinner.nma.core.TaskMetrics;
 import com.bmskinner.nma.core.ThreadManager;
 
 /**
  * This monitors the length of the task queue once per second,
- * and writes the value to a text label. 
+ * and writes the value to a text label. The tooltip shows the
+ * task timing for each priority class.
  * @author bms41
  * @since 1.13.8
  *
@@ -61,9 +63,18 @@ implements Runnable {
 			int l = ThreadManager.getInstance().uiQueueLength();
 			int m = ThreadManager.getInstance().methodQueueLength();
 			setText(l+"/"+m);
+			setToolTipText(createMetricsToolTip());
 		} while(true);
 	}
 
+	private String createMetricsToolTip() {
+		StringBuilder sb = new StringBuilder("<html>");
+		for (TaskMetrics.Snapshot s : ThreadManager.getInstance().getMetrics())
+			sb.append("%s: %d queued, %d running; wait %.0f ms, run %.0f ms<br>".formatted(
+					s.priority(), s.queued(), s.running(), s.meanWaitMillis(), s.meanRunMillis()));
+		return sb.append("</html>").toString();
+	}
+
 	@Override
 	public Dimension getPreferredSize(){
 		return new Dimension(PREFERRED_WIDTH, PREFERRED_HEIGHT);
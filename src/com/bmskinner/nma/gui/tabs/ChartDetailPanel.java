@@ -13,6 +13,8 @@ import org.jfree.chart.JFreeChart;
 import com.bmskinner.nma.core.InterfaceUpdater;
 import com.bmskinner.nma.core.ThreadManager;
 import com.bmskinner.nma.gui.CancellableRunnable;
+import com.bmskinner.nma.logging.CacheAccessEvent;
+import com.bmskinner.nma.logging.ChartBuildEvent;
 import com.bmskinner.nma.logging.Loggable;
 import com.bmskinner.nma.visualisation.ChartCache;
 import com.bmskinner.nma.visualisation.charts.AbstractChartFactory;
@@ -25,6 +27,8 @@ public abstract class ChartDetailPanel extends DetailPanel {
 
 	private static final String DEFAULT_TAB_TITLE = "Default";
 
+	private static final String CHART_CACHE_NAME = "Charts";
+
 	/**
 	 * Create with default title.
 	 */
@@ -69,7 +73,9 @@ public abstract class ChartDetailPanel extends DetailPanel {
 	 * @param options
 	 */
 	protected synchronized void setChart(@NonNull ChartOptions options) {
-		if (cache.has(options)) {
+		boolean isCached = cache.has(options);
+		CacheAccessEvent.record(CHART_CACHE_NAME, isCached);
+		if (isCached) {
 			JFreeChart chart = cache.get(options);
 			if (options.getTarget() != null)
 				options.getTarget().setChart(chart);
@@ -108,7 +114,14 @@ public abstract class ChartDetailPanel extends DetailPanel {
 					options.getTarget().setChart(AbstractChartFactory.createLoadingChart());
 				}
 
-				JFreeChart chart = createPanelChartType(options);
+				ChartBuildEvent event = ChartBuildEvent.start(ChartDetailPanel.this,
+						options.datasetCount(), false);
+				JFreeChart chart;
+				try {
+					chart = createPanelChartType(options);
+				} finally {
+					event.finish();
+				}
 				cache.add(options, chart);
 
 				return chart;
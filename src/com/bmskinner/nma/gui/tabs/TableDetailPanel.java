@@ -16,6 +16,8 @@ import com.bmskinner.nma.core.InterfaceUpdater;
 import com.bmskinner.nma.core.ThreadManager;
 import com.bmskinner.nma.gui.CancellableRunnable;
 import com.bmskinner.nma.gui.components.ExportableTable;
+import com.bmskinner.nma.logging.CacheAccessEvent;
+import com.bmskinner.nma.logging.ChartBuildEvent;
 import com.bmskinner.nma.logging.Loggable;
 import com.bmskinner.nma.visualisation.TableCache;
 import com.bmskinner.nma.visualisation.options.TableOptions;
@@ -28,6 +30,8 @@ public abstract class TableDetailPanel extends DetailPanel {
 
 	private static final String DEFAULT_TAB_TITLE = "Default";
 
+	private static final String TABLE_CACHE_NAME = "Tables";
+
 	protected TableDetailPanel() {
 		this(DEFAULT_TAB_TITLE);
 	}
@@ -69,7 +73,9 @@ public abstract class TableDetailPanel extends DetailPanel {
 	 * @param options
 	 */
 	protected synchronized void setTable(TableOptions options) {
-		if (cache.has(options)) {
+		boolean isCached = cache.has(options);
+		CacheAccessEvent.record(TABLE_CACHE_NAME, isCached);
+		if (isCached) {
 			TableModel model = cache.get(options);
 
 			JTable target = options.getTarget();
@@ -127,11 +133,18 @@ public abstract class TableDetailPanel extends DetailPanel {
 	protected synchronized TableModel getTable(TableOptions options) {
 
 		TableModel model;
-		if (cache.has(options)) {
+		boolean isCached = cache.has(options);
+		CacheAccessEvent.record(TABLE_CACHE_NAME, isCached);
+		if (isCached) {
 			model = cache.get(options);
 		} else {
 			try {
-				model = createPanelTableType(options);
+				ChartBuildEvent event = ChartBuildEvent.start(this, options.datasetCount(), true);
+				try {
+					model = createPanelTableType(options);
+				} finally {
+					event.finish();
+				}
 			} catch (Exception e) {
 				LOGGER.log(Loggable.STACK, "Error creating table", e);
 				model = AbstractTableCreator.createBlankTable();
@@ -200,7 +213,14 @@ public abstract class TableDetailPanel extends DetailPanel {
 				if (options.hasTarget())
 					options.getTarget().setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 
-				TableModel model = createPanelTableType(options);
+				ChartBuildEvent event = ChartBuildEvent.start(TableDetailPanel.this,
+						options.datasetCount(), true);
+				TableModel model;
+				try {
+					model = createPanelTableType(options);
+				} finally {
+					event.finish();
+				}
 				cache.add(options, model);
 
 				return model;
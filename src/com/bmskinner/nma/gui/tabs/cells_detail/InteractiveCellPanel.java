@@ -240,7 +240,7 @@ public class InteractiveCellPanel extends JPanel {
 					LOGGER.log(Level.SEVERE, "Unable to set landmark in cell", e);
 				}
 
-				cell.getPrimaryNucleus().clearMeasurements();
+				dataset.getCollection().clearMeasurements(cell);
 				cell.getPrimaryNucleus().setLocked(true);
 				createImage();
 			});
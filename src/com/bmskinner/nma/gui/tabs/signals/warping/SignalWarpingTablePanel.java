@@ -25,7 +25,7 @@ import javax.swing.table.TableModel;
 
 import org.eclipse.jdt.annotation.NonNull;
 
-import com.bmskinner.nma.analysis.image.MultiScaleStructuralSimilarityIndex;
+import com.bmskinner.nma.analysis.image.MultiScaleStructuralSimilarityEngine;
 import com.bmskinner.nma.analysis.image.MultiScaleStructuralSimilarityIndex.MSSIMScore;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
 import com.bmskinner.nma.components.signals.IWarpedSignal;
@@ -106,8 +106,8 @@ public class SignalWarpingTablePanel extends TableDetailPanel implements Nuclear
 
 					// Only compare images with the same target
 					if (w0.target().getId().equals(w1.target().getId())) {
-						MultiScaleStructuralSimilarityIndex msi = new MultiScaleStructuralSimilarityIndex();
-						MSSIMScore values = msi.calculateMSSIM(w0.toImage(), w1.toImage());
+						MSSIMScore values = new MultiScaleStructuralSimilarityEngine(
+								List.of(w0.toImage(), w1.toImage())).score(0, 1);
 						ssimLabel.setText("MS-SSIM*: " + values.toString());
 					} else {
 						ssimLabel.setText("");
@@ -16,7 +16,6 @@ import javax.swing.table.TableRowSorter;
 import org.eclipse.jdt.annotation.NonNull;
 import org.jfree.chart.ChartPanel;
 
-import com.bmskinner.nma.analysis.image.MultiScaleStructuralSimilarityIndex;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
 import com.bmskinner.nma.core.ThreadManager;
 import com.bmskinner.nma.gui.components.ExportableTable;
@@ -48,9 +47,6 @@ public class StructuralSimilarityComparisonDialog extends MessagingDialog {
 
 	private final JProgressBar progressBar = new JProgressBar(0, 100);
 
-	/** The MS-SSIM calculator */
-	private MultiScaleStructuralSimilarityIndex msi = new MultiScaleStructuralSimilarityIndex();
-
 	public StructuralSimilarityComparisonDialog(@NonNull final List<IAnalysisDataset> datasets) {
 		super();
 
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Check the checksum written at the end of a dataset file by
+ * {@link DatasetFileWriter} while the file is being read. The checksum is
+ * written as a comment after the root element, so the file remains valid XML.
+ * Bytes pass through unchanged; the checksum is updated for all bytes except
+ * the final few, which may hold the checksum comment itself.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class ChecksumInputStream extends FilterInputStream {
+
+	/** The start of the checksum comment */
+	static final String CHECKSUM_PREFIX = "<!--CRC32:";
+
+	/** The end of the checksum comment */
+	static final String CHECKSUM_SUFFIX = "-->";
+
+	/** Bytes held back from the checksum until the end of the stream */
+	private static final int TAIL_LENGTH = 64;
+
+	private final CRC32 crc = new CRC32();
+
+	/** The most recent bytes read, not yet included in the checksum */
+	private final byte[] tail = new byte[TAIL_LENGTH];
+	private int held = 0;
+
+	private boolean isClosed = false;
+
+	/** The result of the check, once the end of the stream is reached */
+	private Boolean isValid = null;
+
+	/**
+	 * Create with a stream to check
+	 *
+	 * @param in the uncompressed file content
+	 */
+	public ChecksumInputStream(InputStream in) {
+		super(in);
+	}
+
+	/**
+	 * Create the comment holding the checksum of the given content
+	 *
+	 * @param value the checksum of the content preceding the comment
+	 * @return the comment
+	 */
+	static String createChecksumComment(long value) {
+		return "%s%08x%s%n".formatted(CHECKSUM_PREFIX, value, CHECKSUM_SUFFIX);
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = in.read();
+		if (b >= 0)
+			update(new byte[] { (byte) b }, 0, 1);
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = in.read(b, off, len);
+		if (n > 0)
+			update(b, off, n);
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		// Skipped bytes must still be checked
+		byte[] buffer = new byte[8192];
+		long skipped = 0;
+		while (skipped < n) {
+			int r = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+			if (r < 0)
+				break;
+			skipped += r;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	/**
+	 * Read any remaining content, and test if the content matches the checksum at
+	 * the end of the stream. Content without a checksum is taken to be valid, so
+	 * that files saved before checksums were added can be read.
+	 *
+	 * @return false if the stream ends with a checksum that does not match the
+	 *         content, true otherwise
+	 * @throws IOException if the stream cannot be read
+	 */
+	public boolean isValid() throws IOException {
+		if (!isClosed)
+			drain();
+		if (isValid == null)
+			isValid = checkTail();
+		return isValid;
+	}
+
+	/**
+	 * Compare the checksum in the tail to the checksum of the preceding content
+	 */
+	private boolean checkTail() {
+		// One character per byte, so string indexes are byte offsets
+		String end = new String(tail, 0, held, StandardCharsets.ISO_8859_1);
+		int start = end.lastIndexOf(CHECKSUM_PREFIX);
+		if (start < 0)
+			return true;
+		int stop = end.indexOf(CHECKSUM_SUFFIX, start);
+		if (stop < 0)
+			return false;
+
+		try {
+			long expected = Long.parseLong(
+					end.substring(start + CHECKSUM_PREFIX.length(), stop), 16);
+			crc.update(tail, 0, start);
+			return crc.getValue() == expected;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Read the rest of the content before closing, since XML parsers may close
+	 * their input before the end of the stream
+	 */
+	@Override
+	public void close() throws IOException {
+		if (isClosed)
+			return;
+		try {
+			drain();
+		} finally {
+			isClosed = true;
+			super.close();
+		}
+	}
+
+	private void drain() throws IOException {
+		byte[] buffer = new byte[8192];
+		while (read(buffer, 0, buffer.length) >= 0) {
+			// Read to the end of the stream
+		}
+	}
+
+	/**
+	 * Add bytes to the tail, and include any bytes pushed out of the tail in the
+	 * checksum
+	 */
+	private void update(byte[] b, int off, int len) {
+		int overflow = held + len - TAIL_LENGTH;
+		if (overflow <= 0) {
+			System.arraycopy(b, off, tail, held, len);
+			held += len;
+			return;
+		}
+
+		// Bytes leaving the tail are the oldest held bytes, then the oldest new bytes
+		int fromTail = Math.min(overflow, held);
+		crc.update(tail, 0, fromTail);
+		crc.update(b, off, overflow - fromTail);
+
+		int keep = held - fromTail;
+		System.arraycopy(tail, fromTail, tail, 0, keep);
+		int fromNew = len - (overflow - fromTail);
+		System.arraycopy(b, off + overflow - fromTail, tail, keep, fromNew);
+		held = keep + fromNew;
+	}
+}
@@ -91,6 +91,8 @@ public class ConfigFileReader {
 				String.valueOf(op.getBoolean(GlobalOptions.ALLOW_UPDATE_CHECK_KEY)));
 		properties.setProperty(GlobalOptions.IS_SINGLE_THREADED_DETECTION,
 				String.valueOf(op.getBoolean(GlobalOptions.IS_SINGLE_THREADED_DETECTION)));
+		properties.setProperty(GlobalOptions.IS_COMPRESS_DATASETS_KEY,
+				String.valueOf(op.getBoolean(GlobalOptions.IS_COMPRESS_DATASETS_KEY)));
 		return properties;
 
 	}
@@ -144,6 +146,9 @@ public class ConfigFileReader {
 			if (GlobalOptions.IS_SINGLE_THREADED_DETECTION.equals(key))
 				op.setBoolean(GlobalOptions.IS_SINGLE_THREADED_DETECTION, Boolean.valueOf(value));
 
+			if (GlobalOptions.IS_COMPRESS_DATASETS_KEY.equals(key))
+				op.setBoolean(GlobalOptions.IS_COMPRESS_DATASETS_KEY, Boolean.valueOf(value));
+
 		}
 	}
 
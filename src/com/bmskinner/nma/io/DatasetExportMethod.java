@@ -17,23 +17,18 @@
 package com.bmskinner.nma.io;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.channels.FileChannel;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.jdom2.Document;
-import org.jdom2.output.Format;
-import org.jdom2.output.XMLOutputter;
 
 import com.bmskinner.nma.analysis.DefaultAnalysisResult;
 import com.bmskinner.nma.analysis.IAnalysisResult;
 import com.bmskinner.nma.analysis.SingleDatasetAnalysisMethod;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
-import com.bmskinner.nma.logging.Loggable;
+import com.bmskinner.nma.core.GlobalOptions;
+import com.bmskinner.nma.logging.DatasetIOEvent;
 
 /**
  * Export the dataset to an nmd file
@@ -65,16 +60,15 @@ public class DatasetExportMethod extends SingleDatasetAnalysisMethod {
 	}
 
 	protected void run() throws Exception {
-		boolean isOk = false;
-		backupExistingSaveFile();
-		isOk = saveAnalysisDatasetToXML(dataset, saveFile);
+		boolean isOk = saveAnalysisDatasetToXML(dataset, saveFile);
 
 		if (!isOk)
 			LOGGER.warning("Save was unsucessful");
 	}
 
 	/**
-	 * Save the given dataset in XML format
+	 * Save the given dataset in XML format. The file is written in full before it
+	 * replaces any existing file, which is kept as a backup.
 	 * 
 	 * @param dataset  the dataset to save
 	 * @param saveFile the file to save to
@@ -100,51 +94,24 @@ public class DatasetExportMethod extends SingleDatasetAnalysisMethod {
 			throw new IllegalArgumentException(String.format("Parent directory %s is not writable",
 					saveFile.getParentFile().getName()));
 
-		Document doc = new Document(dataset.toXmlElement());
-
-		OutputStream os = new FileOutputStream(saveFile);
-		CountedOutputStream cos = new CountedOutputStream(os);
-		cos.addCountListener((l) -> fireProgressEvent(l));
-		XMLOutputter xmlOutput = new XMLOutputter();
-		xmlOutput.setFormat(Format.getPrettyFormat());
-		xmlOutput.output(doc, cos);
-
-		return ok;
-	}
-
-	/**
-	 * Create a backup file of the existing nmd
-	 */
-	private void backupExistingSaveFile() {
-		File saveFile = dataset.getSavePath();
-		if (!saveFile.exists())
-			return;
-
-		File backupFile = new File(saveFile.getParent(),
-				saveFile.getName().replaceAll(Io.NMD_FILE_EXTENSION,
-						Io.BACKUP_FILE_EXTENSION));
+		DatasetIOEvent serialise = DatasetIOEvent.start(saveFile, DatasetIOEvent.SERIALISE);
+		Document doc;
 		try {
-			copyFile(saveFile, backupFile);
-		} catch (IOException e) {
-			LOGGER.log(Loggable.STACK, e.getMessage(), e);
+			doc = new Document(dataset.toXmlElement());
+		} finally {
+			serialise.finish();
 		}
-	}
 
-	/**
-	 * Directly copy the source file to the destination file
-	 * 
-	 * @param sourceFile
-	 * @param destFile
-	 * @throws IOException
-	 */
-	public static void copyFile(File sourceFile, File destFile) throws IOException {
-		if (!destFile.exists())
-			destFile.createNewFile();
-
-		try (FileChannel source = new FileInputStream(sourceFile).getChannel();
-				FileChannel destination = new FileOutputStream(destFile).getChannel();) {
-			destination.transferFrom(source, 0, source.size());
+		boolean compress = GlobalOptions.getInstance()
+				.getBoolean(GlobalOptions.IS_COMPRESS_DATASETS_KEY);
+		DatasetIOEvent write = DatasetIOEvent.start(saveFile, DatasetIOEvent.WRITE);
+		try {
+			DatasetFileWriter.write(doc, saveFile, compress, (l) -> fireProgressEvent(l));
+		} finally {
+			write.finish();
 		}
+
+		return ok;
 	}
 
 }
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.jdom2.Document;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+/**
+ * Write dataset files so that a failure part way through a save never damages
+ * the existing file. The document is written to a temporary file in the same
+ * folder, synced to disk, and then renamed over the target in one step. The
+ * previous version of the target is kept as a backup, with older backups
+ * rotated out. A checksum comment is added after the root element, and is
+ * checked on reading by {@link ChecksumInputStream}.
+ * <p>
+ * Files may be gzip compressed, using several threads. Compressed files are
+ * detected and read transparently by {@link #openInputStream(File)}.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class DatasetFileWriter {
+
+	private static final Logger LOGGER = Logger.getLogger(DatasetFileWriter.class.getName());
+
+	/** The number of previous versions of a file to keep */
+	public static final int MAX_BACKUPS = 3;
+
+	private static final int GZIP_MAGIC = 0x8b1f;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private DatasetFileWriter() {
+	}
+
+	/**
+	 * Write the document to the target file, replacing any existing file
+	 *
+	 * @param doc      the document to write
+	 * @param target   the file to write
+	 * @param compress true to gzip the file, false to write plain XML
+	 * @param l        an optional listener for the number of bytes of XML written
+	 * @throws IOException if the file could not be written. The existing target
+	 *                     file is unchanged.
+	 */
+	public static void write(@NonNull Document doc, @NonNull File target, boolean compress,
+			@Nullable CountListener l) throws IOException {
+
+		Path targetPath = target.toPath().toAbsolutePath();
+		Path folder = targetPath.getParent();
+		Path temp = Files.createTempFile(folder, target.getName(), ".tmp");
+
+		try {
+			writeSynced(doc, temp, compress, l);
+			if (Files.exists(targetPath))
+				backup(targetPath);
+			replace(temp, targetPath);
+			syncFolder(folder);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Get the backup file for the given generation. Generation zero is the most
+	 * recent backup.
+	 *
+	 * @param target     the file that was backed up
+	 * @param generation the backup generation
+	 * @return the backup file
+	 */
+	public static File getBackupFile(@NonNull File target, int generation) {
+		String name = target.getName();
+		if (name.endsWith(Io.NMD_FILE_EXTENSION))
+			name = name.substring(0, name.length() - Io.NMD_FILE_EXTENSION.length());
+		String suffix = generation == 0 ? Io.BACKUP_FILE_EXTENSION
+				: Io.DOT + generation + Io.BACKUP_FILE_EXTENSION;
+		return new File(target.getParentFile(), name + suffix);
+	}
+
+	/**
+	 * Open a file for reading, decompressing it if it was saved compressed
+	 *
+	 * @param f the file to read
+	 * @return a buffered stream of the uncompressed content
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static InputStream openInputStream(@NonNull File f) throws IOException {
+		return openInputStream(new FileInputStream(f));
+	}
+
+	/**
+	 * Wrap a stream of file content, decompressing it if it was saved compressed
+	 *
+	 * @param in the file content
+	 * @return a buffered stream of the uncompressed content
+	 * @throws IOException if the stream cannot be read
+	 */
+	public static InputStream openInputStream(@NonNull InputStream in) throws IOException {
+		InputStream is = new BufferedInputStream(in, BUFFER_SIZE);
+		try {
+			is.mark(2);
+			int magic = is.read() | (is.read() << 8);
+			is.reset();
+			if (magic == GZIP_MAGIC)
+				return new BufferedInputStream(new GZIPInputStream(is, BUFFER_SIZE), BUFFER_SIZE);
+			return is;
+		} catch (IOException e) {
+			is.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Write the document and checksum, and sync the file to disk
+	 */
+	private static void writeSynced(Document doc, Path file, boolean compress,
+			@Nullable CountListener l) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			// Closing the channel stream would close the channel before it is synced, so
+			// the streams above it are only flushed
+			OutputStream fileStream = Channels.newOutputStream(channel);
+			OutputStream sink = compress ? new ParallelGzipOutputStream(fileStream)
+					: new BufferedOutputStream(fileStream, BUFFER_SIZE);
+
+			CheckedOutputStream checked = new CheckedOutputStream(sink, new CRC32());
+			CountedOutputStream counted = new CountedOutputStream(checked);
+			if (l != null)
+				counted.addCountListener(l);
+
+			XMLOutputter xmlOutput = new XMLOutputter(Format.getRawFormat());
+			xmlOutput.output(doc, counted);
+			counted.flush();
+
+			sink.write(ChecksumInputStream
+					.createChecksumComment(checked.getChecksum().getValue())
+					.getBytes(StandardCharsets.US_ASCII));
+
+			if (sink instanceof ParallelGzipOutputStream gz)
+				gz.close();
+			else
+				sink.flush();
+
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Rotate the existing backups, and keep the current target as the most recent
+	 * backup
+	 */
+	private static void backup(Path target) throws IOException {
+		File targetFile = target.toFile();
+		for (int i = MAX_BACKUPS - 1; i > 0; i--) {
+			Path older = getBackupFile(targetFile, i - 1).toPath();
+			if (Files.exists(older))
+				Files.move(older, getBackupFile(targetFile, i).toPath(),
+						StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		// A link keeps the target in place until it is replaced, and needs no copying
+		Path latest = getBackupFile(targetFile, 0).toPath();
+		Files.deleteIfExists(latest);
+		try {
+			Files.createLink(latest, target);
+		} catch (IOException | UnsupportedOperationException e) {
+			LOGGER.finer(() -> "Unable to link backup, copying: %s".formatted(e.getMessage()));
+			Files.copy(target, latest, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Move the new file over the target in a single step where the file system
+	 * allows
+	 */
+	private static void replace(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			LOGGER.fine(() -> "Atomic move not supported, replacing %s".formatted(target));
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Sync the folder so the rename itself is on disk. Not all platforms allow
+	 * folders to be opened, so failure is ignored.
+	 */
+	private static void syncFolder(Path folder) {
+		try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			LOGGER.finer(() -> "Unable to sync folder %s: %s".formatted(folder, e.getMessage()));
+		}
+	}
+}
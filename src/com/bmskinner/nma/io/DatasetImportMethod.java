@@ -23,6 +23,7 @@ import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.jdom2.Document;
 
 import com.bmskinner.nma.analysis.AbstractAnalysisMethod;
@@ -36,6 +37,7 @@ import com.bmskinner.nma.components.datasets.DatasetRepairer;
 import com.bmskinner.nma.components.datasets.DatasetValidator;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
 import com.bmskinner.nma.io.Io.Importer;
+import com.bmskinner.nma.logging.DatasetIOEvent;
 import com.bmskinner.nma.logging.Loggable;
 
 /**
@@ -51,7 +53,10 @@ public class DatasetImportMethod extends AbstractAnalysisMethod implements Impor
 
 	private static final byte[] NMD_V1_SIGNATURE = new byte[] { -84, -19, 0, 5 };
 
-	private final Document doc;
+	private final @Nullable Document doc;
+
+	/** The file to read if no document is given */
+	private final @Nullable File file;
 	private IAnalysisDataset dataset = null;
 	private boolean wasConverted = false;
 	public static final int WAS_CONVERTED_BOOL = 0;
@@ -70,6 +75,21 @@ public class DatasetImportMethod extends AbstractAnalysisMethod implements Impor
 		super();
 
 		this.doc = doc;
+		this.file = null;
+	}
+
+	/**
+	 * Construct with a file to be read. The file is streamed rather than being
+	 * read into a document first, and cells are created in parallel as they are
+	 * read.
+	 * 
+	 * @param file the saved dataset file
+	 */
+	public DatasetImportMethod(final File file) {
+		super();
+
+		this.doc = null;
+		this.file = file;
 	}
 
 	/**
@@ -84,6 +104,18 @@ public class DatasetImportMethod extends AbstractAnalysisMethod implements Impor
 		signalFileMap = Optional.of(signalFiles);
 	}
 
+	/**
+	 * Call with an existing map of signal ids to directories of images. Designed
+	 * for unit testing.
+	 * 
+	 * @param file        the saved dataset file
+	 * @param signalFiles a map of signal group to folder of signals
+	 */
+	public DatasetImportMethod(final File file, final Map<UUID, File> signalFiles) {
+		this(file);
+		signalFileMap = Optional.of(signalFiles);
+	}
+
 	@Override
 	public IAnalysisResult call() throws Exception {
 
@@ -105,13 +137,30 @@ public class DatasetImportMethod extends AbstractAnalysisMethod implements Impor
 			// reading,
 			// rather than after the document is built - takes a long time with large
 			// datasets
-			dataset = DatasetCreator.createRoot(doc.getRootElement(), this);
+			DatasetIOEvent read = DatasetIOEvent.start(file, DatasetIOEvent.READ);
+			try {
+				dataset = doc != null ? DatasetCreator.createRoot(doc.getRootElement(), this)
+						: new DatasetStreamReader(file, this).read();
+			} finally {
+				read.finish();
+			}
 
 			fireIndeterminateState();
-			if (dataset.getVersionLastSaved().isOlderThan(Version.currentVersion()))
-				DatasetConverter.convert(dataset);
+			if (dataset.getVersionLastSaved().isOlderThan(Version.currentVersion())) {
+				DatasetIOEvent convert = DatasetIOEvent.start(file, DatasetIOEvent.CONVERT);
+				try {
+					DatasetConverter.convert(dataset);
+				} finally {
+					convert.finish();
+				}
+			}
 
-			validateDataset();
+			DatasetIOEvent validate = DatasetIOEvent.start(file, DatasetIOEvent.VALIDATE);
+			try {
+				validateDataset();
+			} finally {
+				validate.finish();
+			}
 
 		} catch (UnsupportedVersionException e) {
 			LOGGER.warning("Invalid version detected");
@@ -130,10 +179,10 @@ public class DatasetImportMethod extends AbstractAnalysisMethod implements Impor
 		// Check the validity of the loaded dataset
 		// Repair if possible, or error if not
 		DatasetRepairer dr = new DatasetRepairer();
-		dr.repair(dataset);
-
-		DatasetValidator dv = new DatasetValidator();
-		if (!dv.validate(dataset)) {
+		if (!dr.repair(dataset)) {
+			// Validate again to report the errors
+			DatasetValidator dv = new DatasetValidator();
+			dv.validate(dataset);
 			for (String s : dv.getSummary()) {
 				LOGGER.log(Loggable.STACK, s);
 			}
@@ -14,6 +14,7 @@ import com.bmskinner.nma.components.cells.ComponentCreationException;
 import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.generic.BorderArray;
 import com.bmskinner.nma.components.generic.FloatPoint;
 import com.bmskinner.nma.components.generic.IPoint;
 import com.bmskinner.nma.components.options.HashOptions;
@@ -24,7 +25,6 @@ import com.bmskinner.nma.components.profiles.MissingLandmarkException;
 import com.bmskinner.nma.components.profiles.MissingProfileException;
 import com.bmskinner.nma.components.profiles.ProfileException;
 import com.bmskinner.nma.components.rules.OrientationMark;
-import com.bmskinner.nma.utility.ArrayUtils;
 
 /**
  * Export the outlines of cellular components
@@ -176,13 +176,10 @@ public class DatasetOutlinesExporter extends MeasurementsExportMethod {
 
 		// This is basically the same interpolation as a profile, but for two
 		// dimensions, x and y. Convert to two profiles
-		float[] xpoints = ArrayUtils
-				.toFloat(inputBorder.stream().mapToDouble(IPoint::getX).toArray());
-		float[] ypoints = ArrayUtils
-				.toFloat(inputBorder.stream().mapToDouble(IPoint::getY).toArray());
+		BorderArray packed = BorderArray.of(inputBorder);
 
-		IProfile xprofile = new DefaultProfile(xpoints);
-		IProfile yprofile = new DefaultProfile(ypoints);
+		IProfile xprofile = new DefaultProfile(packed.toXArray());
+		IProfile yprofile = new DefaultProfile(packed.toYArray());
 
 		IProfile xScale = xprofile.interpolate(nPoints);
 		IProfile yScale = yprofile.interpolate(nPoints);
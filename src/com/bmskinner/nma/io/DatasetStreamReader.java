@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Logger;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.input.StAXStreamBuilder;
+
+import com.bmskinner.nma.analysis.ProgressEvent;
+import com.bmskinner.nma.analysis.ProgressListener;
+import com.bmskinner.nma.components.XMLNames;
+import com.bmskinner.nma.components.Version.UnsupportedVersionException;
+import com.bmskinner.nma.components.cells.ComponentCreationException;
+import com.bmskinner.nma.components.cells.DefaultCell;
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.datasets.DatasetCreator;
+import com.bmskinner.nma.components.datasets.DatasetRepairer;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.profiles.DefaultProfileSegment;
+import com.bmskinner.nma.components.profiles.IProfileSegment;
+import com.bmskinner.nma.io.XMLReader.XMLReadingException;
+
+/**
+ * Read a dataset file without building the XML document for the whole file.
+ * The file is read as a stream of events. Each cell element of the root
+ * collection is built on its own and handed to the common fork join pool,
+ * where the cell is created, repaired and has its profiles calculated. The
+ * element is then discarded, so only a bounded number of cell elements are
+ * held at once. The remainder of the document is small, and is kept as a
+ * skeleton from which the dataset is created once all cells are ready. Cells
+ * are added to the dataset in the order they were saved.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class DatasetStreamReader {
+
+	private static final Logger LOGGER = Logger.getLogger(DatasetStreamReader.class.getName());
+
+	/** Cell elements that may wait for a worker, per worker thread */
+	private static final int PENDING_CELLS_PER_THREAD = 4;
+
+	private final File file;
+	private final @Nullable ProgressListener listener;
+
+	private final DatasetRepairer repairer = new DatasetRepairer();
+
+	/** The segment starting at the RP in the median profile, if segmented */
+	private @Nullable UUID rpSegmentId = null;
+
+	/** Bytes read from the file, and the bytes included in progress events */
+	private long bytesRead = 0;
+	private long bytesReported = 0;
+
+	/**
+	 * Create a reader for the given file
+	 *
+	 * @param file the dataset file
+	 * @param l    an optional listener for progress updates
+	 */
+	public DatasetStreamReader(@NonNull File file, @Nullable ProgressListener l) {
+		this.file = file;
+		this.listener = l;
+	}
+
+	/**
+	 * Read the dataset
+	 *
+	 * @return the dataset
+	 * @throws XMLReadingException         if the file is not a readable XML
+	 *                                     dataset
+	 * @throws ComponentCreationException  if a component of the dataset could
+	 *                                     not be created
+	 * @throws UnsupportedVersionException if the dataset was saved in a version
+	 *                                     that cannot be read
+	 */
+	public IAnalysisDataset read() throws XMLReadingException, ComponentCreationException,
+			UnsupportedVersionException {
+
+		fireProgressEvent(ProgressEvent.SET_TOTAL_PROGRESS, file.length());
+
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		List<CompletableFuture<ICell>> cells = new ArrayList<>();
+		Element root = null;
+
+		try (CountedInputStream is = new CountedInputStream(new FileInputStream(file));
+				ChecksumInputStream cs = new ChecksumInputStream(
+						DatasetFileWriter.openInputStream(is))) {
+			is.addCountListener(l -> bytesRead = l);
+			root = readSkeleton(factory, cs, cells);
+
+			if (!cs.isValid()) {
+				cells.forEach(f -> f.cancel(false));
+				throw new XMLReadingException(
+						"File %s has changed since it was saved; the previous version is in %s"
+								.formatted(file.getAbsolutePath(),
+										DatasetFileWriter.getBackupFile(file, 0).getName()));
+			}
+		} catch (IOException | XMLStreamException | JDOMException e) {
+			cells.forEach(f -> f.cancel(false));
+			throw new XMLReadingException(String.format("Unable to read file %s as XML: %s",
+					file.getAbsolutePath(), e.getMessage()), e);
+		}
+
+		if (root == null || !XMLNames.XML_ANALYSIS_DATASET.equals(root.getName()))
+			throw new XMLReadingException(
+					"File %s is not a dataset".formatted(file.getAbsolutePath()));
+
+		return DatasetCreator.createRoot(root, joinInOrder(cells), listener);
+	}
+
+	/**
+	 * Read the document, submitting each cell of the root collection for creation
+	 * as soon as its element has been read.
+	 *
+	 * @param factory the factory for the stream reader
+	 * @param is      the file content
+	 * @param cells   the list to add the pending cells to, in document order
+	 * @return the document root, without the cell elements of the root
+	 *         collection
+	 */
+	private Element readSkeleton(XMLInputFactory factory, InputStream is,
+			List<CompletableFuture<ICell>> cells)
+			throws XMLStreamException, JDOMException {
+
+		StAXStreamBuilder builder = new StAXStreamBuilder();
+		Semaphore pending = new Semaphore(
+				ForkJoinPool.getCommonPoolParallelism() * PENDING_CELLS_PER_THREAD);
+
+		XMLStreamReader reader = factory.createXMLStreamReader(is);
+		try {
+			Deque<Element> open = new ArrayDeque<>();
+			Element root = null;
+
+			int event = reader.next();
+			while (event != XMLStreamConstants.END_DOCUMENT) {
+
+				if (event == XMLStreamConstants.END_ELEMENT)
+					open.pop();
+
+				if (event != XMLStreamConstants.START_ELEMENT) {
+					event = reader.next();
+					continue;
+				}
+
+				// Only the root and its cell collection are built here. Anything below them
+				// is built as a complete element, which leaves the reader on the event
+				// after the element ends.
+				if (open.isEmpty()) {
+					root = startElement(reader);
+					open.push(root);
+					event = reader.next();
+				} else if (open.size() == 1
+						&& XMLNames.XML_CELL_COLLECTION.equals(reader.getLocalName())) {
+					Element collection = startElement(reader);
+					open.peek().addContent(collection);
+					open.push(collection);
+					event = reader.next();
+				} else if (open.size() == 2 && XMLNames.XML_CELL.equals(reader.getLocalName())) {
+					Element cell = (Element) builder.fragment(reader);
+					cells.add(submit(cell, pending));
+					fireProgress();
+					event = reader.getEventType();
+				} else {
+					Element e = (Element) builder.fragment(reader);
+					open.peek().addContent(e);
+					if (open.size() == 2 && XMLNames.XML_PROFILE_COLLECTION.equals(e.getName()))
+						rpSegmentId = findRPSegment(e);
+					event = reader.getEventType();
+				}
+			}
+			return root;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Create an empty element with the name and attributes of the current start
+	 * element
+	 */
+	private static Element startElement(XMLStreamReader reader) {
+		Element e = new Element(reader.getLocalName());
+		for (int i = 0; i < reader.getAttributeCount(); i++)
+			e.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		return e;
+	}
+
+	/**
+	 * Find the segment starting at the RP in a collection profile. The RP of a
+	 * profile collection is always at index zero.
+	 *
+	 * @param e the profile collection element
+	 * @return the segment id, or null if the collection is not segmented
+	 */
+	private static @Nullable UUID findRPSegment(Element e) {
+		for (Element el : e.getChildren(XMLNames.XML_SEGMENT)) {
+			IProfileSegment s = new DefaultProfileSegment(el);
+			if (s.contains(0))
+				return s.getID();
+		}
+		return null;
+	}
+
+	/**
+	 * Create a cell on the common pool. The calling thread waits if too many
+	 * elements are already waiting for a worker.
+	 */
+	private CompletableFuture<ICell> submit(Element e, Semaphore pending) {
+		pending.acquireUninterruptibly();
+		UUID segmentId = rpSegmentId;
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return createCell(e, segmentId);
+			} catch (ComponentCreationException ex) {
+				throw new CompletionException(ex);
+			} finally {
+				pending.release();
+			}
+		});
+	}
+
+	/**
+	 * Create a cell from its element, and repair it if needed. Profiles of the
+	 * nuclei are created on demand when first used.
+	 *
+	 * @param e           the cell element
+	 * @param rpSegmentId the segment starting at the RP, or null if the dataset
+	 *                    is not segmented
+	 * @return the cell
+	 * @throws ComponentCreationException if the cell could not be created
+	 */
+	private ICell createCell(Element e, @Nullable UUID rpSegmentId)
+			throws ComponentCreationException {
+		ICell c = new DefaultCell(e);
+
+		if (rpSegmentId != null)
+			repairer.repair(c, rpSegmentId);
+		return c;
+	}
+
+	/**
+	 * Wait for the cells to be created, and collect them in document order
+	 */
+	private List<ICell> joinInOrder(List<CompletableFuture<ICell>> cells)
+			throws ComponentCreationException {
+		List<ICell> result = new ArrayList<>(cells.size());
+		try {
+			for (CompletableFuture<ICell> f : cells)
+				result.add(f.join());
+		} catch (CompletionException e) {
+			cells.forEach(f -> f.cancel(false));
+			if (e.getCause() instanceof ComponentCreationException c)
+				throw c;
+			throw new ComponentCreationException(e.getCause());
+		}
+		return result;
+	}
+
+	/**
+	 * Report the bytes read since the last update
+	 */
+	private void fireProgress() {
+		long n = bytesRead - bytesReported;
+		if (n > 0) {
+			bytesReported = bytesRead;
+			fireProgressEvent(ProgressEvent.INCREASE_BY_VALUE, n);
+		}
+	}
+
+	private void fireProgressEvent(int message, long value) {
+		if (listener != null)
+			listener.progressEventReceived(new ProgressEvent(this, message, value));
+	}
+}
@@ -25,6 +25,7 @@ import com.bmskinner.nma.gui.actions.VoidResultAction;
 import com.bmskinner.nma.gui.events.FileImportEventListener.FileImportEvent;
 import com.bmskinner.nma.gui.events.UserActionController;
 import com.bmskinner.nma.io.Io.Importer;
+import com.bmskinner.nma.io.XMLReader.XMLReadingException;
 import com.bmskinner.nma.logging.Loggable;
 
 /**
@@ -84,6 +85,21 @@ public class GenericFileImporter extends VoidResultAction implements Importer {
 			return;
 		}
 
+		// Datasets are streamed from the file when imported, so only read
+		// enough of the file to know it is a dataset
+		try {
+			if (XMLNames.XML_ANALYSIS_DATASET.equals(XMLReader.readRootElementName(file))) {
+				UserActionController.getInstance().fileImported(
+						new FileImportEvent(this, file, XMLNames.XML_ANALYSIS_DATASET, null));
+				super.finished();
+				return;
+			}
+		} catch (XMLReadingException e) {
+			LOGGER.info("Could not open " + file.getName());
+			super.finished();
+			return;
+		}
+
 		setProgressMessage(PROGRESS_BAR_LABEL);
 		setProgressBarIndeterminate();
 
@@ -18,6 +18,7 @@ package com.bmskinner.nma.io;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Optional;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -29,6 +30,7 @@ import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.profiles.MissingLandmarkException;
 import com.bmskinner.nma.io.Io.Importer;
+import com.bmskinner.nma.logging.ImageDecodeEvent;
 import com.bmskinner.nma.logging.Loggable;
 import com.bmskinner.nma.visualisation.image.ImageConverter;
 import com.bmskinner.nma.visualisation.image.ImageFilterer;
@@ -49,7 +51,8 @@ import ome.scifio.common.DebugTools;
 /**
  * This class takes any given input image, and will convert it to the ImageStack
  * needed for the analyses. The DNA/DAPI will always be set at index 0, with
- * other signals appended .
+ * other signals appended. Cropped images are read by region where the file
+ * allows, using {@link ImageRegionReader}.
  * 
  * @since 1.11.0
  *
@@ -104,6 +107,11 @@ public class ImageImporter implements Importer {
 	 */
 	public static ImageProcessor importCroppedImageTo24bitGreyscale(@NonNull ICell cell,
 			@NonNull CellularComponent c) {
+		Optional<ImageProcessor> region = ImageRegionReader.readChannel(c.getSourceFile(),
+				c.getChannel(), ImageFilterer.getCropBounds(cell));
+		if (region.isPresent())
+			return toRGBGreyscale(region.get());
+
 		ImageProcessor ip = importFullImageTo24bitGreyscale(c);
 		return ImageFilterer.crop(ip, cell);
 	}
@@ -119,6 +127,11 @@ public class ImageImporter implements Importer {
 	 * @return an RGB greyscale image cropped to the component
 	 */
 	public static ImageProcessor importCroppedImageTo24bitGreyscale(@NonNull CellularComponent c) {
+		Optional<ImageProcessor> region = ImageRegionReader.readChannel(c.getSourceFile(),
+				c.getChannel(), ImageFilterer.getCropBounds(c));
+		if (region.isPresent())
+			return toRGBGreyscale(region.get());
+
 		ImageProcessor ip = importFullImageTo24bitGreyscale(c);
 		return ImageFilterer.crop(ip, c);
 	}
@@ -154,6 +167,11 @@ public class ImageImporter implements Importer {
 	 */
 	public static ImageProcessor importCroppedImageTo24bitRGB(@NonNull CellularComponent c)
 			throws ImageImportException {
+		Optional<ImageProcessor> region = ImageRegionReader.readRGB(c.getSourceFile(),
+				ImageFilterer.getCropBounds(c));
+		if (region.isPresent())
+			return region.get();
+
 		ImageProcessor ip = importFullImageTo24bitRGB(c);
 		return ImageFilterer.crop(ip, c);
 	}
@@ -174,8 +192,7 @@ public class ImageImporter implements Importer {
 					(int) c.getMaxY() + Imageable.COMPONENT_BUFFER);
 		}
 		try {
-			ImageProcessor ip = importImage(c.getSourceFile(), c.getChannel());
-			return new ImageConverter(ip).convertToRGBGreyscale().invert().toProcessor();
+			return toRGBGreyscale(importImage(c.getSourceFile(), c.getChannel()));
 		} catch (ImageImportException e) {
 			return ImageFilterer.createWhiteColorProcessor(
 					(int) c.getMaxX() + Imageable.COMPONENT_BUFFER,
@@ -240,10 +257,25 @@ public class ImageImporter implements Importer {
 	 */
 	public static ImageProcessor importCroppedImageTo8bit(@NonNull CellularComponent c)
 			throws UnloadableImageException {
+		Optional<ImageProcessor> region = ImageRegionReader.readChannel(c.getSourceFile(),
+				c.getChannel(), ImageFilterer.getCropBounds(c));
+		if (region.isPresent())
+			return region.get();
+
 		ImageProcessor ip = importFullImageTo8bit(c);
 		return ImageFilterer.crop(ip, c);
 	}
 
+	/**
+	 * Convert an 8-bit greyscale image to an inverted RGB greyscale image
+	 * 
+	 * @param ip the image to convert
+	 * @return the RGB image
+	 */
+	private static ImageProcessor toRGBGreyscale(ImageProcessor ip) {
+		return new ImageConverter(ip).convertToRGBGreyscale().invert().toProcessor();
+	}
+
 	/**
 	 * Checks that the given file is suitable for analysis. Is the file an image.
 	 * Also check if it is in the 'banned list'. These are prefixes that are
@@ -370,6 +402,16 @@ public class ImageImporter implements Importer {
 	 * @return the ImageStack
 	 */
 	public static ImageStack importToStack(@NonNull File f) throws ImageImportException {
+		ImageDecodeEvent event = new ImageDecodeEvent();
+		event.begin();
+
+		ImageStack stack = decodeToStack(f);
+
+		commit(event, f, stack.getWidth(), stack.getHeight());
+		return stack;
+	}
+
+	private static ImageStack decodeToStack(@NonNull File f) throws ImageImportException {
 
 		// Need to use BioFormats for nd2
 		if (isND2(f))
@@ -391,6 +433,25 @@ public class ImageImporter implements Importer {
 		return stack;
 	}
 
+	/**
+	 * Record a decoded image if a flight recording is running
+	 * 
+	 * @param event  the event begun before decoding
+	 * @param f      the decoded file
+	 * @param width  the image width
+	 * @param height the image height
+	 */
+	private static void commit(ImageDecodeEvent event, File f, int width, int height) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.file = f.getAbsolutePath();
+			event.fileSize = f.length();
+			event.width = width;
+			event.height = height;
+			event.commit();
+		}
+	}
+
 	/**
 	 * Import and convert the image in the given file to a ColorProcessor
 	 * 
@@ -398,6 +459,17 @@ public class ImageImporter implements Importer {
 	 * @throws ImageImportException
 	 */
 	public static ImageProcessor importFileTo24bit(@NonNull File f) throws ImageImportException {
+		ImageDecodeEvent event = new ImageDecodeEvent();
+		event.begin();
+
+		ImageProcessor ip = decodeTo24bit(f);
+
+		if (ip != null)
+			commit(event, f, ip.getWidth(), ip.getHeight());
+		return ip;
+	}
+
+	private static ImageProcessor decodeTo24bit(@NonNull File f) throws ImageImportException {
 
 		if (isND2(f)) {
 			ImageStack stack = importND2ToStack(f);
@@ -0,0 +1,432 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.io;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import ij.io.FileInfo;
+import ij.io.TiffDecoder;
+import ij.process.ByteProcessor;
+import ij.process.ColorProcessor;
+import ij.process.ImageProcessor;
+
+/**
+ * Read rectangular regions of images without loading the whole image. The
+ * pixel data of uncompressed TIFF files is memory mapped, and only the rows
+ * covering the region are read. Pixel values match those of the full image
+ * from {@link ImageImporter} cropped to the same region: RGB channels are split
+ * in the same order, and 16-bit images are scaled to 8-bit using the display
+ * range of the whole image.
+ * <p>
+ * Files that cannot be read by region - compressed or tiled TIFFs, images with
+ * lookup tables, and other formats - give an empty result, and should be
+ * imported in full.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class ImageRegionReader {
+
+	private static final Logger LOGGER = Logger.getLogger(ImageRegionReader.class.getName());
+
+	private static final String[] TIFF_FILE_TYPES = { ".tif", ".tiff" };
+
+	/** Layouts of recently read files */
+	private static final int MAX_CACHED_LAYOUTS = 64;
+
+	/** The largest block of a file mapped at once when scanning a whole image */
+	private static final long MAX_MAPPED_BYTES = 1L << 26;
+
+	private static final int RGB_SAMPLES = 3;
+
+	private static final Map<File, TiffLayout> LAYOUTS = Collections
+			.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<File, TiffLayout> eldest) {
+					return size() > MAX_CACHED_LAYOUTS;
+				}
+			});
+
+	/**
+	 * The location and format of the first image in a TIFF file
+	 *
+	 * @param modified   the file modification time when the layout was read
+	 * @param length     the file length when the layout was read
+	 * @param width      the image width
+	 * @param height     the image height
+	 * @param offset     the position of the first pixel in the file
+	 * @param fileType   the ImageJ {@link FileInfo} pixel type
+	 * @param order      the byte order of 16-bit pixels
+	 * @param displayMin the minimum of the display range for 16-bit images
+	 * @param displayMax the maximum of the display range for 16-bit images
+	 */
+	private record TiffLayout(long modified, long length, int width, int height, long offset,
+			int fileType, ByteOrder order, int displayMin, int displayMax) {
+
+		int bytesPerPixel() {
+			return switch (fileType) {
+			case FileInfo.GRAY16_UNSIGNED -> 2;
+			case FileInfo.RGB -> RGB_SAMPLES;
+			default -> 1;
+			};
+		}
+
+		boolean isCurrent(File f) {
+			return f.lastModified() == modified && f.length() == length;
+		}
+	}
+
+	private ImageRegionReader() {
+		// static access only
+	}
+
+	/**
+	 * Read a region of one channel of an image as an 8-bit greyscale image. This
+	 * is the same as cropping the image from
+	 * {@link ImageImporter#importImage(File, int)} to the region.
+	 *
+	 * @param f       the image file
+	 * @param channel the RGB channel to read
+	 * @param region  the region to read. Parts of the region outside the image
+	 *                are ignored.
+	 * @return the region, or an empty optional if the file cannot be read by
+	 *         region
+	 */
+	public static Optional<ImageProcessor> readChannel(@NonNull File f, int channel,
+			@NonNull Rectangle region) {
+		if (channel < 0)
+			return Optional.empty();
+
+		TiffLayout layout = getLayout(f);
+		if (layout == null)
+			return Optional.empty();
+
+		// Greyscale images only have a counterstain slice
+		if (layout.fileType() != FileInfo.RGB
+				&& ImageImporter.rgbToStack(channel) != ImageImporter.COUNTERSTAIN)
+			return Optional.empty();
+
+		Rectangle r = region.intersection(new Rectangle(layout.width(), layout.height()));
+		if (r.isEmpty())
+			return Optional.empty();
+
+		try {
+			MappedByteBuffer buffer = map(f, layout, r);
+			byte[] pixels = switch (layout.fileType()) {
+			case FileInfo.GRAY8 -> readGrey8(buffer, layout, r);
+			case FileInfo.GRAY16_UNSIGNED -> readGrey16(buffer, layout, r);
+			default -> readRGBChannel(buffer, layout, r, rgbToSample(channel));
+			};
+			return Optional.of(new ByteProcessor(r.width, r.height, pixels));
+		} catch (IOException e) {
+			LOGGER.fine(() -> "Unable to read region of %s: %s".formatted(f, e.getMessage()));
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Read a region of an RGB image. This is the same as cropping the image from
+	 * {@link ImageImporter#importFileTo24bit(File)} to the region.
+	 *
+	 * @param f      the image file
+	 * @param region the region to read. Parts of the region outside the image are
+	 *               ignored.
+	 * @return the region, or an empty optional if the file is not an RGB image
+	 *         that can be read by region
+	 */
+	public static Optional<ImageProcessor> readRGB(@NonNull File f, @NonNull Rectangle region) {
+		TiffLayout layout = getLayout(f);
+		if (layout == null || layout.fileType() != FileInfo.RGB)
+			return Optional.empty();
+
+		Rectangle r = region.intersection(new Rectangle(layout.width(), layout.height()));
+		if (r.isEmpty())
+			return Optional.empty();
+
+		try {
+			MappedByteBuffer buffer = map(f, layout, r);
+			int[] pixels = new int[r.width * r.height];
+			int rowStep = (layout.width() - r.width) * RGB_SAMPLES;
+			int i = 0;
+			for (int y = 0; y < r.height; y++) {
+				for (int x = 0; x < r.width; x++) {
+					int red = buffer.get() & 0xff;
+					int green = buffer.get() & 0xff;
+					int blue = buffer.get() & 0xff;
+					pixels[i++] = 0xff000000 | (red << 16) | (green << 8) | blue;
+				}
+				skipRow(buffer, rowStep);
+			}
+			return Optional.of(new ColorProcessor(r.width, r.height, pixels));
+		} catch (IOException e) {
+			LOGGER.fine(() -> "Unable to read region of %s: %s".formatted(f, e.getMessage()));
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Get the sample within an RGB pixel matching the stack slice that
+	 * {@link ImageImporter} uses for the channel
+	 */
+	private static int rgbToSample(int channel) {
+		return switch (ImageImporter.rgbToStack(channel)) {
+		case ImageImporter.FIRST_SIGNAL_CHANNEL -> ImageImporter.RGB_RED;
+		case ImageImporter.FIRST_SIGNAL_CHANNEL + 1 -> ImageImporter.RGB_GREEN;
+		default -> ImageImporter.RGB_BLUE;
+		};
+	}
+
+	private static byte[] readGrey8(MappedByteBuffer buffer, TiffLayout layout, Rectangle r) {
+		byte[] pixels = new byte[r.width * r.height];
+		for (int y = 0; y < r.height; y++) {
+			buffer.get(pixels, y * r.width, r.width);
+			skipRow(buffer, layout.width() - r.width);
+		}
+		return pixels;
+	}
+
+	/**
+	 * Read 16-bit pixels and scale to 8-bit in the same way as
+	 * {@link ij.process.TypeConverter}
+	 */
+	private static byte[] readGrey16(MappedByteBuffer buffer, TiffLayout layout, Rectangle r) {
+		byte[] pixels = new byte[r.width * r.height];
+		ShortBuffer shorts = buffer.order(layout.order()).asShortBuffer();
+		int min = layout.displayMin();
+		double scale = 256.0 / (layout.displayMax() - min + 1);
+		int i = 0;
+		for (int y = 0; y < r.height; y++) {
+			int start = y * layout.width();
+			for (int x = 0; x < r.width; x++) {
+				int value = Math.max(0, (shorts.get(start + x) & 0xffff) - min);
+				pixels[i++] = (byte) Math.min(255, (int) (value * scale + 0.5));
+			}
+		}
+		return pixels;
+	}
+
+	private static byte[] readRGBChannel(MappedByteBuffer buffer, TiffLayout layout, Rectangle r,
+			int sample) {
+		byte[] pixels = new byte[r.width * r.height];
+		int rowLength = layout.width() * RGB_SAMPLES;
+		int i = 0;
+		for (int y = 0; y < r.height; y++) {
+			int start = y * rowLength + sample;
+			for (int x = 0; x < r.width; x++)
+				pixels[i++] = buffer.get(start + x * RGB_SAMPLES);
+		}
+		return pixels;
+	}
+
+	private static void skipRow(MappedByteBuffer buffer, int bytes) {
+		if (buffer.remaining() > bytes)
+			buffer.position(buffer.position() + bytes);
+	}
+
+	/**
+	 * Map the part of the file from the first to the last pixel in the region
+	 */
+	private static MappedByteBuffer map(File f, TiffLayout layout, Rectangle r)
+			throws IOException {
+		int bpp = layout.bytesPerPixel();
+		long start = layout.offset() + ((long) r.y * layout.width() + r.x) * bpp;
+		long length = ((long) (r.height - 1) * layout.width() + r.width) * bpp;
+		if (length > Integer.MAX_VALUE)
+			throw new IOException("Region is too large to map: " + r);
+
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		}
+	}
+
+	/**
+	 * Get the layout of the given file, reading it if not already cached
+	 *
+	 * @return the layout, or null if the file cannot be read by region
+	 */
+	private static TiffLayout getLayout(File f) {
+		if (!isTiff(f) || !f.isFile())
+			return null;
+
+		TiffLayout layout = LAYOUTS.get(f);
+		if (layout != null && layout.isCurrent(f))
+			return layout;
+
+		try {
+			layout = readLayout(f);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.fine(() -> "Unable to read layout of %s: %s".formatted(f, e.getMessage()));
+			layout = null;
+		}
+
+		// Unreadable files are not cached, since they are imported in full anyway
+		if (layout != null)
+			LAYOUTS.put(f, layout);
+		return layout;
+	}
+
+	private static boolean isTiff(File f) {
+		String name = f.getName().toLowerCase();
+		for (String type : TIFF_FILE_TYPES)
+			if (name.endsWith(type))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Read the layout of the first image in the file
+	 *
+	 * @return the layout, or null if the file cannot be read by region
+	 * @throws IOException if the file cannot be read
+	 */
+	private static TiffLayout readLayout(File f) throws IOException {
+		long modified = f.lastModified();
+		long length = f.length();
+
+		FileInfo[] info = new TiffDecoder(f.getParent() + File.separator, f.getName())
+				.getTiffInfo();
+		if (info == null || info.length == 0)
+			return null;
+		FileInfo fi = info[0];
+
+		if (!isSupported(fi, length))
+			return null;
+
+		ByteOrder order = fi.intelByteOrder ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+		Properties props = readDescription(fi);
+
+		// An 8-bit display range is held in the lookup table, which a crop keeps
+		if (fi.fileType == FileInfo.GRAY8 && hasDisplayRange(props))
+			return null;
+
+		int displayMin = 0;
+		int displayMax = 0;
+		if (fi.fileType == FileInfo.GRAY16_UNSIGNED) {
+			// Stacks are scaled as a whole, so only single images are read
+			if (fi.nImages > 1)
+				return null;
+
+			if (hasDisplayRange(props)) {
+				displayMin = (int) Double.parseDouble(props.getProperty("min"));
+				displayMax = (int) Double.parseDouble(props.getProperty("max"));
+			}
+
+			// As ImageJ, a missing range is taken from the pixel values
+			if (displayMin == 0 && displayMax == 0) {
+				int[] range = findRange(f, fi, order);
+				displayMin = range[0];
+				displayMax = range[1];
+			}
+		}
+
+		return new TiffLayout(modified, length, fi.width, fi.height, fi.getOffset(), fi.fileType,
+				order, displayMin, displayMax);
+	}
+
+	/**
+	 * Test if the image pixels are uncompressed, in a single block, and in a
+	 * format that is imported without a lookup table
+	 */
+	private static boolean isSupported(FileInfo fi, long fileLength) {
+		if (fi.compression != FileInfo.COMPRESSION_NONE || fi.whiteIsZero || fi.lutSize > 0)
+			return false;
+
+		int bpp = switch (fi.fileType) {
+		case FileInfo.GRAY8 -> 1;
+		case FileInfo.GRAY16_UNSIGNED -> 2;
+		case FileInfo.RGB -> RGB_SAMPLES;
+		default -> 0;
+		};
+		if (bpp == 0 || fi.width <= 0 || fi.height <= 0)
+			return false;
+
+		// Strips must follow each other, so rows can be found from the first offset
+		if (fi.stripOffsets != null && fi.stripLengths != null) {
+			for (int i = 1; i < fi.stripOffsets.length; i++)
+				if ((fi.stripOffsets[i] & 0xffffffffL) != (fi.stripOffsets[i - 1] & 0xffffffffL)
+						+ (fi.stripLengths[i - 1] & 0xffffffffL))
+					return false;
+		}
+
+		long planeBytes = (long) fi.width * fi.height * bpp;
+		return fi.getOffset() + planeBytes <= fileLength;
+	}
+
+	/**
+	 * Read the properties ImageJ stores in the image description
+	 *
+	 * @return the properties, empty if the description was not written by ImageJ
+	 */
+	private static Properties readDescription(FileInfo fi) throws IOException {
+		Properties props = new Properties();
+		if (fi.description != null && fi.description.startsWith("ImageJ"))
+			props.load(new StringReader(fi.description));
+		return props;
+	}
+
+	private static boolean hasDisplayRange(Properties props) {
+		return props.getProperty("min") != null && props.getProperty("max") != null;
+	}
+
+	/**
+	 * Find the minimum and maximum 16-bit pixel values in the image, mapping a
+	 * block of rows at a time
+	 */
+	private static int[] findRange(File f, FileInfo fi, ByteOrder order) throws IOException {
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		long rowBytes = fi.width * 2L;
+		int rowsPerBlock = (int) Math.max(1, MAX_MAPPED_BYTES / rowBytes);
+
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			for (int y = 0; y < fi.height; y += rowsPerBlock) {
+				int rows = Math.min(rowsPerBlock, fi.height - y);
+				ShortBuffer shorts = channel
+						.map(FileChannel.MapMode.READ_ONLY, fi.getOffset() + y * rowBytes,
+								rows * rowBytes)
+						.order(order).asShortBuffer();
+				while (shorts.hasRemaining()) {
+					int value = shorts.get() & 0xffff;
+					if (value < min)
+						min = value;
+					if (value > max)
+						max = value;
+				}
+			}
+		}
+		return new int[] { min, max };
+	}
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compress data in gzip format using several threads. Input is split into
+ * fixed size blocks, and each block is compressed on the common fork join pool
+ * as a separate gzip member. Members are written to the underlying stream in
+ * order. A file of concatenated members is a valid gzip file, and is read in
+ * full by {@link java.util.zip.GZIPInputStream}.
+ * <p>
+ * Closing this stream does not close the underlying stream, so the caller can
+ * still sync the file it was writing to.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class ParallelGzipOutputStream extends FilterOutputStream {
+
+	/** Bytes of input per gzip member */
+	private static final int BLOCK_SIZE = 1 << 20;
+
+	/** Blocks that may be compressing at once, per worker thread */
+	private static final int BLOCKS_PER_THREAD = 2;
+
+	private final int level;
+	private final int maxPending = Math.max(2,
+			ForkJoinPool.getCommonPoolParallelism() * BLOCKS_PER_THREAD);
+
+	/** Compressed blocks not yet written, in input order */
+	private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+
+	private byte[] block = new byte[BLOCK_SIZE];
+	private int count = 0;
+	private boolean closed = false;
+
+	/**
+	 * Create with the fastest compression level
+	 *
+	 * @param out the stream to write compressed data to
+	 */
+	public ParallelGzipOutputStream(OutputStream out) {
+		this(out, Deflater.BEST_SPEED);
+	}
+
+	/**
+	 * Create with the given compression level
+	 *
+	 * @param out   the stream to write compressed data to
+	 * @param level the deflater compression level, 0-9
+	 */
+	public ParallelGzipOutputStream(OutputStream out, int level) {
+		super(out);
+		this.level = level;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (count == block.length)
+			submitBlock();
+		block[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (count == block.length)
+				submitBlock();
+			int n = Math.min(len, block.length - count);
+			System.arraycopy(b, off, block, count, n);
+			count += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Write all blocks compressed so far. Data in a partial block is held until
+	 * the block is full or the stream is closed, so that members stay large.
+	 */
+	@Override
+	public void flush() throws IOException {
+		while (!pending.isEmpty())
+			writeBlock(pending.removeFirst());
+		out.flush();
+	}
+
+	/**
+	 * Compress and write any remaining data. The underlying stream is flushed but
+	 * not closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		if (count > 0)
+			submitBlock();
+		flush();
+	}
+
+	/**
+	 * Start compressing the current block, and write completed blocks if too many
+	 * are waiting
+	 */
+	private void submitBlock() throws IOException {
+		byte[] data = block;
+		int length = count;
+		pending.addLast(CompletableFuture.supplyAsync(() -> compress(data, length)));
+		block = new byte[BLOCK_SIZE];
+		count = 0;
+
+		while (pending.size() >= maxPending)
+			writeBlock(pending.removeFirst());
+	}
+
+	private void writeBlock(CompletableFuture<byte[]> f) throws IOException {
+		try {
+			out.write(f.join());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException u)
+				throw u.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Compress a block as a complete gzip member
+	 */
+	private byte[] compress(byte[] data, int length) {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(length / 4);
+		try (GZIPOutputStream gz = new GZIPOutputStream(bos) {
+			{
+				def.setLevel(level);
+			}
+		}) {
+			gz.write(data, 0, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bos.toByteArray();
+	}
+}
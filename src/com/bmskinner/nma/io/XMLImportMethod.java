@@ -45,11 +45,20 @@ public class XMLImportMethod extends AbstractAnalysisMethod implements Importer
 
 		// Deserialise whatever is in the file
 		try (InputStream is = new FileInputStream(file);
-				CountedInputStream cis = new CountedInputStream(is);) {
+				CountedInputStream cis = new CountedInputStream(is);
+				ChecksumInputStream cs = new ChecksumInputStream(
+						DatasetFileWriter.openInputStream(cis));) {
 
 			cis.addCountListener((l) -> fireProgressEvent(l));
 			SAXBuilder saxBuilder = new SAXBuilder();
-			doc = saxBuilder.build(cis);
+			doc = saxBuilder.build(cs);
+
+			if (!cs.isValid()) {
+				LOGGER.warning(() -> "File %s has changed since it was saved; %s"
+						.formatted(file.getName(), "the previous version is in "
+								+ DatasetFileWriter.getBackupFile(file, 0).getName()));
+				doc = null;
+			}
 			fireIndeterminateState();
 		} catch (IOException | JDOMException e) {
 			LOGGER.log(Loggable.STACK,
@@ -2,6 +2,11 @@ package com.bmskinner.nma.io;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
@@ -39,14 +44,48 @@ public abstract class XMLReader {
 	 */
 	public static Document readDocument(File file) throws XMLReadingException {
 		SAXBuilder saxBuilder = new SAXBuilder();
-		try {
-			return saxBuilder.build(file);
+		try (ChecksumInputStream is = new ChecksumInputStream(
+				DatasetFileWriter.openInputStream(file))) {
+			Document doc = saxBuilder.build(is);
+			if (!is.isValid())
+				throw new XMLReadingException(
+						"File %s has changed since it was saved; the previous version is in %s"
+								.formatted(file.getAbsolutePath(),
+										DatasetFileWriter.getBackupFile(file, 0).getName()));
+			return doc;
 		} catch (JDOMException | IOException e) {
 			throw new XMLReadingException(String.format("Unable to read file %s as XML: %s",
 					file.getAbsolutePath(), e.getMessage()), e);
 		}
 	}
 
+	/**
+	 * Read the name of the root element of the given file, without reading the
+	 * rest of the file. Use to decide how a file should be read.
+	 * 
+	 * @param file the file to read
+	 * @return the name of the root element
+	 * @throws XMLReadingException if the file could not be read or was not XML
+	 */
+	public static String readRootElementName(File file) throws XMLReadingException {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		try (InputStream is = DatasetFileWriter.openInputStream(file)) {
+			XMLStreamReader reader = factory.createXMLStreamReader(is);
+			try {
+				reader.nextTag();
+				return reader.getLocalName();
+			} finally {
+				reader.close();
+			}
+		} catch (IOException | XMLStreamException e) {
+			throw new XMLReadingException(String.format("Unable to read file %s as XML: %s",
+					file.getAbsolutePath(), e.getMessage()), e);
+		}
+	}
+
 	public static IAnalysisDataset readDataset(File f)
 			throws XMLReadingException, ComponentCreationException, UnsupportedVersionException {
 		Document d = readDocument(f);
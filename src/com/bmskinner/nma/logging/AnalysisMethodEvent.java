@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.logging;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering a single analysis method from start to end
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@Name("com.bmskinner.nma.AnalysisMethod")
+@Label("Analysis Method")
+@Category({ FlightRecording.CATEGORY, "Analysis" })
+@Description("An analysis method run from start to end")
+@Enabled(false)
+@StackTrace(false)
+public class AnalysisMethodEvent extends Event {
+
+	@Label("Method")
+	public String method;
+
+	@Label("Datasets")
+	@Description("The number of datasets in the method result")
+	public int datasets;
+
+	@Label("Cells")
+	@Description("The number of cells in the datasets in the method result")
+	public int cells;
+
+	@Label("Succeeded")
+	public boolean succeeded;
+}
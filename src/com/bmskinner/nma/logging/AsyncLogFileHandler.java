@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.logging;
+
+import java.io.IOException;
+
+/**
+ * Writes to the log file from a background thread. The file is written by a
+ * {@link LogFileHandler} configured from the logging properties, which
+ * rotates through a bounded number of size-limited files.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class AsyncLogFileHandler extends AsyncLogHandler {
+
+	/**
+	 * Create using the {@link LogFileHandler} settings in the logging properties
+	 *
+	 * @throws IOException if the log file cannot be opened
+	 */
+	public AsyncLogFileHandler() throws IOException {
+		super(new LogFileHandler());
+	}
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Publishes log records to another handler from a background thread, so that
+ * logging never stalls the threads doing the work. Records are queued in a
+ * bounded {@link LogRingBuffer} and written in batches by a single writer
+ * thread. If the buffer is full the record is dropped rather than waiting;
+ * dropped records are counted, and a warning giving the number dropped is
+ * written once the writer catches up.
+ * <p>
+ * The source class and method of a record are not inferred before it is
+ * queued, so formatters used with this handler should not rely on them.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class AsyncLogHandler extends Handler {
+
+	/** The default number of records that can be queued */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/** The maximum number of records written before flushing the target */
+	private static final int MAX_BATCH_SIZE = 256;
+
+	/** How long the writer waits for records when the buffer is empty */
+	private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	/** How long closing waits for queued records to be written */
+	private static final long CLOSE_WAIT_MILLIS = 2000;
+
+	/**
+	 * A handler that can publish several records at once more cheaply than one
+	 * at a time
+	 */
+	public interface BatchPublisher {
+
+		/**
+		 * Publish records in order
+		 *
+		 * @param records the records to publish
+		 */
+		void publish(@NonNull List<LogRecord> records);
+	}
+
+	private final Handler target;
+	private final LogRingBuffer<LogRecord> buffer;
+	private final Thread writer;
+
+	private final AtomicLong published = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+
+	/** Dropped records not yet reported. Only the writer thread reads this. */
+	private long droppedReported = 0;
+
+	private volatile boolean isIdle = false;
+	private volatile boolean isClosed = false;
+
+	/**
+	 * Create with the default capacity
+	 *
+	 * @param target the handler to publish to
+	 */
+	public AsyncLogHandler(@NonNull Handler target) {
+		this(target, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create with the given capacity. The level of this handler is taken from the
+	 * target, so records the target would ignore are not queued.
+	 *
+	 * @param target   the handler to publish to
+	 * @param capacity the number of records that can be queued
+	 */
+	public AsyncLogHandler(@NonNull Handler target, int capacity) {
+		this.target = target;
+		this.buffer = new LogRingBuffer<>(capacity);
+		setLevel(target.getLevel());
+
+		writer = new Thread(this::write, "Log writer: " + target.getClass().getSimpleName());
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public void publish(LogRecord record) {
+		if (isClosed || !isLoggable(record))
+			return;
+
+		if (!buffer.offer(record)) {
+			dropped.incrementAndGet();
+			return;
+		}
+
+		if (isIdle)
+			LockSupport.unpark(writer);
+	}
+
+	/**
+	 * Wake the writer. Does not wait for queued records to be written.
+	 */
+	@Override
+	public void flush() {
+		LockSupport.unpark(writer);
+	}
+
+	/**
+	 * Write any queued records and close the target
+	 */
+	@Override
+	public void close() {
+		if (isClosed)
+			return;
+		isClosed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(CLOSE_WAIT_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		target.close();
+	}
+
+	/**
+	 * @return the number of records passed to the target
+	 */
+	public long getPublishedCount() {
+		return published.get();
+	}
+
+	/**
+	 * @return the number of records dropped because the buffer was full
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Move records from the buffer to the target until closed
+	 */
+	private void write() {
+		List<LogRecord> batch = new ArrayList<>(MAX_BATCH_SIZE);
+		while (true) {
+			batch.clear();
+			buffer.drainTo(batch, MAX_BATCH_SIZE);
+			reportDropped(batch);
+
+			if (!batch.isEmpty()) {
+				publishToTarget(batch);
+				continue;
+			}
+
+			if (isClosed && buffer.isEmpty())
+				return;
+
+			isIdle = true;
+			if (buffer.isEmpty() && !isClosed)
+				LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+			isIdle = false;
+		}
+	}
+
+	/**
+	 * Add a warning to the batch if records have been dropped since the last
+	 * warning
+	 */
+	private void reportDropped(List<LogRecord> batch) {
+		long total = dropped.get();
+		if (total == droppedReported)
+			return;
+		LogRecord warning = new LogRecord(Level.WARNING,
+				"%d log messages were dropped because logging could not keep up"
+						.formatted(total - droppedReported));
+		warning.setLoggerName(Loggable.PROJECT_LOGGER);
+		batch.add(warning);
+		droppedReported = total;
+	}
+
+	private void publishToTarget(List<LogRecord> batch) {
+		try {
+			if (target instanceof BatchPublisher p) {
+				p.publish(batch);
+			} else {
+				for (LogRecord r : batch)
+					target.publish(r);
+			}
+			target.flush();
+		} catch (RuntimeException e) {
+			// The writer must survive a failing target
+			reportError("Error publishing log records", e, ErrorManager.WRITE_FAILURE);
+		}
+		published.addAndGet(batch.size());
+	}
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.logging;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a lookup in one of the program caches
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@Name("com.bmskinner.nma.CacheAccess")
+@Label("Cache Access")
+@Category({ FlightRecording.CATEGORY, "Cache" })
+@Description("A lookup in a measurement, chart or table cache")
+@Enabled(false)
+@StackTrace(false)
+public class CacheAccessEvent extends Event {
+
+	@Label("Cache")
+	public String cache;
+
+	@Label("Hit")
+	public boolean hit;
+
+	/**
+	 * Record a cache lookup if a flight recording is running
+	 * 
+	 * @param cache the name of the cache
+	 * @param hit   true if the value was found in the cache
+	 */
+	public static void record(@NonNull String cache, boolean hit) {
+		CacheAccessEvent event = new CacheAccessEvent();
+		if (event.shouldCommit()) {
+			event.cache = cache;
+			event.hit = hit;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.logging;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering the creation of a chart or table that was not
+ * cached
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@Name("com.bmskinner.nma.ChartBuild")
+@Label("Chart Build")
+@Category({ FlightRecording.CATEGORY, "Charts" })
+@Description("A chart or table created for display")
+@Enabled(false)
+@StackTrace(false)
+public class ChartBuildEvent extends Event {
+
+	@Label("Panel")
+	public String panel;
+
+	@Label("Datasets")
+	public int datasets;
+
+	@Label("Table")
+	@Description("True if a table was built rather than a chart")
+	public boolean isTable;
+
+	/**
+	 * Begin timing a chart or table build
+	 * 
+	 * @param panel    the panel the chart or table is built for
+	 * @param datasets the number of datasets displayed
+	 * @param isTable  true if a table is being built
+	 * @return the begun event
+	 */
+	public static ChartBuildEvent start(@NonNull Object panel, int datasets, boolean isTable) {
+		ChartBuildEvent event = new ChartBuildEvent();
+		event.begin();
+		if (event.isEnabled()) {
+			event.panel = panel.getClass().getSimpleName();
+			event.datasets = datasets;
+			event.isTable = isTable;
+		}
+		return event;
+	}
+
+	/**
+	 * End the build and record it if a flight recording is running
+	 */
+	public void finish() {
+		end();
+		if (shouldCommit())
+			commit();
+	}
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.logging;
+
+import java.io.File;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering one phase of saving or loading a dataset
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@Name("com.bmskinner.nma.DatasetIO")
+@Label("Dataset I/O")
+@Category({ FlightRecording.CATEGORY, "I/O" })
+@Description("A phase of saving or loading a dataset file")
+@Enabled(false)
+@StackTrace(false)
+public class DatasetIOEvent extends Event {
+
+	public static final String SERIALISE = "serialise";
+	public static final String WRITE = "write";
+	public static final String READ = "read";
+	public static final String CONVERT = "convert";
+	public static final String VALIDATE = "validate";
+
+	@Label("File")
+	public String file;
+
+	@Label("Phase")
+	public String phase;
+
+	/**
+	 * Begin timing a phase. Events that fail before they are finished are not
+	 * recorded.
+	 * 
+	 * @param file  the dataset file, or null if the dataset is not read from a
+	 *              file
+	 * @param phase the phase being timed
+	 * @return the begun event
+	 */
+	public static DatasetIOEvent start(@Nullable File file, @NonNull String phase) {
+		DatasetIOEvent event = new DatasetIOEvent();
+		event.begin();
+		if (event.isEnabled()) {
+			event.file = file == null ? null : file.getAbsolutePath();
+			event.phase = phase;
+		}
+		return event;
+	}
+
+	/**
+	 * End the phase and record it if a flight recording is running
+	 */
+	public void finish() {
+		end();
+		if (shouldCommit())
+			commit();
+	}
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+/**
+ * A Java Flight Recorder recording of the program's own events alongside the
+ * default JDK events. The program's events are disabled unless a recording
+ * enables them, so they cost no more than a flag check otherwise. Recordings
+ * started from the command line use this; a recording started externally with
+ * {@code -XX:StartFlightRecording} must enable the events in its settings.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class FlightRecording {
+
+	private static final Logger LOGGER = Logger.getLogger(FlightRecording.class.getName());
+
+	/** The category shared by all program events */
+	public static final String CATEGORY = "Nuclear Morphology Analysis";
+
+	/** The JDK settings used with the program events */
+	private static final String JDK_CONFIGURATION = "default";
+
+	private static final List<Class<? extends Event>> EVENTS = List.of(
+			AnalysisMethodEvent.class, ImageDecodeEvent.class, CacheAccessEvent.class,
+			DatasetIOEvent.class, ChartBuildEvent.class);
+
+	private final Recording recording;
+	private final File file;
+
+	private FlightRecording(@NonNull Recording recording, @NonNull File file) {
+		this.recording = recording;
+		this.file = file;
+	}
+
+	/**
+	 * Start recording with all program events enabled
+	 *
+	 * @param file the file the recording will be written to when stopped
+	 * @return the running recording
+	 * @throws IOException    if the JDK settings cannot be read
+	 * @throws ParseException if the JDK settings cannot be parsed
+	 */
+	public static FlightRecording start(@NonNull File file) throws IOException, ParseException {
+		Recording recording = new Recording(Configuration.getConfiguration(JDK_CONFIGURATION));
+		recording.setName(file.getName());
+		for (Class<? extends Event> event : EVENTS)
+			recording.enable(event);
+		recording.start();
+		LOGGER.fine(() -> "Started flight recording to %s".formatted(file.getAbsolutePath()));
+		return new FlightRecording(recording, file);
+	}
+
+	/**
+	 * Stop recording and write the recording to its file
+	 *
+	 * @throws IOException if the recording cannot be written
+	 */
+	public void stop() throws IOException {
+		try {
+			recording.stop();
+			recording.dump(file.toPath());
+			LOGGER.info(() -> "Flight recording saved to %s".formatted(file.getAbsolutePath()));
+		} finally {
+			recording.close();
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.logging;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering reading and decoding an image file
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@Name("com.bmskinner.nma.ImageDecode")
+@Label("Image Decode")
+@Category({ FlightRecording.CATEGORY, "I/O" })
+@Description("An image file read and decoded")
+@Enabled(false)
+@StackTrace(false)
+public class ImageDecodeEvent extends Event {
+
+	@Label("File")
+	public String file;
+
+	@Label("File Size")
+	@DataAmount
+	public long fileSize;
+
+	@Label("Width")
+	public int width;
+
+	@Label("Height")
+	public int height;
+}
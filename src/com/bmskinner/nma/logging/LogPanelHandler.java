@@ -16,33 +16,61 @@
  ******************************************************************************/
 package com.bmskinner.nma.logging;
 
+import java.util.List;
+import java.util.logging.Handler;
 import java.util.logging.LogRecord;
-import java.util.logging.StreamHandler;
+
+import org.eclipse.jdt.annotation.NonNull;
 
 import com.bmskinner.nma.gui.LogPanel;
+import com.bmskinner.nma.logging.AsyncLogHandler.BatchPublisher;
 
 /**
- * Handle publishing of log messages to the log panel
+ * Handle publishing of log messages to the log panel. Wrap in an
+ * {@link AsyncLogHandler} so that batches of records are appended to the panel
+ * in a single update.
+ * 
  * @author bms41
  *
  */
-public class LogPanelHandler extends StreamHandler {
-
-    private final LogPanel logPanel; // the log panel to log to
-
-    public LogPanelHandler(LogPanel logPanel) {
-        this.logPanel = logPanel;
-    }
-
-    @Override
-	public synchronized void publish(LogRecord record) {
-        super.publish(record);
-        if(logPanel == null)
-        	return;
-        flush();
-        
-        if(record.getLevel().intValue()>=this.getLevel().intValue()) {
-        	 logPanel.println(getFormatter().format(record));
-        }
-    }
+public class LogPanelHandler extends Handler implements BatchPublisher {
+
+	private static final String NEWLINE = System.getProperty("line.separator");
+
+	private final LogPanel logPanel; // the log panel to log to
+
+	public LogPanelHandler(LogPanel logPanel) {
+		this.logPanel = logPanel;
+	}
+
+	@Override
+	public void publish(LogRecord record) {
+		if (logPanel == null || !isLoggable(record))
+			return;
+		logPanel.println(getFormatter().format(record));
+	}
+
+	@Override
+	public void publish(@NonNull List<LogRecord> records) {
+		if (logPanel == null)
+			return;
+
+		StringBuilder sb = new StringBuilder();
+		for (LogRecord record : records) {
+			if (isLoggable(record))
+				sb.append(getFormatter().format(record)).append(NEWLINE);
+		}
+		if (sb.length() > 0)
+			logPanel.print(sb.toString());
+	}
+
+	@Override
+	public void flush() {
+		// Records are appended as they are published
+	}
+
+	@Override
+	public void close() {
+		// Nothing to release
+	}
 }
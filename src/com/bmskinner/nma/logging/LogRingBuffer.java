@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.logging;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A bounded ring buffer for many producer threads and a single consumer
+ * thread. Producers claim a slot by advancing a shared counter with a
+ * compare-and-set, and never wait for the consumer: when the buffer is full
+ * {@link #offer(Object)} fails immediately. Each slot carries a sequence
+ * number that tells the consumer when a claimed slot has been filled, and tells
+ * producers when it has been emptied.
+ * <p>
+ * Only one thread may call {@link #poll()} or {@link #drainTo(Collection, int)}.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ * @param <T> the type of element held
+ */
+public class LogRingBuffer<T> {
+
+	private final int mask;
+	private final AtomicReferenceArray<T> slots;
+
+	/**
+	 * Per slot, the position a producer can fill the slot at, or that position
+	 * plus one once the slot is filled
+	 */
+	private final AtomicLongArray sequences;
+
+	/** The next position for producers to claim */
+	private final AtomicLong tail = new AtomicLong();
+
+	/** The next position for the consumer to read. Only the consumer writes this. */
+	private volatile long head = 0;
+
+	/**
+	 * Create with the given capacity
+	 *
+	 * @param capacity the maximum number of elements held. This is rounded up to
+	 *                 a power of two.
+	 */
+	public LogRingBuffer(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive");
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		mask = size - 1;
+		slots = new AtomicReferenceArray<>(size);
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++)
+			sequences.set(i, i);
+	}
+
+	/**
+	 * Add an element if there is space. Never blocks.
+	 *
+	 * @param element the element to add
+	 * @return true if the element was added, false if the buffer was full
+	 */
+	public boolean offer(@NonNull T element) {
+		while (true) {
+			long position = tail.get();
+			int index = (int) position & mask;
+			long diff = sequences.get(index) - position;
+			if (diff == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					slots.set(index, element);
+					sequences.set(index, position + 1);
+					return true;
+				}
+			} else if (diff < 0) {
+				// The slot has not been emptied since the last lap
+				return false;
+			}
+			// Another producer claimed the position first; try the next
+		}
+	}
+
+	/**
+	 * Remove the oldest element
+	 *
+	 * @return the oldest element, or null if the buffer is empty
+	 */
+	public @Nullable T poll() {
+		long position = head;
+		int index = (int) position & mask;
+		if (sequences.get(index) != position + 1)
+			return null; // empty, or the producer has not finished filling the slot
+		T element = slots.get(index);
+		slots.set(index, null);
+		sequences.set(index, position + mask + 1);
+		head = position + 1;
+		return element;
+	}
+
+	/**
+	 * Remove elements in order into a collection
+	 *
+	 * @param target      the collection to add to
+	 * @param maxElements the maximum number of elements to remove
+	 * @return the number of elements removed
+	 */
+	public int drainTo(@NonNull Collection<? super T> target, int maxElements) {
+		int n = 0;
+		while (n < maxElements) {
+			T element = poll();
+			if (element == null)
+				break;
+			target.add(element);
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Test if the buffer appears empty. Elements being added concurrently may not
+	 * be seen.
+	 *
+	 * @return true if no elements are ready to be removed
+	 */
+	public boolean isEmpty() {
+		long position = head;
+		return sequences.get((int) position & mask) != position + 1;
+	}
+
+	/**
+	 * @return the maximum number of elements held
+	 */
+	public int capacity() {
+		return mask + 1;
+	}
+}
@@ -25,6 +25,7 @@ import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.bmskinner.nma.analysis.AbstractAnalysisMethod;
 import com.bmskinner.nma.analysis.nucleus.ConsensusAveragingMethod;
 import com.bmskinner.nma.analysis.nucleus.NucleusDetectionMethod;
 import com.bmskinner.nma.analysis.profiles.DatasetProfilingMethod;
@@ -82,15 +83,14 @@ public class BasicAnalysisPipeline {
 
 		LOGGER.info(() -> "Outputting data to folder: %s".formatted(outFolder.getAbsolutePath()));
 
-		IAnalysisDataset obs = new NucleusDetectionMethod(outFolder, op)
-				.call().getFirstDataset();
+		IAnalysisDataset obs = AbstractAnalysisMethod
+				.callRecorded(new NucleusDetectionMethod(outFolder, op)).getFirstDataset();
 
-		new DatasetProfilingMethod(obs)
+		AbstractAnalysisMethod.callRecorded(new DatasetProfilingMethod(obs)
 				.then(new DatasetSegmentationMethod(obs,
 						MorphologyAnalysisMode.SEGMENT_FROM_SCRATCH))
 				.then(new ConsensusAveragingMethod(obs))
-				.then(new DatasetExportMethod(obs, saveFile))
-				.call();
+				.then(new DatasetExportMethod(obs, saveFile)));
 	}
 
 }
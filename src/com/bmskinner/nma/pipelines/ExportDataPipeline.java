@@ -8,6 +8,7 @@ import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.bmskinner.nma.analysis.AbstractAnalysisMethod;
 import com.bmskinner.nma.analysis.nucleus.ConsensusAveragingMethod;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
 import com.bmskinner.nma.components.measure.MeasurementScale;
@@ -26,7 +27,6 @@ import com.bmskinner.nma.io.DatasetShellsExporter;
 import com.bmskinner.nma.io.DatasetSignalsExporter;
 import com.bmskinner.nma.io.Io;
 import com.bmskinner.nma.io.SVGWriter;
-import com.bmskinner.nma.io.XMLImportMethod;
 import com.bmskinner.nma.io.XMLWriter;
 
 public class ExportDataPipeline {
@@ -91,9 +91,7 @@ public class ExportDataPipeline {
 	}
 
 	private List<IAnalysisDataset> readDataset() throws Exception {
-		XMLImportMethod m = new XMLImportMethod(opt.file);
-		m.call();
-		root = new DatasetImportMethod(m.getXMLDocument()).call()
+		root = AbstractAnalysisMethod.callRecorded(new DatasetImportMethod(opt.file))
 				.getFirstDataset();
 
 		List<IAnalysisDataset> datasets = new ArrayList<>();
@@ -111,15 +109,16 @@ public class ExportDataPipeline {
 		HashOptions exportOptions = new DefaultOptions();
 		exportOptions.setInt(HashOptions.EXPORT_PROFILE_INTERPOLATION_LENGTH, 100);
 
-		new DatasetMeasurementsExporter(statsFile, datasets, exportOptions)
-				.call();
+		AbstractAnalysisMethod.callRecorded(
+				new DatasetMeasurementsExporter(statsFile, datasets, exportOptions));
 	}
 
 	private void exportProfiles() throws Exception {
 		File statsFile = new File(root.getSavePath().getParentFile(),
 				root.getSavePath().getName() + ".profiles" + Io.TAB_FILE_EXTENSION);
 		LOGGER.info("Exporting profiles to: " + statsFile.getAbsolutePath());
-		new DatasetProfileExporter(statsFile, datasets, new DefaultOptions()).call();
+		AbstractAnalysisMethod.callRecorded(
+				new DatasetProfileExporter(statsFile, datasets, new DefaultOptions()));
 	}
 
 	private void exportOutlines() throws Exception {
@@ -127,7 +126,8 @@ public class ExportDataPipeline {
 				root.getSavePath().getName() + ".outlines" + Io.TAB_FILE_EXTENSION);
 		LOGGER.info("Exporting outlines to: " + statsFile.getAbsolutePath());
 
-		new DatasetOutlinesExporter(statsFile, datasets, new DefaultOptions()).call();
+		AbstractAnalysisMethod.callRecorded(
+				new DatasetOutlinesExporter(statsFile, datasets, new DefaultOptions()));
 	}
 
 	private void exportSignals() throws Exception {
@@ -135,7 +135,8 @@ public class ExportDataPipeline {
 				root.getSavePath().getName() + ".signals" + Io.TAB_FILE_EXTENSION);
 		LOGGER.info("Exporting signals to: " + statsFile.getAbsolutePath());
 
-		new DatasetSignalsExporter(statsFile, datasets, new DefaultOptions()).call();
+		AbstractAnalysisMethod.callRecorded(
+				new DatasetSignalsExporter(statsFile, datasets, new DefaultOptions()));
 	}
 
 	private void exportShells() throws Exception {
@@ -143,7 +144,8 @@ public class ExportDataPipeline {
 				root.getSavePath().getName() + ".shells" + Io.TAB_FILE_EXTENSION);
 		LOGGER.info("Exporting shells to: " + statsFile.getAbsolutePath());
 
-		new DatasetShellsExporter(statsFile, datasets, new DefaultOptions()).call();
+		AbstractAnalysisMethod.callRecorded(
+				new DatasetShellsExporter(statsFile, datasets, new DefaultOptions()));
 	}
 
 	private void exportSingleCellImages() throws Exception {
@@ -160,7 +162,7 @@ public class ExportDataPipeline {
 				false);
 		exportOptions.setBoolean(CellImageExportMethod.SINGLE_CELL_IMAGE_IS_EXPORT_KEYPOINTS_KEY,
 				true);
-		new CellImageExportMethod(datasets, exportOptions).call();
+		AbstractAnalysisMethod.callRecorded(new CellImageExportMethod(datasets, exportOptions));
 	}
 
 	private void exportAnalysisOptions() throws Exception {
@@ -168,7 +170,7 @@ public class ExportDataPipeline {
 				root.getSavePath().getName() + ".analysis-options" + Io.XML_FILE_EXTENSION);
 		LOGGER.info("Exporting analysis options to: " + outFile.getAbsolutePath());
 
-		new DatasetOptionsExportMethod(root, outFile).call();
+		AbstractAnalysisMethod.callRecorded(new DatasetOptionsExportMethod(root, outFile));
 	}
 
 	private void exportRulesets() throws Exception {
@@ -192,13 +194,13 @@ public class ExportDataPipeline {
 		// Ensure all datasets have a consensus
 		for (IAnalysisDataset ds : datasets) {
 			if (!ds.getCollection().hasConsensus())
-				new ConsensusAveragingMethod(ds).call();
+				AbstractAnalysisMethod.callRecorded(new ConsensusAveragingMethod(ds));
 		}
 
 		new SVGWriter(outFile).exportConsensusOutlines(datasets, MeasurementScale.MICRONS);
 	}
 
 	private void exportCellLocations() throws Exception {
-		new CellFileExporter(datasets).call();
+		AbstractAnalysisMethod.callRecorded(new CellFileExporter(datasets));
 	}
 }
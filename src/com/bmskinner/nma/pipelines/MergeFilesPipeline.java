@@ -2,11 +2,14 @@ package com.bmskinner.nma.pipelines;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.bmskinner.nma.analysis.AbstractAnalysisMethod;
+import com.bmskinner.nma.analysis.AnalysisMethodException;
 import com.bmskinner.nma.analysis.DatasetMergeMethod;
 import com.bmskinner.nma.analysis.nucleus.ConsensusAveragingMethod;
 import com.bmskinner.nma.analysis.profiles.DatasetProfilingMethod;
@@ -17,7 +20,6 @@ import com.bmskinner.nma.core.CommandOptions;
 import com.bmskinner.nma.gui.dialogs.DatasetArithmeticSetupDialog.BooleanOperation;
 import com.bmskinner.nma.io.DatasetExportMethod;
 import com.bmskinner.nma.io.DatasetImportMethod;
-import com.bmskinner.nma.io.XMLImportMethod;
 
 public class MergeFilesPipeline {
 
@@ -46,29 +48,58 @@ public class MergeFilesPipeline {
 
 	private void mergeDatasets() throws Exception {
 
-		List<IAnalysisDataset> sources = new ArrayList<>();
+		// Merge the first two datasets, then add the others one at a time so only
+		// one source dataset is held in memory with the merge
+		Iterator<File> files = opt.mergeSources.iterator();
+		IAnalysisDataset merged = mergeFirst(files);
 
-		for (File f : opt.mergeSources) {
-			XMLImportMethod m = new XMLImportMethod(f);
-			m.call();
-			IAnalysisDataset d = new DatasetImportMethod(m.getXMLDocument()).call()
-					.getFirstDataset();
-			sources.add(d);
-			LOGGER.info(
-					() -> "Read %s with %d cells".formatted(d.getName(), d.getCollection().size()));
+		while (files.hasNext()) {
+			File f = files.next();
+			IAnalysisDataset d = readDataset(f);
+			merge(new DatasetMergeMethod(merged, List.of(d), null), f);
 		}
 
-		LOGGER.info("Merging into " + opt.output.getAbsolutePath());
-		IAnalysisDataset merged = new DatasetMergeMethod(sources, BooleanOperation.OR, opt.output)
-				.call()
-				.getFirstDataset();
-
-		new DatasetProfilingMethod(merged)
+		AbstractAnalysisMethod.callRecorded(new DatasetProfilingMethod(merged)
 				.then(new DatasetSegmentationMethod(merged,
 						MorphologyAnalysisMode.SEGMENT_FROM_SCRATCH))
 				.then(new ConsensusAveragingMethod(merged))
-				.then(new DatasetExportMethod(merged, merged.getSavePath()))
-				.call();
+				.then(new DatasetExportMethod(merged, merged.getSavePath())));
+	}
+
+	private IAnalysisDataset mergeFirst(Iterator<File> files) throws Exception {
+		List<IAnalysisDataset> sources = new ArrayList<>();
+		while (files.hasNext() && sources.size() < 2)
+			sources.add(readDataset(files.next()));
+
+		LOGGER.info("Merging into " + opt.output.getAbsolutePath());
+		return merge(new DatasetMergeMethod(sources, BooleanOperation.OR, opt.output),
+				opt.output);
+	}
+
+	/**
+	 * Run a merge. The merge method reports datasets that cannot be merged, such
+	 * as those with different rulesets, by not returning a dataset.
+	 * 
+	 * @param method the merge to run
+	 * @param f      the file being merged, for error messages
+	 * @return the merged dataset
+	 * @throws AnalysisMethodException if the merge did not create a dataset
+	 */
+	private IAnalysisDataset merge(DatasetMergeMethod method, File f) throws Exception {
+		IAnalysisDataset merged = AbstractAnalysisMethod.callRecorded(method)
+				.getFirstDataset();
+		if (merged == null)
+			throw new AnalysisMethodException(
+					"Unable to merge %s".formatted(f.getAbsolutePath()));
+		return merged;
+	}
+
+	private IAnalysisDataset readDataset(File f) throws Exception {
+		IAnalysisDataset d = AbstractAnalysisMethod.callRecorded(new DatasetImportMethod(f))
+				.getFirstDataset();
+		LOGGER.info(
+				() -> "Read %s with %d cells".formatted(d.getName(), d.getCollection().size()));
+		return d;
 	}
 
 }
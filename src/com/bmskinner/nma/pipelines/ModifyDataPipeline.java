@@ -19,7 +19,6 @@ import com.bmskinner.nma.components.options.MissingOptionException;
 import com.bmskinner.nma.core.CommandOptions;
 import com.bmskinner.nma.io.DatasetExportMethod;
 import com.bmskinner.nma.io.DatasetImportMethod;
-import com.bmskinner.nma.io.XMLImportMethod;
 import com.bmskinner.nma.io.XMLReader;
 
 public class ModifyDataPipeline {
@@ -60,10 +59,7 @@ public class ModifyDataPipeline {
 	}
 
 	private IAnalysisDataset readDataset() throws Exception {
-		XMLImportMethod m = new XMLImportMethod(opt.file);
-		m.call();
-
-		return new DatasetImportMethod(m.getXMLDocument()).call()
+		return new DatasetImportMethod(opt.file).call()
 				.getFirstDataset();
 	}
 
@@ -194,8 +194,8 @@ public class SavedOptionsAnalysisPipeline extends AbstractAnalysisMethod
 	private List<IAnalysisDataset> createNucleusDetectionMethod(@NonNull IAnalysisOptions options,
 			File imageFolder) throws Exception {
 		options.setDetectionFolder(CellularComponent.NUCLEUS, imageFolder);
-		List<IAnalysisDataset> datasets = new NucleusDetectionMethod(outputFolder, options).call()
-				.getDatasets();
+		List<IAnalysisDataset> datasets = callRecorded(
+				new NucleusDetectionMethod(outputFolder, options)).getDatasets();
 		for (IAnalysisDataset dataset : datasets) {
 			methodsToRun.add(new DatasetProfilingMethod(dataset));
 			methodsToRun.add(new DatasetSegmentationMethod(dataset,
@@ -336,7 +336,7 @@ public class SavedOptionsAnalysisPipeline extends AbstractAnalysisMethod
 	private void run(@NonNull List<IAnalysisMethod> methods) throws Exception {
 		for (IAnalysisMethod method : methods) {
 			method.addProgressListener(this);
-			method.call();
+			callRecorded(method);
 			method.removeProgressListener(this);
 			fireProgressEvent();
 		}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.stats;
+
+/**
+ * In-place selection of order statistics from primitive arrays. This avoids
+ * the boxing and full sort of {@link Stats#quartile(double[], int)}, while
+ * giving identical results: quartiles use the same interpolation as the
+ * default (legacy) estimator of the commons-math {@code Percentile} class.
+ * <p>
+ * All methods reorder the values in the working range of the given array.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class QuickSelect {
+
+	private QuickSelect() {
+	} // static access only
+
+	/**
+	 * Find the median of the first {@code length} values in the array. The array
+	 * is reordered.
+	 * 
+	 * @param values the values
+	 * @param length the number of values to consider
+	 * @return the median, as {@link Stats#quartile(double[], int)}
+	 */
+	public static double median(double[] values, int length) {
+		return quartile(values, length, Stats.MEDIAN);
+	}
+
+	/**
+	 * Find the given quartile of the first {@code length} values in the array. The
+	 * array is reordered.
+	 * 
+	 * @param values   the values
+	 * @param length   the number of values to consider
+	 * @param quartile the quartile to find, from 0-100
+	 * @return the quartile value, as {@link Stats#quartile(double[], int)}
+	 */
+	public static double quartile(double[] values, int length, int quartile) {
+		if (values == null || length == 0)
+			throw new IllegalArgumentException(Stats.NULL_OR_EMPTY_ARRAY_ERROR);
+
+		if (length == 1)
+			return values[0];
+
+		double p = quartile / (double) Stats.ONE_HUNDRED_PERCENT;
+		double pos = p == 0 ? 0 : p == 1 ? length : p * (length + 1);
+		double fpos = Math.floor(pos);
+		int intPos = (int) fpos;
+		double dif = pos - fpos;
+
+		if (pos < 1)
+			return select(values, 0, length, 0);
+		if (pos >= length)
+			return select(values, 0, length, length - 1);
+
+		double lower = select(values, 0, length, intPos - 1);
+
+		// After selection everything above the lower index is at least as large, so
+		// the next order statistic is the minimum of the upper partition
+		double upper = values[intPos];
+		for (int i = intPos + 1; i < length; i++)
+			if (values[i] < upper)
+				upper = values[i];
+		return lower + dif * (upper - lower);
+	}
+
+	/**
+	 * Find the given quartile of the first {@code length} values in the array. The
+	 * array is reordered.
+	 * 
+	 * @param values   the values
+	 * @param length   the number of values to consider
+	 * @param quartile the quartile to find, from 0-100
+	 * @return the quartile value, as {@link Stats#quartile(float[], int)}
+	 */
+	public static float quartile(float[] values, int length, int quartile) {
+		if (values == null || length == 0)
+			throw new IllegalArgumentException(Stats.NULL_OR_EMPTY_ARRAY_ERROR);
+
+		if (length == 1)
+			return values[0];
+
+		double p = quartile / (double) Stats.ONE_HUNDRED_PERCENT;
+		double pos = p == 0 ? 0 : p == 1 ? length : p * (length + 1);
+		double fpos = Math.floor(pos);
+		int intPos = (int) fpos;
+		double dif = pos - fpos;
+
+		if (pos < 1)
+			return select(values, 0, length, 0);
+		if (pos >= length)
+			return select(values, 0, length, length - 1);
+
+		double lower = select(values, 0, length, intPos - 1);
+		float upper = values[intPos];
+		for (int i = intPos + 1; i < length; i++)
+			if (values[i] < upper)
+				upper = values[i];
+		return (float) (lower + dif * (upper - lower));
+	}
+
+	/**
+	 * Find the k-th smallest value in the range [from, to) of the array. The
+	 * range is partially reordered so that the k-th value is at index k, smaller
+	 * values are before it, and larger values after it. Repeated values do not
+	 * degrade the running time.
+	 * 
+	 * @param values the values
+	 * @param from   the first index of the range, inclusive
+	 * @param to     the last index of the range, exclusive
+	 * @param k      the index of the value to find
+	 * @return the k-th smallest value
+	 */
+	public static double select(double[] values, int from, int to, int k) {
+		int left = from;
+		int right = to - 1;
+		while (right > left) {
+			int pivotIndex = medianOfThree(values, left, (left + right) >>> 1, right);
+			double pivot = values[pivotIndex];
+
+			// Three-way partition: [left, lt) < pivot, [lt, gt] == pivot,
+			// (gt, right] > pivot. Runs of equal values are settled in one pass
+			int lt = left;
+			int gt = right;
+			int i = left;
+			while (i <= gt) {
+				int c = Double.compare(values[i], pivot);
+				if (c < 0)
+					swap(values, i++, lt++);
+				else if (c > 0)
+					swap(values, i, gt--);
+				else
+					i++;
+			}
+
+			if (k < lt)
+				right = lt - 1;
+			else if (k > gt)
+				left = gt + 1;
+			else
+				return values[k];
+		}
+		return values[k];
+	}
+
+	/**
+	 * Find the k-th smallest value in the range [from, to) of the array. The
+	 * range is partially reordered so that the k-th value is at index k, smaller
+	 * values are before it, and larger values after it. Repeated values do not
+	 * degrade the running time.
+	 * 
+	 * @param values the values
+	 * @param from   the first index of the range, inclusive
+	 * @param to     the last index of the range, exclusive
+	 * @param k      the index of the value to find
+	 * @return the k-th smallest value
+	 */
+	public static float select(float[] values, int from, int to, int k) {
+		int left = from;
+		int right = to - 1;
+		while (right > left) {
+			int pivotIndex = medianOfThree(values, left, (left + right) >>> 1, right);
+			float pivot = values[pivotIndex];
+
+			// Three-way partition: [left, lt) < pivot, [lt, gt] == pivot,
+			// (gt, right] > pivot. Runs of equal values are settled in one pass
+			int lt = left;
+			int gt = right;
+			int i = left;
+			while (i <= gt) {
+				int c = Float.compare(values[i], pivot);
+				if (c < 0)
+					swap(values, i++, lt++);
+				else if (c > 0)
+					swap(values, i, gt--);
+				else
+					i++;
+			}
+
+			if (k < lt)
+				right = lt - 1;
+			else if (k > gt)
+				left = gt + 1;
+			else
+				return values[k];
+		}
+		return values[k];
+	}
+
+	private static int medianOfThree(double[] v, int a, int b, int c) {
+		if (Double.compare(v[a], v[b]) < 0) {
+			if (Double.compare(v[b], v[c]) < 0)
+				return b;
+			return Double.compare(v[a], v[c]) < 0 ? c : a;
+		}
+		if (Double.compare(v[a], v[c]) < 0)
+			return a;
+		return Double.compare(v[b], v[c]) < 0 ? c : b;
+	}
+
+	private static int medianOfThree(float[] v, int a, int b, int c) {
+		if (Float.compare(v[a], v[b]) < 0) {
+			if (Float.compare(v[b], v[c]) < 0)
+				return b;
+			return Float.compare(v[a], v[c]) < 0 ? c : a;
+		}
+		if (Float.compare(v[a], v[c]) < 0)
+			return a;
+		return Float.compare(v[b], v[c]) < 0 ? c : b;
+	}
+
+	private static void swap(double[] v, int i, int j) {
+		double t = v[i];
+		v[i] = v[j];
+		v[j] = t;
+	}
+
+	private static void swap(float[] v, int i, int j) {
+		float t = v[i];
+		v[i] = v[j];
+		v[j] = t;
+	}
+}
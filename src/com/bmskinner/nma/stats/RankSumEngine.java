@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Ben Skinner
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package com.bmskinner.nma.stats;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.bmskinner.nma.stats.Stats.WilcoxonRankSumResult;
+
+/**
+ * Pairwise Wilcoxon rank-sum (Mann-Whitney U) tests between a group of
+ * samples. Each sample is sorted once when the engine is created. The rank sum
+ * for a pair of samples is then found by merging their sorted values, giving
+ * tied values the average of their ranks, rather than by ranking the combined
+ * values of every pair afresh. Tests across all pairs run in parallel.
+ * <p>
+ * Results match {@link org.apache.commons.math3.stat.inference.MannWhitneyUTest}:
+ * U is the larger of the two U statistics, and the two-sided p-value uses the
+ * normal approximation without a correction for ties. A sample containing NaN
+ * gives NaN results.
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class RankSumEngine {
+
+	/** The standard normal distribution. Only used for probabilities. */
+	private static final NormalDistribution STANDARD_NORMAL = new NormalDistribution(null, 0, 1);
+
+	/** The values of each sample in ascending order */
+	private final double[][] sorted;
+
+	/** Whether each sample contains NaN */
+	private final boolean[] hasNaN;
+
+	/**
+	 * Create with the samples to compare
+	 * 
+	 * @param samples the samples. These are not modified.
+	 */
+	public RankSumEngine(@NonNull List<double[]> samples) {
+		sorted = new double[samples.size()][];
+		hasNaN = new boolean[samples.size()];
+		IntStream.range(0, sorted.length).parallel().forEach(i -> {
+			double[] s = samples.get(i).clone();
+			Arrays.sort(s);
+			sorted[i] = s;
+			hasNaN[i] = s.length > 0 && Double.isNaN(s[s.length - 1]);
+		});
+	}
+
+	/**
+	 * @return the number of samples
+	 */
+	public int sampleCount() {
+		return sorted.length;
+	}
+
+	/**
+	 * Test a pair of samples
+	 * 
+	 * @param i the index of the first sample
+	 * @param j the index of the second sample
+	 * @return the U statistic and uncorrected p-value
+	 */
+	public WilcoxonRankSumResult test(int i, int j) {
+		double[] x = sorted[i];
+		double[] y = sorted[j];
+		if (x.length == 0 || y.length == 0)
+			throw new IllegalArgumentException(Stats.NULL_OR_EMPTY_ARRAY_ERROR);
+
+		if (hasNaN[i] || hasNaN[j])
+			return new WilcoxonRankSumResult(Double.NaN, Double.NaN);
+
+		double n1 = x.length;
+		double n2 = y.length;
+
+		double u1 = rankSum(x, y) - n1 * (n1 + 1) / 2;
+		double u = Math.max(u1, n1 * n2 - u1);
+		return new WilcoxonRankSumResult(u, pValue(n1 * n2 - u, n1, n2));
+	}
+
+	/**
+	 * Test every pair of samples, and apply a Bonferroni correction to the
+	 * p-values
+	 * 
+	 * @param nComparisons the number of simultaneous comparisons for the
+	 *                     correction. This should cover all the pairs in the
+	 *                     table being tested.
+	 * @return the corrected results for each pair i&lt;j at [i][j]. Other entries
+	 *         are null.
+	 */
+	public WilcoxonRankSumResult[][] testAllPairs(int nComparisons) {
+		int n = sorted.length;
+		WilcoxonRankSumResult[][] result = new WilcoxonRankSumResult[n][n];
+
+		// Pairs are numbered along the rows of the upper triangle
+		int nPairs = n * (n - 1) / 2;
+		IntStream.range(0, nPairs).parallel().forEach(k -> {
+			int i = 0;
+			int rowStart = 0;
+			while (k >= rowStart + n - 1 - i) {
+				rowStart += n - 1 - i;
+				i++;
+			}
+			int j = i + 1 + k - rowStart;
+			WilcoxonRankSumResult r = test(i, j);
+			result[i][j] = new WilcoxonRankSumResult(r.u(), correct(r.p(), nComparisons));
+		});
+		return result;
+	}
+
+	/**
+	 * Apply a Bonferroni correction to a p-value
+	 * 
+	 * @param p            the uncorrected p-value
+	 * @param nComparisons the number of simultaneous comparisons
+	 * @return the corrected p-value, limited to 1
+	 */
+	public static double correct(double p, int nComparisons) {
+		double corrected = p * nComparisons;
+		return corrected > SignificanceTest.ONE ? SignificanceTest.ONE : corrected;
+	}
+
+	/**
+	 * Find the sum of the ranks of the first sample in the combined samples by
+	 * merging the sorted values. Tied values share the average of their ranks.
+	 */
+	private static double rankSum(double[] x, double[] y) {
+		double sum = 0;
+		int a = 0;
+		int b = 0;
+		int rank = 0; // ranks used so far
+		while (a < x.length || b < y.length) {
+			double v = b == y.length || (a < x.length && x[a] <= y[b]) ? x[a] : y[b];
+
+			int inX = 0;
+			while (a < x.length && x[a] == v) {
+				a++;
+				inX++;
+			}
+			int inY = 0;
+			while (b < y.length && y[b] == v) {
+				b++;
+				inY++;
+			}
+
+			int tied = inX + inY;
+			sum += inX * (rank + (tied + 1) / 2d);
+			rank += tied;
+		}
+		return sum;
+	}
+
+	/**
+	 * Two-sided p-value from the normal approximation to the distribution of U
+	 */
+	private static double pValue(double uMin, double n1, double n2) {
+		double n1n2 = n1 * n2;
+		double mean = n1n2 / 2;
+		double variance = n1n2 * (n1 + n2 + 1) / 12;
+		double z = (uMin - mean) / Math.sqrt(variance);
+		return 2 * STANDARD_NORMAL.cumulativeProbability(z);
+	}
+}
@@ -29,6 +29,7 @@ import java.awt.Rectangle;
 import java.awt.Shape;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.DoubleStream;
 
 import org.apache.commons.math3.distribution.NormalDistribution;
@@ -37,7 +38,6 @@ import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.apache.commons.math3.stat.inference.KolmogorovSmirnovTest;
-import org.apache.commons.math3.stat.inference.MannWhitneyUTest;
 import org.apache.commons.math3.stat.inference.OneWayAnova;
 import org.eclipse.jdt.annotation.NonNull;
 
@@ -275,7 +275,8 @@ public class Stats {
 
 	/**
 	 * Run a Wilcoxon test on the given arrays and return a Bonnferroni corrected
-	 * p-value based on the total number of comparisons.
+	 * p-value based on the total number of comparisons. To compare more than two
+	 * samples, use a {@link RankSumEngine} so each sample is only sorted once.
 	 * 
 	 * @param values0      the first array of values
 	 * @param values1      the second array of values
@@ -285,19 +286,8 @@ public class Stats {
 	 */
 	public static WilcoxonRankSumResult runWilcoxonTest(double[] values0, double[] values1,
 			int nComparisons) {
-
-		MannWhitneyUTest test = new MannWhitneyUTest(); // default, NaN's are
-														// left in place and
-														// ties get the average
-														// of applicable ranks
-
-		double p = test.mannWhitneyUTest(values0, values1);
-		p *= nComparisons; // Bonferroni correction
-		p = p > SignificanceTest.ONE ? SignificanceTest.ONE : p; // limit p to 1
-
-		double u = test.mannWhitneyU(values0, values1);
-
-		return new WilcoxonRankSumResult(u, p);
+		WilcoxonRankSumResult r = new RankSumEngine(List.of(values0, values1)).test(0, 1);
+		return new WilcoxonRankSumResult(r.u(), RankSumEngine.correct(r.p(), nComparisons));
 	}
 
 	/**
@@ -18,6 +18,7 @@ package com.bmskinner.nma.visualisation.image;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
@@ -28,7 +29,7 @@ import javax.swing.ImageIcon;
 
 import org.eclipse.jdt.annotation.NonNull;
 
-import com.bmskinner.nma.analysis.image.CannyEdgeDetector;
+import com.bmskinner.nma.analysis.image.CannyEdgeEngine;
 import com.bmskinner.nma.analysis.image.KuwaharaFilter;
 import com.bmskinner.nma.components.ComponentOrienter;
 import com.bmskinner.nma.components.Imageable;
@@ -497,6 +498,33 @@ public class ImageFilterer {
 	public static ImageProcessor crop(ImageProcessor ip, CellularComponent c) {
 		if (ip == null)
 			throw new IllegalArgumentException("Image processor is null");
+		ip.setRoi(getCropBounds(c));
+		return ip.crop();
+	}
+
+	/**
+	 * Get the region of an image that will be kept when cropping to the given
+	 * cell. The cytoplasm is used if present, otherwise the primary nucleus.
+	 * 
+	 * @param c the cell to crop to
+	 * @return the crop region. This may extend past the right and bottom edges of
+	 *         the image.
+	 */
+	public static Rectangle getCropBounds(ICell c) {
+		if (c.hasCytoplasm())
+			return getCropBounds(c.getCytoplasm());
+		return getCropBounds(c.getPrimaryNucleus());
+	}
+
+	/**
+	 * Get the region of an image that will be kept when cropping to the given
+	 * component
+	 * 
+	 * @param c the component to crop to
+	 * @return the crop region. This may extend past the right and bottom edges of
+	 *         the image.
+	 */
+	public static Rectangle getCropBounds(CellularComponent c) {
 		// Choose a clip for the image (an enlargement of the original nucleus ROI
 		int wideW = (int) c.getWidth() + Imageable.COMPONENT_BUFFER * 2;
 		int wideH = (int) c.getHeight() + Imageable.COMPONENT_BUFFER * 2;
@@ -506,8 +534,7 @@ public class ImageFilterer {
 		wideX = wideX < 0 ? 0 : wideX;
 		wideY = wideY < 0 ? 0 : wideY;
 
-		ip.setRoi(wideX, wideY, wideW, wideH);
-		return ip.crop();
+		return new Rectangle(wideX, wideY, wideW, wideH);
 	}
 
 	/**
@@ -1463,26 +1490,13 @@ public class ImageFilterer {
 	 */
 	public ImageFilterer cannyEdgeDetection(@NonNull HashOptions options) {
 		LOGGER.finest("Running Canny edge detection");
-		ByteProcessor result = null;
 
 		// // calculation of auto threshold
 		if (options.getBoolean(HashOptions.CANNY_IS_AUTO_THRESHOLD)) {
 			autoDetectCannyThresholds(options, ip);
 		}
 
-		CannyEdgeDetector canny = new CannyEdgeDetector(options);
-		canny.setSourceImage(ip.duplicate().getBufferedImage());
-
-		canny.process();
-		BufferedImage edges = canny.getEdgesImage();
-
-		// convert to an unsigned byte processor
-		BufferedImage converted = new BufferedImage(edges.getWidth(), edges.getHeight(),
-				BufferedImage.TYPE_BYTE_GRAY);
-		converted.getGraphics().drawImage(edges, 0, 0, null);
-
-		result = new ByteProcessor(converted);
-		ip = result;
+		ip = new CannyEdgeEngine(options).process(ip);
 		LOGGER.finest("Ran Canny edge detection");
 		return this;
 	}
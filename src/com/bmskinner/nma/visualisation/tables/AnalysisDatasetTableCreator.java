@@ -17,7 +17,9 @@
 package com.bmskinner.nma.visualisation.tables;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -39,6 +41,7 @@ import com.bmskinner.nma.components.profiles.ProfileType;
 import com.bmskinner.nma.components.rules.OrientationMark;
 import com.bmskinner.nma.core.DatasetListManager;
 import com.bmskinner.nma.logging.Loggable;
+import com.bmskinner.nma.stats.RankSumEngine;
 import com.bmskinner.nma.stats.Stats;
 import com.bmskinner.nma.stats.Stats.WilcoxonRankSumResult;
 import com.bmskinner.nma.visualisation.options.AbstractOptions;
@@ -223,7 +226,6 @@ public class AnalysisDatasetTableCreator extends AbstractTableCreator {
 	 */
 	private List<WilcoxDatasetResult> calculateNuclearWilcoxonResults()
 			throws MissingDataException, SegmentUpdateException {
-		List<WilcoxDatasetResult> results = new ArrayList<>();
 
 		// Bonferroni correction on number of datasets and number of measurement types
 		int nComparisons = (options.datasetCount() * (options.datasetCount() - 1)) / 2;
@@ -231,28 +233,12 @@ public class AnalysisDatasetTableCreator extends AbstractTableCreator {
 
 		Measurement stat = options.getMeasurement();
 
+		List<double[]> values = new ArrayList<>();
 		for (IAnalysisDataset dataset : options.getDatasets()) {
-			double[] d1Values = dataset.getCollection().getRawValues(stat,
-					CellularComponent.NUCLEUS,
-					MeasurementScale.PIXELS);
-			for (IAnalysisDataset d2 : options.getDatasets()) {
-
-				if (dataset.getId().equals(d2.getId()))
-					continue;
-				long idVal = WilcoxDatasetResult.toId(dataset, d2);
-				if (results.stream().anyMatch(w -> w.id() == idVal)) {
-					continue; // don't do reciprocal comparison
-				}
-
-				double[] d2Values = d2.getCollection().getRawValues(stat, CellularComponent.NUCLEUS,
-						MeasurementScale.PIXELS);
-
-				WilcoxonRankSumResult wilcox = Stats.runWilcoxonTest(d1Values, d2Values,
-						nComparisons);
-				results.add(new WilcoxDatasetResult(idVal, wilcox));
-			}
+			values.add(dataset.getCollection().getRawValues(stat, CellularComponent.NUCLEUS,
+					MeasurementScale.PIXELS));
 		}
-		return results;
+		return calculateWilcoxonResults(values, nComparisons);
 	}
 
 	/**
@@ -265,46 +251,49 @@ public class AnalysisDatasetTableCreator extends AbstractTableCreator {
 	private List<WilcoxDatasetResult> calculateSegmentWilcoxonResults()
 			throws MissingDataException,
 			SegmentUpdateException {
-		List<WilcoxDatasetResult> results = new ArrayList<>();
 		int nComparisons = (options.datasetCount() * (options.datasetCount() - 1)) / 2;
 
+		List<double[]> values = new ArrayList<>();
 		for (IAnalysisDataset dataset : options.getDatasets()) {
 
-			IProfileSegment medianSeg1 = dataset.getCollection().getProfileCollection()
+			IProfileSegment medianSeg = dataset.getCollection().getProfileCollection()
 					.getSegmentedProfile(ProfileType.ANGLE, OrientationMark.REFERENCE, Stats.MEDIAN)
 					.getSegments()
 					.get(options.getSegPosition());
 
-			double[] d1Values = dataset.getCollection().getRawValues(Measurement.LENGTH,
+			values.add(dataset.getCollection().getRawValues(Measurement.LENGTH,
 					CellularComponent.NUCLEAR_BORDER_SEGMENT, MeasurementScale.PIXELS,
-					medianSeg1.getID());
-
-			for (IAnalysisDataset d2 : options.getDatasets()) {
+					medianSeg.getID()));
+		}
+		return calculateWilcoxonResults(values, nComparisons);
+	}
 
-				if (dataset.getId().equals(d2.getId()))
+	/**
+	 * Run Wilcoxon rank sum tests between each pair of datasets
+	 * 
+	 * @param values       the values for each dataset, in dataset order
+	 * @param nComparisons the number of comparisons for Bonferroni correction
+	 * @return the results for each pair of datasets
+	 */
+	private List<WilcoxDatasetResult> calculateWilcoxonResults(List<double[]> values,
+			int nComparisons) {
+		List<IAnalysisDataset> datasets = options.getDatasets();
+		WilcoxonRankSumResult[][] pairs = new RankSumEngine(values).testAllPairs(nComparisons);
+
+		Map<Long, WilcoxDatasetResult> results = new LinkedHashMap<>();
+		for (int i = 0; i < datasets.size(); i++) {
+			for (int j = i + 1; j < datasets.size(); j++) {
+				IAnalysisDataset d1 = datasets.get(i);
+				IAnalysisDataset d2 = datasets.get(j);
+				if (d1.getId().equals(d2.getId()))
 					continue;
 
-				long idVal = WilcoxDatasetResult.toId(dataset, d2);
-				if (results.stream().anyMatch(w -> w.id() == idVal)) {
-					continue; // don't do reciprocal comparison
-				}
-
-				IProfileSegment medianSeg2 = d2.getCollection().getProfileCollection()
-						.getSegmentedProfile(ProfileType.ANGLE, OrientationMark.REFERENCE,
-								Stats.MEDIAN)
-						.getSegments()
-						.get(options.getSegPosition());
-
-				double[] d2Values = d2.getCollection().getRawValues(Measurement.LENGTH,
-						CellularComponent.NUCLEAR_BORDER_SEGMENT, MeasurementScale.PIXELS,
-						medianSeg2.getID());
-
-				WilcoxonRankSumResult wilcox = Stats.runWilcoxonTest(d1Values, d2Values,
-						nComparisons);
-				results.add(new WilcoxDatasetResult(idVal, wilcox));
+				// don't do reciprocal comparison
+				long idVal = WilcoxDatasetResult.toId(d1, d2);
+				results.putIfAbsent(idVal, new WilcoxDatasetResult(idVal, pairs[i][j]));
 			}
 		}
-		return results;
+		return new ArrayList<>(results.values());
 	}
 
 	/**
@@ -9,7 +9,9 @@ import javax.swing.table.AbstractTableModel;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.bmskinner.nma.analysis.nucleus.CellSetAlgebra;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.datasets.ICellCollection;
 
 public abstract class DatasetTableModel extends AbstractTableModel {
 	private static final Logger LOGGER = Logger.getLogger(DatasetTableModel.class.getName());
@@ -39,4 +41,27 @@ public abstract class DatasetTableModel extends AbstractTableModel {
 		return names.toArray(new String[0]);
 	}
 
+	/**
+	 * Count the cells shared between each pair of datasets. As in
+	 * {@link ICellCollection#countShared(ICellCollection)}, datasets with
+	 * different rulesets share no cells.
+	 * 
+	 * @param datasets the datasets to compare
+	 * @return a symmetric matrix of shared counts, indexed by dataset
+	 */
+	protected static int[][] countShared(@NonNull List<IAnalysisDataset> datasets) {
+		List<ICellCollection> collections = datasets.stream()
+				.map(IAnalysisDataset::getCollection).toList();
+		int[][] shared = new CellSetAlgebra(collections).countShared();
+
+		for (int i = 0; i < collections.size(); i++) {
+			for (int j = 0; j < collections.size(); j++) {
+				if (!collections.get(i).getRuleSetCollection()
+						.equals(collections.get(j).getRuleSetCollection()))
+					shared[i][j] = 0;
+			}
+		}
+		return shared;
+	}
+
 }
@@ -2,23 +2,27 @@ package com.bmskinner.nma.visualisation.tables;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.eclipse.jdt.annotation.Nullable;
 
-import com.bmskinner.nma.analysis.image.MultiScaleStructuralSimilarityIndex;
+import com.bmskinner.nma.analysis.image.MultiScaleStructuralSimilarityEngine;
 import com.bmskinner.nma.analysis.image.MultiScaleStructuralSimilarityIndex.MSSIMScore;
+import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
 import com.bmskinner.nma.components.signals.ISignalGroup;
 import com.bmskinner.nma.components.signals.IWarpedSignal;
 
+import ij.process.ImageProcessor;
+
 public class SSIMTableModel extends DatasetTableModel {
 	private static final String[] COL_NAMES = { "Source 1", "Signal 1", "Source 2", "Signal 2", "Target", "Luminance",
 			"Contrast", "Structure", "MS-SSIM*" };
 
-	/** The MS-SSIM calculator */
-	private MultiScaleStructuralSimilarityIndex msi = new MultiScaleStructuralSimilarityIndex();
-
 	private static final DecimalFormat SSIM_FORMAT = new DecimalFormat("#0.0000");
 
 	private String[][] rowData;
@@ -26,9 +30,6 @@ public class SSIMTableModel extends DatasetTableModel {
 	private record SignalTuple(IAnalysisDataset d, ISignalGroup g, IWarpedSignal s) {
 	}
 
-	private record SignalTuplePair(SignalTuple t1, SignalTuple t2) {
-	}
-
 	public SSIMTableModel(@Nullable List<IAnalysisDataset> datasets) {
 
 		if (datasets == null) {
@@ -36,8 +37,6 @@ public class SSIMTableModel extends DatasetTableModel {
 			return;
 		}
 
-		int colCount = COL_NAMES.length;
-
 		// Get all the warped signals in all given datasets
 		List<SignalTuple> allSignals = new ArrayList<>();
 		for (IAnalysisDataset d : datasets) {
@@ -50,38 +49,43 @@ public class SSIMTableModel extends DatasetTableModel {
 			}
 		}
 
-		// Decide which signals can be compared and create a list of pairs
-		List<SignalTuplePair> allPairs = new ArrayList<>();
-
-		for (SignalTuple t1 : allSignals) {
-			for (SignalTuple t2 : allSignals) {
-				if (t1 == t2)
-					continue;
-				if (t1.s.target().equals(t2.s.target())) {
-					SignalTuplePair p1 = new SignalTuplePair(t2, t1);
-					if (!allPairs.contains(p1))
-						allPairs.add(new SignalTuplePair(t1, t2));
-				}
-			}
+		// Signals can be compared when warped onto the same target. Each target
+		// gets its own engine so image pyramids are built once per signal.
+		Map<Nucleus, List<SignalTuple>> byTarget = new LinkedHashMap<>();
+		int[] groupIndex = new int[allSignals.size()];
+		for (int i = 0; i < allSignals.size(); i++) {
+			List<SignalTuple> group = byTarget.computeIfAbsent(allSignals.get(i).s.target(),
+					k -> new ArrayList<>());
+			groupIndex[i] = group.size();
+			group.add(allSignals.get(i));
 		}
-		int rowCount = allPairs.size();
-		rowData = new String[rowCount][COL_NAMES.length];
-
-		for (int r = 0; r < rowCount; r++) {
-			SignalTuplePair p = allPairs.get(r);
-			rowData[r][0] = p.t1.d.getName();
-			rowData[r][1] = p.t1.g().getGroupName();
-			rowData[r][2] = p.t2.d.getName();
-			rowData[r][3] = p.t2.g().getGroupName();
-			rowData[r][4] = p.t1.s.targetName();
-
-			MSSIMScore score = msi.calculateMSSIM(p.t1().s().toImage(), p.t2().s().toImage());
-			rowData[r][5] = SSIM_FORMAT.format(score.luminance);
-			rowData[r][6] = SSIM_FORMAT.format(score.contrast);
-			rowData[r][7] = SSIM_FORMAT.format(score.structure);
-			rowData[r][8] = SSIM_FORMAT.format(score.msSsimIndex);
+
+		Map<Nucleus, MSSIMScore[][]> scores = new HashMap<>();
+		for (Entry<Nucleus, List<SignalTuple>> e : byTarget.entrySet()) {
+			if (e.getValue().size() < 2)
+				continue;
+			List<ImageProcessor> images = e.getValue().stream().map(t -> t.s.toImage()).toList();
+			scores.put(e.getKey(), new MultiScaleStructuralSimilarityEngine(images).scoreAllPairs());
 		}
 
+		// Each unordered pair appears once, in the order the signals were found
+		List<String[]> rows = new ArrayList<>();
+		for (int i = 0; i < allSignals.size(); i++) {
+			SignalTuple t1 = allSignals.get(i);
+			List<SignalTuple> group = byTarget.get(t1.s.target());
+			int gi = groupIndex[i];
+			for (int gj = gi + 1; gj < group.size(); gj++) {
+				SignalTuple t2 = group.get(gj);
+				MSSIMScore score = scores.get(t1.s.target())[gi][gj];
+				rows.add(new String[] { t1.d.getName(), t1.g().getGroupName(), t2.d.getName(),
+						t2.g().getGroupName(), t1.s.targetName(),
+						SSIM_FORMAT.format(score.luminance),
+						SSIM_FORMAT.format(score.contrast),
+						SSIM_FORMAT.format(score.structure),
+						SSIM_FORMAT.format(score.msSsimIndex) });
+			}
+		}
+		rowData = rows.toArray(new String[0][]);
 	}
 
 	@Override
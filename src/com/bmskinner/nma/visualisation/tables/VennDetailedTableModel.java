@@ -19,7 +19,7 @@ public class VennDetailedTableModel extends DatasetTableModel {
 
 	private String[][] rowData;
 
-	private record DatasetTuple(IAnalysisDataset a, IAnalysisDataset b) {
+	private record DatasetTuple(int a, int b) {
 	}
 
 	public VennDetailedTableModel(@Nullable List<IAnalysisDataset> datasets) {
@@ -29,31 +29,26 @@ public class VennDetailedTableModel extends DatasetTableModel {
 			return;
 		}
 
-		// Track the pairwise comparisons performed to avoid duplicates
+		// Each pair of datasets is compared once
 		List<DatasetTuple> matches = new ArrayList<>();
-		for (IAnalysisDataset dataset1 : datasets) {
-			for (IAnalysisDataset dataset2 : datasets) {
-				if (dataset1 == dataset2)
-					continue;
-				DatasetTuple t = new DatasetTuple(dataset1, dataset2);
-				DatasetTuple s = new DatasetTuple(dataset2, dataset1);
-				if (!(matches.contains(t) || matches.contains(s))) {
-					matches.add(t);
-				}
-			}
+		for (int i = 0; i < datasets.size(); i++) {
+			for (int j = i + 1; j < datasets.size(); j++)
+				matches.add(new DatasetTuple(i, j));
 		}
 
+		int[][] sharedCounts = countShared(datasets);
+
 		rowData = new String[matches.size()][COL_NAMES.length];
 
 		for (int r = 0; r < rowData.length; r++) {
-			IAnalysisDataset dataset1 = matches.get(r).a;
-			IAnalysisDataset dataset2 = matches.get(r).b;
+			IAnalysisDataset dataset1 = datasets.get(matches.get(r).a);
+			IAnalysisDataset dataset2 = datasets.get(matches.get(r).b);
 
 			rowData[r][0] = dataset1.getName();
 			rowData[r][8] = dataset2.getName();
 
 			// compare the number of shared nucleus ids
-			int shared = dataset1.getCollection().countShared(dataset2);
+			int shared = sharedCounts[matches.get(r).a][matches.get(r).b];
 
 			rowData[r][4] = String.valueOf(shared);
 
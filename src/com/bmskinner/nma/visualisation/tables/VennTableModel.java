@@ -30,6 +30,8 @@ public class VennTableModel extends DatasetTableModel {
 
 		int rowCount = datasets.size();
 
+		int[][] shared = countShared(datasets);
+
 		rowData = new String[rowCount][colCount];
 		for (int r = 0; r < rowCount; r++) {
 			for (int c = 0; c < colCount; c++) {
@@ -43,11 +45,9 @@ public class VennTableModel extends DatasetTableModel {
 					continue;
 				}
 
-				int shared = datasets.get(r).getCollection().countShared(datasets.get(c - 1).getCollection());
-
 				int d2size = datasets.get(c - 1).getCollection().size();
 
-				double pct = d2size == 0 ? 0 : (shared / (double) d2size) * 100;
+				double pct = d2size == 0 ? 0 : (shared[r][c - 1] / (double) d2size) * 100;
 
 				rowData[r][c] = df.format(pct) + "%";
 			}
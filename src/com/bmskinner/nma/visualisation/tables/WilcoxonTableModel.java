@@ -2,13 +2,16 @@ package com.bmskinner.nma.visualisation.tables;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.table.AbstractTableModel;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.stats.Stats.WilcoxonRankSumResult;
 
 /**
  * Diaplay the results of Wilcoxon rank sum tests
@@ -45,6 +48,11 @@ public class WilcoxonTableModel extends AbstractTableModel {
 		colNames = names.toArray(new String[0]);
 		int colCount = colNames.length;
 
+		// Index the results once rather than searching them for each cell
+		Map<Long, WilcoxonRankSumResult> byId = new HashMap<>();
+		for (WilcoxDatasetResult w : results)
+			byId.putIfAbsent(w.id(), w.r());
+
 		rowData = new String[rowCount][colCount];
 		for (int r = 0; r < rowCount; r++) {
 			for (int c = 0; c < colCount; c++) {
@@ -61,26 +69,24 @@ public class WilcoxonTableModel extends AbstractTableModel {
 
 				// Below diagonal r>c
 				if (c < r + 1) {
-					rowData[r][c] = String.valueOf(getPValue(datasets.get(r), datasets.get(c - 1), results));
+					rowData[r][c] = String.valueOf(getPValue(datasets.get(r), datasets.get(c - 1), byId));
 					continue;
 				}
 
 				// Above diagonal r<c
-				rowData[r][c] = String.valueOf(getUValue(datasets.get(r), datasets.get(c - 1), results));
+				rowData[r][c] = String.valueOf(getUValue(datasets.get(r), datasets.get(c - 1), byId));
 			}
 		}
 	}
 
-	private String getPValue(IAnalysisDataset d1, IAnalysisDataset d2, List<WilcoxDatasetResult> results) {
-		long idVal = WilcoxDatasetResult.toId(d1, d2);
-		double val = results.stream().filter(w -> w.id() == idVal).map(w -> w.r().p()).findFirst().orElse(0d);
-		return df.format(val);
+	private String getPValue(IAnalysisDataset d1, IAnalysisDataset d2, Map<Long, WilcoxonRankSumResult> results) {
+		WilcoxonRankSumResult w = results.get(WilcoxDatasetResult.toId(d1, d2));
+		return df.format(w == null ? 0d : w.p());
 	}
 
-	private String getUValue(IAnalysisDataset d1, IAnalysisDataset d2, List<WilcoxDatasetResult> results) {
-		long idVal = WilcoxDatasetResult.toId(d1, d2);
-		double val = results.stream().filter(w -> w.id() == idVal).map(w -> w.r().u()).findFirst().orElse(0d);
-		return df.format(val);
+	private String getUValue(IAnalysisDataset d1, IAnalysisDataset d2, Map<Long, WilcoxonRankSumResult> results) {
+		WilcoxonRankSumResult w = results.get(WilcoxDatasetResult.toId(d1, d2));
+		return df.format(w == null ? 0d : w.u());
 	}
 
 	@Override
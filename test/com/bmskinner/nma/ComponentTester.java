@@ -26,7 +26,9 @@ import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.bmskinner.nma.components.Taggable;
 import com.bmskinner.nma.components.generic.IPoint;
+import com.bmskinner.nma.components.profiles.ProfileType;
 
 /**
  * Base class for the component tests
@@ -149,6 +151,12 @@ public abstract class ComponentTester extends FloatArrayTester {
 			if (f.getType()
 					.equals(Class.forName("com.bmskinner.nma.components.measure.MeasurementCache")))
 				continue;
+			if (f.getType()
+					.equals(Class.forName("com.bmskinner.nma.components.cells.ProfileProvider"))) {
+				// Profiles are calculated on demand, so compare them through the component
+				testProfilesByType(msg + "->" + f.getName(), (Taggable) original, (Taggable) dup);
+				continue;
+			}
 			if (f.getType().equals(Class.forName("com.bmskinner.nma.components.measure.VennCache")))
 				continue;
 			if (f.getType()
@@ -223,6 +231,26 @@ public abstract class ComponentTester extends FloatArrayTester {
 					dup);
 	}
 
+	/**
+	 * Test that every profile type available in the original is available and
+	 * equal in the duplicate
+	 * 
+	 * @param msg      the message prefix for failures
+	 * @param original the original object
+	 * @param dup      the duplicated object
+	 * @throws Exception
+	 */
+	private static void testProfilesByType(String msg, Taggable original, Taggable dup)
+			throws Exception {
+		for (ProfileType type : ProfileType.values()) {
+			assertEquals(msg + " " + type + " profile availability", original.hasProfile(type),
+					dup.hasProfile(type));
+			if (original.hasProfile(type))
+				assertEquals(msg + " " + type + " profile", original.getProfile(type),
+						dup.getProfile(type));
+		}
+	}
+
 	// Issue with arrays in hashmaps: Object.hashcode()
 	// depends on reference, so is not equal between two
 	// arrays. Need to use Arrays.hashcode().
@@ -10,11 +10,14 @@ import org.junit.runners.Suite.SuiteClasses;
 
 import com.bmskinner.nma.analysis.AnalysisTestSuite;
 import com.bmskinner.nma.components.ComponentTestSuite;
+import com.bmskinner.nma.core.CoreTestSuite;
 import com.bmskinner.nma.io.IoTestSuite;
 import com.bmskinner.nma.logging.ConsoleFormatter;
 import com.bmskinner.nma.logging.ConsoleHandler;
 import com.bmskinner.nma.logging.Loggable;
+import com.bmskinner.nma.logging.LoggingTestSuite;
 import com.bmskinner.nma.pipelines.ApiTestSuite;
+import com.bmskinner.nma.stats.StatsTestSuite;
 import com.bmskinner.nma.utility.UtilityTestSuite;
 
 /**
@@ -31,7 +34,10 @@ import com.bmskinner.nma.utility.UtilityTestSuite;
 		AnalysisTestSuite.class,
 		ApiTestSuite.class,
 		ComponentTestSuite.class,
+		CoreTestSuite.class,
 		IoTestSuite.class,
+		LoggingTestSuite.class,
+		StatsTestSuite.class,
 		UtilityTestSuite.class
 })
 public class RunAllTests {
@@ -0,0 +1,71 @@
+package com.bmskinner.nma.analysis;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.bmskinner.nma.core.CancellationToken;
+import com.bmskinner.nma.core.ThreadManager;
+
+/**
+ * Tests for the shared behaviour of analysis methods
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class AbstractAnalysisMethodTest {
+
+	/**
+	 * A method that checks for cancellation until it is cancelled
+	 */
+	private static class LoopingMethod extends AbstractAnalysisMethod {
+
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final AtomicReference<CancellationToken> taskToken = new AtomicReference<>();
+
+		@Override
+		public IAnalysisResult call() throws Exception {
+			taskToken.set(CancellationToken.current());
+			started.countDown();
+			while (true) {
+				throwIfCancelled();
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	@Test
+	public void testCancelFromAnotherThreadStopsRunningMethod() throws Exception {
+		LoopingMethod m = new LoopingMethod();
+		Future<?> f = ThreadManager.getInstance()
+				.submit(() -> AbstractAnalysisMethod.callRecorded(m));
+		assertTrue(m.started.await(5, TimeUnit.SECONDS));
+
+		// The test thread has no task token, like the event dispatch thread
+		m.cancel();
+
+		try {
+			f.get(5, TimeUnit.SECONDS);
+			fail("Method should have been cancelled");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof CancellationException);
+		}
+		assertTrue("Task token should be cancelled", m.taskToken.get().isCancelled());
+	}
+
+	@Test(expected = CancellationException.class)
+	public void testMethodCancelledBeforeCallStopsAtFirstCheck() throws Exception {
+		LoopingMethod m = new LoopingMethod();
+		m.cancel();
+		m.call();
+	}
+}
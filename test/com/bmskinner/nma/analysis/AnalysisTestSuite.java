@@ -5,6 +5,8 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 import com.bmskinner.nma.analysis.classification.AnalysisClassificationTestSuite;
+import com.bmskinner.nma.analysis.detection.ParticleLabellingEngineTest;
+import com.bmskinner.nma.analysis.detection.StagedPreviewEngineTest;
 import com.bmskinner.nma.analysis.image.AnalysisImageTestSuite;
 import com.bmskinner.nma.analysis.mesh.AnalysisMeshTestSuite;
 import com.bmskinner.nma.analysis.nucleus.AnalysisNucleusTestSuite;
@@ -25,10 +27,15 @@ import com.bmskinner.nma.analysis.signals.AnalysisSignalsTestSuite;
 	AnalysisNucleusTestSuite.class,
 	AnalysisProfilesTestSuite.class,
 	AnalysisSignalsTestSuite.class,
+	AbstractAnalysisMethodTest.class,
 	ComponentMeasurerTest.class,
+	DatasetMergeEngineTest.class,
 	DatasetMergeMethodTest.class,
 	MergeSourceExtracterTest.class, 
-	RuleSetTester.class})
+	ParticleLabellingEngineTest.class,
+	RandomSamplingMethodTest.class,
+	RuleSetTester.class,
+	StagedPreviewEngineTest.class})
 public class AnalysisTestSuite {
 
 }
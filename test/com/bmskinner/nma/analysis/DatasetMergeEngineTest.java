@@ -0,0 +1,126 @@
+package com.bmskinner.nma.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.datasets.DefaultCellCollection;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.datasets.ICellCollection;
+import com.bmskinner.nma.components.profiles.ProfileType;
+import com.bmskinner.nma.components.rules.OrientationMark;
+import com.bmskinner.nma.components.signals.DefaultSignalGroup;
+import com.bmskinner.nma.components.signals.ISignalGroup;
+
+/**
+ * Tests for the dataset merge engine
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class DatasetMergeEngineTest {
+
+	private static final int N_CELLS = 10;
+
+	private IAnalysisDataset d1;
+	private IAnalysisDataset d2;
+	private ICellCollection merged;
+	private DatasetMergeEngine engine;
+
+	@Before
+	public void setUp() throws Exception {
+		d1 = new TestDatasetBuilder(123).cellCount(N_CELLS).addSignalsInChannel(0).segmented()
+				.build();
+		d2 = new TestDatasetBuilder(456).cellCount(N_CELLS).addSignalsInChannel(0).segmented()
+				.build();
+		merged = new DefaultCellCollection(d1.getCollection().getRuleSetCollection(), "Merged",
+				UUID.randomUUID());
+		engine = new DatasetMergeEngine(merged);
+	}
+
+	@Test
+	public void testCellsAlreadyPresentAreNotAddedAgain() throws Exception {
+		assertEquals(N_CELLS, engine.add(d1.getCollection()));
+		assertEquals(0, engine.add(d1.getCollection()));
+		assertEquals(N_CELLS, engine.add(d2.getCollection()));
+		assertEquals(N_CELLS * 2, merged.size());
+	}
+
+	@Test
+	public void testExistingCellsAreIndexed() throws Exception {
+		engine.add(d1.getCollection());
+		DatasetMergeEngine resumed = new DatasetMergeEngine(merged);
+		assertEquals(0, resumed.add(d1.getCollection()));
+		assertEquals(N_CELLS, resumed.add(d2.getCollection()));
+	}
+
+	@Test
+	public void testAddedNucleiHaveSingleSegment() throws Exception {
+		engine.add(d1.getCollection());
+		for (Nucleus n : merged.getNuclei())
+			assertEquals(1, n.getProfile(ProfileType.ANGLE, OrientationMark.REFERENCE)
+					.getSegmentCount());
+	}
+
+	@Test
+	public void testAddedCellsAreCopies() throws Exception {
+		engine.add(d1.getCollection());
+		for (ICell c : merged) {
+			Nucleus copy = c.getPrimaryNucleus();
+			Nucleus original = d1.getCollection().getCell(c.getId()).getPrimaryNucleus();
+			assertTrue(copy != original);
+
+			double x = original.getBorderPoint(0).getX();
+			copy.offset(10, 10);
+			assertEquals(x, original.getBorderPoint(0).getX(), 0);
+			assertEquals(original.toOriginalRoi().getBounds(), copy.toOriginalRoi().getBounds());
+		}
+	}
+
+	@Test
+	public void testSignalsAreCopiedToMappedGroup() throws Exception {
+		ISignalGroup group = new DefaultSignalGroup("Merged", UUID.randomUUID());
+		engine.mapSignalGroup(TestDatasetBuilder.RED_SIGNAL_GROUP, group);
+		engine.add(d1.getCollection());
+
+		assertTrue(merged.hasSignalGroup(group.getId()));
+		for (Nucleus n : merged.getNuclei())
+			assertEquals(n.getSignalCollection().numberOfSignals(TestDatasetBuilder.RED_SIGNAL_GROUP),
+					n.getSignalCollection().numberOfSignals(group.getId()));
+	}
+
+	@Test
+	public void testMappingAfterAddingCopiesExistingSignals() throws Exception {
+		engine.add(d1.getCollection());
+		ISignalGroup group = new DefaultSignalGroup("Merged", UUID.randomUUID());
+		engine.mapSignalGroup(TestDatasetBuilder.RED_SIGNAL_GROUP, group);
+
+		for (Nucleus n : merged.getNuclei()) {
+			assertNotEquals(0, n.getSignalCollection().numberOfSignals(group.getId()));
+			assertEquals(n.getSignalCollection().numberOfSignals(TestDatasetBuilder.RED_SIGNAL_GROUP),
+					n.getSignalCollection().numberOfSignals(group.getId()));
+		}
+	}
+
+	@Test
+	public void testRepeatedMappingCopiesSignalsOnce() throws Exception {
+		ISignalGroup group = new DefaultSignalGroup("Merged", UUID.randomUUID());
+		engine.mapSignalGroup(TestDatasetBuilder.RED_SIGNAL_GROUP, group);
+		engine.mapSignalGroup(TestDatasetBuilder.RED_SIGNAL_GROUP, group);
+		engine.add(d1.getCollection());
+		engine.add(d2.getCollection());
+
+		for (Nucleus n : merged.getNuclei())
+			assertEquals(n.getSignalCollection().numberOfSignals(TestDatasetBuilder.RED_SIGNAL_GROUP),
+					n.getSignalCollection().numberOfSignals(group.getId()));
+	}
+}
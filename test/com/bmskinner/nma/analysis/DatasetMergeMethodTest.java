@@ -25,7 +25,10 @@ import com.bmskinner.nma.analysis.profiles.DatasetSegmentationMethod.MorphologyA
 import com.bmskinner.nma.analysis.signals.PairedSignalGroups;
 import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.datasets.DefaultAnalysisDataset;
+import com.bmskinner.nma.components.datasets.DefaultCellCollection;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.datasets.ICellCollection;
 import com.bmskinner.nma.components.profiles.Landmark;
 import com.bmskinner.nma.components.rules.OrientationMark;
 import com.bmskinner.nma.gui.dialogs.DatasetArithmeticSetupDialog.BooleanOperation;
@@ -75,6 +78,57 @@ public class DatasetMergeMethodTest {
 				.call();
 	}
 
+	@Test
+	public void testAppendingToMergeMatchesMergingAll() throws Exception {
+		IAnalysisDataset d1 = new TestDatasetBuilder(123)
+				.withNucleusShape(TestComponentShape.SQUARE).cellCount(10)
+				.segmented().build();
+		IAnalysisDataset d2 = new TestDatasetBuilder(456)
+				.withNucleusShape(TestComponentShape.SQUARE).cellCount(10)
+				.segmented().build();
+		IAnalysisDataset d3 = withNewId(new TestDatasetBuilder(789)
+				.withNucleusShape(TestComponentShape.SQUARE).cellCount(10)
+				.segmented().build());
+
+		IAnalysisDataset all = new DatasetMergeMethod(List.of(d1, d2, d3), BooleanOperation.OR,
+				new File("Empty path")).call().getFirstDataset();
+
+		IAnalysisDataset merged = new DatasetMergeMethod(List.of(d1, d2), BooleanOperation.OR,
+				new File("Empty path")).call().getFirstDataset();
+		IAnalysisDataset appended = new DatasetMergeMethod(merged, List.of(d3), null).call()
+				.getFirstDataset();
+
+		assertTrue("Merged dataset should be updated in place", merged == appended);
+		assertEquals(all.getCollection().getCellIDs(), merged.getCollection().getCellIDs());
+		assertEquals(all.getMergeSources().size(), merged.getMergeSources().size());
+		assertEquals(all.getAnalysisOptions().get().getNucleusDetectionOptions(),
+				merged.getAnalysisOptions().get().getNucleusDetectionOptions());
+
+		// Sources already in the merge are not added again
+		new DatasetMergeMethod(merged, List.of(d3), null).call();
+		assertEquals(all.getMergeSources().size(), merged.getMergeSources().size());
+		assertEquals(30, merged.getCollection().size());
+
+		// The updated merge can be profiled
+		new DatasetProfilingMethod(merged)
+				.then(new DatasetSegmentationMethod(merged,
+						MorphologyAnalysisMode.SEGMENT_FROM_SCRATCH))
+				.call();
+	}
+
+	/**
+	 * Copy a test dataset with a new id. Test datasets share an id, but merge
+	 * sources are distinguished by id.
+	 */
+	private static IAnalysisDataset withNewId(IAnalysisDataset d) {
+		ICellCollection c = new DefaultCellCollection(d.getCollection().getRuleSetCollection(),
+				d.getName(), UUID.randomUUID());
+		c.addAll(d.getCollection().getCells());
+		IAnalysisDataset result = new DefaultAnalysisDataset(c, d.getSavePath());
+		result.setAnalysisOptions(d.getAnalysisOptions().get());
+		return result;
+	}
+
 	/**
 	 * Ensure that detection folders and full analysis options are present in merge
 	 * source datasets and are equal to their original datasets
@@ -0,0 +1,112 @@
+package com.bmskinner.nma.analysis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.stat.inference.KolmogorovSmirnovTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bmskinner.nma.ComponentTester;
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.analysis.RandomSamplingMethod.RandomSamplingResult;
+import com.bmskinner.nma.components.cells.CellularComponent;
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.datasets.ICellCollection;
+import com.bmskinner.nma.components.datasets.VirtualDataset;
+import com.bmskinner.nma.components.measure.Measurement;
+import com.bmskinner.nma.components.measure.MeasurementScale;
+import com.bmskinner.nma.stats.QuickSelect;
+import com.bmskinner.nma.stats.Stats;
+
+public class RandomSamplingMethodTest {
+
+	private IAnalysisDataset dataset;
+
+	@Before
+	public void setUp() throws Exception {
+		dataset = new TestDatasetBuilder(ComponentTester.RNG_SEED).cellCount(40)
+				.withMaxSizeVariation(20).baseHeight(40).baseWidth(40)
+				.profiled().build();
+	}
+
+	@Test
+	public void testQuickSelectMatchesStatsQuartile() {
+		Random rng = new Random(ComponentTester.RNG_SEED);
+		for (int length = 1; length < 50; length++) {
+			double[] values = new double[length];
+			for (int i = 0; i < length; i++)
+				values[i] = rng.nextInt(10) + rng.nextDouble(); // include some ties
+			for (int q : new int[] { Stats.LOWER_QUARTILE, Stats.MEDIAN,
+					Stats.UPPER_QUARTILE }) {
+				double exp = Stats.quartile(values, q);
+				assertEquals("Length " + length + " quartile " + q, exp,
+						QuickSelect.quartile(values.clone(), length, q), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testSamplingIsReproducibleWithSeed() throws Exception {
+		RandomSamplingResult r1 = (RandomSamplingResult) new RandomSamplingMethod(dataset,
+				Measurement.AREA, 200, 10, 20, ComponentTester.RNG_SEED).call();
+		RandomSamplingResult r2 = (RandomSamplingResult) new RandomSamplingMethod(dataset,
+				Measurement.AREA, 200, 10, 20, ComponentTester.RNG_SEED).call();
+		assertEquals(200, r1.getValues().size());
+		assertEquals(r1.getValues(), r2.getValues());
+	}
+
+	@Test
+	public void testSamplingUsingAllCellsInOneSubsetGivesConstantMedian() throws Exception {
+		int n = dataset.getCollection().size();
+		double median = dataset.getCollection().getMedian(Measurement.AREA,
+				CellularComponent.NUCLEUS, MeasurementScale.PIXELS);
+
+		double[] ratios = MedianResampler
+				.of(dataset.getCollection(), Measurement.AREA, MeasurementScale.PIXELS)
+				.sampleMedianRatios(50, n, 0, ComponentTester.RNG_SEED, i -> {
+				});
+
+		// The second subset is empty, so has median zero
+		double[] exp = new double[50];
+		for (int i = 0; i < exp.length; i++)
+			exp[i] = 0 / median;
+		assertArrayEquals(exp, ratios, 0);
+	}
+
+	@Test
+	public void testSamplingDistributionMatchesVirtualDatasetSampling() throws Exception {
+		int iterations = 300;
+		RandomSamplingResult r = (RandomSamplingResult) new RandomSamplingMethod(dataset,
+				Measurement.AREA, iterations, 10, 20, ComponentTester.RNG_SEED).call();
+		double[] fast = r.getValues().stream().mapToDouble(Double::doubleValue).toArray();
+
+		// Sample by creating collections, as in the original implementation
+		Random rng = new Random(ComponentTester.RNG_SEED);
+		double[] slow = new double[iterations];
+		for (int i = 0; i < iterations; i++) {
+			ICellCollection c1 = new VirtualDataset(dataset, "first");
+			ICellCollection c2 = new VirtualDataset(dataset, "second");
+			List<ICell> cells = new ArrayList<>(dataset.getCollection().getCells());
+			Collections.shuffle(cells, rng);
+			for (int j = 0; j < 10; j++)
+				c1.add(cells.get(j));
+			for (int j = 10; j < 30; j++)
+				c2.add(cells.get(j));
+			slow[i] = c2.getMedian(Measurement.AREA, CellularComponent.NUCLEUS,
+					MeasurementScale.PIXELS)
+					/ c1.getMedian(Measurement.AREA, CellularComponent.NUCLEUS,
+							MeasurementScale.PIXELS);
+		}
+
+		double p = new KolmogorovSmirnovTest().kolmogorovSmirnovTest(fast, slow);
+		assertTrue("Distributions should not differ, p=" + p, p > 0.001);
+	}
+}
@@ -1,8 +1,11 @@
 package com.bmskinner.nma.analysis.classification;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 import java.util.logging.Logger;
 
@@ -13,9 +16,11 @@ import org.junit.rules.ExpectedException;
 
 import com.bmskinner.nma.ComponentTester;
 import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.components.cells.CellularComponent;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
 import com.bmskinner.nma.components.measure.Measurement;
+import com.bmskinner.nma.components.measure.MeasurementScale;
 import com.bmskinner.nma.components.options.DefaultOptions;
 import com.bmskinner.nma.components.options.HashOptions;
 import com.bmskinner.nma.components.profiles.ProfileType;
@@ -85,4 +90,34 @@ public class PrincipalComponentAnalysisTest extends ComponentTester {
 		}
 	}
 
+	@Test
+	public void testRerunningUpdatesCollectionValues() throws Exception {
+		UUID clusterId = UUID.randomUUID();
+		Measurement pc1 = Measurement.makePrincipalComponent(1, clusterId);
+
+		HashOptions options = new DefaultOptions();
+		options.setUUID(HashOptions.CLUSTER_GROUP_ID_KEY, clusterId);
+		options.setBoolean(ProfileType.ANGLE.toString(), true);
+		options.setDouble(PrincipalComponentAnalysis.PROPORTION_VARIANCE_KEY, 0.95);
+		new PrincipalComponentAnalysis(dataset, options).call();
+
+		// Fill the collection cache with the first values
+		double[] first = dataset.getCollection().getRawValues(pc1, CellularComponent.NUCLEUS,
+				MeasurementScale.PIXELS);
+
+		options.setBoolean(ProfileType.ANGLE.toString(), false);
+		options.setBoolean(ProfileType.DIAMETER.toString(), true);
+		new PrincipalComponentAnalysis(dataset, options).call();
+
+		List<Nucleus> nuclei = dataset.getCollection().getNuclei();
+		double[] exp = new double[nuclei.size()];
+		for (int i = 0; i < exp.length; i++)
+			exp[i] = nuclei.get(i).getMeasurement(pc1);
+		Arrays.sort(exp);
+		double[] obs = dataset.getCollection().getRawValues(pc1, CellularComponent.NUCLEUS,
+				MeasurementScale.PIXELS);
+		assertFalse("Values should change between runs", Arrays.equals(first, exp));
+		assertArrayEquals(exp, obs, 0);
+	}
+
 }
@@ -78,4 +78,20 @@ public class FluorescentNucleusFinderTest {
 		
 	}
 
+	@Test
+	public void testPreviewFindsSameNucleiAsPipeline() throws Exception {
+		IAnalysisOptions op = OptionsFactory.makeDefaultRodentAnalysisOptions(TestResources.MOUSE_SIGNALS_INPUT_FOLDER);
+		HashOptions nucleus = op.getDetectionOptions(CellularComponent.NUCLEUS).get();
+		File image = new File(TestResources.MOUSE_SIGNALS_INPUT_FOLDER, "P110.tiff");
+
+		List<ICell> pipeline = new FluorescentNucleusFinder(op, FinderDisplayType.PIPELINE).findInFile(image);
+
+		FluorescentNucleusFinder preview = new FluorescentNucleusFinder(op, FinderDisplayType.PREVIEW);
+		assertEquals(pipeline.size(), preview.findInFile(image).size());
+
+		// Size filters do not change the stages, so the stored objects are filtered again
+		nucleus.setInt(HashOptions.MAX_SIZE_PIXELS, 0);
+		assertEquals(0, preview.findInFile(image).size());
+		assertEquals(0, new FluorescentNucleusFinder(op, FinderDisplayType.PIPELINE).findInFile(image).size());
+	}
 }
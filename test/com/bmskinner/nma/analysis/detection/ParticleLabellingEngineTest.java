@@ -0,0 +1,120 @@
+package com.bmskinner.nma.analysis.detection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.awt.Polygon;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.bmskinner.nma.TestResources;
+import com.bmskinner.nma.components.generic.IPoint;
+import com.bmskinner.nma.io.ImageImporter;
+import com.bmskinner.nma.visualisation.image.ImageFilterer;
+
+import ij.gui.Roi;
+import ij.process.ByteProcessor;
+import ij.process.ImageProcessor;
+
+/**
+ * Tests that the particle labelling engine finds the same particles as the
+ * particle analyser
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class ParticleLabellingEngineTest {
+
+	private static final File MOUSE_IMAGE = new File(TestResources.MOUSE_INPUT_FOLDER,
+			"s60.tiff");
+
+	@Test
+	public void testRandomMasksMatchAnalyser() {
+		Random rng = new Random(1234);
+		for (double density : new double[] { 0.2, 0.45, 0.6, 0.8 }) {
+			ByteProcessor mask = randomMask(rng, 97, 83, density);
+			ByteProcessor image = new ByteProcessor(97, 83);
+			for (int i = 0; i < image.getPixelCount(); i++)
+				image.set(i, rng.nextInt(256));
+
+			assertEngineMatchesAnalyser(mask, image, 1, 97 * 83, 0, 1, true);
+			assertEngineMatchesAnalyser(mask, image, 1, 97 * 83, 0, 1, false);
+			assertEngineMatchesAnalyser(mask, image, 3, 200, 0, 1, false);
+			assertEngineMatchesAnalyser(mask, image, 1, 97 * 83, 0.3, 0.9, true);
+		}
+	}
+
+	@Test
+	public void testNestedParticlesAreIncludedInEnclosingParticle() {
+		ByteProcessor mask = new ByteProcessor(40, 40);
+		mask.setValue(255);
+		mask.fill(new Roi(5, 5, 30, 30));
+		mask.setValue(0);
+		mask.fill(new Roi(10, 10, 20, 20)); // hole
+		mask.setValue(255);
+		mask.fill(new Roi(15, 15, 10, 10)); // island in the hole
+		mask.setValue(0);
+		mask.fill(new Roi(18, 18, 4, 4)); // hole in the island
+
+		Map<Roi, IPoint> rois = assertEngineMatchesAnalyser(mask, mask, 1, 1600, 0, 1, true);
+		assertEquals(1, rois.size());
+	}
+
+	@Test
+	public void testThresholdedImageMatchesAnalyser() throws Exception {
+		ImageProcessor ip = ImageImporter.importImage(MOUSE_IMAGE, ImageImporter.RGB_BLUE);
+		for (int threshold : new int[] { 20, 40, 80 }) {
+			ImageProcessor mask = new ImageFilterer(ip.duplicate()).threshold(threshold)
+					.toProcessor();
+			Map<Roi, IPoint> rois = assertEngineMatchesAnalyser(mask, ip, 5,
+					ip.getPixelCount(), 0, 1, true);
+			assertFalse("Particles should be found", rois.isEmpty());
+			assertEngineMatchesAnalyser(mask, ip, 2000, 10000, 0.15, 0.85, true);
+		}
+	}
+
+	private ByteProcessor randomMask(Random rng, int w, int h, double density) {
+		ByteProcessor mask = new ByteProcessor(w, h);
+		for (int i = 0; i < mask.getPixelCount(); i++)
+			mask.set(i, rng.nextDouble() < density ? 255 : 0);
+		return mask;
+	}
+
+	private Map<Roi, IPoint> assertEngineMatchesAnalyser(ImageProcessor mask, ImageProcessor image,
+			double minSize, double maxSize, double minCirc, double maxCirc, boolean excludeEdges) {
+		Detector d = new Detector();
+		d.setSize(minSize, maxSize);
+		d.setCirc(minCirc, maxCirc);
+		d.setExcludeEdges(excludeEdges);
+
+		Map<Roi, IPoint> exp = d.analyseParticles(mask.duplicate(), image);
+		Map<Roi, IPoint> obs = d.labelParticles(mask.duplicate(), image);
+
+		Map<String, IPoint> expOutlines = toOutlines(exp);
+		Map<String, IPoint> obsOutlines = toOutlines(obs);
+		assertEquals(expOutlines.keySet(), obsOutlines.keySet());
+		for (Entry<String, IPoint> e : expOutlines.entrySet()) {
+			IPoint obsCentre = obsOutlines.get(e.getKey());
+			assertEquals("X CoM", e.getValue().getX(), obsCentre.getX(), 0);
+			assertEquals("Y CoM", e.getValue().getY(), obsCentre.getY(), 0);
+		}
+		return obs;
+	}
+
+	private Map<String, IPoint> toOutlines(Map<Roi, IPoint> rois) {
+		Map<String, IPoint> result = new TreeMap<>();
+		for (Entry<Roi, IPoint> e : rois.entrySet()) {
+			Polygon p = e.getKey().getPolygon();
+			result.put(e.getKey().getType() + Arrays.toString(Arrays.copyOf(p.xpoints, p.npoints))
+					+ Arrays.toString(Arrays.copyOf(p.ypoints, p.npoints)), e.getValue());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,138 @@
+package com.bmskinner.nma.analysis.detection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bmskinner.nma.analysis.detection.StagedPreviewEngine.Stage;
+import com.bmskinner.nma.analysis.detection.StagedPreviewEngine.StageResult;
+
+import ij.process.ByteProcessor;
+import ij.process.ImageProcessor;
+
+/**
+ * Tests for the staged preview engine
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class StagedPreviewEngineTest {
+
+	private StagedPreviewEngine engine;
+	private AtomicInteger imports;
+	private AtomicInteger additions;
+
+	@Before
+	public void setUp() {
+		engine = new StagedPreviewEngine();
+		imports = new AtomicInteger();
+		additions = new AtomicInteger();
+	}
+
+	private Stage importStage(int value) {
+		return Stage.of("Import", ip -> {
+			imports.incrementAndGet();
+			ImageProcessor result = new ByteProcessor(10, 10);
+			result.set(value);
+			return result;
+		}, value);
+	}
+
+	private Stage addStage(int value) {
+		return Stage.of("Add", ip -> {
+			additions.incrementAndGet();
+			ip.add(value);
+			return ip;
+		}, value);
+	}
+
+	@Test
+	public void testStagesAreAppliedInOrder() throws Exception {
+		List<StageResult> results = engine.run(engine.start(), List.of(importStage(10), addStage(5)));
+		assertEquals(2, results.size());
+		assertEquals("Import", results.get(0).name());
+		assertEquals(10, results.get(0).image().get(0));
+		assertEquals(15, results.get(1).image().get(0));
+	}
+
+	@Test
+	public void testUnchangedStagesAreReused() throws Exception {
+		List<StageResult> first = engine.run(engine.start(), List.of(importStage(10), addStage(5)));
+		List<StageResult> second = engine.run(engine.start(), List.of(importStage(10), addStage(5)));
+		assertEquals(1, imports.get());
+		assertEquals(1, additions.get());
+		assertSame(first.get(1).image(), second.get(1).image());
+	}
+
+	@Test
+	public void testOnlyChangedStagesAreRecalculated() throws Exception {
+		engine.run(engine.start(), List.of(importStage(10), addStage(5)));
+		List<StageResult> results = engine.run(engine.start(), List.of(importStage(10), addStage(7)));
+		assertEquals(1, imports.get());
+		assertEquals(2, additions.get());
+		assertEquals(17, results.get(1).image().get(0));
+	}
+
+	@Test
+	public void testStagesAfterChangedStageAreRecalculated() throws Exception {
+		engine.run(engine.start(), List.of(importStage(10), addStage(5)));
+		List<StageResult> results = engine.run(engine.start(), List.of(importStage(20), addStage(5)));
+		assertEquals(2, imports.get());
+		assertEquals(2, additions.get());
+		assertEquals(25, results.get(1).image().get(0));
+	}
+
+	@Test
+	public void testLaterStagesDoNotModifyEarlierOutputs() throws Exception {
+		List<StageResult> results = engine.run(engine.start(), List.of(importStage(10), addStage(5)));
+		assertEquals(10, results.get(0).image().get(0));
+	}
+
+	@Test
+	public void testPreviousBranchIsReused() throws Exception {
+		engine.run(engine.start(), List.of(importStage(10), addStage(5)));
+		engine.run(engine.start(), List.of(importStage(10), addStage(7)));
+		engine.run(engine.start(), List.of(importStage(10), addStage(5)));
+		assertEquals(2, additions.get());
+	}
+
+	@Test(expected = CancellationException.class)
+	public void testSupersededRunIsCancelled() throws Exception {
+		long run = engine.start();
+		engine.start();
+		engine.run(run, List.of(importStage(10)));
+	}
+
+	@Test
+	public void testRunIsCancelledBetweenStages() throws Exception {
+		long run = engine.start();
+		Stage supersede = Stage.of("Supersede", ip -> {
+			engine.start();
+			return ip;
+		});
+		try {
+			engine.run(run, List.of(importStage(10), supersede, addStage(5)));
+		} catch (CancellationException e) {
+			assertTrue(engine.isSuperseded(run));
+			assertEquals(0, additions.get());
+			return;
+		}
+		throw new AssertionError("Superseded run should be cancelled");
+	}
+
+	@Test
+	public void testClearRemovesStoredStages() throws Exception {
+		engine.run(engine.start(), List.of(importStage(10)));
+		engine.clear();
+		engine.run(engine.start(), List.of(importStage(10)));
+		assertEquals(2, imports.get());
+	}
+}
@@ -12,7 +12,10 @@ import org.junit.runners.Suite.SuiteClasses;
  */
 @RunWith(Suite.class)
 @SuiteClasses({MultiScaleStructuralSimilarityIndexTest.class,
-	GLCMTest.class})
+	MultiScaleStructuralSimilarityEngineTest.class,
+	GLCMTest.class,
+	KuwaharaFilterTest.class,
+	CannyEdgeEngineTest.class})
 public class AnalysisImageTestSuite {
 	
 }
\ No newline at end of file
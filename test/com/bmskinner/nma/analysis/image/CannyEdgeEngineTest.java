@@ -0,0 +1,91 @@
+package com.bmskinner.nma.analysis.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import org.junit.Test;
+
+import com.bmskinner.nma.TestResources;
+import com.bmskinner.nma.components.options.HashOptions;
+import com.bmskinner.nma.io.ImageImporter;
+
+import ij.process.ByteProcessor;
+import ij.process.ImageProcessor;
+
+/**
+ * Tests that the Canny edge engine matches the original edge detector
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class CannyEdgeEngineTest {
+
+	private static final File MOUSE_IMAGE = new File(TestResources.MOUSE_INPUT_FOLDER,
+			"s60.tiff");
+
+	@Test
+	public void testDefaultParametersMatchDetector() throws Exception {
+		ImageProcessor ip = ImageImporter.importImage(MOUSE_IMAGE, ImageImporter.RGB_BLUE);
+		assertEngineMatchesDetector(ip, HashOptions.DEFAULT_CANNY_LOW_THRESHOLD,
+				HashOptions.DEFAULT_CANNY_HIGH_THRESHOLD, HashOptions.DEFAULT_CANNY_KERNEL_RADIUS,
+				HashOptions.DEFAULT_CANNY_KERNEL_WIDTH);
+	}
+
+	@Test
+	public void testTailParametersMatchDetector() throws Exception {
+		ImageProcessor ip = ImageImporter.importImage(MOUSE_IMAGE, ImageImporter.RGB_BLUE);
+		assertEngineMatchesDetector(ip, HashOptions.DEFAULT_CANNY_TAIL_LOW_THRESHOLD,
+				HashOptions.DEFAULT_CANNY_TAIL_HIGH_THRESHOLD, 2f, 8);
+	}
+
+	@Test
+	public void testSmallKernelMatchesDetector() throws Exception {
+		ImageProcessor ip = ImageImporter.importImage(TestResources.GLCM_SAMPLE_IMAGE,
+				ImageImporter.RGB_BLUE);
+		assertEngineMatchesDetector(ip, 0.2f, 0.8f, 0.5f, 2);
+	}
+
+	@Test
+	public void testColourImageMatchesDetector() throws Exception {
+		ImageProcessor ip = ImageImporter.importFileTo24bit(MOUSE_IMAGE);
+		assertEngineMatchesDetector(ip, 0.5f, 1.5f, 2f, 16);
+	}
+
+	@Test
+	public void testRepeatedUseMatchesDetector() throws Exception {
+		// Scratch arrays from a larger image must not affect a smaller one
+		ImageProcessor large = ImageImporter.importImage(MOUSE_IMAGE, ImageImporter.RGB_BLUE);
+		new CannyEdgeEngine(0.5f, 1.5f, 3f, 16).process(large);
+
+		ImageProcessor small = ImageImporter.importImage(TestResources.GLCM_SAMPLE_IMAGE,
+				ImageImporter.RGB_BLUE);
+		assertEngineMatchesDetector(small, 0.5f, 1.5f, 3f, 16);
+	}
+
+	private void assertEngineMatchesDetector(ImageProcessor ip, float low, float high,
+			float radius, int width) {
+		CannyEdgeDetector canny = new CannyEdgeDetector();
+		canny.setLowThreshold(low);
+		canny.setHighThreshold(high);
+		canny.setGaussianKernelRadius(radius);
+		canny.setGaussianKernelWidth(width);
+		canny.setSourceImage(ip.duplicate().getBufferedImage());
+		canny.process();
+
+		BufferedImage edges = canny.getEdgesImage();
+		BufferedImage converted = new BufferedImage(edges.getWidth(), edges.getHeight(),
+				BufferedImage.TYPE_BYTE_GRAY);
+		converted.getGraphics().drawImage(edges, 0, 0, null);
+		ByteProcessor exp = new ByteProcessor(converted);
+
+		ByteProcessor obs = new CannyEdgeEngine(low, high, radius, width).process(ip);
+
+		byte[] expPixels = (byte[]) exp.getPixels();
+		assertTrue("Image should have edges", exp.getStats().max > 0);
+		assertArrayEquals(expPixels, (byte[]) obs.getPixels());
+	}
+}
@@ -0,0 +1,65 @@
+package com.bmskinner.nma.analysis.image;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.bmskinner.nma.TestResources;
+import com.bmskinner.nma.io.ImageImporter;
+
+import ij.process.ImageProcessor;
+import ij.process.ShortProcessor;
+
+/**
+ * Tests that the summed-area Kuwahara filter matches the direct calculation
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class KuwaharaFilterTest {
+
+	private static final int[] KERNEL_SIZES = { 1, 2, 3, 4, 5, 9, 16 };
+
+	@Test
+	public void test8bitImageMatchesDirectFilter() throws Exception {
+		ImageProcessor ip = ImageImporter.importImage(TestResources.GLCM_SAMPLE_IMAGE,
+				ImageImporter.RGB_BLUE);
+		for (int size : KERNEL_SIZES)
+			assertFilterMatchesDirect(ip, size);
+	}
+
+	@Test
+	public void test8bitImageWithRoiMatchesDirectFilter() throws Exception {
+		ImageProcessor ip = ImageImporter.importImage(TestResources.GLCM_SAMPLE_IMAGE,
+				ImageImporter.RGB_BLUE);
+		ip.setRoi(10, 15, 40, 30);
+		for (int size : KERNEL_SIZES)
+			assertFilterMatchesDirect(ip, size);
+	}
+
+	@Test
+	public void test16bitImageMatchesDirectFilter() {
+		// Values above 46340 overflow when squared as ints in the direct filter
+		ImageProcessor ip = new ShortProcessor(67, 53);
+		Random rng = new Random(42);
+		for (int i = 0; i < ip.getPixelCount(); i++)
+			ip.set(i, rng.nextInt(65536));
+		for (int size : KERNEL_SIZES)
+			assertFilterMatchesDirect(ip, size);
+	}
+
+	private void assertFilterMatchesDirect(ImageProcessor ip, int size) {
+		ImageProcessor exp = KuwaharaFilter.filterDirect(ip, size);
+		ImageProcessor obs = KuwaharaFilter.filter(ip, size);
+		for (int y = 0; y < ip.getHeight(); y++) {
+			int[] expRow = new int[ip.getWidth()];
+			int[] obsRow = new int[ip.getWidth()];
+			exp.getRow(0, y, expRow, expRow.length);
+			obs.getRow(0, y, obsRow, obsRow.length);
+			assertArrayEquals("Row " + y + " with kernel " + size, expRow, obsRow);
+		}
+	}
+}
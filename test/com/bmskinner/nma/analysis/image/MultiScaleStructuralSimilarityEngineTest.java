@@ -0,0 +1,76 @@
+package com.bmskinner.nma.analysis.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bmskinner.nma.TestResources;
+import com.bmskinner.nma.analysis.image.MultiScaleStructuralSimilarityIndex.MSSIMScore;
+
+import ij.IJ;
+import ij.process.ImageProcessor;
+
+/**
+ * Tests for the cached MS-SSIM* engine
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class MultiScaleStructuralSimilarityEngineTest {
+
+	/** Allowance for rounding differences between separable and 2D filtering */
+	private static final double EPSILON = 0.005;
+
+	private List<ImageProcessor> images;
+
+	@Before
+	public void setUp() {
+		String imagePath = TestResources.WARPING_FOLDER.getAbsolutePath();
+		images = List.of(IJ.openImage(imagePath + "/WT-X.tiff").getProcessor(),
+				IJ.openImage(imagePath + "/sh-X.tiff").getProcessor(),
+				IJ.openImage(imagePath + "/sh-Y.tiff").getProcessor());
+	}
+
+	@Test
+	public void testScoresMatchSinglePairCalculation() {
+		MultiScaleStructuralSimilarityEngine engine = new MultiScaleStructuralSimilarityEngine(
+				images);
+
+		for (int i = 0; i < images.size(); i++) {
+			for (int j = 0; j < images.size(); j++) {
+				if (i == j)
+					continue;
+				MSSIMScore exp = new MultiScaleStructuralSimilarityIndex()
+						.calculateMSSIM(images.get(i).duplicate(), images.get(j).duplicate());
+				MSSIMScore obs = engine.score(i, j);
+				assertEquals(exp.luminance, obs.luminance, EPSILON);
+				assertEquals(exp.contrast, obs.contrast, EPSILON);
+				assertEquals(exp.structure, obs.structure, EPSILON);
+				assertEquals(exp.msSsimIndex, obs.msSsimIndex, EPSILON);
+			}
+		}
+	}
+
+	@Test
+	public void testAllPairsAreSymmetric() {
+		MSSIMScore[][] scores = new MultiScaleStructuralSimilarityEngine(images).scoreAllPairs();
+		for (int i = 0; i < images.size(); i++) {
+			assertNull(scores[i][i]);
+			for (int j = i + 1; j < images.size(); j++)
+				assertSame(scores[i][j], scores[j][i]);
+		}
+	}
+
+	@Test
+	public void testIdenticalImagesScoreOne() {
+		MSSIMScore score = new MultiScaleStructuralSimilarityEngine(
+				List.of(images.get(0), images.get(0))).score(0, 1);
+		assertEquals(1, score.msSsimIndex, 0.000001);
+	}
+}
@@ -6,6 +6,8 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ CellCollectionFiltererTest.class, 
+	CellSetAlgebraTest.class,
+	ConsensusAveragingEngineTest.class,
 	ConsensusAveragingMethodTest.class,
 	NucleusDetectionMethodTest.class
 	})
@@ -1,6 +1,7 @@
 package com.bmskinner.nma.analysis.nucleus;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -89,6 +90,29 @@ public class CellCollectionFiltererTest extends ComponentTester {
 		}
 	}
 
+	@Test
+	public void testNotWithDuplicateCollectionIsEmpty() throws Exception {
+		IAnalysisDataset d2 = d1.copy();
+
+		ICellCollection result = CellCollectionFilterer
+				.not(List.of(d1.getCollection(), d2.getCollection()));
+
+		assertEquals("Removing duplicate collection should remove all cells", 0, result.size());
+	}
+
+	@Test
+	public void testXorWithChildCollectionRemovesChildCells() throws Exception {
+		ICellCollection child = d1.getChildDatasets().iterator().next().getCollection();
+
+		ICellCollection result = CellCollectionFilterer
+				.xor(List.of(d1.getCollection(), child));
+
+		assertEquals("Cells in both collections should be removed",
+				d1.getCollection().size() - child.size(), result.size());
+		for (ICell c : result)
+			assertFalse(child.contains(c.getId()));
+	}
+
 	@Test
 	public void testPoorEdgeDetectorFilterRemovesCells() throws Exception {
 		IAnalysisDataset d = SampleDatasetReader.openTestMouseDataset();
@@ -0,0 +1,138 @@
+package com.bmskinner.nma.analysis.nucleus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bmskinner.nma.ComponentTester;
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.datasets.DefaultCellCollection;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.datasets.ICellCollection;
+import com.bmskinner.nma.components.rules.RuleSetCollection;
+
+/**
+ * Tests that set operations on cell collections match membership tests on
+ * each cell
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class CellSetAlgebraTest extends ComponentTester {
+
+	private static final int N_COLLECTIONS = 4;
+
+	private List<ICell> cells;
+	private List<ICellCollection> collections;
+
+	@Before
+	public void setUp() throws Exception {
+		IAnalysisDataset d = new TestDatasetBuilder(RNG_SEED).cellCount(50)
+				.ofType(RuleSetCollection.roundRuleSetCollection())
+				.segmented().build();
+		cells = new ArrayList<>(d.getCollection().getCells());
+
+		// Random overlapping subsets of the cells
+		Random rng = new Random(RNG_SEED);
+		collections = new ArrayList<>();
+		for (int i = 0; i < N_COLLECTIONS; i++) {
+			ICellCollection c = new DefaultCellCollection(
+					RuleSetCollection.roundRuleSetCollection(), "Collection " + i,
+					UUID.randomUUID());
+			for (ICell cell : cells) {
+				if (rng.nextDouble() < 0.6)
+					c.add(cell);
+			}
+			collections.add(c);
+		}
+	}
+
+	@Test
+	public void testIntersectionMatchesMembership() {
+		List<ICell> exp = cells.stream()
+				.filter(c -> collections.stream().allMatch(col -> col.contains(c.getId())))
+				.toList();
+		assertEquals(ids(exp), ids(new CellSetAlgebra(collections).intersection()));
+	}
+
+	@Test
+	public void testDifferenceMatchesMembership() {
+		List<ICellCollection> others = collections.subList(1, N_COLLECTIONS);
+		List<ICell> exp = collections.get(0).getCells().stream()
+				.filter(c -> others.stream().noneMatch(col -> col.contains(c.getId())))
+				.toList();
+		assertEquals(ids(exp), ids(new CellSetAlgebra(collections).difference()));
+	}
+
+	@Test
+	public void testExclusiveMatchesMembership() {
+		List<UUID> exp = new ArrayList<>();
+		for (ICellCollection col : collections) {
+			for (ICell c : col) {
+				long n = collections.stream().filter(o -> o.contains(c.getId())).count();
+				if (n == 1)
+					exp.add(c.getId());
+			}
+		}
+		assertEquals(exp.size(), new CellSetAlgebra(collections).exclusive().size());
+		assertEquals(exp.stream().sorted().toList(),
+				ids(new CellSetAlgebra(collections).exclusive()).stream().sorted().toList());
+	}
+
+	@Test
+	public void testUnionHasEachCellOnceInOrderFound() {
+		List<UUID> exp = new ArrayList<>();
+		for (ICellCollection col : collections) {
+			for (ICell c : col) {
+				if (!exp.contains(c.getId()))
+					exp.add(c.getId());
+			}
+		}
+		assertEquals(exp, ids(new CellSetAlgebra(collections).union()));
+	}
+
+	@Test
+	public void testCellsAreTakenFromFirstCollectionContainingThem() throws Exception {
+		ICellCollection copy = new DefaultCellCollection(
+				RuleSetCollection.roundRuleSetCollection(), "Copy", UUID.randomUUID());
+		for (ICell c : collections.get(0))
+			copy.add(c.duplicate());
+
+		List<ICell> result = new CellSetAlgebra(List.of(collections.get(0), copy))
+				.intersection();
+		assertEquals(collections.get(0).size(), result.size());
+		for (int i = 0; i < result.size(); i++)
+			assertSame(collections.get(0).getCells().get(i), result.get(i));
+	}
+
+	@Test
+	public void testSharedCountsMatchCollections() {
+		int[][] shared = new CellSetAlgebra(collections).countShared();
+		for (int i = 0; i < N_COLLECTIONS; i++) {
+			for (int j = 0; j < N_COLLECTIONS; j++) {
+				ICellCollection other = collections.get(j);
+				long exp = collections.get(i).getCells().stream()
+						.filter(c -> other.contains(c.getId())).count();
+				assertEquals(exp, shared[i][j]);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoCollectionsFails() {
+		new CellSetAlgebra(List.of());
+	}
+
+	private static List<UUID> ids(List<ICell> cells) {
+		return cells.stream().map(ICell::getId).toList();
+	}
+}
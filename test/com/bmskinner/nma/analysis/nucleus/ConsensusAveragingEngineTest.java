@@ -0,0 +1,91 @@
+package com.bmskinner.nma.analysis.nucleus;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.generic.FloatPoint;
+import com.bmskinner.nma.components.generic.IPoint;
+import com.bmskinner.nma.components.profiles.IProfile;
+import com.bmskinner.nma.components.profiles.ProfileType;
+import com.bmskinner.nma.components.rules.OrientationMark;
+import com.bmskinner.nma.components.rules.RuleSetCollection;
+import com.bmskinner.nma.stats.Stats;
+
+/**
+ * Tests that the averaging engine matches averaging the borders of oriented
+ * nuclei
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class ConsensusAveragingEngineTest {
+
+	private static final int N_POINTS = 1000;
+
+	@Test
+	public void testMedianPointsMatchOrientedNucleiForRoundNuclei() throws Exception {
+		testMedianPointsMatchOrientedNuclei(RuleSetCollection.roundRuleSetCollection());
+	}
+
+	@Test
+	public void testMedianPointsMatchOrientedNucleiForMouseNuclei() throws Exception {
+		testMedianPointsMatchOrientedNuclei(RuleSetCollection.mouseSpermRuleSetCollection());
+	}
+
+	@Test
+	public void testMedianPointsMatchOrientedNucleiForPigNuclei() throws Exception {
+		testMedianPointsMatchOrientedNuclei(RuleSetCollection.pigSpermRuleSetCollection());
+	}
+
+	private void testMedianPointsMatchOrientedNuclei(RuleSetCollection rsc) throws Exception {
+		IAnalysisDataset d = new TestDatasetBuilder(123).cellCount(10)
+				.ofType(rsc)
+				.withMaxSizeVariation(10)
+				.randomOffsetProfiles(true)
+				.segmented().build();
+
+		List<Nucleus> nuclei = d.getCollection().getNuclei();
+		List<IPoint> exp = calculateFromOrientedNuclei(nuclei);
+
+		ConsensusAveragingEngine engine = new ConsensusAveragingEngine(nuclei, N_POINTS);
+		assertEquals(nuclei.size(), engine.size());
+		assertEquals(exp, engine.calculateMedianPoints());
+	}
+
+	/**
+	 * The averaging replaced by the engine, using duplicated oriented nuclei
+	 */
+	private List<IPoint> calculateFromOrientedNuclei(List<Nucleus> nuclei) throws Exception {
+		double[][] xs = new double[N_POINTS][nuclei.size()];
+		double[][] ys = new double[N_POINTS][nuclei.size()];
+
+		for (int k = 0; k < nuclei.size(); k++) {
+			Nucleus n = nuclei.get(k);
+			Nucleus v = n.duplicate();
+			v.orient();
+			v.moveCentreOfMass(IPoint.atOrigin());
+			IProfile p = v.getProfile(ProfileType.ANGLE, OrientationMark.REFERENCE);
+			for (int i = 0; i < N_POINTS; i++) {
+				int index = p.getIndexOfFraction(i / (double) N_POINTS);
+				IPoint point = v.getBorderPoint(v.getIndexRelativeTo(OrientationMark.REFERENCE,
+						index)).divide(n.getScale());
+				xs[i][k] = point.getX();
+				ys[i][k] = point.getY();
+			}
+		}
+
+		List<IPoint> result = new ArrayList<>();
+		for (int i = 0; i < N_POINTS; i++)
+			result.add(new FloatPoint(Stats.quartile(xs[i], Stats.MEDIAN),
+					Stats.quartile(ys[i], Stats.MEDIAN)));
+		return result;
+	}
+}
@@ -1,9 +1,13 @@
 package com.bmskinner.nma.analysis.profiles;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.awt.Shape;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.jdom2.Element;
@@ -17,6 +21,7 @@ import com.bmskinner.nma.components.cells.DefaultCell;
 import com.bmskinner.nma.components.cells.ICell;
 import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.generic.IPoint;
 import com.bmskinner.nma.components.options.IAnalysisOptions;
 import com.bmskinner.nma.components.options.OptionsFactory;
 import com.bmskinner.nma.components.profiles.DefaultProfile;
@@ -99,4 +104,91 @@ public class ProfileCreatorTest {
 		}
 	}
 
+	@Test
+	public void testAngleProfileMatchesShapeContainment() throws Exception {
+
+		File testFolder = TestResources.MOUSE_INPUT_FOLDER.getAbsoluteFile();
+		IAnalysisOptions op = OptionsFactory.makeDefaultRodentAnalysisOptions(testFolder);
+		IAnalysisDataset d = TestImageDatasetCreator
+				.createTestDataset(TestResources.MOUSE_OUTPUT_FOLDER, op, false);
+
+		// Synthetic rectangles have many border midpoints lying exactly on the border
+		List<Nucleus> nuclei = new ArrayList<>(d.getCollection().getNuclei());
+		nuclei.addAll(new TestDatasetBuilder(ComponentTester.RNG_SEED).cellCount(10)
+				.baseHeight(40).baseWidth(40).build().getCollection().getNuclei());
+
+		for (Nucleus n : nuclei) {
+			for (int w : new int[] { 1, 5, n.getWindowSize(), n.getBorderLength() / 2 })
+				assertArrayEquals("Window " + w, calculateAngleProfileFromShape(n, w),
+						AngleProfileCalculator.calculate(n.getBorderList(), w), 0f);
+		}
+	}
+
+	@Test
+	public void testMultiWindowAngleProfilesMatchSingleWindowProfiles() throws Exception {
+
+		IAnalysisDataset d = new TestDatasetBuilder(ComponentTester.RNG_SEED).cellCount(10)
+				.ofType(RuleSetCollection.mouseSpermRuleSetCollection())
+				.baseHeight(40).baseWidth(40).randomOffsetProfiles(true)
+				.build();
+
+		double[] proportions = { 0.01, 0.03, 0.05, 0.1, 0.2 };
+
+		for (Nucleus n : d.getCollection().getNuclei()) {
+			IProfile[] multi = ProfileCreator.createAngleProfiles(n, proportions);
+			for (int i = 0; i < proportions.length; i++) {
+				n.setWindowProportion(proportions[i]);
+				assertEquals("Proportion " + proportions[i],
+						ProfileCreator.createProfile(n, ProfileType.ANGLE), multi[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testDiameterProfileMatchesOppositeBorderSearch() throws Exception {
+
+		File testFolder = TestResources.MOUSE_INPUT_FOLDER.getAbsoluteFile();
+		IAnalysisOptions op = OptionsFactory.makeDefaultRodentAnalysisOptions(testFolder);
+		IAnalysisDataset d = TestImageDatasetCreator
+				.createTestDataset(TestResources.MOUSE_OUTPUT_FOLDER, op, false);
+
+		// Synthetic rectangles have many equidistant opposite candidates
+		List<Nucleus> nuclei = new ArrayList<>(d.getCollection().getNuclei());
+		nuclei.addAll(new TestDatasetBuilder(ComponentTester.RNG_SEED).cellCount(10)
+				.baseHeight(40).baseWidth(40).build().getCollection().getNuclei());
+
+		for (Nucleus n : nuclei) {
+			float[] exp = new float[n.getBorderLength()];
+			for (int i = 0; i < exp.length; i++) {
+				IPoint p = n.getBorderPoint(i);
+				exp[i] = (float) p.getLengthTo(n.findOppositeBorder(p));
+			}
+			assertArrayEquals(exp, DiameterProfileCalculator.calculate(n.getBorderList(),
+					n.getCentreOfMass()), 0f);
+		}
+	}
+
+	/**
+	 * The original angle profile calculation using a shape for containment
+	 * 
+	 * @param n          the nucleus
+	 * @param windowSize the window size
+	 * @return the angles
+	 */
+	private static float[] calculateAngleProfileFromShape(Nucleus n, int windowSize) {
+		float[] angles = new float[n.getBorderLength()];
+		Shape s = n.toShape();
+		List<IPoint> borderList = n.getBorderList();
+		for (int index = 0; index < borderList.size(); index++) {
+			IPoint point = borderList.get(index);
+			IPoint pointBefore = borderList.get(n.wrapIndex(index + windowSize));
+			IPoint pointAfter = borderList.get(n.wrapIndex(index - windowSize));
+			float angle = (float) point.findSmallestAngle(pointBefore, pointAfter);
+			float midX = (float) ((pointBefore.getX() + pointAfter.getX()) / 2);
+			float midY = (float) ((pointBefore.getY() + pointAfter.getY()) / 2);
+			angles[index] = s.contains(midX, midY) ? angle : 360 - angle;
+		}
+		return angles;
+	}
+
 }
@@ -98,6 +98,29 @@ public class RotatableTest {
 		}
 	}
 
+	/**
+	 * Test that top and bottom landmarks at the same border index are not used
+	 * for orientation, and the orienter falls back to the Y landmark
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCoincidentTopAndBottomFallBackToY() throws Exception {
+		RuleSetCollection rsc = RuleSetCollection.mouseSpermRuleSetCollection();
+		IAnalysisDataset d = new TestDatasetBuilder(1234).cellCount(1).ofType(rsc)
+				.withMaxSizeVariation(0).randomOffsetProfiles(true).segmented().build();
+		Nucleus n = d.getCollection().getCells().iterator().next().getPrimaryNucleus();
+
+		int yIndex = n.getBorderIndex(OrientationMark.Y);
+		int index = n.wrapIndex(yIndex + n.getBorderLength() / 4);
+		n.setOrientationMark(OrientationMark.TOP, index);
+		n.setOrientationMark(OrientationMark.BOTTOM, index);
+
+		double expected = Rotatable.getAngleToRotateVertical(n.getCentreOfMass(),
+				n.getBorderPoint(OrientationMark.Y));
+		assertEquals(expected, ComponentOrienter.calcAngleToAlignVertically(n), 0);
+	}
+
 	/**
 	 * Test if a nucleus can be aligned horizontally using points on its border.
 	 * 
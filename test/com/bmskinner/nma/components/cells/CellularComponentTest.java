@@ -2,6 +2,8 @@ package com.bmskinner.nma.components.cells;
 
 import static org.junit.Assert.assertEquals;
 
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
 import java.util.Arrays;
 
 import org.junit.Before;
@@ -16,8 +18,12 @@ import org.junit.runners.Parameterized.Parameters;
 import com.bmskinner.nma.ComponentTester;
 import com.bmskinner.nma.TestDatasetBuilder;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.generic.FloatPoint;
+import com.bmskinner.nma.components.generic.IPoint;
 import com.bmskinner.nma.components.rules.RuleSetCollection;
 
+import ij.process.FloatPolygon;
+
 /**
  * Test for classes implementing the CellularComponent interface
  * @author bms41
@@ -70,6 +76,48 @@ public class CellularComponentTest {
 		assertEquals(component, dup);
 		ComponentTester.testDuplicatesByField(component.getSourceFileName(), component, dup);
 	}
-	
+
+	@Test
+	public void testContainsPointMatchesShapes() throws Exception {
+		testContainsPointMatchesShapes(component);
+	}
+
+	@Test
+	public void testContainsPointMatchesShapesAfterBorderChanges() throws Exception {
+		testContainsPointMatchesShapes(component);
+		component.offset(3.25, -1.5);
+		testContainsPointMatchesShapes(component);
+		component.rotate(27);
+		testContainsPointMatchesShapes(component);
+		component.flipHorizontal();
+		testContainsPointMatchesShapes(component);
+	}
+
+	private void testContainsPointMatchesShapes(CellularComponent c) {
+		FloatPolygon polygon = c.toPolygon();
+		FloatPolygon original = c.toOriginalPolygon();
+		Shape shape = c.toShape();
+		Rectangle2D bounds = shape.getBounds2D();
+		Rectangle2D originalBounds = original.getBounds();
+
+		for (int x = (int) bounds.getMinX() - 1; x <= bounds.getMaxX() + 1; x++) {
+			for (int y = (int) bounds.getMinY() - 1; y <= bounds.getMaxY() + 1; y++) {
+				assertEquals(shape.contains(x, y), c.containsPoint(x, y));
+				IPoint p = new FloatPoint(x + 0.3, y + 0.6);
+				assertEquals(bounds.contains(p.toPoint2D())
+						&& polygon.contains((float) p.getX(), (float) p.getY()),
+						c.containsPoint(p));
+			}
+		}
+
+		for (int x = (int) originalBounds.getMinX() - 1; x <= originalBounds.getMaxX() + 1; x++) {
+			for (int y = (int) originalBounds.getMinY() - 1; y <= originalBounds.getMaxY()
+					+ 1; y++) {
+				assertEquals(original.contains(x, y), c.containsOriginalPoint(new FloatPoint(x, y)));
+				assertEquals(original.contains(x + 0.3f, y + 0.6f),
+						c.containsOriginalPoint(new FloatPoint(x + 0.3f, y + 0.6f)));
+			}
+		}
+	}
 
 }
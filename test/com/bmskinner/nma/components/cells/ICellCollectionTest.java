@@ -429,4 +429,23 @@ public class ICellCollectionTest {
 
 	}
 
+	@Test
+	public void testClearMeasurementsInvalidatesCollectionValues() throws Exception {
+		ICell cell = collection.getCells().get(0);
+		Nucleus n = cell.getPrimaryNucleus();
+		double sentinel = -1;
+
+		// Store a value that will not be calculated, and make the collection see it
+		n.setMeasurement(Measurement.AREA, sentinel);
+		collection.clear(Measurement.AREA, CellularComponent.NUCLEUS);
+		double[] values = collection.getRawValues(Measurement.AREA, CellularComponent.NUCLEUS,
+				MeasurementScale.PIXELS);
+		assertTrue(Arrays.stream(values).anyMatch(d -> d == sentinel));
+
+		collection.clearMeasurements(cell);
+		values = collection.getRawValues(Measurement.AREA, CellularComponent.NUCLEUS,
+				MeasurementScale.PIXELS);
+		assertFalse("Values in " + source.getSimpleName(),
+				Arrays.stream(values).anyMatch(d -> d == sentinel));
+	}
 }
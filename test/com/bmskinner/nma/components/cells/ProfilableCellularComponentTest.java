@@ -2,6 +2,7 @@ package com.bmskinner.nma.components.cells;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Field;
@@ -13,7 +14,9 @@ import java.util.logging.Logger;
 import org.junit.Test;
 
 import com.bmskinner.nma.ComponentTester;
+import com.bmskinner.nma.analysis.profiles.ProfileCreator;
 import com.bmskinner.nma.components.TestComponentFactory;
+import com.bmskinner.nma.components.profiles.IProfile;
 import com.bmskinner.nma.components.profiles.IProfileSegment;
 import com.bmskinner.nma.components.profiles.IProfileSegment.SegmentUpdateException;
 import com.bmskinner.nma.components.profiles.ISegmentedProfile;
@@ -206,4 +209,79 @@ public class ProfilableCellularComponentTest {
 		ComponentTester.testDuplicatesByField(n.getNameAndNumber(), n, dup);
 		assertEquals(n, dup);
 	}
+
+	private static ProfileProvider getProvider(Nucleus n) throws Exception {
+		Field f = ProfileableCellularComponent.class.getDeclaredField("profiles");
+		f.setAccessible(true);
+		return (ProfileProvider) f.get(n);
+	}
+
+	@Test
+	public void testProfilesAreRecalculatedOnDemandAfterBorderTransform() throws Exception {
+		ICell c = TestComponentFactory.rectangularCell(50, 30, 50, 50, 0, 10,
+				RuleSetCollection.roundRuleSetCollection());
+		Nucleus n = c.getPrimaryNucleus();
+		for (ProfileType type : ProfileType.values())
+			n.getProfile(type);
+
+		n.rotate(33);
+		n.flipHorizontal();
+		n.offset(5, -3);
+
+		// Transforms do not calculate anything
+		ProfileProvider provider = getProvider(n);
+		for (ProfileType type : ProfileType.values())
+			assertFalse(provider.isCurrent(type));
+
+		for (ProfileType type : ProfileType.values()) {
+			IProfile exp = ProfileCreator.createProfile(n, type)
+					.startFrom(n.getBorderIndex(OrientationMark.REFERENCE));
+			assertEquals(exp, n.getUnsegmentedProfile(type, OrientationMark.REFERENCE));
+		}
+	}
+
+	@Test
+	public void testEqualsDoesNotCalculateProfiles() throws Exception {
+		ICell c = TestComponentFactory.rectangularCell(50, 30, 50, 50, 0, 10,
+				RuleSetCollection.roundRuleSetCollection());
+		Nucleus n = c.getPrimaryNucleus();
+		Nucleus dup = n.duplicate();
+		n.offset(1, 1);
+		dup.offset(1, 1);
+
+		assertEquals(n, dup);
+		for (ProfileType type : ProfileType.values()) {
+			assertFalse(getProvider(n).isCurrent(type));
+			assertFalse(getProvider(dup).isCurrent(type));
+		}
+	}
+
+	@Test
+	public void testHasProfileForEachType() throws Exception {
+		ICell c = TestComponentFactory.rectangularCell(50, 30, 50, 50, 0, 10,
+				RuleSetCollection.roundRuleSetCollection());
+		Nucleus n = c.getPrimaryNucleus();
+		n.offset(1, 1);
+		for (ProfileType type : ProfileType.values()) {
+			assertTrue(n.hasProfile(type));
+			assertFalse("Probing should not calculate the profile",
+					getProvider(n).isCurrent(type));
+		}
+	}
+
+	@Test
+	public void testProfilesUpdateWhenWindowProportionChanges() throws Exception {
+		ICell c = TestComponentFactory.rectangularCell(50, 30, 50, 50, 0, 10,
+				RuleSetCollection.roundRuleSetCollection());
+		Nucleus n = c.getPrimaryNucleus();
+		IProfile before = n.getUnsegmentedProfile(ProfileType.ANGLE, OrientationMark.REFERENCE);
+
+		n.setWindowProportion(0.2);
+		IProfile exp = ProfileCreator.createProfile(n, ProfileType.ANGLE)
+				.startFrom(n.getBorderIndex(OrientationMark.REFERENCE));
+		IProfile after = n.getUnsegmentedProfile(ProfileType.ANGLE, OrientationMark.REFERENCE);
+
+		assertEquals(exp, after);
+		assertNotEquals(before, after);
+	}
 }
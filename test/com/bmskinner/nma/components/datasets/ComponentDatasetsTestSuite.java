@@ -5,7 +5,8 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ DefaultAnalysisDatasetTest.class,
+@SuiteClasses({ DatasetValidatorTest.class,
+	DefaultAnalysisDatasetTest.class,
 	DefaultClusterGroupTest.class,
 	VirtualDatasetTest.class
 	})
@@ -0,0 +1,117 @@
+package com.bmskinner.nma.components.datasets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.datasets.DatasetValidator.Check;
+import com.bmskinner.nma.components.datasets.DatasetValidator.ValidationError;
+import com.bmskinner.nma.components.profiles.DefaultProfileSegment;
+import com.bmskinner.nma.components.profiles.IProfileSegment;
+import com.bmskinner.nma.components.profiles.ProfileType;
+import com.bmskinner.nma.components.rules.OrientationMark;
+import com.bmskinner.nma.components.rules.RuleSetCollection;
+
+/**
+ * Tests for the dataset validator
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class DatasetValidatorTest {
+
+	private IAnalysisDataset d;
+	private ICell cell;
+	private List<IProfileSegment> segments;
+
+	@Before
+	public void setUp() throws Exception {
+		d = new TestDatasetBuilder(1234).cellCount(20)
+				.ofType(RuleSetCollection.roundRuleSetCollection())
+				.randomOffsetProfiles(true)
+				.numberOfClusters(2)
+				.segmented().build();
+		cell = d.getCollection().getCells().get(5);
+		segments = cell.getPrimaryNucleus()
+				.getProfile(ProfileType.ANGLE, OrientationMark.REFERENCE).getSegments();
+	}
+
+	/**
+	 * Give a nucleus a single segment not in the collection
+	 */
+	private void breakSegmentation() throws Exception {
+		Nucleus n = cell.getPrimaryNucleus();
+		n.setSegments(List.of(new DefaultProfileSegment(0, 0, n.getBorderLength(),
+				UUID.randomUUID())));
+	}
+
+	@Test
+	public void testProfileNotMatchingSegmentsIsReported() throws Exception {
+		Nucleus n = cell.getPrimaryNucleus();
+		n.setSegments(List.of(new DefaultProfileSegment(0, 0, n.getBorderLength() - 1,
+				UUID.randomUUID())));
+		DatasetValidator dv = new DatasetValidator();
+		assertFalse(dv.validate(d.getCollection()));
+		assertTrue(dv.getErrorRecords().stream()
+				.anyMatch(e -> e.check() == Check.PROFILE && e.cell() == cell));
+	}
+
+	@Test
+	public void testSegmentedDatasetValidates() {
+		DatasetValidator dv = new DatasetValidator();
+		assertTrue(dv.toString(), dv.validate(d));
+		assertTrue(dv.getErrorRecords().isEmpty());
+		assertTrue(dv.getErrorCells().isEmpty());
+	}
+
+	@Test
+	public void testErrorsAreReportedForBrokenCell() throws Exception {
+		breakSegmentation();
+		DatasetValidator dv = new DatasetValidator();
+		assertFalse(dv.validate(d));
+		assertEquals(Set.of(cell), dv.getErrorCells());
+
+		List<ValidationError> errors = dv.getErrorRecords();
+		assertTrue(errors.stream().anyMatch(e -> e.check() == Check.SEGMENTATION));
+		for (ValidationError e : errors)
+			assertTrue(e.cell() == null || e.cell() == cell);
+		assertEquals(errors.size(), dv.getErrors().size());
+	}
+
+	@Test
+	public void testRevalidatingChangedCellsMatchesFullValidation() throws Exception {
+		breakSegmentation();
+		DatasetValidator dv = new DatasetValidator();
+		assertFalse(dv.validate(d));
+
+		cell.getPrimaryNucleus().setSegments(segments);
+
+		// Unchanged cells keep their earlier results
+		assertFalse(dv.validate(d, List.of()));
+
+		assertTrue(dv.toString(), dv.validate(d, List.of(cell)));
+		assertTrue(new DatasetValidator().validate(d));
+	}
+
+	@Test
+	public void testValidatorsDoNotShareResults() throws Exception {
+		breakSegmentation();
+		DatasetValidator broken = new DatasetValidator();
+		assertFalse(broken.validate(d));
+
+		DatasetValidator single = new DatasetValidator();
+		assertTrue(single.validate(d.getCollection().getCells().get(0)));
+		assertFalse(broken.getErrors().isEmpty());
+	}
+}
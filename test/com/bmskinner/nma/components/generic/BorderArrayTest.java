@@ -0,0 +1,155 @@
+package com.bmskinner.nma.components.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the packed border storage. Kernels are compared against the
+ * point-by-point implementations they replace.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class BorderArrayTest {
+
+	private static final int N_POINTS = 300;
+
+	private List<IPoint> points;
+	private BorderArray border;
+	private IPoint centre;
+
+	@Before
+	public void setUp() {
+		// An irregular closed outline around the origin
+		Random rng = new Random(42);
+		points = new ArrayList<>();
+		for (int i = 0; i < N_POINTS; i++) {
+			double theta = 2 * Math.PI * i / N_POINTS;
+			double r = 40 + 10 * Math.sin(3 * theta) + rng.nextDouble();
+			points.add(new FloatPoint(50 + r * Math.cos(theta), 60 + r * Math.sin(theta)));
+		}
+		border = new BorderArray(points);
+		centre = new FloatPoint(50.3, 59.7);
+	}
+
+	@Test
+	public void testViewsMatchSourcePoints() {
+		assertEquals(points, border.asList());
+		assertEquals(border.asList(), points);
+		for (int i = 0; i < N_POINTS; i++)
+			assertEquals(points.get(i).hashCode(), border.get(i).hashCode());
+	}
+
+	@Test
+	public void testViewSeesBorderChanges() {
+		IPoint p = border.get(10);
+		border.set(10, 1, 2);
+		assertEquals(new FloatPoint(1, 2), p);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testViewCannotBeSet() {
+		border.get(10).set((IPoint) new FloatPoint(1, 2));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testViewCannotBeOffset() {
+		border.get(10).offset(1, 1);
+	}
+
+	@Test
+	public void testDuplicateIsDetached() {
+		IPoint p = border.get(0).duplicate();
+		border.offset(5, 5);
+		assertEquals(points.get(0), p);
+	}
+
+	@Test
+	public void testOfReturnsBackingBorderForViews() {
+		assertSame(border, BorderArray.of(border.asList()));
+	}
+
+	@Test
+	public void testFindClosestIndexMatchesPointSearch() {
+		for (IPoint target : List.of(centre, new FloatPoint(0, 0), new FloatPoint(95, 61))) {
+			IPoint exp = points.stream()
+					.min(Comparator.comparing(point -> point.getLengthTo(target))).get();
+			int i = border.findClosestIndex((float) target.getX(), (float) target.getY());
+			assertEquals(exp, border.get(i));
+		}
+	}
+
+	@Test
+	public void testFindOppositeIndexMatchesPointSearch() {
+		for (IPoint p : points) {
+			assertEquals(findOppositeBorder(p), border.get(border.findOppositeIndex(
+					(float) p.getX(), (float) p.getY(),
+					(float) centre.getX(), (float) centre.getY())));
+		}
+	}
+
+	@Test
+	public void testFindOrthogonalIndexMatchesPointSearch() {
+		for (IPoint a : points) {
+			IPoint exp = points.stream()
+					.min(Comparator.comparing(
+							point -> Math.abs(90 - centre.findSmallestAngle(a, point))))
+					.get();
+			assertEquals(exp, border.get(border.findOrthogonalIndex(
+					(float) a.getX(), (float) a.getY(),
+					(float) centre.getX(), (float) centre.getY())));
+		}
+	}
+
+	@Test
+	public void testTransformMatchesPointTransform() {
+		AffineTransform tf = AffineTransform.getRotateInstance(Math.toRadians(-37), centre.getX(),
+				centre.getY());
+		border.transform(tf);
+		for (int i = 0; i < N_POINTS; i++) {
+			Point2D exp = tf.transform(points.get(i).toPoint2D(), null);
+			assertEquals(new FloatPoint(exp), border.get(i));
+		}
+	}
+
+	@Test
+	public void testBoundsContainAllPoints() {
+		for (IPoint p : points)
+			assertTrue(border.getBounds().contains(p.getX(), p.getY())
+					|| p.getX() == border.getBounds().getMaxX()
+					|| p.getY() == border.getBounds().getMaxY());
+	}
+
+	/**
+	 * The point-by-point search replaced by the kernel
+	 */
+	private IPoint findOppositeBorder(IPoint p) {
+		double distToCom = p.getLengthTo(centre);
+		int mini = 0;
+		double l = Double.MAX_VALUE;
+		for (int i = 0; i < points.size(); i++) {
+			IPoint point = points.get(i);
+			double p2p = point.getLengthTo(p);
+			if (p2p <= distToCom)
+				continue;
+			double d = Math.abs(point.getLengthTo(centre) + distToCom - p2p);
+			if (d < l) {
+				l = d;
+				mini = i;
+			}
+		}
+		return points.get(mini);
+	}
+}
@@ -12,6 +12,9 @@ import org.junit.runners.Suite.SuiteClasses;
  */
 @RunWith(Suite.class)
 @SuiteClasses({ 
+	BorderArrayTest.class,
+	PointIndexTest.class,
+	PolygonEdgeTableTest.class,
 	FloatPointTest.class,
 	VersionTest.class })
 public class ComponentGenericTestSuite {
@@ -0,0 +1,108 @@
+package com.bmskinner.nma.components.generic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the KD-tree point index. Queries are compared against exhaustive
+ * searches.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class PointIndexTest {
+
+	private static final int N_POINTS = 500;
+
+	private List<IPoint> points;
+	private PointIndex index;
+	private Random rng;
+
+	@Before
+	public void setUp() {
+		rng = new Random(42);
+		points = new ArrayList<>();
+		for (int i = 0; i < N_POINTS; i++) {
+			// Include repeated coordinates to test ties
+			if (i % 10 == 9)
+				points.add(points.get(rng.nextInt(i)).duplicate());
+			else
+				points.add(new FloatPoint(rng.nextInt(200) + rng.nextFloat(),
+						rng.nextInt(100) + (i % 3 == 0 ? 0 : rng.nextFloat())));
+		}
+		index = new PointIndex(points);
+	}
+
+	@Test
+	public void testNearestMatchesExhaustiveSearch() {
+		for (int k = 0; k < 1000; k++) {
+			IPoint q = randomPoint();
+			assertEquals(findNearest(q, null), index.nearest(q));
+		}
+		for (IPoint q : points)
+			assertEquals(findNearest(q, null), index.nearest(q));
+	}
+
+	@Test
+	public void testNearestSkipsExcludedPoints() {
+		boolean[] excluded = new boolean[N_POINTS];
+		for (int i = 0; i < N_POINTS; i++)
+			excluded[i] = rng.nextBoolean();
+
+		for (int k = 0; k < 1000; k++) {
+			IPoint q = randomPoint();
+			assertEquals(findNearest(q, excluded), index.nearest(q, excluded));
+		}
+	}
+
+	@Test
+	public void testNearestInEmptyIndex() {
+		assertEquals(-1, new PointIndex(List.of()).nearest(randomPoint()));
+	}
+
+	@Test
+	public void testWithinRadiusMatchesExhaustiveSearch() {
+		for (int k = 0; k < 500; k++) {
+			IPoint q = randomPoint();
+			double radius = rng.nextDouble() * 30;
+			int[] exp = IntStream.range(0, N_POINTS)
+					.filter(i -> points.get(i).getLengthTo(q) <= radius).toArray();
+			assertArrayEquals(exp, index.withinRadius(q, radius));
+		}
+	}
+
+	@Test
+	public void testDistanceMatchesPointDistance() {
+		IPoint q = randomPoint();
+		for (int i = 0; i < N_POINTS; i++)
+			assertEquals(q.getLengthTo(points.get(i)), index.distance(i, q), 0);
+	}
+
+	private IPoint randomPoint() {
+		return new FloatPoint(rng.nextFloat() * 220 - 10, rng.nextFloat() * 120 - 10);
+	}
+
+	private int findNearest(IPoint q, boolean[] excluded) {
+		int best = -1;
+		double bestDistance = Double.MAX_VALUE;
+		for (int i = 0; i < N_POINTS; i++) {
+			if (excluded != null && excluded[i])
+				continue;
+			double d = q.getLengthTo(points.get(i));
+			if (d < bestDistance) {
+				bestDistance = d;
+				best = i;
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,84 @@
+package com.bmskinner.nma.components.generic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Path2D;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ij.process.FloatPolygon;
+
+/**
+ * Tests for the point-in-polygon edge table and mask. Results are compared
+ * against the shapes they replace.
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class PolygonEdgeTableTest {
+
+	private static final int N_POINTS = 200;
+
+	private BorderArray border;
+	private PolygonEdgeTable table;
+
+	@Before
+	public void setUp() {
+		// An irregular outline with vertices on integer and fractional positions
+		Random rng = new Random(42);
+		float[] xs = new float[N_POINTS];
+		float[] ys = new float[N_POINTS];
+		for (int i = 0; i < N_POINTS; i++) {
+			double theta = 2 * Math.PI * i / N_POINTS;
+			double r = 20 + 6 * Math.sin(3 * theta) + rng.nextDouble();
+			xs[i] = (float) (30 + r * Math.cos(theta));
+			ys[i] = (float) (25 + r * Math.sin(theta));
+			if (i % 5 == 0) {
+				xs[i] = Math.round(xs[i]);
+				ys[i] = Math.round(ys[i]);
+			}
+		}
+		border = new BorderArray(xs, ys, N_POINTS);
+		table = border.toEdgeTable();
+	}
+
+	@Test
+	public void testContainsMatchesPath() {
+		Path2D path = border.toPath(0, 0, 1);
+		for (double x = 0; x < 60; x += 0.25)
+			for (double y = 0; y < 55; y += 0.25)
+				assertEquals(path.contains(x, y), table.contains(x, y));
+	}
+
+	@Test
+	public void testContainsEvenOddMatchesPolygon() {
+		FloatPolygon polygon = border.toPolygon(0, 0);
+		for (float x = 0; x < 60; x += 0.25f)
+			for (float y = 0; y < 55; y += 0.25f)
+				assertEquals(polygon.contains(x, y), table.containsEvenOdd(x, y));
+	}
+
+	@Test
+	public void testOffsetTableMatchesOffsetPolygon() {
+		FloatPolygon polygon = border.toPolygon(1.7f, -3.2f);
+		PolygonEdgeTable offset = border.toEdgeTable(1.7f, -3.2f);
+		for (float x = 0; x < 60; x += 0.25f)
+			for (float y = -5; y < 55; y += 0.25f)
+				assertEquals(polygon.contains(x, y), offset.containsEvenOdd(x, y));
+	}
+
+	@Test
+	public void testMaskMatchesTable() {
+		PolygonMask nonZero = new PolygonMask(table, false);
+		PolygonMask evenOdd = new PolygonMask(table, true);
+		for (int x = -5; x < 65; x++) {
+			for (int y = -5; y < 60; y++) {
+				assertEquals(table.contains(x, y), nonZero.contains(x, y));
+				assertEquals(table.containsEvenOdd(x, y), evenOdd.contains(x, y));
+			}
+		}
+	}
+}
@@ -5,7 +5,8 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ DoubleEquationTest.class, FloatEquationTest.class })
+@SuiteClasses({ DoubleEquationTest.class, FloatEquationTest.class,
+		MeasurementCacheTest.class })
 public class ComponentMeasureTestSuite {
 
 }
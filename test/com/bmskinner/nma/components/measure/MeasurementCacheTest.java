@@ -0,0 +1,102 @@
+package com.bmskinner.nma.components.measure;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bmskinner.nma.components.cells.CellularComponent;
+import com.bmskinner.nma.stats.Stats;
+
+/**
+ * Tests for the columnar measurement cache
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class MeasurementCacheTest {
+
+	private static final String NUCLEUS = CellularComponent.NUCLEUS;
+	private static final String SEGMENT = CellularComponent.NUCLEAR_BORDER_SEGMENT;
+
+	private MeasurementCache cache;
+	private double[] values;
+
+	@Before
+	public void setUp() {
+		cache = new MeasurementCache();
+		Random rng = new Random(42);
+		values = new double[101];
+		for (int i = 0; i < values.length; i++)
+			values[i] = rng.nextGaussian() * 10;
+		cache.set(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null, values);
+	}
+
+	@Test
+	public void testValuesAreReturnedInOrder() throws Exception {
+		assertArrayEquals(values,
+				cache.getValues(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null), 0);
+	}
+
+	@Test
+	public void testSortedValuesMatchSortedInput() throws Exception {
+		double[] exp = values.clone();
+		Arrays.sort(exp);
+		assertArrayEquals(exp,
+				cache.getSortedValues(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null),
+				0);
+	}
+
+	@Test
+	public void testSummaryValuesMatchStats() throws Exception {
+		assertEquals(Stats.quartile(values, Stats.MEDIAN),
+				cache.getMedian(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null), 0);
+		assertEquals(Arrays.stream(values).min().getAsDouble(),
+				cache.getMin(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null), 0);
+		assertEquals(Arrays.stream(values).max().getAsDouble(),
+				cache.getMax(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null), 0);
+	}
+
+	@Test
+	public void testReturnedValuesCannotChangeCache() throws Exception {
+		double[] sorted = cache.getSortedValues(Measurement.AREA, NUCLEUS,
+				MeasurementScale.PIXELS, null);
+		Arrays.fill(sorted, 0);
+		double[] raw = cache.getValues(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null);
+		Arrays.fill(raw, 0);
+		assertArrayEquals(values,
+				cache.getValues(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null), 0);
+		assertEquals(Stats.quartile(values, Stats.MEDIAN),
+				cache.getMedian(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null), 0);
+	}
+
+	@Test(expected = MissingMeasurementException.class)
+	public void testMissingColumnThrowsException() throws Exception {
+		cache.getMedian(Measurement.AREA, NUCLEUS, MeasurementScale.MICRONS, null);
+	}
+
+	@Test
+	public void testClearComponentOnlyRemovesComponent() {
+		UUID id = UUID.randomUUID();
+		cache.set(Measurement.PERIMETER, SEGMENT, MeasurementScale.PIXELS, id, values.clone());
+		cache.clear(SEGMENT);
+		assertFalse(cache.has(Measurement.PERIMETER, SEGMENT, MeasurementScale.PIXELS, id));
+		assertTrue(cache.has(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null));
+	}
+
+	@Test
+	public void testClearScaleOnlyRemovesScale() {
+		cache.set(Measurement.AREA, NUCLEUS, MeasurementScale.MICRONS, null, values.clone());
+		cache.clear(MeasurementScale.MICRONS);
+		assertFalse(cache.has(Measurement.AREA, NUCLEUS, MeasurementScale.MICRONS, null));
+		assertTrue(cache.has(Measurement.AREA, NUCLEUS, MeasurementScale.PIXELS, null));
+	}
+}
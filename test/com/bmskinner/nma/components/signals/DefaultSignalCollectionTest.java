@@ -3,6 +3,9 @@ package com.bmskinner.nma.components.signals;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import org.jdom2.Element;
 import org.jdom2.output.Format;
@@ -12,7 +15,10 @@ import org.junit.Test;
 
 import com.bmskinner.nma.ComponentTester;
 import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.components.TestComponentFactory;
+import com.bmskinner.nma.components.cells.Nucleus;
 import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.measure.MeasurementScale;
 import com.bmskinner.nma.components.rules.RuleSetCollection;
 
 /**
@@ -26,10 +32,11 @@ public class DefaultSignalCollectionTest extends ComponentTester {
 
 	private static final int N_CELLS = 1;
 
+	private IAnalysisDataset d;
 	private ISignalCollection collection;	
 	@Before
 	public void setUp() throws Exception {
-		IAnalysisDataset d = new TestDatasetBuilder(RNG_SEED).cellCount(N_CELLS)
+		d = new TestDatasetBuilder(RNG_SEED).cellCount(N_CELLS)
 				.ofType(RuleSetCollection.roundRuleSetCollection())
 				.withMaxSizeVariation(10)
 				.randomOffsetProfiles(true)
@@ -46,6 +53,77 @@ public class DefaultSignalCollectionTest extends ComponentTester {
 		testDuplicatesByField("Signal collection", dup.duplicate(), dup);
 	}
 	
+	@Test
+	public void testSignalColocalisationMatchesPairwiseSearch() throws Exception {
+		addSignals();
+
+		for (PairwiseSignalDistanceValue v : collection
+				.calculateSignalColocalisation(MeasurementScale.PIXELS)) {
+			double smallest = Double.MAX_VALUE;
+			for (INuclearSignal s1 : collection.getSignals(v.getGroup1()))
+				for (INuclearSignal s2 : collection.getSignals(v.getGroup2()))
+					smallest = Math.min(smallest,
+							s1.getCentreOfMass().getLengthTo(s2.getCentreOfMass()));
+			assertEquals(smallest, v.getValue(), 0);
+		}
+	}
+
+	@Test
+	public void testColocalisationMatchesPairwiseSearch() throws Exception {
+		addSignals();
+
+		List<Colocalisation<INuclearSignal>> coloc = collection
+				.calculateColocalisation(TestDatasetBuilder.RED_SIGNAL_GROUP,
+						TestDatasetBuilder.GREEN_SIGNAL_GROUP);
+
+		// Repeatedly take the closest remaining pair
+		List<INuclearSignal> d1 = new ArrayList<>(
+				collection.getSignals(TestDatasetBuilder.RED_SIGNAL_GROUP));
+		List<INuclearSignal> d2 = new ArrayList<>(
+				collection.getSignals(TestDatasetBuilder.GREEN_SIGNAL_GROUP));
+		List<Double> exp = new ArrayList<>();
+		while (!d1.isEmpty() && !d2.isEmpty()) {
+			INuclearSignal chosen1 = null;
+			INuclearSignal chosen2 = null;
+			double smallest = Double.MAX_VALUE;
+			for (INuclearSignal s1 : d1) {
+				for (INuclearSignal s2 : d2) {
+					double d = s1.getCentreOfMass().getLengthTo(s2.getCentreOfMass());
+					if (d < smallest) {
+						smallest = d;
+						chosen1 = s1;
+						chosen2 = s2;
+					}
+				}
+			}
+			d1.remove(chosen1);
+			d2.remove(chosen2);
+			exp.add(smallest);
+		}
+
+		assertEquals(exp.size(), coloc.size());
+		for (int i = 0; i < exp.size(); i++)
+			assertEquals(exp.get(i), coloc.get(i).getDistance(MeasurementScale.PIXELS), 0);
+	}
+
+	/**
+	 * Add more signals at random positions to each group
+	 */
+	private void addSignals() {
+		Random rng = new Random(RNG_SEED);
+		Nucleus n = d.getCollection().getNuclei().get(0);
+		for (int i = 0; i < 6; i++) {
+			INuclearSignal s = TestComponentFactory.createSignal(n, 0.1, 0);
+			s.offset(rng.nextInt(40) - 20, rng.nextInt(40) - 20);
+			collection.addSignal(s, TestDatasetBuilder.RED_SIGNAL_GROUP);
+		}
+		for (int i = 0; i < 4; i++) {
+			INuclearSignal s = TestComponentFactory.createSignal(n, 0.1, 1);
+			s.offset(rng.nextInt(40) - 20, rng.nextInt(40) - 20);
+			collection.addSignal(s, TestDatasetBuilder.GREEN_SIGNAL_GROUP);
+		}
+	}
+
 	@Test
 	public void testXmlSerializes() throws IOException {
 
@@ -0,0 +1,11 @@
+package com.bmskinner.nma.core;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@RunWith(Suite.class)
+@SuiteClasses({ ThreadManagerTest.class })
+public class CoreTestSuite {
+
+}
@@ -0,0 +1,162 @@
+package com.bmskinner.nma.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ThreadManagerTest {
+
+	private ThreadManager tm;
+
+	@Before
+	public void setUp() {
+		tm = ThreadManager.getInstance();
+		tm.resetMetrics();
+	}
+
+	@Test
+	public void testTokenIsAvailableToRunningTask() throws Exception {
+		CancellationToken token = new CancellationToken();
+		AtomicReference<CancellationToken> seen = new AtomicReference<>();
+		tm.submit(() -> seen.set(CancellationToken.current()), TaskPriority.ANALYSIS, token)
+				.get(5, TimeUnit.SECONDS);
+		assertSame(token, seen.get());
+	}
+
+	@Test
+	public void testTokenIsNotSetOutsideTask() {
+		assertSame(CancellationToken.NONE, CancellationToken.current());
+	}
+
+	@Test
+	public void testCancelledTaskDoesNotRun() throws Exception {
+		CountDownLatch blocker = new CountDownLatch(1);
+		CountDownLatch blocked = new CountDownLatch(1);
+
+		// Fill the single background thread so the next task waits in the queue
+		Future<?> f = tm.submit(() -> {
+			blocked.countDown();
+			try {
+				blocker.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, TaskPriority.BACKGROUND);
+
+		// Make sure all background threads are occupied
+		Future<?> f2 = tm.submit(() -> {
+			try {
+				blocker.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, TaskPriority.BACKGROUND);
+
+		blocked.await(5, TimeUnit.SECONDS);
+
+		AtomicBoolean ran = new AtomicBoolean(false);
+		CancellationToken token = new CancellationToken();
+		Future<?> queued = tm.submit(() -> ran.set(true), TaskPriority.BACKGROUND, token);
+		token.cancel();
+		blocker.countDown();
+		f.get(5, TimeUnit.SECONDS);
+		f2.get(5, TimeUnit.SECONDS);
+
+		// Wait for the queue to drain
+		while (tm.getMetrics(TaskPriority.BACKGROUND).queued() > 0)
+			Thread.sleep(10);
+
+		assertFalse(ran.get());
+		assertTrue(queued.isCancelled());
+		assertEquals(1, tm.getMetrics(TaskPriority.BACKGROUND).cancelledQueued());
+	}
+
+	@Test
+	public void testCancellingFutureCancelsToken() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CancellationToken token = new CancellationToken();
+		Future<?> f = tm.submit(() -> {
+			started.countDown();
+			while (!CancellationToken.current().isCancelled())
+				Thread.onSpinWait();
+		}, TaskPriority.ANALYSIS, token);
+
+		started.await(5, TimeUnit.SECONDS);
+		f.cancel(false);
+		assertTrue(token.isCancelled());
+	}
+
+	@Test
+	public void testMetricsRecordCompletedTasks() throws Exception {
+		for (int i = 0; i < 10; i++)
+			tm.submit(() -> {
+			}, TaskPriority.INTERACTIVE).get(5, TimeUnit.SECONDS);
+
+		// Metrics are updated after the future completes
+		Thread.sleep(50);
+		TaskMetrics.Snapshot s = tm.getMetrics(TaskPriority.INTERACTIVE);
+		assertEquals(10, s.submitted());
+		assertEquals(10, s.completed());
+		assertEquals(0, s.queued());
+		assertEquals(0, s.running());
+	}
+
+	@Test
+	public void testFailedCallableReturnsNull() throws Exception {
+		Future<Object> f = tm.submit(() -> {
+			throw new IllegalStateException("Expected test failure");
+		}, TaskPriority.ANALYSIS, new CancellationToken());
+		assertNull(f.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testExecutedTaskFailureIsLoggedVisibly() throws Exception {
+		CountDownLatch logged = new CountDownLatch(1);
+		AtomicReference<Level> level = new AtomicReference<>();
+		Logger logger = Logger.getLogger(ThreadManager.class.getName());
+		Handler h = new Handler() {
+			@Override
+			public void publish(LogRecord r) {
+				if (r.getThrown() instanceof IllegalStateException) {
+					level.set(r.getLevel());
+					logged.countDown();
+				}
+			}
+
+			@Override
+			public void flush() {
+				// nothing to flush
+			}
+
+			@Override
+			public void close() {
+				// nothing to close
+			}
+		};
+		logger.addHandler(h);
+		try {
+			tm.execute(() -> {
+				throw new IllegalStateException("Expected test failure");
+			}, TaskPriority.ANALYSIS);
+			assertTrue(logged.await(5, TimeUnit.SECONDS));
+			assertEquals(Level.SEVERE, level.get());
+		} finally {
+			logger.removeHandler(h);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.bmskinner.nma.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.bmskinner.nma.io.XMLReader.XMLReadingException;
+
+/**
+ * Tests for the safe dataset file writer
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class DatasetFileWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Create a document with the given number of children, each with some text
+	 */
+	private Document createDocument(String name, int children) {
+		Element root = new Element("Test").setAttribute("name", name);
+		for (int i = 0; i < children; i++)
+			root.addContent(new Element("Child").setAttribute("i", String.valueOf(i))
+					.setText("Value " + Math.sqrt(i)));
+		return new Document(root);
+	}
+
+	@Test
+	public void testUncompressedFileIsReadBack() throws Exception {
+		testFileIsReadBack(false, 100);
+	}
+
+	@Test
+	public void testCompressedFileIsReadBack() throws Exception {
+		testFileIsReadBack(true, 100);
+	}
+
+	@Test
+	public void testCompressedFileWithManyBlocksIsReadBack() throws Exception {
+		testFileIsReadBack(true, 200000);
+	}
+
+	private void testFileIsReadBack(boolean compress, int children) throws Exception {
+		File f = new File(folder.getRoot(), "test.nmd");
+		Document exp = createDocument("a", children);
+		DatasetFileWriter.write(exp, f, compress, null);
+
+		try (InputStream is = Files.newInputStream(f.toPath())) {
+			int first = is.read();
+			assertEquals("File compression", compress, first == 0x1f);
+		}
+
+		Document obs = XMLReader.readDocument(f);
+		List<Element> expChildren = new ArrayList<>(exp.getRootElement().getChildren());
+		List<Element> obsChildren = new ArrayList<>(obs.getRootElement().getChildren());
+		assertEquals(expChildren.size(), obsChildren.size());
+		for (int i = 0; i < children; i++)
+			assertEquals(expChildren.get(i).getText(), obsChildren.get(i).getText());
+	}
+
+	@Test
+	public void testRootElementNameIsReadFromCompressedFile() throws Exception {
+		File f = new File(folder.getRoot(), "test.nmd");
+		DatasetFileWriter.write(createDocument("a", 10), f, true, null);
+		assertEquals("Test", XMLReader.readRootElementName(f));
+	}
+
+	@Test
+	public void testBackupsAreRotated() throws Exception {
+		File f = new File(folder.getRoot(), "test.nmd");
+		for (int i = 0; i < 5; i++)
+			DatasetFileWriter.write(createDocument("v" + i, 10), f, true, null);
+
+		assertEquals("v4", XMLReader.readDocument(f).getRootElement().getAttributeValue("name"));
+		for (int i = 0; i < DatasetFileWriter.MAX_BACKUPS; i++) {
+			File backup = DatasetFileWriter.getBackupFile(f, i);
+			assertEquals("v" + (3 - i), XMLReader.readDocument(backup).getRootElement()
+					.getAttributeValue("name"));
+		}
+		assertFalse(DatasetFileWriter.getBackupFile(f, DatasetFileWriter.MAX_BACKUPS).exists());
+
+		// Only the file and its backups remain
+		assertEquals(1 + DatasetFileWriter.MAX_BACKUPS, folder.getRoot().list().length);
+	}
+
+	@Test
+	public void testBackupNameReplacesExtension() {
+		File f = new File(folder.getRoot(), "test.nmd");
+		assertEquals("test.bak", DatasetFileWriter.getBackupFile(f, 0).getName());
+		assertEquals("test.2.bak", DatasetFileWriter.getBackupFile(f, 2).getName());
+	}
+
+	@Test
+	public void testChangedFileFailsChecksum() throws Exception {
+		File f = new File(folder.getRoot(), "test.nmd");
+		DatasetFileWriter.write(createDocument("abc", 10), f, false, null);
+
+		String content = Files.readString(f.toPath(), StandardCharsets.UTF_8);
+		Files.writeString(f.toPath(), content.replace("abc", "abd"), StandardCharsets.UTF_8);
+
+		try {
+			XMLReader.readDocument(f);
+		} catch (XMLReadingException e) {
+			return;
+		}
+		assertTrue("Changed file should not be read", false);
+	}
+
+	@Test
+	public void testFileWithoutChecksumIsRead() throws Exception {
+		File f = new File(folder.getRoot(), "test.xml");
+		XMLWriter.writeXML(createDocument("abc", 10), f);
+		assertEquals("abc", XMLReader.readDocument(f).getRootElement().getAttributeValue("name"));
+	}
+}
@@ -0,0 +1,78 @@
+package com.bmskinner.nma.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.jdom2.Document;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.profiles.ProfileType;
+import com.bmskinner.nma.components.rules.OrientationMark;
+import com.bmskinner.nma.components.rules.RuleSetCollection;
+import com.bmskinner.nma.stats.Stats;
+
+/**
+ * Tests that streamed datasets match datasets read from a document
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class DatasetStreamReaderTest {
+
+	/** A saved mouse dataset with clusters, kept as a fixed sample */
+	private static final File FIXTURE = new File(
+			"test/samples/datasets/Mouse_with_clusters_source.nmd");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testStreamedDatasetMatchesDocument() throws Exception {
+		testStreamedDatasetMatchesDocument(FIXTURE);
+	}
+
+	/**
+	 * Datasets are saved without whitespace between elements, so each element
+	 * ends directly before the next begins
+	 */
+	@Test
+	public void testStreamedUnindentedDatasetMatchesDocument() throws Exception {
+		IAnalysisDataset d = new TestDatasetBuilder(1234).cellCount(10)
+				.ofType(RuleSetCollection.mouseSpermRuleSetCollection())
+				.numberOfClusters(2)
+				.segmented().build();
+		File f = new File(folder.getRoot(), "test.nmd");
+		DatasetFileWriter.write(new Document(d.toXmlElement()), f, false, null);
+		testStreamedDatasetMatchesDocument(f);
+	}
+
+	private void testStreamedDatasetMatchesDocument(File f) throws Exception {
+		IAnalysisDataset exp = SampleDatasetReader.openDataset(f);
+		IAnalysisDataset obs = new DatasetImportMethod(f).call().getFirstDataset();
+
+		assertEquals(exp.getCollection().getCells(), obs.getCollection().getCells());
+		assertEquals(exp.getAllChildUUIDs(), obs.getAllChildUUIDs());
+		assertEquals(exp.getCollection().getProfileCollection()
+				.getSegmentedProfile(ProfileType.ANGLE, OrientationMark.REFERENCE, Stats.MEDIAN),
+				obs.getCollection().getProfileCollection()
+						.getSegmentedProfile(ProfileType.ANGLE, OrientationMark.REFERENCE,
+								Stats.MEDIAN));
+		assertEquals(exp, obs);
+	}
+
+	@Test(expected = XMLReader.XMLReadingException.class)
+	public void testNonDatasetFileIsRejected() throws Exception {
+		File f = new File(folder.getRoot(), "Example.wrk");
+		Files.writeString(f.toPath(), "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Workspace />",
+				StandardCharsets.UTF_8);
+		new DatasetStreamReader(f, null).read();
+	}
+}
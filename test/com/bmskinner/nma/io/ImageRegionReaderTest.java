@@ -0,0 +1,165 @@
+package com.bmskinner.nma.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.bmskinner.nma.TestResources;
+import com.bmskinner.nma.components.cells.ICell;
+import com.bmskinner.nma.components.cells.Nucleus;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.visualisation.image.ImageFilterer;
+
+import ij.ImagePlus;
+import ij.io.FileInfo;
+import ij.io.FileSaver;
+import ij.io.TiffEncoder;
+import ij.process.ByteProcessor;
+import ij.process.ImageProcessor;
+import ij.process.ShortProcessor;
+
+/**
+ * Tests that image regions match the same region cropped from the full image
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class ImageRegionReaderTest {
+
+	private static final int WIDTH = 301;
+	private static final int HEIGHT = 207;
+
+	/** Regions inside, on the edges of, and partly outside the test images */
+	private static final Rectangle[] REGIONS = { new Rectangle(10, 20, 50, 40),
+			new Rectangle(0, 0, 30, 30), new Rectangle(WIDTH - 25, HEIGHT - 15, 60, 60),
+			new Rectangle(0, 0, WIDTH, HEIGHT) };
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRGBNucleusRegionsMatchFullImage() throws Exception {
+		IAnalysisDataset d = SampleDatasetReader.openDataset(TestResources.MOUSE_TEST_DATASET);
+		List<ICell> cells = d.getCollection().getCells().stream().limit(5).toList();
+
+		for (ICell cell : cells) {
+			Nucleus n = cell.getPrimaryNucleus();
+			File f = n.getSourceFile();
+			assertTrue("Source image should exist: " + f, f.exists());
+			Rectangle r = ImageFilterer.getCropBounds(n);
+
+			for (int channel = 0; channel < 3; channel++) {
+				ImageProcessor exp = ImageFilterer.crop(ImageImporter.importImage(f, channel), n);
+				ImageProcessor obs = ImageRegionReader.readChannel(f, channel, r).orElseThrow();
+				assertPixelsEqual(exp, obs);
+			}
+
+			assertPixelsEqual(ImageFilterer.crop(ImageImporter.importFileTo24bit(f), n),
+					ImageRegionReader.readRGB(f, r).orElseThrow());
+			assertPixelsEqual(ImageFilterer.crop(ImageImporter.importFullImageTo24bitGreyscale(n), n),
+					ImageImporter.importCroppedImageTo24bitGreyscale(n));
+		}
+	}
+
+	@Test
+	public void test8bitRegionsMatchFullImage() throws Exception {
+		ByteProcessor ip = new ByteProcessor(WIDTH, HEIGHT);
+		fillRandom(ip, 255);
+		File f = write(ip, "grey8.tiff");
+		testRegionsMatchFullImage(f);
+	}
+
+	@Test
+	public void test16bitRegionsMatchFullImage() throws Exception {
+		ShortProcessor ip = new ShortProcessor(WIDTH, HEIGHT);
+		fillRandom(ip, 4000);
+		ip.set(5, 5, 100);
+		File f = write(ip, "grey16.tiff");
+		testRegionsMatchFullImage(f);
+	}
+
+	@Test
+	public void test16bitRegionsWithDisplayRangeMatchFullImage() throws Exception {
+		ShortProcessor ip = new ShortProcessor(WIDTH, HEIGHT);
+		fillRandom(ip, 4000);
+		ip.setMinAndMax(500, 3000);
+		File f = new File(folder.getRoot(), "range16.tiff");
+		assertTrue(new FileSaver(new ImagePlus("range", ip)).saveAsTiff(f.getAbsolutePath()));
+		testRegionsMatchFullImage(f);
+	}
+
+	@Test
+	public void testRegionOutsideImageIsEmpty() throws Exception {
+		ByteProcessor ip = new ByteProcessor(WIDTH, HEIGHT);
+		File f = write(ip, "grey8.tiff");
+		assertFalse(ImageRegionReader
+				.readChannel(f, ImageImporter.RGB_BLUE, new Rectangle(WIDTH + 10, 0, 10, 10))
+				.isPresent());
+	}
+
+	@Test
+	public void testSignalChannelOfGreyscaleImageIsEmpty() throws Exception {
+		ByteProcessor ip = new ByteProcessor(WIDTH, HEIGHT);
+		File f = write(ip, "grey8.tiff");
+		assertFalse(ImageRegionReader.readChannel(f, ImageImporter.RGB_RED, REGIONS[0]).isPresent());
+	}
+
+	@Test
+	public void testNonTiffIsEmpty() throws Exception {
+		File f = new File(folder.getRoot(), "grey8.png");
+		ByteProcessor ip = new ByteProcessor(WIDTH, HEIGHT);
+		assertTrue(new FileSaver(new ImagePlus("png", ip)).saveAsPng(f.getAbsolutePath()));
+		assertFalse(ImageRegionReader.readChannel(f, ImageImporter.RGB_BLUE, REGIONS[0]).isPresent());
+	}
+
+	private void testRegionsMatchFullImage(File f) throws Exception {
+		ImageProcessor full = ImageImporter.importImage(f, ImageImporter.RGB_BLUE);
+		for (Rectangle r : REGIONS) {
+			full.setRoi(r);
+			ImageProcessor exp = full.crop();
+			ImageProcessor obs = ImageRegionReader.readChannel(f, ImageImporter.RGB_BLUE, r)
+					.orElseThrow();
+			assertPixelsEqual(exp, obs);
+		}
+	}
+
+	private void assertPixelsEqual(ImageProcessor exp, ImageProcessor obs) {
+		assertEquals("Width", exp.getWidth(), obs.getWidth());
+		assertEquals("Height", exp.getHeight(), obs.getHeight());
+		assertEquals("Bit depth", exp.getBitDepth(), obs.getBitDepth());
+		for (int x = 0; x < exp.getWidth(); x++)
+			for (int y = 0; y < exp.getHeight(); y++)
+				assertEquals("Pixel at " + x + ", " + y, exp.get(x, y), obs.get(x, y));
+	}
+
+	private void fillRandom(ImageProcessor ip, int max) {
+		Random rng = new Random(1234);
+		for (int i = 0; i < ip.getPixelCount(); i++)
+			ip.set(i, rng.nextInt(max));
+	}
+
+	/**
+	 * Write an image as a TIFF without an ImageJ description
+	 */
+	private File write(ImageProcessor ip, String name) throws Exception {
+		File f = new File(folder.getRoot(), name);
+		FileInfo fi = new ImagePlus(name, ip).getFileInfo();
+		fi.description = null;
+		try (OutputStream os = new FileOutputStream(f)) {
+			new TiffEncoder(fi).write(os);
+		}
+		return f;
+	}
+}
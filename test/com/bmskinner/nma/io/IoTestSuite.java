@@ -18,9 +18,12 @@ import com.bmskinner.nma.io.xml.IoXmlTestSuite;
 @SuiteClasses({
 		IoConversionTestSuite.class,
 		ImageImporterTest.class,
+		ImageRegionReaderTest.class,
 		DatasetOutlinesExporterTest.class,
 		IoXmlTestSuite.class,
+		DatasetFileWriterTest.class,
 		DatasetMergeTest.class,
+		DatasetStreamReaderTest.class,
 		DatasetStatsExporterTest.class,
 		UpdateCheckerTest.class,
 		WorkspaceExporterTest.class,
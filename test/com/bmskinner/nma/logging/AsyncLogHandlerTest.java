@@ -0,0 +1,168 @@
+package com.bmskinner.nma.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.junit.Test;
+
+import com.bmskinner.nma.logging.AsyncLogHandler.BatchPublisher;
+
+/**
+ * Tests for the asynchronous log handler
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class AsyncLogHandlerTest {
+
+	/**
+	 * Collects published records, optionally waiting before publishing
+	 */
+	private static class CollectingHandler extends Handler {
+		final List<LogRecord> records = Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch release;
+		volatile boolean isClosed = false;
+
+		CollectingHandler(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void publish(LogRecord record) {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			records.add(record);
+		}
+
+		@Override
+		public void flush() {
+			// nothing buffered
+		}
+
+		@Override
+		public void close() {
+			isClosed = true;
+		}
+	}
+
+	private static class BatchCollectingHandler extends CollectingHandler
+			implements BatchPublisher {
+		final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+		BatchCollectingHandler() {
+			super(new CountDownLatch(0));
+		}
+
+		@Override
+		public void publish(@NonNull List<LogRecord> batch) {
+			batchSizes.add(batch.size());
+			records.addAll(batch);
+		}
+	}
+
+	@Test
+	public void testRecordsArePublishedInOrderOnClose() {
+		CollectingHandler target = new CollectingHandler(new CountDownLatch(0));
+		AsyncLogHandler handler = new AsyncLogHandler(target);
+		for (int i = 0; i < 100; i++)
+			handler.publish(new LogRecord(Level.INFO, String.valueOf(i)));
+		handler.close();
+
+		assertEquals(100, target.records.size());
+		for (int i = 0; i < 100; i++)
+			assertEquals(String.valueOf(i), target.records.get(i).getMessage());
+		assertEquals(100, handler.getPublishedCount());
+		assertEquals(0, handler.getDroppedCount());
+		assertTrue(target.isClosed);
+	}
+
+	@Test
+	public void testRecordsArePublishedWithoutClosing() throws Exception {
+		CollectingHandler target = new CollectingHandler(new CountDownLatch(0));
+		AsyncLogHandler handler = new AsyncLogHandler(target);
+		handler.publish(new LogRecord(Level.INFO, "Test"));
+
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (target.records.isEmpty() && System.nanoTime() < end)
+			Thread.sleep(5);
+		assertEquals(1, target.records.size());
+		handler.close();
+	}
+
+	@Test
+	public void testRecordsBelowTargetLevelAreNotQueued() {
+		CollectingHandler target = new CollectingHandler(new CountDownLatch(0));
+		target.setLevel(Level.INFO);
+		AsyncLogHandler handler = new AsyncLogHandler(target);
+		handler.publish(new LogRecord(Level.FINE, "Hidden"));
+		handler.publish(new LogRecord(Level.INFO, "Shown"));
+		handler.close();
+
+		assertEquals(1, target.records.size());
+		assertEquals("Shown", target.records.get(0).getMessage());
+	}
+
+	@Test
+	public void testPublishingDoesNotWaitForBlockedTarget() {
+		CountDownLatch release = new CountDownLatch(1);
+		CollectingHandler target = new CollectingHandler(release);
+		AsyncLogHandler handler = new AsyncLogHandler(target, 16);
+
+		// The target blocks, so the buffer fills and further records are dropped
+		for (int i = 0; i < 1000; i++)
+			handler.publish(new LogRecord(Level.INFO, String.valueOf(i)));
+		long dropped = handler.getDroppedCount();
+		assertTrue("Records should be dropped when the buffer is full", dropped > 0);
+
+		release.countDown();
+		handler.close();
+
+		// Drops are reported in warnings after the records that were kept
+		List<LogRecord> warnings = target.records.stream()
+				.filter(r -> r.getLevel() == Level.WARNING).toList();
+		assertFalse(warnings.isEmpty());
+		long reported = warnings.stream()
+				.mapToLong(r -> Long.parseLong(r.getMessage().split(" ")[0])).sum();
+		assertEquals(dropped, reported);
+		assertEquals(1000 - dropped + warnings.size(), target.records.size());
+	}
+
+	@Test
+	public void testBatchPublisherReceivesBatches() {
+		BatchCollectingHandler target = new BatchCollectingHandler();
+		AsyncLogHandler handler = new AsyncLogHandler(target);
+		for (int i = 0; i < 500; i++)
+			handler.publish(new LogRecord(Level.INFO, String.valueOf(i)));
+		handler.close();
+
+		assertEquals(500, target.records.size());
+		int total = target.batchSizes.stream().mapToInt(Integer::intValue).sum();
+		assertEquals(500, total);
+	}
+
+	@Test
+	public void testRecordsAfterCloseAreIgnored() {
+		CollectingHandler target = new CollectingHandler(new CountDownLatch(0));
+		AsyncLogHandler handler = new AsyncLogHandler(target);
+		handler.close();
+		handler.publish(new LogRecord(Level.INFO, "Late"));
+
+		assertTrue(target.records.isEmpty());
+		assertEquals(0, handler.getDroppedCount());
+	}
+}
@@ -0,0 +1,86 @@
+package com.bmskinner.nma.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.bmskinner.nma.TestResources;
+import com.bmskinner.nma.analysis.AbstractAnalysisMethod;
+import com.bmskinner.nma.io.DatasetImportMethod;
+import com.bmskinner.nma.io.ImageImporter;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Tests that program events are captured by flight recordings
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class FlightRecordingTest {
+
+	private static final File MOUSE_IMAGE = new File(TestResources.MOUSE_INPUT_FOLDER,
+			"s60.tiff");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testImageDecodeIsRecorded() throws Exception {
+		File file = folder.newFile("decode.jfr");
+		FlightRecording recording = FlightRecording.start(file);
+		ImageImporter.importToStack(MOUSE_IMAGE);
+		recording.stop();
+
+		List<RecordedEvent> events = readEvents(file, "com.bmskinner.nma.ImageDecode");
+		assertEquals(1, events.size());
+		assertEquals(MOUSE_IMAGE.length(), events.get(0).getLong("fileSize"));
+		assertEquals(MOUSE_IMAGE.getAbsolutePath(), events.get(0).getString("file"));
+	}
+
+	@Test
+	public void testDatasetLoadIsRecorded() throws Exception {
+		File file = folder.newFile("load.jfr");
+		FlightRecording recording = FlightRecording.start(file);
+		AbstractAnalysisMethod.callRecorded(
+				new DatasetImportMethod(TestResources.MOUSE_TEST_DATASET));
+		recording.stop();
+
+		List<RecordedEvent> phases = readEvents(file, "com.bmskinner.nma.DatasetIO");
+		assertTrue(phases.stream().anyMatch(e -> DatasetIOEvent.READ.equals(e.getString("phase"))));
+		assertTrue(
+				phases.stream().anyMatch(e -> DatasetIOEvent.VALIDATE.equals(e.getString("phase"))));
+
+		List<RecordedEvent> methods = readEvents(file, "com.bmskinner.nma.AnalysisMethod");
+		assertEquals(1, methods.size());
+		RecordedEvent method = methods.get(0);
+		assertEquals(DatasetImportMethod.class.getSimpleName(), method.getString("method"));
+		assertTrue(method.getBoolean("succeeded"));
+		assertEquals(1, method.getInt("datasets"));
+		assertTrue(method.getInt("cells") > 0);
+	}
+
+	@Test
+	public void testEventsAreNotRecordedAfterStop() throws Exception {
+		File file = folder.newFile("stopped.jfr");
+		FlightRecording recording = FlightRecording.start(file);
+		recording.stop();
+		ImageImporter.importToStack(MOUSE_IMAGE);
+
+		assertTrue(readEvents(file, "com.bmskinner.nma.ImageDecode").isEmpty());
+	}
+
+	private static List<RecordedEvent> readEvents(File file, String name) throws Exception {
+		return RecordingFile.readAllEvents(file.toPath()).stream()
+				.filter(e -> e.getEventType().getName().equals(name))
+				.toList();
+	}
+}
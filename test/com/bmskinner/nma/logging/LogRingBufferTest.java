@@ -0,0 +1,129 @@
+package com.bmskinner.nma.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for the log ring buffer
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class LogRingBufferTest {
+
+	@Test
+	public void testCapacityIsRoundedToPowerOfTwo() {
+		assertEquals(8, new LogRingBuffer<Integer>(5).capacity());
+		assertEquals(8, new LogRingBuffer<Integer>(8).capacity());
+		assertEquals(1, new LogRingBuffer<Integer>(1).capacity());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroCapacityFails() {
+		new LogRingBuffer<Integer>(0);
+	}
+
+	@Test
+	public void testElementsAreReturnedInOrder() {
+		LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+		assertTrue(buffer.isEmpty());
+		for (int i = 0; i < 3; i++)
+			assertTrue(buffer.offer(i));
+		assertFalse(buffer.isEmpty());
+		for (int i = 0; i < 3; i++)
+			assertEquals(Integer.valueOf(i), buffer.poll());
+		assertNull(buffer.poll());
+		assertTrue(buffer.isEmpty());
+	}
+
+	@Test
+	public void testOfferFailsWhenFull() {
+		LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+		for (int i = 0; i < 4; i++)
+			assertTrue(buffer.offer(i));
+		assertFalse(buffer.offer(4));
+
+		assertEquals(Integer.valueOf(0), buffer.poll());
+		assertTrue("Space is reused once an element is removed", buffer.offer(4));
+		assertFalse(buffer.offer(5));
+	}
+
+	@Test
+	public void testBufferWrapsAround() {
+		LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(buffer.offer(i));
+			assertTrue(buffer.offer(-i));
+			assertEquals(Integer.valueOf(i), buffer.poll());
+			assertEquals(Integer.valueOf(-i), buffer.poll());
+		}
+	}
+
+	@Test
+	public void testDrainToRespectsMaximum() {
+		LogRingBuffer<Integer> buffer = new LogRingBuffer<>(16);
+		for (int i = 0; i < 10; i++)
+			buffer.offer(i);
+
+		List<Integer> target = new ArrayList<>();
+		assertEquals(4, buffer.drainTo(target, 4));
+		assertEquals(List.of(0, 1, 2, 3), target);
+		assertEquals(6, buffer.drainTo(target, 100));
+		assertEquals(10, target.size());
+	}
+
+	@Test
+	public void testConcurrentProducersDeliverEveryAcceptedElement() throws Exception {
+		int producers = 4;
+		int perProducer = 20000;
+		LogRingBuffer<Integer> buffer = new LogRingBuffer<>(64);
+		AtomicInteger accepted = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(producers);
+
+		for (int p = 0; p < producers; p++) {
+			int id = p;
+			Thread t = new Thread(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < perProducer; i++) {
+						if (buffer.offer(id * perProducer + i))
+							accepted.incrementAndGet();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					finished.countDown();
+				}
+			});
+			t.start();
+		}
+
+		// Elements from each producer must arrive in the order offered
+		int[] last = new int[producers];
+		Arrays.fill(last, -1);
+		int received = 0;
+		start.countDown();
+		while (finished.getCount() > 0 || !buffer.isEmpty()) {
+			Integer e = buffer.poll();
+			if (e == null)
+				continue;
+			int id = e / perProducer;
+			assertTrue(e % perProducer > last[id]);
+			last[id] = e % perProducer;
+			received++;
+		}
+		assertEquals(accepted.get(), received);
+	}
+}
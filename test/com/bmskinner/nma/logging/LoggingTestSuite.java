@@ -0,0 +1,11 @@
+package com.bmskinner.nma.logging;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@RunWith(Suite.class)
+@SuiteClasses({ AsyncLogHandlerTest.class, FlightRecordingTest.class, LogRingBufferTest.class })
+public class LoggingTestSuite {
+
+}
@@ -12,7 +12,8 @@ import org.junit.runners.Suite.SuiteClasses;
  */
 @RunWith(Suite.class)
 @SuiteClasses({ 
-	BasicAnalysisPipelineTest.class, 
+	BasicAnalysisPipelineTest.class,
+	MergeFilesPipelineTest.class,
 	SavedOptionsAnalysisPipelineTest.class })
 public class ApiTestSuite {
 
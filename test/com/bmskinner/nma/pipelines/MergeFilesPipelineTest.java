@@ -0,0 +1,60 @@
+package com.bmskinner.nma.pipelines;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom2.Document;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.bmskinner.nma.TestDatasetBuilder;
+import com.bmskinner.nma.analysis.AnalysisMethodException;
+import com.bmskinner.nma.components.datasets.IAnalysisDataset;
+import com.bmskinner.nma.components.rules.RuleSetCollection;
+import com.bmskinner.nma.core.CommandOptions;
+import com.bmskinner.nma.io.DatasetFileWriter;
+
+/**
+ * Test the merge pipeline
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class MergeFilesPipelineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File writeDataset(long seed, RuleSetCollection rsc) throws Exception {
+		IAnalysisDataset d = new TestDatasetBuilder(seed).cellCount(10).ofType(rsc)
+				.segmented().build();
+		File f = new File(folder.getRoot(), "Dataset_" + seed + ".nmd");
+		DatasetFileWriter.write(new Document(d.toXmlElement()), f, false, null);
+		return f;
+	}
+
+	@Test
+	public void testMergeFailsWhenLaterFileHasDifferentRuleset() throws Exception {
+		List<File> sources = new ArrayList<>();
+		sources.add(writeDataset(1, RuleSetCollection.mouseSpermRuleSetCollection()));
+		sources.add(writeDataset(2, RuleSetCollection.mouseSpermRuleSetCollection()));
+		sources.add(writeDataset(3, RuleSetCollection.roundRuleSetCollection()));
+
+		CommandOptions opt = new CommandOptions();
+		opt.mergeSources = sources;
+		opt.output = new File(folder.getRoot(), "Merged.nmd");
+
+		try {
+			new MergeFilesPipeline(opt);
+			fail("Merge should fail");
+		} catch (AnalysisMethodException e) {
+			assertFalse("Merged dataset should not be saved", opt.output.exists());
+		}
+	}
+}
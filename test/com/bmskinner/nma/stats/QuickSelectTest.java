@@ -0,0 +1,72 @@
+package com.bmskinner.nma.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests that quick select matches the full-sort quartiles
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class QuickSelectTest {
+
+	private static final double EPSILON = 1e-9;
+
+	private final Random rng = new Random(1234);
+
+	@Test
+	public void testQuartilesMatchStats() {
+		for (int n = 1; n < 50; n++) {
+			double[] values = rng.doubles(n).toArray();
+			for (int q : new int[] { 1, Stats.LOWER_QUARTILE, Stats.MEDIAN,
+					Stats.UPPER_QUARTILE, 100 }) {
+				double exp = Stats.quartile(values, q);
+				assertEquals(exp, QuickSelect.quartile(values.clone(), n, q), EPSILON);
+			}
+		}
+	}
+
+	@Test
+	public void testQuartilesMatchStatsWithRepeatedValues() {
+		for (int n = 1; n < 50; n++) {
+			double[] values = rng.ints(n, 0, 3).asDoubleStream().toArray();
+			for (int q : new int[] { Stats.LOWER_QUARTILE, Stats.MEDIAN,
+					Stats.UPPER_QUARTILE }) {
+				double exp = Stats.quartile(values, q);
+				assertEquals(exp, QuickSelect.quartile(values.clone(), n, q), EPSILON);
+			}
+		}
+	}
+
+	@Test
+	public void testSelectPlacesValueAtIndex() {
+		float[] values = new float[1000];
+		for (int i = 0; i < values.length; i++)
+			values[i] = rng.nextInt(5);
+		float[] sorted = values.clone();
+		Arrays.sort(sorted);
+
+		for (int k = 0; k < values.length; k += 37) {
+			float[] v = values.clone();
+			assertEquals(sorted[k], QuickSelect.select(v, 0, v.length, k), 0);
+			for (int i = 0; i < k; i++)
+				assertTrue(v[i] <= v[k]);
+			for (int i = k + 1; i < v.length; i++)
+				assertTrue(v[i] >= v[k]);
+		}
+	}
+
+	@Test(timeout = 2000)
+	public void testConstantArrayIsNotQuadratic() {
+		double[] values = new double[2_000_000];
+		Arrays.fill(values, 42);
+		assertEquals(42, QuickSelect.median(values, values.length), 0);
+	}
+}
@@ -0,0 +1,132 @@
+package com.bmskinner.nma.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.stat.inference.MannWhitneyUTest;
+import org.junit.Test;
+
+import com.bmskinner.nma.stats.Stats.WilcoxonRankSumResult;
+
+/**
+ * Tests that the rank sum engine matches the commons-math Mann-Whitney test
+ *
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+public class RankSumEngineTest {
+
+	private static final double EPSILON = 1e-12;
+
+	private final Random rng = new Random(1234);
+
+	/**
+	 * Make a sample of rounded values, so that there are ties within and between
+	 * samples
+	 */
+	private double[] sample(int n, double mean) {
+		double[] result = new double[n];
+		for (int i = 0; i < n; i++)
+			result[i] = Math.round((mean + rng.nextGaussian() * 10) * 2) / 2d;
+		return result;
+	}
+
+	private void assertMatchesCommons(double[] x, double[] y, WilcoxonRankSumResult r) {
+		MannWhitneyUTest test = new MannWhitneyUTest();
+		assertEquals(test.mannWhitneyU(x, y), r.u(), EPSILON);
+		assertEquals(test.mannWhitneyUTest(x, y), r.p(), EPSILON);
+	}
+
+	@Test
+	public void testTiedSamplesMatchCommons() {
+		double[] x = sample(200, 50);
+		double[] y = sample(150, 52);
+		assertMatchesCommons(x, y, new RankSumEngine(List.of(x, y)).test(0, 1));
+	}
+
+	@Test
+	public void testSmallSamplesMatchCommons() {
+		double[] x = { 1, 2, 2, 5 };
+		double[] y = { 2, 3 };
+		assertMatchesCommons(x, y, new RankSumEngine(List.of(x, y)).test(0, 1));
+		assertMatchesCommons(y, x, new RankSumEngine(List.of(x, y)).test(1, 0));
+	}
+
+	@Test
+	public void testIdenticalSamplesMatchCommons() {
+		double[] x = { 3, 3, 3 };
+		double[] y = { 3, 3 };
+		assertMatchesCommons(x, y, new RankSumEngine(List.of(x, y)).test(0, 1));
+	}
+
+	@Test
+	public void testSamplesAreNotModified() {
+		double[] x = { 5, 1, 3 };
+		new RankSumEngine(List.of(x, new double[] { 2 })).test(0, 1);
+		assertEquals(5, x[0], 0);
+		assertEquals(1, x[1], 0);
+		assertEquals(3, x[2], 0);
+	}
+
+	@Test
+	public void testAllPairsMatchCommonsWithCorrection() {
+		List<double[]> samples = new ArrayList<>();
+		for (int i = 0; i < 7; i++)
+			samples.add(sample(50 + i * 10, 50 + i));
+
+		int nComparisons = 21;
+		WilcoxonRankSumResult[][] results = new RankSumEngine(samples)
+				.testAllPairs(nComparisons);
+
+		MannWhitneyUTest test = new MannWhitneyUTest();
+		for (int i = 0; i < samples.size(); i++) {
+			for (int j = 0; j < samples.size(); j++) {
+				if (j <= i) {
+					assertNull(results[i][j]);
+					continue;
+				}
+				double[] x = samples.get(i);
+				double[] y = samples.get(j);
+				assertEquals(test.mannWhitneyU(x, y), results[i][j].u(), EPSILON);
+				double p = Math.min(1, test.mannWhitneyUTest(x, y) * nComparisons);
+				assertEquals(p, results[i][j].p(), EPSILON);
+			}
+		}
+	}
+
+	@Test
+	public void testCorrectionIsLimitedToOne() {
+		assertEquals(0.3, RankSumEngine.correct(0.1, 3), EPSILON);
+		assertEquals(1, RankSumEngine.correct(0.4, 3), 0);
+	}
+
+	@Test
+	public void testNaNGivesNaN() {
+		double[] x = { 1, Double.NaN, 3 };
+		double[] y = { 2, 4 };
+		WilcoxonRankSumResult r = new RankSumEngine(List.of(x, y)).test(0, 1);
+		assertTrue(Double.isNaN(r.u()));
+		assertTrue(Double.isNaN(r.p()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptySampleThrowsException() {
+		new RankSumEngine(List.of(new double[0], new double[] { 1 })).test(0, 1);
+	}
+
+	@Test
+	public void testStatsWilcoxonMatchesCommons() {
+		double[] x = sample(80, 50);
+		double[] y = sample(90, 53);
+		WilcoxonRankSumResult r = Stats.runWilcoxonTest(x, y, 4);
+		MannWhitneyUTest test = new MannWhitneyUTest();
+		assertEquals(test.mannWhitneyU(x, y), r.u(), EPSILON);
+		assertEquals(Math.min(1, test.mannWhitneyUTest(x, y) * 4), r.p(), EPSILON);
+	}
+}
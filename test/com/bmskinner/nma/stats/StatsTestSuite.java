@@ -0,0 +1,18 @@
+package com.bmskinner.nma.stats;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+/**
+ * Runs all test classes in the stats package
+ * 
+ * @author ben
+ * @since 2.2.0
+ *
+ */
+@RunWith(Suite.class)
+@SuiteClasses({ QuickSelectTest.class, RankSumEngineTest.class })
+public class StatsTestSuite {
+
+}